@@ -0,0 +1,68 @@
+package com.calculator.benchmarks;
+
+import java.util.Random;
+
+
+/**
+ * Generates the statements measured by the benchmarks, shaped by the benchmark parameters.
+ * <p>
+ * A statement has {@code length} operands, reading from {@code variableCount} variables named
+ * {@code bench_0}, {@code bench_1}, ... or using literals. The first {@code depth} operations are
+ * parenthesised left to right, e.g. {@code ((bench_3 + 2) * bench_7) - bench_1} for a depth of two,
+ * so the parser and compiler see nested groups. Only {@code +}, {@code -} and {@code *} are used,
+ * so no statement fails with a division by zero.
+ */
+final class BenchmarkStatements {
+
+    private static final String[] OPERATORS = {"+", "-", "*"};
+
+    private BenchmarkStatements() {
+    }
+
+    static String variable(int index) {
+        return "bench_" + index;
+    }
+
+    /**
+     * Generates the right-hand side of a statement.
+     *
+     * @param random the source of operands and operators, seeded for reproducible runs
+     * @param length the number of operands
+     * @param depth the number of nested parenthesised groups
+     * @param variableCount the number of variables operands are drawn from
+     * @return the expression
+     */
+    static String expression(Random random, int length, int depth, int variableCount) {
+        StringBuilder expression = new StringBuilder(operand(random, variableCount));
+        for (int i = 1; i < length; i++) {
+            expression.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ')
+                    .append(operand(random, variableCount));
+            if (i <= depth) {
+                expression.insert(0, '(').append(')');
+            }
+        }
+        return expression.toString();
+    }
+
+    /**
+     * Generates statements assigning to the benchmark variables.
+     *
+     * @param count the number of statements
+     * @param length the number of operands per statement
+     * @param depth the number of nested parenthesised groups per statement
+     * @param variableCount the number of variables read and assigned
+     * @return the statements
+     */
+    static String[] statements(int count, int length, int depth, int variableCount) {
+        Random random = new Random(42);
+        String[] statements = new String[count];
+        for (int i = 0; i < count; i++) {
+            statements[i] = variable(random.nextInt(variableCount)) + " = " + expression(random, length, depth, variableCount);
+        }
+        return statements;
+    }
+
+    private static String operand(Random random, int variableCount) {
+        return random.nextInt(4) == 0 ? Integer.toString(1 + random.nextInt(9)) : variable(random.nextInt(variableCount));
+    }
+}
@@ -0,0 +1,66 @@
+package com.calculator.benchmarks;
+
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.services.ColumnarEvaluator;
+import com.calculator.utils.ExpressionParser;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures evaluating one statement over columns of {@value #ROWS} rows with the {@link ColumnarEvaluator},
+ * with scalar or vector loops, on one thread or split across threads. The score is the time per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ColumnarBenchmark {
+
+    private static final int ROWS = 1 << 20;
+
+    @Param({"y = a * b + c - d", "y = a * b + c % d"})
+    public String statement;
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ColumnarEvaluator evaluator;
+    private Expression expression;
+    private Map<String, float[]> columns;
+    private float[] output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        evaluator = new ColumnarEvaluator(parallelism, kernel.equals("vector"));
+        expression = ExpressionParser.parse(statement);
+        Random random = new Random(42);
+        columns = Map.of("a", column(random), "b", column(random), "c", column(random), "d", column(random));
+        output = new float[ROWS];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        evaluator.close();
+    }
+
+    private static float[] column(Random random) {
+        float[] column = new float[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            column[i] = 1 + random.nextFloat() * 100;
+        }
+        return column;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public float[] evaluate() throws InvalidInputException {
+        evaluator.evaluate(expression, columns, output);
+        return output;
+    }
+}
@@ -0,0 +1,63 @@
+package com.calculator.benchmarks;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures evaluating parsed statements with {@link ExpressionCalculatorService#evaluate(Expression)},
+ * either interpreting their postfix programs or running their compiled form.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+
+    private static final int STATEMENTS = 256;
+
+    @Param({"4", "16", "64"})
+    public int length;
+
+    @Param({"0", "8"})
+    public int depth;
+
+    @Param({"16", "4096"})
+    public int variableCount;
+
+    @Param({"interpreted", "compiled"})
+    public String tier;
+
+    private ExpressionCalculatorService calculator;
+    private Expression[] statements;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidInputException {
+        TieredExecutionEngine engine = new TieredExecutionEngine(tier.equals("compiled") ? 0 : Integer.MAX_VALUE);
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(), engine, new VariablesManagerService(), 1);
+        for (int i = 0; i < variableCount; i++) {
+            calculator.getVariablesManagerService().putVariable(BenchmarkStatements.variable(i), 1.0001f);
+        }
+        String[] sources = BenchmarkStatements.statements(STATEMENTS, length, depth, variableCount);
+        statements = new Expression[STATEMENTS];
+        for (int i = 0; i < STATEMENTS; i++) {
+            statements[i] = ExpressionParser.parse(sources[i]);
+            // Compiles the statement ahead of the measurement in the compiled tier
+            calculator.evaluate(statements[i]);
+        }
+    }
+
+    @Benchmark
+    public Expression evaluate() throws InvalidInputException {
+        Expression statement = statements[next = (next + 1) & (STATEMENTS - 1)];
+        calculator.evaluate(statement);
+        return statement;
+    }
+}
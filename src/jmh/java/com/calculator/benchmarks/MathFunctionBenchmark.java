@@ -0,0 +1,61 @@
+package com.calculator.benchmarks;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures the hypotenuse of two variables written with the built-in {@code sqrt} function,
+ * {@code sqrt(a * a + b * b)}, and with the power operator it replaces, {@code (a * a + b * b) ^ 0.5},
+ * both interpreted and compiled to bytecode, so the intrinsic square root can be compared with
+ * {@code Math.pow}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MathFunctionBenchmark {
+
+    private static final int STATEMENTS = 256;
+
+    @Param({"sqrt", "power"})
+    public String form;
+
+    @Param({"interpreted", "compiled"})
+    public String tier;
+
+    private ExpressionCalculatorService calculator;
+    private Expression[] statements;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidInputException {
+        TieredExecutionEngine engine = new TieredExecutionEngine(tier.equals("compiled") ? 0 : Integer.MAX_VALUE);
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(), engine, new VariablesManagerService(), 1);
+        for (int i = 0; i < 64; i++) {
+            calculator.getVariablesManagerService().putVariable(BenchmarkStatements.variable(i), i);
+        }
+        statements = new Expression[STATEMENTS];
+        for (int i = 0; i < STATEMENTS; i++) {
+            String a = BenchmarkStatements.variable(i & 63);
+            String b = BenchmarkStatements.variable((i * 7 + 1) & 63);
+            String sumOfSquares = a + " * " + a + " + " + b + " * " + b;
+            String rightHandSide = form.equals("sqrt") ? "sqrt(" + sumOfSquares + ")" : "(" + sumOfSquares + ") ^ 0.5";
+            statements[i] = ExpressionParser.parse("bench_result_" + i + " = " + rightHandSide);
+            calculator.evaluate(statements[i]);
+        }
+    }
+
+    @Benchmark
+    public Expression evaluate() throws InvalidInputException {
+        Expression statement = statements[next = (next + 1) & (STATEMENTS - 1)];
+        calculator.evaluate(statement);
+        return statement;
+    }
+}
@@ -0,0 +1,64 @@
+package com.calculator.benchmarks;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.numeric.NumericBackend;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Compares evaluating the same statements in each {@link NumericBackend}. The float backend is kept
+ * interpreted, like all others, but still profiles every statement for compilation and reads its variables
+ * from the thread-safe {@link VariablesManagerService}, which the other backends, confined to their
+ * calculator, do without.
+ * <p>
+ * The statements assign to a variable none of them reads, so their results stay the same across
+ * invocations and the long backend never overflows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class NumericBackendBenchmark {
+
+    private static final int STATEMENTS = 256;
+    private static final int VARIABLES = 64;
+
+    @Param({"float", "double", "long", "decimal"})
+    public String backend;
+
+    @Param({"4", "16"})
+    public int length;
+
+    private ExpressionCalculatorService calculator;
+    private Expression[] statements;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidInputException {
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                new TieredExecutionEngine(Integer.MAX_VALUE), new VariablesManagerService(), 1);
+        calculator.setNumericBackend(NumericBackend.parse(backend));
+        for (int i = 0; i < VARIABLES; i++) {
+            calculator.evaluate(ExpressionParser.parse(BenchmarkStatements.variable(i) + " = 3"));
+        }
+        Random random = new Random(42);
+        statements = new Expression[STATEMENTS];
+        for (int i = 0; i < STATEMENTS; i++) {
+            statements[i] = ExpressionParser.parse("bench_result = " + BenchmarkStatements.expression(random, length, 2, VARIABLES));
+        }
+    }
+
+    @Benchmark
+    public Expression evaluate() throws InvalidInputException {
+        Expression statement = statements[next = (next + 1) & (STATEMENTS - 1)];
+        calculator.evaluate(statement);
+        return statement;
+    }
+}
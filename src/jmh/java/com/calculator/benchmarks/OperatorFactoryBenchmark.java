@@ -0,0 +1,68 @@
+package com.calculator.benchmarks;
+
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.operators.DecrementOperator;
+import com.calculator.models.operators.IOperator;
+import com.calculator.models.operators.IUnaryOperator;
+import com.calculator.models.operators.IncrementOperator;
+import com.calculator.utils.ExpressionParser;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures the {@link OperatorFactory} lookups made while parsing, and the ways of creating a unary
+ * operator: through a constructor reference, through a cached method handle as
+ * {@link ExpressionParser#parseUnaryOperator} does, and reflectively as the factory used to for every
+ * {@code ++}/{@code --}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class OperatorFactoryBenchmark {
+
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "%", "^", "(", ")"};
+    private static final String[] SYMBOLS = {"++", "--", "+", "x", "-", "*"};
+    private static final String[] UNARY_EXPRESSIONS = {"++bench_0", "bench_0--", "--bench_0", "bench_0++"};
+    private static final Map<String, Class<? extends IUnaryOperator>> UNARY_CLASSES =
+            Map.of("++", IncrementOperator.class, "--", DecrementOperator.class);
+
+    private int next;
+
+    @Benchmark
+    public IOperator getOperator() {
+        return OperatorFactory.getOperator(OPERATORS[next = (next + 1) & (OPERATORS.length - 1)]);
+    }
+
+    @Benchmark
+    public boolean isUnaryOperator() {
+        next = next + 1 == SYMBOLS.length ? 0 : next + 1;
+        return OperatorFactory.isUnaryOperator(SYMBOLS[next]);
+    }
+
+    @Benchmark
+    public IUnaryOperator createUnaryOperator() {
+        next++;
+        return OperatorFactory.createUnaryOperator((next & 1) == 0 ? "++" : "--", "bench_0", (next & 2) == 0);
+    }
+
+    @Benchmark
+    public IUnaryOperator createUnaryOperatorReflectively() throws ReflectiveOperationException {
+        next++;
+        return UNARY_CLASSES.get((next & 1) == 0 ? "++" : "--")
+                .getDeclaredConstructor(String.class, boolean.class)
+                .newInstance("bench_0", (next & 2) == 0);
+    }
+
+    @Benchmark
+    public Optional<IUnaryOperator> getUnaryOperator() {
+        return OperatorFactory.getUnaryOperator(UNARY_EXPRESSIONS[next = (next + 1) & (UNARY_EXPRESSIONS.length - 1)]);
+    }
+
+    @Benchmark
+    public Optional<IUnaryOperator> parseUnaryOperator() throws ReflectiveOperationException {
+        return ExpressionParser.parseUnaryOperator(UNARY_EXPRESSIONS[next = (next + 1) & (UNARY_EXPRESSIONS.length - 1)], UNARY_CLASSES);
+    }
+}
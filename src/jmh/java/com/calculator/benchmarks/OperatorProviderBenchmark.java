@@ -0,0 +1,77 @@
+package com.calculator.benchmarks;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.models.PrecedenceLevel;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.spi.OperatorDefinition;
+import com.calculator.spi.OperatorProvider;
+import com.calculator.utils.ExpressionParser;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures interpreting a statement that averages two variables written with the built-in operators,
+ * {@code (a + b) / 2}, with the binary operator {@code a <> b} and with the function {@code mean(a, b)}
+ * of the {@link Provider} registered for the benchmarks, so the cost of dispatching to an operator of a
+ * provider can be compared with a built-in instruction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class OperatorProviderBenchmark {
+
+    private static final int STATEMENTS = 256;
+
+    @Param({"builtin", "operator", "function"})
+    public String form;
+
+    private ExpressionCalculatorService calculator;
+    private Expression[] statements;
+    private int next;
+
+    /**
+     * The operators of the benchmarks, registered in {@code src/jmh/resources/META-INF/services}.
+     */
+    public static class Provider implements OperatorProvider {
+        @Override
+        public List<OperatorDefinition> getOperators() {
+            return List.of(
+                    OperatorDefinition.binary("<>", PrecedenceLevel.MEDIUM, false, true, (a, b) -> (a + b) / 2),
+                    OperatorDefinition.function("mean", true, (a, b) -> (a + b) / 2));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidInputException {
+        TieredExecutionEngine engine = new TieredExecutionEngine(Integer.MAX_VALUE);
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(), engine, new VariablesManagerService(), 1);
+        for (int i = 0; i < 64; i++) {
+            calculator.getVariablesManagerService().putVariable(BenchmarkStatements.variable(i), i);
+        }
+        statements = new Expression[STATEMENTS];
+        for (int i = 0; i < STATEMENTS; i++) {
+            String a = BenchmarkStatements.variable(i & 63);
+            String b = BenchmarkStatements.variable((i * 7 + 1) & 63);
+            String rightHandSide = switch (form) {
+                case "builtin" -> "(" + a + " + " + b + ") / 2";
+                case "operator" -> a + " <> " + b;
+                default -> "mean(" + a + ", " + b + ")";
+            };
+            statements[i] = ExpressionParser.parse("bench_result_" + i + " = " + rightHandSide + " * 1.5");
+            calculator.evaluate(statements[i]);
+        }
+    }
+
+    @Benchmark
+    public Expression evaluate() throws InvalidInputException {
+        Expression statement = statements[next = (next + 1) & (STATEMENTS - 1)];
+        calculator.evaluate(statement);
+        return statement;
+    }
+}
@@ -0,0 +1,62 @@
+package com.calculator.benchmarks;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures evaluating statements with constant subtrees, identities and squares, as generated statements
+ * often contain them, with the program simplified by the {@code ProgramOptimizer} or as written.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class OptimizerBenchmark {
+
+    private static final String[] STATEMENTS = {
+            "seconds = days * (60 * 60 * 24) + 0 * 1",
+            "area = (width * 1) ^ 2 + (height - 0) ^ 2",
+            "scaled = (x + 3 * 4) / 1 * (2 ^ 10) - y ^ 1",
+            "energy = mass * (299792458 * 299792458) / (1 + 0) + x ^ 2"
+    };
+
+    @Param({"true", "false"})
+    public boolean optimized;
+
+    @Param({"interpreted", "compiled"})
+    public String tier;
+
+    private ExpressionCalculatorService calculator;
+    private Expression[] statements;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidInputException {
+        TieredExecutionEngine engine = new TieredExecutionEngine(tier.equals("compiled") ? 0 : Integer.MAX_VALUE);
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(), engine, new VariablesManagerService(), 1);
+        for (String variable : new String[]{"days", "width", "height", "x", "y", "mass"}) {
+            calculator.getVariablesManagerService().putVariable(variable, 1.5f);
+        }
+        statements = new Expression[STATEMENTS.length];
+        for (int i = 0; i < STATEMENTS.length; i++) {
+            Expression parsed = ExpressionParser.parse(STATEMENTS[i]);
+            statements[i] = optimized ? parsed : new Expression(parsed.assignedVariable(), parsed.assignedSlot(),
+                    parsed.assignmentOperator(), parsed.expressionParts(), parsed.tokens(), parsed.program().source());
+            calculator.evaluate(statements[i]);
+        }
+    }
+
+    @Benchmark
+    public Expression evaluate() throws InvalidInputException {
+        Expression statement = statements[next = (next + 1) & (STATEMENTS.length - 1)];
+        calculator.evaluate(statement);
+        return statement;
+    }
+}
@@ -0,0 +1,68 @@
+package com.calculator.benchmarks;
+
+import com.calculator.models.Expression;
+import com.calculator.utils.ExpressionParser;
+import com.calculator.utils.ParseCache;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures parsing a statement from source text, with and without the {@link ParseCache}, and
+ * tokenizing its right-hand side alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ParserBenchmark {
+
+    private static final int STATEMENTS = 256;
+
+    @Param({"4", "16", "64"})
+    public int length;
+
+    @Param({"0", "8"})
+    public int depth;
+
+    private String[] statements;
+    private String[] expressions;
+    private ParseCache cache;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Every call parses; the cache is measured separately
+        ExpressionParser.setParseCacheCapacity(0);
+        statements = BenchmarkStatements.statements(STATEMENTS, length, depth, 64);
+        expressions = new String[STATEMENTS];
+        for (int i = 0; i < STATEMENTS; i++) {
+            expressions[i] = statements[i].substring(statements[i].indexOf('=') + 1);
+        }
+        cache = new ParseCache(STATEMENTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ExpressionParser.setParseCacheCapacity(ParseCache.DEFAULT_CAPACITY);
+    }
+
+    @Benchmark
+    public Expression parse() {
+        return ExpressionParser.parse(statements[next()]);
+    }
+
+    @Benchmark
+    public Expression parseCached() {
+        return cache.get(statements[next()], ExpressionParser::parse);
+    }
+
+    @Benchmark
+    public List<String> tokenizeExpression() {
+        return ExpressionParser.tokenizeExpression(expressions[next()]);
+    }
+
+    private int next() {
+        return next = (next + 1) & (STATEMENTS - 1);
+    }
+}
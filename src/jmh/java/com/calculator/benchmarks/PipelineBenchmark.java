@@ -0,0 +1,92 @@
+package com.calculator.benchmarks;
+
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.factories.TransportFactory;
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.ExpressionParserProcessor;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.RingBufferQueue.WaitStrategy;
+import com.calculator.utils.SymbolTable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures the throughput from raw statement text to updated variables through both pipeline stages,
+ * the {@link ExpressionParserProcessor} and the {@link ExpressionCalculatorService}, as in {@code Main}.
+ * <p>
+ * Every invocation submits {@value #STATEMENTS} statements in input batches of the given size, followed
+ * by a marker statement, and waits until the calculator has evaluated the marker. The score is the time
+ * per statement, including the handoffs between the stages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+
+    private static final int STATEMENTS = 8192;
+    private static final String MARKER = "bench_marker";
+
+    @Param({"4", "16"})
+    public int length;
+
+    @Param({"1", "1024"})
+    public int batchSize;
+
+    @Param({TransportFactory.RING_BUFFER, TransportFactory.BLOCKING_QUEUE})
+    public String transport;
+
+    private BlockingQueue<List<String>> input;
+    private ExpressionParserProcessor parser;
+    private ExpressionCalculatorService calculator;
+    private VariablesManagerService variables;
+    private List<List<String>> batches;
+    private int markerSlot;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = new LinkedBlockingQueue<>(64);
+        BlockingQueue<Expression> stageQueue = TransportFactory.create(transport, TransportFactory.DEFAULT_CAPACITY, WaitStrategy.PARK);
+        parser = new ExpressionParserProcessor(input, stageQueue);
+        calculator = new ExpressionCalculatorService(stageQueue);
+        variables = calculator.getVariablesManagerService();
+        for (int i = 0; i < 64; i++) {
+            variables.putVariable(BenchmarkStatements.variable(i), 1.0001f);
+        }
+        markerSlot = SymbolTable.intern(MARKER);
+        List<String> statements = Arrays.asList(BenchmarkStatements.statements(STATEMENTS, length, 2, 64));
+        batches = new ArrayList<>();
+        for (int from = 0; from < STATEMENTS; from += batchSize) {
+            batches.add(statements.subList(from, Math.min(STATEMENTS, from + batchSize)));
+        }
+        parser.start();
+        calculator.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parser.stop();
+        calculator.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATEMENTS + 1)
+    public void pipeline() throws InterruptedException, InvalidInputException {
+        int marker = ++invocation;
+        for (List<String> batch : batches) {
+            input.put(batch);
+        }
+        input.put(List.of(MARKER + " = " + marker));
+        while (!variables.hasVariable(markerSlot) || variables.getVariable(markerSlot) != marker) {
+            // Yield rather than spin, so that the stages are not starved on machines with few cores
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.calculator.benchmarks;
+
+import com.calculator.persistence.DurableStore;
+import com.calculator.services.VariablesManagerService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures recovering a {@link DurableStore} after {@value #WRITES} writes to {@value #VARIABLES} variables,
+ * either by replaying the whole log or by loading a snapshot taken before the last
+ * {@value #TAIL_WRITES} writes and replaying only those.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class RecoveryBenchmark {
+
+    private static final int VARIABLES = 10_000;
+    private static final int WRITES = 1_000_000;
+    private static final int TAIL_WRITES = 10_000;
+
+    @Param({"log", "snapshot"})
+    public String recovery;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("recovery-benchmark");
+        VariablesManagerService variables = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, variables, 10, 0)) {
+            for (int i = 0; i < WRITES; i++) {
+                if (i == WRITES - TAIL_WRITES && recovery.equals("snapshot")) {
+                    store.snapshot();
+                }
+                variables.putVariable(BenchmarkStatements.variable(i % VARIABLES), i);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public VariablesManagerService recover() throws IOException {
+        VariablesManagerService variables = new VariablesManagerService();
+        new DurableStore(directory, variables, 10, 0).close();
+        return variables;
+    }
+}
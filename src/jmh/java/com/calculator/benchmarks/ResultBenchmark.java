@@ -0,0 +1,99 @@
+package com.calculator.benchmarks;
+
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.utils.NumberFormatter;
+import com.calculator.utils.ResultWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.text.DecimalFormat;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures printing the result of {@value #VARIABLES} variables, built in memory by
+ * {@code prettyPrintResult} or streamed by a {@link ResultWriter} in every format to a channel discarding
+ * the bytes, and formatting one number with a new {@code DecimalFormat}, as before, or {@link NumberFormatter}.
+ * The scores of the result benchmarks are per variable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ResultBenchmark {
+
+    private static final int VARIABLES = 100_000;
+    private static final int VALUES = 1024;
+
+    private ExpressionCalculatorService calculator;
+    private WritableByteChannel discard;
+    private float[] values;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        Random random = new Random(42);
+        for (int i = 0; i < VARIABLES; i++) {
+            calculator.getVariablesManagerService().putVariable(BenchmarkStatements.variable(i), random.nextFloat() * 1000);
+        }
+        values = new float[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = (float) (random.nextGaussian() * 1000);
+        }
+        discard = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer source) {
+                int written = source.remaining();
+                source.position(source.limit());
+                return written;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIABLES)
+    public String prettyPrint() throws InvalidInputException {
+        return calculator.prettyPrintResult();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIABLES)
+    public void writeText() throws IOException {
+        calculator.writeResult(new ResultWriter(discard, ResultWriter.Format.TEXT));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIABLES)
+    public void writeCsv() throws IOException {
+        calculator.writeResult(new ResultWriter(discard, ResultWriter.Format.CSV));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIABLES)
+    public void writeBinary() throws IOException {
+        calculator.writeResult(new ResultWriter(discard, ResultWriter.Format.BINARY));
+    }
+
+    @Benchmark
+    public String formatDecimalFormat() {
+        return new DecimalFormat(NumberFormatter.PATTERN).format(values[next = (next + 1) & (VALUES - 1)]);
+    }
+
+    @Benchmark
+    public String formatNumberFormatter() {
+        return NumberFormatter.format(values[next = (next + 1) & (VALUES - 1)]);
+    }
+}
@@ -0,0 +1,64 @@
+package com.calculator.benchmarks;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.SubexpressionDag;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures a batch of {@value #STATEMENTS} statements repeating the same subterms, as generated scripts do,
+ * evaluated through a {@link SubexpressionDag} or one statement at a time by the interpreter or the
+ * compiled tier. Every fourth statement writes a variable read by the shared subterms, so they are
+ * recomputed once per version of the variables rather than once per batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SubexpressionBenchmark {
+
+    private static final int STATEMENTS = 64;
+
+    @Param({"shared", "interpreted", "compiled"})
+    public String evaluation;
+
+    private ExpressionCalculatorService calculator;
+    private SubexpressionDag dag;
+    private Expression[] statements;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidInputException {
+        TieredExecutionEngine engine = new TieredExecutionEngine(evaluation.equals("compiled") ? 0 : Integer.MAX_VALUE);
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(), engine, new VariablesManagerService(), 1);
+        calculator.setSubexpressionSharing(evaluation.equals("shared"));
+        dag = calculator.getSubexpressionDag();
+        for (String variable : new String[]{"a", "b", "c", "d", "e", "f"}) {
+            calculator.getVariablesManagerService().putVariable(variable, 1.5f);
+        }
+        statements = new Expression[STATEMENTS];
+        for (int i = 0; i < STATEMENTS; i++) {
+            String statement = i % 4 == 3
+                    ? "a = a * 0.5 + " + i
+                    : "r" + i + " = (a + b) * (c - d) / (e + f) + (b * c - e) ^ 2 * " + i;
+            statements[i] = ExpressionParser.parse(statement);
+            calculator.evaluate(statements[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATEMENTS)
+    public void batch() throws InvalidInputException {
+        if (dag != null) {
+            dag.beginBatch();
+        }
+        for (Expression statement : statements) {
+            calculator.evaluate(statement);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.calculator.benchmarks;
+
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.SymbolTable;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures reading and writing variables in {@link VariablesManagerService}, by name and by
+ * symbol table slot, in random order over the given number of variables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class VariablesBenchmark {
+
+    private static final int ACCESSES = 1 << 16;
+
+    @Param({"16", "4096", "262144"})
+    public int variableCount;
+
+    private VariablesManagerService variables;
+    private String[] names;
+    private int[] slots;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        variables = new VariablesManagerService();
+        for (int i = 0; i < variableCount; i++) {
+            variables.putVariable(BenchmarkStatements.variable(i), i);
+        }
+        Random random = new Random(42);
+        names = new String[ACCESSES];
+        slots = new int[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            names[i] = BenchmarkStatements.variable(random.nextInt(variableCount));
+            slots[i] = SymbolTable.slotOf(names[i]);
+        }
+    }
+
+    @Benchmark
+    public float getByName() throws InvalidInputException {
+        return variables.getVariable(names[next()]);
+    }
+
+    @Benchmark
+    public float getBySlot() throws InvalidInputException {
+        return variables.getVariable(slots[next()]);
+    }
+
+    @Benchmark
+    public void putByName() {
+        int index = next();
+        variables.putVariable(names[index], index);
+    }
+
+    @Benchmark
+    public void putBySlot() {
+        int index = next();
+        variables.putVariable(slots[index], index);
+    }
+
+    private int next() {
+        return next = (next + 1) & (ACCESSES - 1);
+    }
+}
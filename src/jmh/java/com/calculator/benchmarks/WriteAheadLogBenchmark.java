@@ -0,0 +1,77 @@
+package com.calculator.benchmarks;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.persistence.DurableStore;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures the overhead of the {@link DurableStore} write-ahead log on evaluating statements, without a
+ * store, and with group commits every 1 or 10 milliseconds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class WriteAheadLogBenchmark {
+
+    private static final int STATEMENTS = 1024;
+
+    @Param({"none", "1", "10"})
+    public String fsyncInterval;
+
+    private Path directory;
+    private DurableStore store;
+    private ExpressionCalculatorService calculator;
+    private Expression[] statements;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InvalidInputException {
+        VariablesManagerService variables = new VariablesManagerService();
+        if (!fsyncInterval.equals("none")) {
+            directory = Files.createTempDirectory("wal-benchmark");
+            store = new DurableStore(directory, variables, Long.parseLong(fsyncInterval), 0);
+        }
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                TieredExecutionEngine.fromSystemProperties(), variables, 1);
+        for (int i = 0; i < 64; i++) {
+            variables.putVariable(BenchmarkStatements.variable(i), 1.0001f);
+        }
+        statements = new Expression[STATEMENTS];
+        String[] sources = BenchmarkStatements.statements(STATEMENTS, 4, 2, 64);
+        for (int i = 0; i < STATEMENTS; i++) {
+            statements[i] = ExpressionParser.parse(sources[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (store != null) {
+            store.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Expression evaluate() throws InvalidInputException {
+        Expression statement = statements[next = (next + 1) & (STATEMENTS - 1)];
+        calculator.evaluate(statement);
+        return statement;
+    }
+}
@@ -1,7 +1,21 @@
 package com.calculator;
 import com.calculator.exceptions.InvalidInputException;
+import com.calculator.metrics.MetricsReporter;
+import com.calculator.numeric.NumericBackend;
+import com.calculator.persistence.DurableStore;
+import com.calculator.services.CalculatorServer;
 import com.calculator.services.ExpressionCalculatorService;
 import com.calculator.services.ExpressionParserProcessor;
+import com.calculator.utils.ResultWriter;
+import com.calculator.utils.ScriptReader;
+import java.io.Console;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -12,6 +26,16 @@ import org.apache.logging.log4j.Logger;
  * The {@code Main} class serves as the entry point for the calculator application.
  * It initializes the necessary processors for parsing and evaluating mathematical expressions
  * and continuously reads user input from the console until the user types "exit".
+ * With {@code --script}, or when standard input is not a terminal, statements are read in bulk
+ * by a {@link ScriptReader} and handed to the parser in batches. With {@code --serve}, the calculator
+ * instead serves one session per TCP connection through a {@link CalculatorServer}.
+ * The metrics of every stage are published through JMX; with {@value MetricsReporter#INTERVAL_PROPERTY}
+ * set to a number of seconds, a {@link MetricsReporter} also logs them periodically.
+ * The arithmetic is float unless {@value NumericBackend#PROPERTY} selects another {@link NumericBackend}.
+ * With {@value DurableStore#DIRECTORY_PROPERTY} set, the variables are recovered from and persisted to a
+ * {@link DurableStore} in that directory, which only the float backend supports.
+ * The result is logged, or with {@value ResultWriter#OUTPUT_PROPERTY} set streamed by a {@link ResultWriter}
+ * to that file, or to standard output for {@code -}, in the format of {@value ResultWriter#FORMAT_PROPERTY}.
  * </p>
  *
  * <p><strong>Application Workflow:</strong></p>
@@ -26,6 +50,14 @@ import org.apache.logging.log4j.Logger;
  * <p><strong>Usage:</strong></p>
  * <pre>{@code
  * java -jar CalculatorApp.jar
+ * java -jar CalculatorApp.jar --script statements.txt
+ * generate-statements | java -jar CalculatorApp.jar --script -
+ * java -jar CalculatorApp.jar --serve 7070
+ * java -Dcalculator.metrics.report.interval=10 -jar CalculatorApp.jar --script statements.txt
+ * java -Dcalculator.numeric=long -jar CalculatorApp.jar --script statements.txt
+ * java -Dcalculator.cse=true -jar CalculatorApp.jar --script statements.txt
+ * java -Dcalculator.data.dir=data -Dcalculator.wal.fsync.interval=10 -jar CalculatorApp.jar
+ * java -Dcalculator.result.output=result.csv -Dcalculator.result.format=csv -jar CalculatorApp.jar --script statements.txt
  * }</pre>
  *
  * <p><strong>Example Input:</strong></p>
@@ -43,20 +75,57 @@ import org.apache.logging.log4j.Logger;
 public class Main {
 
     private static final Logger logger = LogManager.getLogger(Main.class);
-    private static final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private static final String SCRIPT_OPTION = "--script";
+    private static final String SERVE_OPTION = "--serve";
+
+    /**
+     * The maximum number of batches waiting for the parser, so that bulk input cannot outrun it unboundedly.
+     */
+    private static final int QUEUED_BATCHES = 64;
+
+    private static final BlockingQueue<List<String>> queue = new LinkedBlockingQueue<>(QUEUED_BATCHES);
     private static final ExpressionParserProcessor parserProcessor = new ExpressionParserProcessor(queue);
     private static final ExpressionCalculatorService calculatorProcessor = new ExpressionCalculatorService(parserProcessor.getOutputQueue());
 
     public static void main(String[] args) {
+        String port = optionArgument(args, SERVE_OPTION);
+        if (port != null) {
+            serve(Integer.parseInt(port));
+            return;
+        }
+        String script = optionArgument(args, SCRIPT_OPTION);
+        DurableStore store;
+        try {
+            store = DurableStore.fromSystemProperties(calculatorProcessor.getVariablesManagerService(),
+                    NumericBackend.fromSystemProperties());
+        } catch (IOException e) {
+            logger.error("Failed to open the data directory: {}", e.getMessage());
+            return;
+        }
+        MetricsReporter reporter = MetricsReporter.fromSystemProperties(
+                parserProcessor.getMetrics(), calculatorProcessor.getMetrics());
         parserProcessor.start();
         calculatorProcessor.start();
-        Thread workerThread = new Thread(Main::readUserInput);
+        Thread workerThread = script != null || !isTerminal()
+                ? new Thread(() -> readScript(script))
+                : new Thread(Main::readUserInput);
         workerThread.start();
         try {
             workerThread.join();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        if (reporter != null) {
+            reporter.close();
+        }
+        if (store != null) {
+            closeStore(store);
+        }
+        String output = System.getProperty(ResultWriter.OUTPUT_PROPERTY);
+        if (output != null) {
+            writeResult(output);
+            return;
+        }
         try {
             logger.info(calculatorProcessor.prettyPrintResult());
         } catch (InvalidInputException e) {
@@ -64,24 +133,129 @@ public class Main {
         }
     }
 
+    /**
+     * Streams the variables to a file.
+     *
+     * @param output the file, or {@code -} for standard output
+     */
+    private static void writeResult(String output) {
+        ResultWriter.Format format = ResultWriter.Format.fromSystemProperties();
+        try {
+            if (output.equals("-")) {
+                calculatorProcessor.writeResult(new ResultWriter(new FileOutputStream(FileDescriptor.out).getChannel(), format));
+            } else {
+                try (FileChannel channel = FileChannel.open(Path.of(output), StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    calculatorProcessor.writeResult(new ResultWriter(channel, format));
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to write the result: {}", e.getMessage());
+        }
+    }
+
     /**
      * Reads user input from the console in a loop.
      * <p>
      * The method continuously reads mathematical expressions entered by the user,
-     * adding them to the processing queue. It terminates when the user types "exit".
+     * adding them to the processing queue. It terminates when the user types "exit"
+     * or the input ends, and always stops the processors: joining their worker threads
+     * is what makes the final variable values visible to the thread printing them.
      */
     private static void readUserInput() {
         logger.info("Please enter expressions to calculate and type `exit` to see the result:");
-        Scanner scanner = new Scanner(System.in);
-        while (true) {
-            String line = scanner.nextLine().trim();
-            if (line.equalsIgnoreCase("exit")) {
-                break; // Stop reading input
+        try (Scanner scanner = new Scanner(System.in)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                if (line.equalsIgnoreCase("exit")) {
+                    break; // Stop reading input
+                }
+                queue.put(List.of(line));
             }
-            queue.offer(line);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stop();
         }
-        scanner.close();
-        stop();
+    }
+
+    /**
+     * Reads a whole script in bulk and hands it to the parser in batches.
+     *
+     * @param script the script file, or {@code null} or {@code -} for standard input
+     */
+    private static void readScript(String script) {
+        ScriptReader reader = new ScriptReader(queue::put);
+        try {
+            long statements;
+            if (script == null || script.equals("-")) {
+                try (FileChannel input = new FileInputStream(FileDescriptor.in).getChannel()) {
+                    statements = reader.read(input);
+                }
+            } else {
+                statements = reader.read(Path.of(script));
+            }
+            logger.debug("Read {} statements", statements);
+        } catch (IOException e) {
+            logger.error("Failed to read script: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stop();
+        }
+    }
+
+    /**
+     * Serves calculator sessions over TCP until the process is terminated.
+     *
+     * @param port the port to listen on
+     */
+    private static void serve(int port) {
+        try (CalculatorServer server = new CalculatorServer(port)) {
+            MetricsReporter reporter = MetricsReporter.fromSystemProperties(server.getMetrics());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                if (reporter != null) {
+                    reporter.close();
+                }
+            }));
+            server.start();
+            logger.info("Serving calculator sessions on port {}", server.getPort());
+            server.awaitClose();
+        } catch (IOException e) {
+            logger.error("Failed to start server: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeStore(DurableStore store) {
+        try {
+            store.close();
+        } catch (IOException e) {
+            logger.error("Failed to persist the variables: {}", e.getMessage());
+        }
+    }
+
+    private static String optionArgument(String[] args, String option) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(option)) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing argument after " + option);
+                }
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determines whether the console is a terminal rather than redirected input. Since JDK 22 the console
+     * exists even when input is redirected, so its presence alone does not tell.
+     */
+    private static boolean isTerminal() {
+        Console console = System.console();
+        return console != null && console.isTerminal();
     }
 
     private static void stop() {
@@ -0,0 +1,189 @@
+package com.calculator.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The {@code ClassFileWriter} class assembles a minimal JVM class file: a final class extending
+ * {@link Object} that implements a single interface and declares branch-free methods.
+ * <p>
+ * Generated classes use class file version 52, so methods without branches need no stack map
+ * frames. This keeps the writer small enough that no bytecode library is required.
+ */
+class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+    private static final int CLASS_FILE_MAJOR_VERSION = 52;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+    private final Map<String, Integer> constantIndexes = new HashMap<>();
+    private final List<byte[]> methods = new ArrayList<>();
+    private final int thisClass;
+    private final int superClass;
+    private final int interfaceClass;
+    private final int codeAttributeName;
+    private int constantCount = 1;
+
+    /**
+     * Constructs a new {@code ClassFileWriter}.
+     *
+     * @param className the internal name of the generated class (e.g. {@code a/b/Generated})
+     * @param interfaceName the internal name of the interface implemented by the class
+     */
+    ClassFileWriter(String className, String interfaceName) {
+        this.thisClass = classConstant(className);
+        this.superClass = classConstant("java/lang/Object");
+        this.interfaceClass = classConstant(interfaceName);
+        this.codeAttributeName = utf8Constant("Code");
+    }
+
+    int utf8Constant(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    int integerConstant(int value) {
+        return constant("I" + value, out -> {
+            out.writeByte(CONSTANT_INTEGER);
+            out.writeInt(value);
+        });
+    }
+
+    int floatConstant(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        return constant("F" + bits, out -> {
+            out.writeByte(CONSTANT_FLOAT);
+            out.writeInt(bits);
+        });
+    }
+
+    int classConstant(String internalName) {
+        int name = utf8Constant(internalName);
+        return constant("C" + internalName, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(name);
+        });
+    }
+
+    int methodConstant(String owner, String name, String descriptor) {
+        int ownerClass = classConstant(owner);
+        int methodName = utf8Constant(name);
+        int methodDescriptor = utf8Constant(descriptor);
+        int nameAndType = constant("N" + name + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(methodName);
+            out.writeShort(methodDescriptor);
+        });
+        return constant("M" + owner + "." + name + descriptor, out -> {
+            out.writeByte(CONSTANT_METHODREF);
+            out.writeShort(ownerClass);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    /**
+     * Adds a method with the given bytecode. The code must not contain branches or exception handlers.
+     *
+     * @param accessFlags the method access flags
+     * @param name the method name
+     * @param descriptor the method descriptor
+     * @param maxStack the maximum operand stack depth reached by the code
+     * @param maxLocals the number of local variable slots, including {@code this} and parameters
+     * @param code the method bytecode
+     */
+    void addMethod(int accessFlags, String name, String descriptor, int maxStack, int maxLocals, byte[] code) {
+        int methodName = utf8Constant(name);
+        int methodDescriptor = utf8Constant(descriptor);
+        methods.add(write(out -> {
+            out.writeShort(accessFlags);
+            out.writeShort(methodName);
+            out.writeShort(methodDescriptor);
+            out.writeShort(1); // attributes_count
+            out.writeShort(codeAttributeName);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0); // exception_table_length
+            out.writeShort(0); // attributes_count
+        }));
+    }
+
+    /**
+     * Serializes the class file.
+     *
+     * @return the class file bytes
+     */
+    byte[] toByteArray() {
+        return write(out -> {
+            out.writeInt(CLASS_FILE_MAGIC);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_MAJOR_VERSION);
+            out.writeShort(constantCount);
+            constantPool.flush();
+            out.write(constantPoolBytes.toByteArray());
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceClass);
+            out.writeShort(0); // fields_count
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0); // attributes_count
+        });
+    }
+
+    private int constant(String key, Writer writer) {
+        Integer index = constantIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            writer.write(constantPool);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        constantIndexes.put(key, constantCount);
+        return constantCount++;
+    }
+
+    private static byte[] write(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,18 @@
+package com.calculator.compiler;
+
+/**
+ * The {@code CompiledExpression} interface is implemented by the hidden classes generated by
+ * {@link ExpressionCompiler}. Each implementation evaluates the right-hand side of one statement
+ * as straight-line float arithmetic.
+ */
+public interface CompiledExpression {
+
+    /**
+     * Evaluates the compiled expression.
+     *
+     * @param variables the current values of the referenced variables, in the order returned by
+     *                  {@link CompiledStatement#variableNames()}
+     * @return the result of the expression
+     */
+    float evaluate(float[] variables);
+}
@@ -0,0 +1,11 @@
+package com.calculator.compiler;
+
+/**
+ * A statement whose right-hand side was compiled to bytecode.
+ *
+ * @param expression the generated implementation of the expression
+ * @param variableNames the variables read by the expression, indexed by argument position
+ * @param slots the symbol table slots of those variables, indexed by argument position
+ */
+public record CompiledStatement(CompiledExpression expression, String[] variableNames, int[] slots) {
+}
@@ -0,0 +1,185 @@
+package com.calculator.compiler;
+
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.operators.DivideOperator;
+import com.calculator.models.operators.ExponentOperator;
+import com.calculator.models.operators.MathFunction;
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+
+/**
+ * The {@code ExpressionCompiler} class translates the {@link PostfixProgram} of a statement into a
+ * hidden class implementing {@link CompiledExpression}.
+ * <p>
+ * The program is emitted as straight-line float bytecode: {@code +}, {@code -}, {@code *} and
+ * {@code %} map to single instructions, while {@code /} and {@code ^} call the static helpers of
+ * {@link DivideOperator} and {@link ExponentOperator} so both tiers produce identical results.
+ * Built-in functions call the static float methods of {@link MathFunction}, which the JIT inlines down to
+ * their intrinsics.
+ * Unary operators are not compiled because they modify variables, nor are operators of
+ * {@link com.calculator.spi.OperatorProvider}s; such statements stay interpreted.
+ */
+public class ExpressionCompiler {
+
+    private static final String CLASS_NAME = "com/calculator/compiler/GeneratedExpression";
+    private static final String INTERFACE_NAME = "com/calculator/compiler/CompiledExpression";
+    private static final String DIVIDE_OPERATOR_NAME = "com/calculator/models/operators/DivideOperator";
+    private static final String EXPONENT_OPERATOR_NAME = "com/calculator/models/operators/ExponentOperator";
+    private static final String MATH_FUNCTION_NAME = "com/calculator/models/operators/MathFunction";
+
+    private static final int ICONST_0 = 0x03;
+    private static final int FCONST_0 = 0x0b;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int FALOAD = 0x30;
+    private static final int FADD = 0x62;
+    private static final int FSUB = 0x66;
+    private static final int FMUL = 0x6a;
+    private static final int FREM = 0x72;
+    private static final int FRETURN = 0xae;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    /**
+     * Compiles the program of a statement.
+     *
+     * @param program the postfix program of the expression
+     * @return the compiled statement
+     * @throws InvalidInputException if the program contains instructions that are not compiled
+     * @throws IllegalAccessException if the generated class cannot be defined
+     */
+    public CompiledStatement compile(PostfixProgram program) throws InvalidInputException, IllegalAccessException {
+        ClassFileWriter classWriter = new ClassFileWriter(CLASS_NAME, INTERFACE_NAME);
+        CodeBuilder code = new CodeBuilder();
+
+        for (int instruction : program.code()) {
+            int operand = PostfixProgram.operand(instruction);
+            switch (PostfixProgram.opcode(instruction)) {
+                case PostfixProgram.PUSH_CONSTANT -> emitConstant(classWriter, code, program.constants()[operand]);
+                case PostfixProgram.LOAD_VARIABLE -> {
+                    code.op(ALOAD_1, 1);
+                    emitInt(classWriter, code, operand);
+                    code.op(FALOAD, -1);
+                }
+                case PostfixProgram.ADD -> code.op(FADD, -1);
+                case PostfixProgram.SUBTRACT -> code.op(FSUB, -1);
+                case PostfixProgram.MULTIPLY -> code.op(FMUL, -1);
+                case PostfixProgram.MODULUS -> code.op(FREM, -1);
+                case PostfixProgram.DIVIDE -> emitInvokeStatic(classWriter, code, DIVIDE_OPERATOR_NAME, "divide");
+                case PostfixProgram.POWER -> emitInvokeStatic(classWriter, code, EXPONENT_OPERATOR_NAME, "power");
+                case PostfixProgram.CALL_FUNCTION -> {
+                    MathFunction function = MathFunction.of(operand);
+                    emitInvokeStatic(classWriter, code, MATH_FUNCTION_NAME, function.getSymbol(), function.getArity());
+                }
+                default -> throw new InvalidInputException("Instruction is not compiled: " + program);
+            }
+        }
+        code.op(FRETURN, -1);
+
+        CodeBuilder constructor = new CodeBuilder();
+        constructor.op(ALOAD_0, 1);
+        constructor.op(INVOKESPECIAL, -1);
+        constructor.u2(classWriter.methodConstant("java/lang/Object", "<init>", "()V"));
+        constructor.op(RETURN, 0);
+        classWriter.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", constructor.maxDepth, 1, constructor.toByteArray());
+        classWriter.addMethod(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL, "evaluate", "([F)F", code.maxDepth, 2, code.toByteArray());
+
+        MethodHandles.Lookup hiddenClass = lookup.defineHiddenClass(classWriter.toByteArray(), true);
+        return new CompiledStatement(instantiate(hiddenClass), program.variables(), program.slots());
+    }
+
+    private static void emitInvokeStatic(ClassFileWriter classWriter, CodeBuilder code, String owner, String name) {
+        emitInvokeStatic(classWriter, code, owner, name, 2);
+    }
+
+    /**
+     * Calls a static method taking {@code arity} floats and returning a float.
+     */
+    private static void emitInvokeStatic(ClassFileWriter classWriter, CodeBuilder code, String owner, String name, int arity) {
+        code.op(INVOKESTATIC, 1 - arity);
+        code.u2(classWriter.methodConstant(owner, name, "(" + "F".repeat(arity) + ")F"));
+    }
+
+    private static void emitConstant(ClassFileWriter classWriter, CodeBuilder code, float value) {
+        int bits = Float.floatToRawIntBits(value);
+        if (bits == 0 || value == 1f || value == 2f) {
+            code.op(FCONST_0 + (int) value, 1);
+        } else {
+            emitLoadConstant(code, classWriter.floatConstant(value));
+        }
+    }
+
+    private static void emitInt(ClassFileWriter classWriter, CodeBuilder code, int value) {
+        if (value <= 5) {
+            code.op(ICONST_0 + value, 1);
+        } else if (value <= Byte.MAX_VALUE) {
+            code.op(BIPUSH, 1);
+            code.u1(value);
+        } else if (value <= Short.MAX_VALUE) {
+            code.op(SIPUSH, 1);
+            code.u2(value);
+        } else {
+            emitLoadConstant(code, classWriter.integerConstant(value));
+        }
+    }
+
+    private static void emitLoadConstant(CodeBuilder code, int constantIndex) {
+        if (constantIndex <= 0xff) {
+            code.op(LDC, 1);
+            code.u1(constantIndex);
+        } else {
+            code.op(LDC_W, 1);
+            code.u2(constantIndex);
+        }
+    }
+
+    private static CompiledExpression instantiate(MethodHandles.Lookup hiddenClass) throws IllegalAccessException {
+        try {
+            MethodHandle constructor = hiddenClass.findConstructor(hiddenClass.lookupClass(), MethodType.methodType(void.class));
+            return (CompiledExpression) constructor.invoke();
+        } catch (IllegalAccessException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to instantiate compiled expression", e);
+        }
+    }
+
+    /**
+     * Accumulates method bytecode while tracking the operand stack depth.
+     */
+    private static class CodeBuilder {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int depth;
+        private int maxDepth;
+
+        void op(int opcode, int stackEffect) {
+            bytes.write(opcode);
+            depth += stackEffect;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        void u1(int value) {
+            bytes.write(value);
+        }
+
+        void u2(int value) {
+            bytes.write(value >>> 8);
+            bytes.write(value);
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.calculator.compiler;
+
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.Token;
+import com.calculator.models.operators.*;
+import com.calculator.utils.ExpressionParser;
+import java.util.*;
+
+
+/**
+ * The {@code ProgramCompiler} class translates the resolved {@link Token}s of an expression into a
+ * {@link PostfixProgram}.
+ * <p>
+ * Tokens are reordered with the shunting-yard algorithm: operands are emitted immediately, operators
+ * wait on a stack until an operator of lower precedence, a closing parenthesis or the end of the
+ * expression forces them out. Unary {@code ++}/{@code --} tokens become single instructions that
+ * update their variable in place. A function waits on the stack below its opening parenthesis and is
+ * applied at the closing one, once each of its comma-separated arguments has left exactly one value.
+ */
+public class ProgramCompiler {
+
+    private ProgramCompiler() {
+    }
+
+    /**
+     * Resolves and compiles the source tokens of an expression.
+     *
+     * @param expressionParts the infix source tokens of the expression
+     * @return the compiled program
+     * @throws InvalidInputException if a token is invalid, parentheses are mismatched,
+     *                               or operators and operands do not line up
+     */
+    public static PostfixProgram compile(List<String> expressionParts) throws InvalidInputException {
+        return compileTokens(ExpressionParser.resolveTokens(expressionParts));
+    }
+
+    /**
+     * Compiles the resolved tokens of an expression.
+     *
+     * @param tokens the infix tokens of the expression
+     * @return the compiled program
+     * @throws InvalidInputException if a token is invalid, parentheses are mismatched,
+     *                               or operators and operands do not line up
+     */
+    public static PostfixProgram compileTokens(List<Token> tokens) throws InvalidInputException {
+        Builder builder = new Builder(tokens.size());
+        Deque<IOperator> operators = new ArrayDeque<>();
+        Deque<Group> groups = new ArrayDeque<>();
+        for (Token token : tokens) {
+            if (!(token instanceof Token.Operator(IOperator operator))) {
+                builder.operand(token);
+                continue;
+            }
+            if (operator instanceof OpenParenthesisOperator) {
+                IOperator function = operators.peek() != null && operators.peek().isFunction() ? operators.peek() : null;
+                groups.push(new Group(function, builder.depth));
+                operators.push(operator);
+            } else if (operator instanceof CloseParenthesisOperator) {
+                popGroup(builder, operators);
+                if (operators.isEmpty() || groups.isEmpty()) {
+                    throw new InvalidInputException("Mismatched parentheses");
+                }
+                operators.pop(); // Remove '(' from the stack
+                Group group = groups.pop();
+                if (group.function != null) {
+                    group.endArgument(builder, true);
+                    if (group.arguments != group.function.getArity()) {
+                        throw new InvalidInputException(String.format("Invalid expression: %s takes %d arguments, got %d",
+                                group.function.getSymbol(), group.function.getArity(), group.arguments));
+                    }
+                    builder.operator(operators.pop());
+                }
+            } else if (operator instanceof CommaOperator) {
+                popGroup(builder, operators);
+                if (groups.isEmpty() || groups.peek().function == null) {
+                    throw new InvalidInputException("Invalid expression: ',' outside of a function call");
+                }
+                groups.peek().endArgument(builder, false);
+            } else if (operator.isFunction()) {
+                operators.push(operator); // Applied once its closing parenthesis is reached
+            } else if (operator instanceof PluginOperator plugin && plugin.isPrefix()) {
+                operators.push(operator); // Has no left operand, so nothing waiting can be applied yet
+            } else {
+                while (!operators.isEmpty() && !(operators.peek() instanceof OpenParenthesisOperator)
+                        && OperatorFactory.takesPrecedence(operators.peek(), operator)) {
+                    builder.operator(operators.pop());
+                }
+                operators.push(operator);
+            }
+        }
+        while (!operators.isEmpty()) {
+            IOperator operator = operators.pop();
+            if (operator instanceof OpenParenthesisOperator || operator.isFunction()) {
+                throw new InvalidInputException("Mismatched parentheses");
+            }
+            builder.operator(operator);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Applies the operators waiting above the innermost opening parenthesis.
+     */
+    private static void popGroup(Builder builder, Deque<IOperator> operators) throws InvalidInputException {
+        while (!operators.isEmpty() && !(operators.peek() instanceof OpenParenthesisOperator)) {
+            builder.operator(operators.pop());
+        }
+    }
+
+    /**
+     * A parenthesized group, either plain or the argument list of a function, with the operand stack depth
+     * at its opening parenthesis and the number of arguments completed so far.
+     */
+    private static class Group {
+        private final IOperator function;
+        private final int depth;
+        private int arguments;
+
+        Group(IOperator function, int depth) {
+            this.function = function;
+            this.depth = depth;
+        }
+
+        /**
+         * Completes an argument at a comma or at the closing parenthesis, which is the only place an
+         * argument list may be empty. Each argument must leave exactly one value.
+         */
+        void endArgument(Builder builder, boolean closing) throws InvalidInputException {
+            int values = builder.depth - depth - arguments;
+            if (closing && arguments == 0 && values == 0) {
+                return;
+            }
+            if (values != 1) {
+                throw new InvalidInputException(values < 1 ? "Invalid expression: Not enough values" : "Invalid expression: Too many values");
+            }
+            arguments++;
+        }
+    }
+
+    /**
+     * Accumulates instructions, constants and variable references while tracking the stack depth.
+     */
+    private static class Builder {
+        private final int[] code;
+        private final List<Float> constants = new ArrayList<>();
+        private final List<String> literals = new ArrayList<>();
+        private final List<String> variables = new ArrayList<>();
+        private int size;
+        private int depth;
+        private int maxDepth;
+
+        Builder(int capacity) {
+            this.code = new int[capacity];
+        }
+
+        void operand(Token token) throws InvalidInputException {
+            switch (token) {
+                case Token.Literal literal -> {
+                    constants.add(literal.value());
+                    literals.add(literal.text());
+                    push(PostfixProgram.PUSH_CONSTANT, constants.size() - 1);
+                }
+                case Token.Variable variable -> push(PostfixProgram.LOAD_VARIABLE, variable(variable.name()));
+                case Token.Unary unary -> push(opcodeOf(unary.operator()), variable(unary.operator().getVariable()));
+                case Token.Invalid invalid -> throw new InvalidInputException(invalid.text());
+                case Token.Operator operator -> throw new IllegalStateException("Operators are not operands: " + operator);
+            }
+        }
+
+        void operator(IOperator operator) throws InvalidInputException {
+            if (operator instanceof PluginOperator || operator instanceof MathFunction) {
+                int arity = operator.getArity();
+                if (depth < arity) {
+                    throw new InvalidInputException("Invalid expression: Not enough values");
+                }
+                code[size++] = operator instanceof PluginOperator plugin
+                        ? PostfixProgram.instruction(PostfixProgram.APPLY_OPERATOR, plugin.id())
+                        : PostfixProgram.instruction(PostfixProgram.CALL_FUNCTION, ((MathFunction) operator).ordinal());
+                depth += 1 - arity;
+                maxDepth = Math.max(maxDepth, depth);
+                return;
+            }
+            if (depth < 2) {
+                throw new InvalidInputException("Invalid expression: Not enough values");
+            }
+            code[size++] = PostfixProgram.instruction(opcodeOf(operator), 0);
+            depth--;
+        }
+
+        PostfixProgram build() throws InvalidInputException {
+            if (depth != 1) {
+                throw new InvalidInputException(depth == 0 ? "Invalid expression: Not enough values" : "Invalid expression: Too many values");
+            }
+            float[] constantPool = new float[constants.size()];
+            for (int i = 0; i < constantPool.length; i++) {
+                constantPool[i] = constants.get(i);
+            }
+            return new PostfixProgram(Arrays.copyOf(code, size), constantPool, literals.toArray(new String[0]),
+                    variables.toArray(new String[0]), maxDepth);
+        }
+
+        private void push(int opcode, int operand) {
+            code[size++] = PostfixProgram.instruction(opcode, operand);
+            maxDepth = Math.max(maxDepth, ++depth);
+        }
+
+        private int variable(String name) {
+            int index = variables.indexOf(name);
+            if (index < 0) {
+                variables.add(name);
+                return variables.size() - 1;
+            }
+            return index;
+        }
+
+        private static int opcodeOf(IUnaryOperator operator) throws InvalidInputException {
+            if (operator instanceof IncrementOperator) {
+                return operator.isPostOperation() ? PostfixProgram.POST_INCREMENT : PostfixProgram.PRE_INCREMENT;
+            } else if (operator instanceof DecrementOperator) {
+                return operator.isPostOperation() ? PostfixProgram.POST_DECREMENT : PostfixProgram.PRE_DECREMENT;
+            }
+            throw new InvalidInputException("Unsupported unary operator: " + operator);
+        }
+
+        private static int opcodeOf(IOperator operator) throws InvalidInputException {
+            if (operator instanceof AddOperator) {
+                return PostfixProgram.ADD;
+            } else if (operator instanceof SubtractOperator) {
+                return PostfixProgram.SUBTRACT;
+            } else if (operator instanceof MultiplyOperator) {
+                return PostfixProgram.MULTIPLY;
+            } else if (operator instanceof DivideOperator) {
+                return PostfixProgram.DIVIDE;
+            } else if (operator instanceof ModulusOperator) {
+                return PostfixProgram.MODULUS;
+            } else if (operator instanceof ExponentOperator) {
+                return PostfixProgram.POWER;
+            }
+            throw new InvalidInputException("Unsupported operator: " + operator.getSymbol());
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.calculator.compiler;
+
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.operators.DivideOperator;
+import com.calculator.models.operators.ExponentOperator;
+import com.calculator.models.operators.MathFunction;
+import com.calculator.spi.OperatorDefinition;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+
+/**
+ * The {@code ProgramOptimizer} class simplifies a {@link PostfixProgram} before it is evaluated, without
+ * changing a single bit of any float result:
+ * <ul>
+ *     <li>operators whose operands are both constant are folded into a constant, with the same float
+ *     arithmetic the interpreter uses, e.g. {@code y * (60 * 60 * 24)} becomes {@code y * 86400};
+ *     divisions by a constant zero are kept, so they still fail when evaluated;</li>
+ *     <li>identities are removed where IEEE 754 makes them exact: {@code x * 1}, {@code 1 * x},
+ *     {@code x / 1}, {@code x ^ 1}, {@code x - 0} and {@code x + -0}. {@code x + 0} is kept, as it
+ *     turns {@code -0} into {@code 0};</li>
+ *     <li>{@code x ^ 2} of a variable becomes {@code x * x}, which equals {@code Math.pow(x, 2)} rounded
+ *     to float because the square of a float is exact in double. Higher powers are kept, since
+ *     repeated float multiplication rounds differently from {@code Math.pow}.</li>
+ *     <li>built-in functions and pure operators of {@link com.calculator.spi.OperatorProvider}s whose
+ *     operands are all constant are folded by calling them once, e.g. {@code sqrt(2) * x} becomes
+ *     {@code 1.4142135 * x}; impure operators are always kept.</li>
+ * </ul>
+ * Operands are never reordered or reassociated, so {@code y * 60 * 60} stays as written, and no subtree
+ * reading a variable is dropped, so reading an unassigned variable still fails.
+ * <p>
+ * Folding follows float arithmetic only: the optimized program keeps the program it was optimized from
+ * as its {@link PostfixProgram#source() source}, which the other numeric backends evaluate instead.
+ */
+public class ProgramOptimizer {
+
+    /**
+     * The system property disabling the optimizer when set to {@code false}.
+     */
+    public static final String ENABLED_PROPERTY = "calculator.optimizer";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+
+    private static final int NEGATIVE_ZERO_BITS = Float.floatToRawIntBits(-0f);
+
+    private ProgramOptimizer() {
+    }
+
+    /**
+     * Optimizes a program if the optimizer is enabled by {@value #ENABLED_PROPERTY}.
+     *
+     * @param program the program to optimize
+     * @return the optimized program, or {@code program} itself if disabled or nothing was simplified
+     */
+    public static PostfixProgram optimizeIfEnabled(PostfixProgram program) {
+        return ENABLED ? optimize(program) : program;
+    }
+
+    /**
+     * Optimizes a program.
+     *
+     * @param program the program to optimize
+     * @return the optimized program, or {@code program} itself if nothing was simplified
+     */
+    public static PostfixProgram optimize(PostfixProgram program) {
+        int[] code = program.code();
+        float[] constants = program.constants();
+        String[] literals = program.literals();
+        Deque<Fragment> stack = new ArrayDeque<>();
+        boolean simplified = false;
+        for (int instruction : code) {
+            int opcode = PostfixProgram.opcode(instruction);
+            int operand = PostfixProgram.operand(instruction);
+            if (opcode == PostfixProgram.PUSH_CONSTANT) {
+                stack.push(Fragment.constant(constants[operand], literals[operand]));
+            } else if (opcode == PostfixProgram.LOAD_VARIABLE || PostfixProgram.isUnary(opcode)) {
+                stack.push(Fragment.code(instruction));
+            } else if (opcode == PostfixProgram.APPLY_OPERATOR || opcode == PostfixProgram.CALL_FUNCTION) {
+                Fragment[] operands = new Fragment[PostfixProgram.arity(instruction)];
+                for (int i = operands.length - 1; i >= 0; i--) {
+                    operands[i] = stack.pop();
+                }
+                Fragment result;
+                if (opcode == PostfixProgram.CALL_FUNCTION) {
+                    result = foldOperator(true, MathFunction.of(operand)::apply, operands);
+                } else {
+                    OperatorDefinition definition = OperatorFactory.getPluginOperator(operand).definition();
+                    result = foldOperator(definition.pure(), definition.implementation(), operands);
+                }
+                simplified |= result != null;
+                stack.push(result != null ? result : Fragment.combine(operands, instruction));
+            } else {
+                Fragment second = stack.pop();
+                Fragment first = stack.pop();
+                Fragment result = simplify(opcode, first, second);
+                simplified |= result != null;
+                stack.push(result != null ? result : Fragment.combine(first, second, instruction));
+            }
+        }
+        if (!simplified) {
+            return program;
+        }
+        return stack.pop().emit(program);
+    }
+
+    /**
+     * Simplifies one operator.
+     *
+     * @return the simplified fragment, or {@code null} if the operator is kept
+     */
+    private static Fragment simplify(int opcode, Fragment first, Fragment second) {
+        if (first.isConstant() && second.isConstant()) {
+            return fold(opcode, first.value, second.value);
+        }
+        return switch (opcode) {
+            case PostfixProgram.ADD -> second.is(NEGATIVE_ZERO_BITS) ? first : first.is(NEGATIVE_ZERO_BITS) ? second : null;
+            case PostfixProgram.SUBTRACT -> second.is(0) ? first : null;
+            case PostfixProgram.MULTIPLY -> second.isOne() ? first : first.isOne() ? second : null;
+            case PostfixProgram.DIVIDE -> second.isOne() ? first : null;
+            case PostfixProgram.POWER -> {
+                if (second.isOne()) {
+                    yield first;
+                }
+                if (second.is(Float.floatToRawIntBits(2f)) && first.isVariable()) {
+                    yield Fragment.combine(first, first, PostfixProgram.instruction(PostfixProgram.MULTIPLY, 0));
+                }
+                yield null;
+            }
+            default -> null;
+        };
+    }
+
+    /**
+     * Folds an operator of two constants.
+     *
+     * @return the constant result, or {@code null} for a division by zero, which must fail when evaluated
+     */
+    private static Fragment fold(int opcode, float first, float second) {
+        if (opcode == PostfixProgram.DIVIDE && second == 0) {
+            return null;
+        }
+        float value = switch (opcode) {
+            case PostfixProgram.ADD -> first + second;
+            case PostfixProgram.SUBTRACT -> first - second;
+            case PostfixProgram.MULTIPLY -> first * second;
+            case PostfixProgram.DIVIDE -> DivideOperator.divide(first, second);
+            case PostfixProgram.MODULUS -> first % second;
+            case PostfixProgram.POWER -> ExponentOperator.power(first, second);
+            default -> throw new IllegalStateException("Not a binary operator: " + opcode);
+        };
+        return Fragment.constant(value, String.valueOf(value));
+    }
+
+    /**
+     * Folds a built-in function or an operator of a provider whose operands are all constant, if it is pure.
+     *
+     * @return the constant result, or {@code null} if the operator is kept; an operator failing on its
+     *         constants is kept, so it still fails when evaluated
+     */
+    private static Fragment foldOperator(boolean pure, OperatorDefinition.Implementation implementation, Fragment[] operands) {
+        if (!pure) {
+            return null;
+        }
+        float[] values = new float[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            if (!operands[i].isConstant()) {
+                return null;
+            }
+            values[i] = operands[i].value;
+        }
+        float value;
+        try {
+            value = implementation.apply(values, 0);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return Fragment.constant(value, String.valueOf(value));
+    }
+
+    /**
+     * A simplified subexpression: either a constant or postfix code whose constants are kept aside
+     * until the program is emitted.
+     */
+    private static final class Fragment {
+        private final float value;
+        private final String literal;
+        private final int[] code;
+        private final List<Fragment> constants;
+
+        private Fragment(float value, String literal, int[] code, List<Fragment> constants) {
+            this.value = value;
+            this.literal = literal;
+            this.code = code;
+            this.constants = constants;
+        }
+
+        static Fragment constant(float value, String literal) {
+            return new Fragment(value, literal, null, null);
+        }
+
+        static Fragment code(int instruction) {
+            return new Fragment(0, null, new int[]{instruction}, List.of());
+        }
+
+        /**
+         * Concatenates the code of two operands and an operator. Constant operands become
+         * {@link PostfixProgram#PUSH_CONSTANT} instructions whose operand indexes the constant list.
+         */
+        static Fragment combine(Fragment first, Fragment second, int instruction) {
+            return combine(new Fragment[]{first, second}, instruction);
+        }
+
+        /**
+         * Concatenates the code of any number of operands and an operator.
+         */
+        static Fragment combine(Fragment[] operands, int instruction) {
+            int constantCount = 0;
+            for (Fragment operand : operands) {
+                constantCount += operand.constantCount();
+            }
+            List<Fragment> constants = new ArrayList<>(constantCount);
+            int[] code = new int[0];
+            for (Fragment operand : operands) {
+                int[] operandCode = operand.materialize(constants);
+                int length = code.length;
+                code = Arrays.copyOf(code, length + operandCode.length);
+                System.arraycopy(operandCode, 0, code, length, operandCode.length);
+            }
+            code = Arrays.copyOf(code, code.length + 1);
+            code[code.length - 1] = instruction;
+            return new Fragment(0, null, code, constants);
+        }
+
+        boolean isConstant() {
+            return code == null;
+        }
+
+        boolean isVariable() {
+            return code != null && code.length == 1 && PostfixProgram.opcode(code[0]) == PostfixProgram.LOAD_VARIABLE;
+        }
+
+        boolean isOne() {
+            return isConstant() && value == 1f;
+        }
+
+        boolean is(int bits) {
+            return isConstant() && Float.floatToRawIntBits(value) == bits;
+        }
+
+        private int constantCount() {
+            return isConstant() ? 1 : constants.size();
+        }
+
+        /**
+         * Returns the code of this fragment, appending its constants to the list and renumbering them.
+         */
+        private int[] materialize(List<Fragment> target) {
+            int base = target.size();
+            if (isConstant()) {
+                target.add(this);
+                return new int[]{PostfixProgram.instruction(PostfixProgram.PUSH_CONSTANT, base)};
+            }
+            target.addAll(constants);
+            int[] renumbered = code.clone();
+            for (int i = 0; i < renumbered.length; i++) {
+                if (PostfixProgram.opcode(renumbered[i]) == PostfixProgram.PUSH_CONSTANT) {
+                    renumbered[i] = PostfixProgram.instruction(PostfixProgram.PUSH_CONSTANT, PostfixProgram.operand(renumbered[i]) + base);
+                }
+            }
+            return renumbered;
+        }
+
+        /**
+         * Emits the optimized program, keeping the variables of the source program, so that variable
+         * operands and slots stay valid.
+         */
+        PostfixProgram emit(PostfixProgram source) {
+            List<Fragment> pool = new ArrayList<>();
+            int[] program = materialize(pool);
+            float[] constantPool = new float[pool.size()];
+            String[] literalPool = new String[pool.size()];
+            for (int i = 0; i < constantPool.length; i++) {
+                constantPool[i] = pool.get(i).value;
+                literalPool[i] = pool.get(i).literal;
+            }
+            int depth = 0;
+            int maxDepth = 0;
+            for (int instruction : program) {
+                depth += 1 - PostfixProgram.arity(instruction);
+                maxDepth = Math.max(maxDepth, depth);
+            }
+            return new PostfixProgram(program, constantPool, literalPool, source.variables(), maxDepth, source);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.calculator.compiler;
+
+import com.calculator.models.PostfixProgram;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code TieredExecutionEngine} class decides whether a statement is interpreted or runs as
+ * compiled bytecode.
+ * <p>
+ * Every statement starts in the interpreter. The engine counts executions per {@link PostfixProgram},
+ * so statements sharing a right-hand side share a profile, and once a program reaches the compile
+ * threshold it is compiled with {@link ExpressionCompiler}. When compilation fails the program is
+ * marked as not compilable and stays interpreted while it is profiled.
+ * At most {@value #MAX_PROFILED_STATEMENTS} programs are profiled at once. When a new program finds the
+ * table full, the programs executed least often since the previous sweep are evicted until at most half of
+ * the table is used, and the counts of the others are halved, so programs that are no longer run make room
+ * for new ones while hot programs keep their compiled form. An evicted program starts over in the interpreter.
+ * Counters report how many statements were compiled and how many executions ran in each tier.
+ */
+public class TieredExecutionEngine {
+
+    private static final Logger logger = LogManager.getLogger(TieredExecutionEngine.class);
+
+    /**
+     * The system property used to override the default compile threshold.
+     */
+    public static final String THRESHOLD_PROPERTY = "calculator.compile.threshold";
+
+    /**
+     * The default number of interpreted executions before a statement is compiled.
+     */
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    /**
+     * The maximum number of statements profiled at once; cold profiles are evicted to make room for more.
+     */
+    public static final int MAX_PROFILED_STATEMENTS = 4096;
+
+    private final int threshold;
+    private final ExpressionCompiler compiler = new ExpressionCompiler();
+    private final Map<PostfixProgram, Profile> profiles = new ConcurrentHashMap<>();
+    private final LongAdder compiledStatements = new LongAdder();
+    private final LongAdder failedCompilations = new LongAdder();
+    private final LongAdder compiledExecutions = new LongAdder();
+    private final LongAdder interpretedExecutions = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new {@code TieredExecutionEngine}.
+     *
+     * @param threshold the number of interpreted executions before a statement is compiled,
+     *                  {@code 0} compiles statements on their first execution
+     */
+    public TieredExecutionEngine(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Compile threshold must not be negative: " + threshold);
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * Creates an engine whose threshold is read from the {@value #THRESHOLD_PROPERTY} system property,
+     * falling back to {@value #DEFAULT_THRESHOLD} executions.
+     *
+     * @return a new engine with the configured threshold
+     */
+    public static TieredExecutionEngine fromSystemProperties() {
+        return new TieredExecutionEngine(Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD));
+    }
+
+    /**
+     * Records an execution of the statement and returns its compiled form if one is available.
+     *
+     * @param program the postfix program of the statement about to be executed
+     * @return the compiled statement, or {@code null} if the statement must be interpreted
+     */
+    public CompiledStatement select(PostfixProgram program) {
+        Profile profile = profiles.get(program);
+        if (profile == null) {
+            if (profiles.size() >= MAX_PROFILED_STATEMENTS) {
+                evictColdProfiles();
+            }
+            profile = profiles.computeIfAbsent(program, key -> new Profile());
+        }
+        profile.recentExecutions++;
+        CompiledStatement compiled = profile.compiled;
+        if (compiled == null && !profile.failed && profile.executions++ >= threshold) {
+            compiled = compile(program, profile);
+        }
+        if (compiled != null) {
+            compiledExecutions.increment();
+            return compiled;
+        }
+        interpretedExecutions.increment();
+        return null;
+    }
+
+    /**
+     * Evicts the profiles executed least often since the previous sweep until at most half of the table
+     * is used, and halves the counts of the others.
+     */
+    private synchronized void evictColdProfiles() {
+        if (profiles.size() < MAX_PROFILED_STATEMENTS) {
+            return; // Another thread swept while this one was waiting
+        }
+        for (int limit = 0; profiles.size() > MAX_PROFILED_STATEMENTS / 2; limit = limit * 2 + 1) {
+            int coldest = limit;
+            profiles.values().removeIf(profile -> profile.recentExecutions <= coldest);
+        }
+        for (Profile profile : profiles.values()) {
+            profile.recentExecutions = 0;
+            profile.executions /= 2;
+        }
+        evictions.increment();
+        logger.debug("Evicted cold profiles, {} programs are still profiled", profiles.size());
+    }
+
+    private CompiledStatement compile(PostfixProgram program, Profile profile) {
+        synchronized (profile) {
+            if (profile.compiled != null || profile.failed) {
+                return profile.compiled;
+            }
+            try {
+                profile.compiled = compiler.compile(program);
+                compiledStatements.increment();
+                logger.debug("Compiled program: {}", program);
+            } catch (Exception | LinkageError e) {
+                profile.failed = true;
+                failedCompilations.increment();
+                logger.debug("Program stays interpreted: {} {}", program, e.getMessage());
+            }
+            return profile.compiled;
+        }
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public long getCompiledStatementCount() {
+        return compiledStatements.sum();
+    }
+
+    public long getFailedCompilationCount() {
+        return failedCompilations.sum();
+    }
+
+    public long getCompiledExecutionCount() {
+        return compiledExecutions.sum();
+    }
+
+    public long getInterpretedExecutionCount() {
+        return interpretedExecutions.sum();
+    }
+
+    /**
+     * Returns the number of programs currently profiled.
+     *
+     * @return the number of profiles
+     */
+    public int getProfiledStatementCount() {
+        return profiles.size();
+    }
+
+    /**
+     * Returns how many times cold profiles were evicted to make room for new programs.
+     *
+     * @return the number of sweeps
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TieredExecutionEngine(threshold=%d, compiled=%d, failed=%d, compiledExecutions=%d, interpretedExecutions=%d)",
+                threshold, getCompiledStatementCount(), getFailedCompilationCount(),
+                getCompiledExecutionCount(), getInterpretedExecutionCount());
+    }
+
+    /**
+     * Execution profile of a single program. The engine may be shared by several evaluating threads:
+     * the execution counts are then approximate, and a program is compiled once under the profile's lock.
+     */
+    private static class Profile {
+        private int executions;
+        private int recentExecutions; // Executions since the last sweep
+        private volatile CompiledStatement compiled;
+        private volatile boolean failed;
+    }
+}
@@ -0,0 +1,47 @@
+package com.calculator.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+
+/**
+ * A Flight Recorder event for a pipeline stage waiting for its next batch of input. Its duration is the
+ * time the stage's worker was blocked on its input queue.
+ */
+@Name(StageHandoffEvent.NAME)
+@Label("Stage Handoff")
+@Category({"Calculator", "Pipeline"})
+@Description("A pipeline stage waiting for and receiving its next batch of input")
+@StackTrace(false)
+@Threshold("10 us")
+public class StageHandoffEvent extends Event {
+
+    public static final String NAME = "com.calculator.StageHandoff";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Batch Size")
+    @Description("The number of input elements received")
+    int batchSize;
+
+    /**
+     * Ends the event and commits it, describing the handoff, if it passes its settings.
+     *
+     * @param stage the receiving stage
+     * @param batchSize the number of input elements received
+     */
+    public void commit(String stage, int batchSize) {
+        end();
+        if (shouldCommit()) {
+            this.stage = stage;
+            this.batchSize = batchSize;
+            commit();
+        }
+    }
+}
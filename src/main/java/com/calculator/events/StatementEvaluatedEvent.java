@@ -0,0 +1,64 @@
+package com.calculator.events;
+
+import com.calculator.models.Expression;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+
+/**
+ * A Flight Recorder event for evaluating one statement and assigning its result.
+ */
+@Name(StatementEvaluatedEvent.NAME)
+@Label("Statement Evaluated")
+@Category({"Calculator", "Statements"})
+@Description("Evaluating a statement and updating its variable")
+@StackTrace(false)
+@Threshold("20 us")
+public class StatementEvaluatedEvent extends StatementEvent {
+
+    public static final String NAME = "com.calculator.StatementEvaluated";
+
+    private static volatile EventType eventType;
+
+    @Label("Compiled")
+    @Description("Whether the statement ran as compiled bytecode rather than interpreted")
+    boolean compiled;
+
+    /**
+     * Returns whether a running recording has this event enabled, so that callers create events only then.
+     * Flight Recorder is not touched until it has been started.
+     *
+     * @return whether the event is recorded
+     */
+    public static boolean isRecorded() {
+        if (!FlightRecorder.isInitialized()) {
+            return false;
+        }
+        EventType type = eventType;
+        if (type == null) {
+            eventType = type = EventType.getEventType(StatementEvaluatedEvent.class);
+        }
+        return type.isEnabled();
+    }
+
+    /**
+     * Ends the event and commits it, describing the evaluated statement, if it passes its settings.
+     *
+     * @param expression the evaluated statement
+     * @param compiled whether the statement ran compiled
+     */
+    public void commit(Expression expression, boolean compiled) {
+        end();
+        if (shouldCommit()) {
+            describe(expression);
+            this.compiled = compiled;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.calculator.events;
+
+import com.calculator.models.Expression;
+import java.util.List;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+
+/**
+ * The {@code StatementEvent} class is the base of the Flight Recorder events describing one statement:
+ * its text, the variable it assigns and the size and nesting of its right-hand side. The event's duration is the
+ * time spent on the statement.
+ * <p>
+ * The fields are filled in only once {@link #shouldCommit()} has passed the event's enablement and
+ * threshold, so statements below the threshold cost little more than two clock reads.
+ */
+abstract class StatementEvent extends Event {
+
+    @Label("Statement")
+    String statement;
+
+    @Label("Variable")
+    String variable;
+
+    @Label("Token Count")
+    int tokenCount;
+
+    @Label("Nesting Depth")
+    int nestingDepth;
+
+    void describe(Expression expression) {
+        statement = expression.assignedVariable() + " " + expression.assignmentOperator().getSymbol() + " "
+                + String.join(" ", expression.expressionParts());
+        variable = expression.assignedVariable();
+        tokenCount = expression.expressionParts().size();
+        nestingDepth = nestingDepth(expression.expressionParts());
+    }
+
+    /**
+     * Returns the deepest nesting of parentheses.
+     *
+     * @param expressionParts the tokens of the right-hand side
+     * @return the nesting depth, {@code 0} without parentheses
+     */
+    static int nestingDepth(List<String> expressionParts) {
+        int depth = 0;
+        int maxDepth = 0;
+        for (String part : expressionParts) {
+            if (part.equals("(")) {
+                maxDepth = Math.max(maxDepth, ++depth);
+            } else if (part.equals(")")) {
+                depth--;
+            }
+        }
+        return maxDepth;
+    }
+}
@@ -0,0 +1,72 @@
+package com.calculator.events;
+
+import com.calculator.models.Expression;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * An instant Flight Recorder event for a statement that could not be parsed or evaluated. Statements
+ * that failed to parse carry only their text. Failures are recorded regardless of any threshold.
+ */
+@Name(StatementFailedEvent.NAME)
+@Label("Statement Failed")
+@Category({"Calculator", "Statements"})
+@Description("A statement that could not be parsed or evaluated")
+@StackTrace(false)
+public class StatementFailedEvent extends StatementEvent {
+
+    public static final String NAME = "com.calculator.StatementFailed";
+
+    public static final String PARSE = "parse";
+    public static final String EVALUATE = "evaluate";
+
+    @Label("Stage")
+    @Description("The stage the statement failed in, parse or evaluate")
+    String stage;
+
+    @Label("Cause")
+    @Description("The class of the exception the statement failed with")
+    Class<?> cause;
+
+    @Label("Message")
+    String message;
+
+    /**
+     * Commits the event, describing a statement that failed to parse, if it is enabled.
+     *
+     * @param statement the source text of the statement
+     * @param failure the exception the statement failed with
+     */
+    public void commit(String statement, Throwable failure) {
+        if (shouldCommit()) {
+            this.stage = PARSE;
+            this.statement = statement;
+            describe(failure);
+            commit();
+        }
+    }
+
+    /**
+     * Commits the event, describing a statement that failed to evaluate, if it is enabled.
+     *
+     * @param expression the parsed statement
+     * @param failure the exception the statement failed with
+     */
+    public void commit(Expression expression, Throwable failure) {
+        if (shouldCommit()) {
+            this.stage = EVALUATE;
+            describe(expression);
+            describe(failure);
+            commit();
+        }
+    }
+
+    private void describe(Throwable failure) {
+        cause = failure.getClass();
+        message = failure.getMessage();
+    }
+}
@@ -0,0 +1,58 @@
+package com.calculator.events;
+
+import com.calculator.models.Expression;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+
+/**
+ * A Flight Recorder event for parsing one statement, including the lookup in the parse cache.
+ */
+@Name(StatementParsedEvent.NAME)
+@Label("Statement Parsed")
+@Category({"Calculator", "Statements"})
+@Description("Parsing and compiling a statement, or finding it in the parse cache")
+@StackTrace(false)
+@Threshold("20 us")
+public class StatementParsedEvent extends StatementEvent {
+
+    public static final String NAME = "com.calculator.StatementParsed";
+
+    private static volatile EventType eventType;
+
+    /**
+     * Returns whether a running recording has this event enabled, so that callers create events only then.
+     * Flight Recorder is not touched until it has been started.
+     *
+     * @return whether the event is recorded
+     */
+    public static boolean isRecorded() {
+        if (!FlightRecorder.isInitialized()) {
+            return false;
+        }
+        EventType type = eventType;
+        if (type == null) {
+            eventType = type = EventType.getEventType(StatementParsedEvent.class);
+        }
+        return type.isEnabled();
+    }
+
+    /**
+     * Ends the event and commits it, describing the parsed statement, if it passes its settings.
+     *
+     * @param expression the parsed statement
+     */
+    public void commit(Expression expression) {
+        end();
+        if (shouldCommit()) {
+            describe(expression);
+            commit();
+        }
+    }
+}
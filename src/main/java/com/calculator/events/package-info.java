@@ -0,0 +1,25 @@
+/**
+ * Flight Recorder events describing the work on individual statements, so that the time spent parsing,
+ * evaluating and waiting between the pipeline stages can be told apart in a recording, and the slow
+ * statements found:
+ * <ul>
+ *     <li>{@code com.calculator.StatementParsed}, with a default threshold of 20 us;</li>
+ *     <li>{@code com.calculator.StatementEvaluated}, with a default threshold of 20 us;</li>
+ *     <li>{@code com.calculator.StatementFailed}, recorded for every failure;</li>
+ *     <li>{@code com.calculator.StageHandoff}, with a default threshold of 10 us.</li>
+ * </ul>
+ * Enablement and thresholds are set like those of the JDK's own events, in a {@code .jfc} settings file.
+ * Application events are not known yet when the JVM starts, so they cannot be set on the command line
+ * itself; {@code calculator.jfc} in the resources lists them with their defaults, to be copied, edited and
+ * combined with the JDK's settings:
+ * <pre>{@code
+ * java -XX:StartFlightRecording:filename=calculator.jfr,settings=default,settings=calculator.jfc \
+ *      -jar CalculatorApp.jar --script statements.txt
+ * jfr print --events com.calculator.StatementEvaluated calculator.jfr
+ * }</pre>
+ * Until Flight Recorder is started, a statement pays one check of
+ * {@link jdk.jfr.FlightRecorder#isInitialized()} for its events. Once it is, parsed and evaluated events
+ * are only created while a running recording has them enabled, and are never filled in or committed
+ * below their threshold; failures are only described when they occur.
+ */
+package com.calculator.events;
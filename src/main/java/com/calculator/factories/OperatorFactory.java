@@ -1,16 +1,44 @@
 package com.calculator.factories;
 
 import com.calculator.models.operators.*;
+import com.calculator.spi.OperatorDefinition;
+import com.calculator.spi.OperatorProvider;
 import com.calculator.utils.ExpressionParser;
-import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.BiFunction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 
+/**
+ * The {@code OperatorFactory} class holds the operators known to the parser: the built-in operators and
+ * {@link MathFunction functions}, and those declared by the {@link OperatorProvider}s found on the class
+ * path by {@link ServiceLoader}.
+ * <p>
+ * Every operator is created once, when the class is initialized; unary {@code ++}/{@code --} operators,
+ * which carry their variable, are created through constructor references. Operators of providers are
+ * numbered in the order they are registered, and instructions refer to them by that id, see
+ * {@link #getPluginOperator(int)}. A provider that cannot be loaded is logged and skipped, and so is every
+ * definition whose symbol or function name is already taken, by a built-in or an earlier provider: one bad
+ * plugin on the class path must not disable the calculator, and the operators already known keep their meaning.
+ */
 public class OperatorFactory {
+
+    private static final Logger logger = LogManager.getLogger(OperatorFactory.class);
+
     private static final Map<String, IOperator> operators = new HashMap<>();
-    private static final Map<String, Class<? extends IUnaryOperator>> unaryOperators = new HashMap<>();
+    private static final Map<String, PluginOperator> prefixOperators = new HashMap<>();
+    private static final Map<String, IOperator> functions = new HashMap<>();
+    private static final Map<String, BiFunction<String, Boolean, IUnaryOperator>> unaryOperatorConstructors = new HashMap<>();
+    private static final PluginOperator[] pluginOperators;
+    private static final int maxSymbolLength;
 
     static {
         operators.put("+", new AddOperator());
@@ -21,8 +49,66 @@ public class OperatorFactory {
         operators.put("^", new ExponentOperator());
         operators.put("(", new OpenParenthesisOperator());
         operators.put(")", new CloseParenthesisOperator());
-        unaryOperators.put("++", IncrementOperator.class);
-        unaryOperators.put("--", DecrementOperator.class);
+        operators.put(",", new CommaOperator());
+        unaryOperatorConstructors.put("++", IncrementOperator::new);
+        unaryOperatorConstructors.put("--", DecrementOperator::new);
+        for (MathFunction function : MathFunction.values()) {
+            functions.put(function.getSymbol(), function);
+        }
+
+        List<PluginOperator> registered = new ArrayList<>();
+        Iterator<OperatorProvider> providers = ServiceLoader.load(OperatorProvider.class).iterator();
+        while (true) {
+            OperatorProvider provider;
+            try {
+                if (!providers.hasNext()) {
+                    break;
+                }
+                provider = providers.next();
+            } catch (ServiceConfigurationError e) {
+                logger.error("Skipping operator provider: {}", e.getMessage());
+                continue;
+            }
+            List<OperatorDefinition> definitions;
+            try {
+                definitions = provider.getOperators();
+            } catch (RuntimeException e) {
+                logger.error("Skipping operator provider {}: {}", provider.getClass().getName(), e.getMessage());
+                continue;
+            }
+            for (OperatorDefinition definition : definitions) {
+                PluginOperator operator = new PluginOperator(registered.size(), definition);
+                if (!register(operator)) {
+                    logger.warn("Skipping operator {} from {}: its symbol is already taken", definition, provider.getClass().getName());
+                    continue;
+                }
+                registered.add(operator);
+                logger.info("Registered operator {} from {}", definition, provider.getClass().getName());
+            }
+        }
+        pluginOperators = registered.toArray(new PluginOperator[0]);
+        int longest = 0;
+        for (PluginOperator operator : pluginOperators) {
+            if (!operator.isFunction()) {
+                longest = Math.max(longest, operator.getSymbol().length());
+            }
+        }
+        maxSymbolLength = longest;
+    }
+
+    /**
+     * Registers an operator of a provider unless its symbol is taken.
+     *
+     * @return {@code false} if the symbol is taken and the operator was not registered
+     */
+    private static boolean register(PluginOperator operator) {
+        String symbol = operator.getSymbol();
+        return switch (operator.definition().kind()) {
+            case BINARY -> operators.putIfAbsent(symbol, operator) == null;
+            case PREFIX -> !(operators.containsKey(symbol) && !(operators.get(symbol) instanceof PluginOperator))
+                    && prefixOperators.putIfAbsent(symbol, operator) == null;
+            case FUNCTION -> functions.putIfAbsent(symbol, operator) == null;
+        };
     }
 
     public static IOperator getOperator(String symbol) {
@@ -32,15 +118,142 @@ public class OperatorFactory {
         return operators.get(symbol);
     }
 
-    public static Optional<IUnaryOperator> getUnaryOperator(String expression) throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
-        return ExpressionParser.parseUnaryOperator(expression, unaryOperators);
+    /**
+     * Parses a pre or post increment or decrement such as {@code ++i} or {@code i--}.
+     *
+     * @param expression the operator and its variable
+     * @return the unary operator, or empty if the expression is not a unary operator applied to a variable
+     */
+    public static Optional<IUnaryOperator> getUnaryOperator(String expression) {
+        if (expression.length() <= 2) {
+            return Optional.empty();
+        }
+        String prefix = expression.substring(0, 2);
+        String suffix = expression.substring(expression.length() - 2);
+        if (isUnaryOperator(prefix) && ExpressionParser.isIdentifier(expression.substring(2))) {
+            return Optional.of(createUnaryOperator(prefix, expression.substring(2), false));
+        }
+        if (isUnaryOperator(suffix) && ExpressionParser.isIdentifier(expression.substring(0, expression.length() - 2))) {
+            return Optional.of(createUnaryOperator(suffix, expression.substring(0, expression.length() - 2), true));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Creates a unary operator without reflection.
+     *
+     * @param symbol the operator symbol, {@code ++} or {@code --}
+     * @param variable the variable the operator applies to
+     * @param isPostOperation whether the operator follows the variable
+     * @return the unary operator
+     * @throws IllegalArgumentException if the symbol is not a unary operator
+     */
+    public static IUnaryOperator createUnaryOperator(String symbol, String variable, boolean isPostOperation) {
+        BiFunction<String, Boolean, IUnaryOperator> constructor = unaryOperatorConstructors.get(symbol);
+        if (constructor == null) {
+            throw new IllegalArgumentException("Invalid unary operator: " + symbol);
+        }
+        return constructor.apply(variable, isPostOperation);
+    }
+
+    public static boolean isUnaryOperator(String symbol) {
+        return unaryOperatorConstructors.containsKey(symbol);
     }
 
     public static boolean isOperator(String symbol) {
         return operators.containsKey(symbol);
     }
 
+    /**
+     * Returns the prefix operator declared by a provider for a symbol.
+     *
+     * @param symbol the operator symbol
+     * @return the prefix operator
+     * @throws IllegalArgumentException if no prefix operator has the symbol
+     */
+    public static PluginOperator getPrefixOperator(String symbol) {
+        PluginOperator operator = prefixOperators.get(symbol);
+        if (operator == null) {
+            throw new IllegalArgumentException("Invalid prefix operator: " + symbol);
+        }
+        return operator;
+    }
+
+    public static boolean isPrefixOperator(String symbol) {
+        return prefixOperators.containsKey(symbol);
+    }
+
+    /**
+     * Returns the built-in function, or the function declared by a provider, under a name.
+     *
+     * @param name the function name
+     * @return the {@link MathFunction} or {@link PluginOperator}
+     * @throws IllegalArgumentException if no function has the name
+     */
+    public static IOperator getFunction(String name) {
+        IOperator function = functions.get(name);
+        if (function == null) {
+            throw new IllegalArgumentException("Unknown function: " + name);
+        }
+        return function;
+    }
+
+    public static boolean isFunction(String name) {
+        return functions.containsKey(name);
+    }
+
+    /**
+     * Returns an operator declared by a provider by the id its instructions refer to it with.
+     *
+     * @param id the id of the operator
+     * @return the operator
+     */
+    public static PluginOperator getPluginOperator(int id) {
+        return pluginOperators[id];
+    }
+
+    /**
+     * Returns the operators declared by providers, in the order of their ids.
+     *
+     * @return the registered operators
+     */
+    public static List<PluginOperator> getPluginOperators() {
+        return List.of(pluginOperators);
+    }
+
+    /**
+     * Finds the longest binary or prefix operator symbol declared by a provider at a position of a string.
+     *
+     * @param input the string
+     * @param position the offset the symbol starts at
+     * @param prefix whether to match prefix operators, expected where an operand is, rather than binary ones
+     * @return the length of the symbol, {@code 0} if none starts at the position
+     */
+    public static int matchSymbol(String input, int position, boolean prefix) {
+        int length = Math.min(maxSymbolLength, input.length() - position);
+        for (; length > 0; length--) {
+            String symbol = input.substring(position, position + length);
+            if (prefix ? prefixOperators.containsKey(symbol) : operators.get(symbol) instanceof PluginOperator) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
     public static boolean hasHigherPrecedence(IOperator op1, IOperator op2) {
         return op1.getPrecedence() > op2.getPrecedence();
     }
+
+    /**
+     * Determines whether an operator waiting on the stack must be applied before the incoming one
+     * is pushed: it binds tighter, or binds equally and the incoming operator is left-associative.
+     *
+     * @param stacked the operator on top of the operator stack
+     * @param incoming the operator being processed
+     * @return {@code true} if {@code stacked} must be applied first
+     */
+    public static boolean takesPrecedence(IOperator stacked, IOperator incoming) {
+        return hasHigherPrecedence(stacked, incoming)
+                || (stacked.getPrecedence() == incoming.getPrecedence() && !incoming.isRightAssociative());
+    }
 }
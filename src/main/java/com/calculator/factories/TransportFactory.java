@@ -0,0 +1,88 @@
+package com.calculator.factories;
+
+import com.calculator.utils.RingBufferQueue;
+import com.calculator.utils.RingBufferQueue.WaitStrategy;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+
+/**
+ * The {@code TransportFactory} class creates the queues connecting two pipeline stages.
+ * <p>
+ * The default transport is a preallocated single-producer/single-consumer {@link RingBufferQueue};
+ * setting the {@value #TRANSPORT_PROPERTY} system property to {@code blocking} selects a
+ * {@link LinkedBlockingQueue} instead, so both can be compared on the same hardware. Both transports
+ * are bounded by {@value #CAPACITY_PROPERTY}, so a fast producer blocks instead of queueing without limit.
+ */
+public class TransportFactory {
+
+    /**
+     * The system property selecting the transport, {@code ring} or {@code blocking}.
+     */
+    public static final String TRANSPORT_PROPERTY = "calculator.transport";
+
+    /**
+     * The system property setting the capacity of a transport.
+     */
+    public static final String CAPACITY_PROPERTY = "calculator.transport.capacity";
+
+    /**
+     * The system property selecting the ring buffer's wait strategy: {@code busy-spin}, {@code yield} or {@code park}.
+     */
+    public static final String WAIT_STRATEGY_PROPERTY = "calculator.transport.wait";
+
+    public static final String RING_BUFFER = "ring";
+    public static final String BLOCKING_QUEUE = "blocking";
+
+    /**
+     * The default capacity of a transport.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Creates a transport configured by the system properties.
+     *
+     * @param <E> the type of the transported elements
+     * @return a new, empty transport
+     * @throws IllegalArgumentException if a property has an invalid value
+     */
+    public static <E> BlockingQueue<E> createFromSystemProperties() {
+        return create(System.getProperty(TRANSPORT_PROPERTY, RING_BUFFER),
+                Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY),
+                parseWaitStrategy(System.getProperty(WAIT_STRATEGY_PROPERTY, "park")));
+    }
+
+    /**
+     * Creates a transport.
+     *
+     * @param transport {@value #RING_BUFFER} or {@value #BLOCKING_QUEUE}
+     * @param capacity the maximum number of queued elements; a ring buffer rounds it up to a power of two
+     * @param waitStrategy how the stages wait on a ring buffer, ignored for a blocking queue
+     * @param <E> the type of the transported elements
+     * @return a new, empty transport
+     * @throws IllegalArgumentException if the transport is unknown or the capacity is not positive
+     */
+    public static <E> BlockingQueue<E> create(String transport, int capacity, WaitStrategy waitStrategy) {
+        return switch (transport.toLowerCase(Locale.ROOT)) {
+            case RING_BUFFER -> new RingBufferQueue<>(capacity, waitStrategy);
+            case BLOCKING_QUEUE -> new LinkedBlockingQueue<>(capacity);
+            default -> throw new IllegalArgumentException("Invalid transport: " + transport);
+        };
+    }
+
+    /**
+     * Parses a wait strategy such as {@code busy-spin} or {@code PARK}.
+     *
+     * @param name the name of the strategy, case-insensitive, with {@code -} or {@code _} between words
+     * @return the wait strategy
+     * @throws IllegalArgumentException if there is no such strategy
+     */
+    public static WaitStrategy parseWaitStrategy(String name) {
+        try {
+            return WaitStrategy.valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid wait strategy: " + name);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.calculator.metrics;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code MetricsReporter} class periodically logs a {@link StageMetrics#summary() summary} of the
+ * metrics of every stage, for deployments without a JMX console. It logs from a daemon thread, so it
+ * does not keep the application alive, and once more when closed.
+ */
+public class MetricsReporter implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(MetricsReporter.class);
+
+    /**
+     * The system property setting the reporting interval in seconds; reporting is off when unset.
+     */
+    public static final String INTERVAL_PROPERTY = "calculator.metrics.report.interval";
+
+    private final List<StageMetrics> stages;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a new {@code MetricsReporter} and starts reporting.
+     *
+     * @param intervalSeconds the time between reports
+     * @param stages the metrics to report
+     */
+    public MetricsReporter(long intervalSeconds, StageMetrics... stages) {
+        if (intervalSeconds < 1) {
+            throw new IllegalArgumentException("Reporting interval must be positive: " + intervalSeconds);
+        }
+        this.stages = List.of(stages);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Starts a reporter if {@value #INTERVAL_PROPERTY} is set.
+     *
+     * @param stages the metrics to report
+     * @return the reporter, or {@code null} if reporting is off
+     */
+    public static MetricsReporter fromSystemProperties(StageMetrics... stages) {
+        Long interval = Long.getLong(INTERVAL_PROPERTY);
+        return interval != null ? new MetricsReporter(interval, stages) : null;
+    }
+
+    /**
+     * Logs the summary of every stage.
+     */
+    public void report() {
+        for (StageMetrics stage : stages) {
+            logger.info(stage.summary());
+        }
+    }
+
+    /**
+     * Stops reporting and logs a final report.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        report();
+    }
+}
@@ -0,0 +1,302 @@
+package com.calculator.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code StageMetrics} class records what one pipeline stage does: how many statements it
+ * processed, their latencies, the failures by cause, and how long its worker waits for input versus
+ * works on it.
+ * <p>
+ * Recording is lock-free and cheap enough to stay on in production. Counts and times are recorded once
+ * per batch. A clock read costs more than evaluating a short statement, so latencies are sampled: the
+ * stages time every statement whose position in its batch is a multiple of
+ * {@value #LATENCY_SAMPLING_PROPERTY} (default {@value #DEFAULT_LATENCY_SAMPLING}), which times every
+ * interactive statement and a fixed share of bulk input. Several threads may record into the same
+ * metrics, as the threads of a {@code ParallelStatementExecutor} do. Derived values such as percentiles
+ * and rates are computed when read, through the {@link StageMetricsMXBean} interface once
+ * {@link #register() registered} with JMX, or as a {@link #summary()} logged by a {@link MetricsReporter}.
+ */
+public class StageMetrics implements StageMetricsMXBean {
+    private static final Logger logger = LogManager.getLogger(StageMetrics.class);
+
+    /**
+     * The domain of the names under which metrics are registered.
+     */
+    public static final String DOMAIN = "com.calculator";
+
+    /**
+     * The system property setting that one in how many statements of a batch is timed; rounded up to a
+     * power of two, {@code 1} times every statement.
+     */
+    public static final String LATENCY_SAMPLING_PROPERTY = "calculator.metrics.latency.sampling";
+
+    public static final int DEFAULT_LATENCY_SAMPLING = 16;
+
+    private static final int SAMPLING_MASK =
+            Integer.highestOneBit(Math.max(1, Integer.getInteger(LATENCY_SAMPLING_PROPERTY, DEFAULT_LATENCY_SAMPLING) * 2 - 1)) - 1;
+
+    private static final AtomicInteger ids = new AtomicInteger();
+    private static final long SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String stage;
+    private final ObjectName objectName;
+    private final IntSupplier queueDepth;
+    private final LongAdder processed = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final LongAdder waitingNanos = new LongAdder();
+    private final LongAdder workingNanos = new LongAdder();
+    private long sampleTime = System.nanoTime();
+    private long sampleCount;
+    private double statementsPerSecond;
+
+    /**
+     * Constructs new metrics for a stage.
+     *
+     * @param stage the name of the stage, e.g. {@code parser}
+     * @param queueDepth supplies the number of statements waiting for the stage, {@code () -> 0} for a
+     *                   stage without an input queue
+     */
+    public StageMetrics(String stage, IntSupplier queueDepth) {
+        this.stage = stage;
+        this.queueDepth = queueDepth;
+        try {
+            this.objectName = new ObjectName(DOMAIN + ":type=Stage,name=" + stage + "-" + ids.incrementAndGet());
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid stage name: " + stage, e);
+        }
+    }
+
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Returns whether the statement at the given position of its batch is timed.
+     *
+     * @param index the position of the statement in its batch
+     * @return whether to record its latency
+     */
+    public static boolean isSampled(int index) {
+        return (index & SAMPLING_MASK) == 0;
+    }
+
+    /**
+     * Records processed statements, including failed ones.
+     *
+     * @param count the number of statements
+     */
+    public void recordProcessed(int count) {
+        processed.add(count);
+    }
+
+    /**
+     * Records the latency of a processed statement.
+     *
+     * @param nanos the time spent on the statement
+     */
+    public void recordLatency(long nanos) {
+        latencies.record(nanos);
+    }
+
+    /**
+     * Records a statement that failed. Its latency is recorded separately.
+     *
+     * @param cause the exception the statement failed with
+     */
+    public void recordFailure(Throwable cause) {
+        failures.computeIfAbsent(cause.getClass().getSimpleName(), name -> new LongAdder()).increment();
+    }
+
+    public void recordWaiting(long nanos) {
+        waitingNanos.add(nanos);
+    }
+
+    public void recordWorking(long nanos) {
+        workingNanos.add(nanos);
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public String getStage() {
+        return stage;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    @Override
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    @Override
+    public synchronized double getStatementsPerSecond() {
+        long now = System.nanoTime();
+        if (now - sampleTime >= SAMPLE_INTERVAL_NANOS) {
+            long count = getProcessedCount();
+            statementsPerSecond = (count - sampleCount) * (double) SAMPLE_INTERVAL_NANOS / (now - sampleTime);
+            sampleTime = now;
+            sampleCount = count;
+        }
+        return statementsPerSecond;
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return latencies.percentile(0.5);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return latencies.percentile(0.99);
+    }
+
+    @Override
+    public long getLatencyP999Nanos() {
+        return latencies.percentile(0.999);
+    }
+
+    @Override
+    public long getLatencyMaxNanos() {
+        return latencies.getMax();
+    }
+
+    @Override
+    public double getLatencyMeanNanos() {
+        return latencies.getMean();
+    }
+
+    @Override
+    public long getFailureCount() {
+        long count = 0;
+        for (LongAdder failure : failures.values()) {
+            count += failure.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getFailureCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        failures.forEach((cause, count) -> counts.put(cause, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public long getWaitingNanos() {
+        return waitingNanos.sum();
+    }
+
+    @Override
+    public long getWorkingNanos() {
+        return workingNanos.sum();
+    }
+
+    @Override
+    public double getWorkingRatio() {
+        long working = getWorkingNanos();
+        long total = working + getWaitingNanos();
+        return total == 0 ? 0 : working / (double) total;
+    }
+
+    @Override
+    public synchronized void reset() {
+        processed.reset();
+        latencies.reset();
+        failures.clear();
+        waitingNanos.reset();
+        workingNanos.reset();
+        sampleTime = System.nanoTime();
+        sampleCount = 0;
+        statementsPerSecond = 0;
+    }
+
+    /**
+     * Publishes these metrics through the platform MBean server. A failure to register is logged,
+     * since the stage works without it.
+     */
+    public void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            logger.warn("Failed to register metrics {}: {}", objectName, e.getMessage());
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server, if registered.
+     */
+    public void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            logger.warn("Failed to unregister metrics {}: {}", objectName, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a one-line summary of the metrics, e.g.
+     * {@code parser-1: 120000 statements (40000/s), p50 1.2us p99 8.1us p999 35us max 2.1ms,
+     * queue 3, working 62%, 2 failures {InvalidInputException=2}}.
+     *
+     * @return the summary
+     */
+    public String summary() {
+        long[] percentiles = latencies.percentiles(0.5, 0.99, 0.999);
+        StringBuilder sb = new StringBuilder();
+        sb.append(objectName.getKeyProperty("name")).append(": ")
+                .append(getProcessedCount()).append(" statements (")
+                .append(Math.round(getStatementsPerSecond())).append("/s), p50 ")
+                .append(formatNanos(percentiles[0])).append(" p99 ")
+                .append(formatNanos(percentiles[1])).append(" p999 ")
+                .append(formatNanos(percentiles[2])).append(" max ")
+                .append(formatNanos(getLatencyMaxNanos())).append(", queue ")
+                .append(getQueueDepth()).append(", working ")
+                .append(Math.round(getWorkingRatio() * 100)).append("%, ")
+                .append(getFailureCount()).append(" failures");
+        Map<String, Long> failureCounts = getFailureCounts();
+        if (!failureCounts.isEmpty()) {
+            sb.append(' ').append(failureCounts);
+        }
+        return sb.toString();
+    }
+
+    static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.1fs", nanos / 1e9);
+    }
+}
@@ -0,0 +1,80 @@
+package com.calculator.metrics;
+
+import java.util.Map;
+
+
+/**
+ * The management interface of {@link StageMetrics}, published through JMX under the name
+ * {@code com.calculator:type=Stage,name=<stage>-<id>}. Latencies are per statement and in nanoseconds,
+ * over the sampled statements.
+ */
+public interface StageMetricsMXBean {
+
+    String getStage();
+
+    /**
+     * Returns the number of statements waiting in the stage's input queue.
+     *
+     * @return the queue depth
+     */
+    int getQueueDepth();
+
+    /**
+     * Returns the number of statements the stage has processed, including failed ones.
+     *
+     * @return the processed statement count
+     */
+    long getProcessedCount();
+
+    /**
+     * Returns the rate of processed statements since the previous sample, taken at most once a second.
+     *
+     * @return the statements per second
+     */
+    double getStatementsPerSecond();
+
+    long getLatencyP50Nanos();
+
+    long getLatencyP99Nanos();
+
+    long getLatencyP999Nanos();
+
+    long getLatencyMaxNanos();
+
+    double getLatencyMeanNanos();
+
+    long getFailureCount();
+
+    /**
+     * Returns the failure counts by cause, the simple name of the exception class.
+     *
+     * @return the failure counts
+     */
+    Map<String, Long> getFailureCounts();
+
+    /**
+     * Returns the time the stage's worker has spent waiting for input.
+     *
+     * @return the waiting time in nanoseconds
+     */
+    long getWaitingNanos();
+
+    /**
+     * Returns the time the stage's worker has spent processing input.
+     *
+     * @return the working time in nanoseconds
+     */
+    long getWorkingNanos();
+
+    /**
+     * Returns the share of the worker's time spent processing input, between {@code 0} and {@code 1}.
+     *
+     * @return the working ratio
+     */
+    double getWorkingRatio();
+
+    /**
+     * Discards all recorded counts, latencies and times.
+     */
+    void reset();
+}
@@ -1,29 +1,101 @@
 package com.calculator.models;
 
+import com.calculator.models.operators.AddOperator;
+import com.calculator.models.operators.DivideOperator;
+import com.calculator.models.operators.MultiplyOperator;
+import com.calculator.models.operators.SubtractOperator;
+import java.math.BigDecimal;
+
+/**
+ * The assignment operators. Each operator is applied in the arithmetic of the numeric backend evaluating
+ * the statement: float and double follow IEEE 754, long fails with an {@link ArithmeticException} on
+ * overflow, and decimal rounds only quotients and results beyond
+ * {@link com.calculator.models.operators.DecimalLimits}.
+ */
 public enum AssignmentOperator {
     ASSIGN("=") {
         @Override
         public float apply(float oldValue, float newValue) {
             return newValue;
         }
+
+        @Override
+        public double apply(double oldValue, double newValue) {
+            return newValue;
+        }
+
+        @Override
+        public long apply(long oldValue, long newValue) {
+            return newValue;
+        }
+
+        @Override
+        public BigDecimal apply(BigDecimal oldValue, BigDecimal newValue) {
+            return newValue;
+        }
     },
     ADD_ASSIGN("+=") {
         @Override
         public float apply(float oldValue, float newValue) {
             return oldValue + newValue;
         }
+
+        @Override
+        public double apply(double oldValue, double newValue) {
+            return oldValue + newValue;
+        }
+
+        @Override
+        public long apply(long oldValue, long newValue) {
+            return Math.addExact(oldValue, newValue);
+        }
+
+        @Override
+        public BigDecimal apply(BigDecimal oldValue, BigDecimal newValue) {
+            return AddOperator.add(oldValue, newValue);
+        }
     },
     SUBTRACT_ASSIGN("-=") {
         @Override
         public float apply(float oldValue, float newValue) {
             return oldValue - newValue;
         }
+
+        @Override
+        public double apply(double oldValue, double newValue) {
+            return oldValue - newValue;
+        }
+
+        @Override
+        public long apply(long oldValue, long newValue) {
+            return Math.subtractExact(oldValue, newValue);
+        }
+
+        @Override
+        public BigDecimal apply(BigDecimal oldValue, BigDecimal newValue) {
+            return SubtractOperator.subtract(oldValue, newValue);
+        }
     },
     MULTIPLY_ASSIGN("*=") {
         @Override
         public float apply(float oldValue, float newValue) {
             return oldValue * newValue;
         }
+
+        @Override
+        public double apply(double oldValue, double newValue) {
+            return oldValue * newValue;
+        }
+
+        @Override
+        public long apply(long oldValue, long newValue) {
+            return Math.multiplyExact(oldValue, newValue);
+        }
+
+        @Override
+        public BigDecimal apply(BigDecimal oldValue, BigDecimal newValue) {
+            return MultiplyOperator.multiply(oldValue, newValue);
+        }
     },
     DIVIDE_ASSIGN("/=") {
         @Override
@@ -31,6 +103,21 @@ public enum AssignmentOperator {
             if (newValue == 0) throw new ArithmeticException("Division by zero");
             return oldValue / newValue;
         }
+
+        @Override
+        public double apply(double oldValue, double newValue) {
+            return DivideOperator.divide(oldValue, newValue);
+        }
+
+        @Override
+        public long apply(long oldValue, long newValue) {
+            return DivideOperator.divide(oldValue, newValue);
+        }
+
+        @Override
+        public BigDecimal apply(BigDecimal oldValue, BigDecimal newValue) {
+            return DivideOperator.divide(oldValue, newValue);
+        }
     };
 
     private final String symbol;
@@ -52,6 +139,15 @@ public enum AssignmentOperator {
         throw new IllegalArgumentException("Invalid assignment operator: " + symbol);
     }
 
-    // Abstract method to apply operation
+    // Abstract methods to apply the operation, one per numeric backend
     public abstract float apply(float oldValue, float newValue);
+
+    public abstract double apply(double oldValue, double newValue);
+
+    /**
+     * @throws ArithmeticException if the result overflows or a division is by zero
+     */
+    public abstract long apply(long oldValue, long newValue);
+
+    public abstract BigDecimal apply(BigDecimal oldValue, BigDecimal newValue);
 }
@@ -1,7 +1,21 @@
 package com.calculator.models;
 
+import com.calculator.utils.ExpressionParser;
+import com.calculator.utils.SymbolTable;
 import java.util.List;
 
-public record Expression(String assignedVariable, AssignmentOperator assignmentOperator,
-                         List<String> expressionParts) {
+/**
+ * A parsed statement: the assigned variable, the assignment operator and the right-hand side.
+ * The right-hand side is kept as its source tokens, as pre-resolved {@link Token}s and, for expressions
+ * produced by the parser, as the precompiled {@link PostfixProgram}. Expressions built from source tokens
+ * alone resolve them on construction and leave the program {@code null}; it is compiled on use.
+ * The assigned variable is interned into its {@link SymbolTable} slot on construction.
+ */
+public record Expression(String assignedVariable, int assignedSlot, AssignmentOperator assignmentOperator,
+                         List<String> expressionParts, List<Token> tokens, PostfixProgram program) {
+
+    public Expression(String assignedVariable, AssignmentOperator assignmentOperator, List<String> expressionParts) {
+        this(assignedVariable, SymbolTable.intern(assignedVariable), assignmentOperator, expressionParts,
+                ExpressionParser.resolveTokens(expressionParts), null);
+    }
 }
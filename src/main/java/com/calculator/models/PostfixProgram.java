@@ -0,0 +1,296 @@
+package com.calculator.models;
+
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.operators.MathFunction;
+import com.calculator.utils.SymbolTable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+
+/**
+ * The {@code PostfixProgram} class is the precompiled form of the right-hand side of an expression.
+ * <p>
+ * Each instruction is a single {@code int}: the low {@value #OPCODE_BITS} bits hold the opcode and the
+ * remaining bits hold its operand, which indexes either the constant pool or the variable table.
+ * Instructions are in postfix order, so a program runs with a single operand stack whose maximum
+ * depth is known up front.
+ * <p>
+ * Variable names are interned into {@link SymbolTable} slots when the program is built, so running it
+ * addresses variables by slot and never hashes a name.
+ * <p>
+ * The instructions between {@link #PRE_INCREMENT} and {@link #POST_DECREMENT} are the only ones writing
+ * variables; {@link #isUnary(int)} tells them apart, as opcodes may be added after them.
+ * <p>
+ * The constant pool holds floats for the default backend and keeps the source text of every literal, from
+ * which the other numeric backends parse their own pools on first use, so {@code 0.1} or
+ * {@code 9007199254740993} reach the double, long and decimal backends without passing through a float.
+ */
+public final class PostfixProgram {
+
+    public static final int OPCODE_BITS = 8;
+    public static final int OPCODE_MASK = (1 << OPCODE_BITS) - 1;
+
+    public static final int PUSH_CONSTANT = 0;
+    public static final int LOAD_VARIABLE = 1;
+    public static final int ADD = 2;
+    public static final int SUBTRACT = 3;
+    public static final int MULTIPLY = 4;
+    public static final int DIVIDE = 5;
+    public static final int MODULUS = 6;
+    public static final int POWER = 7;
+    public static final int PRE_INCREMENT = 8;
+    public static final int POST_INCREMENT = 9;
+    public static final int PRE_DECREMENT = 10;
+    public static final int POST_DECREMENT = 11;
+    /**
+     * Applies an operator declared through the {@link com.calculator.spi.OperatorProvider} SPI, whose
+     * {@link OperatorFactory#getPluginOperator(int) id} is the operand, to as many values as it takes.
+     */
+    public static final int APPLY_OPERATOR = 12;
+    /**
+     * Calls the built-in {@link MathFunction} whose ordinal is the operand.
+     */
+    public static final int CALL_FUNCTION = 13;
+
+    private final int[] code;
+    private final float[] constants;
+    private final String[] literals;
+    private final String[] variables;
+    private final int[] slots;
+    private final int maxStackDepth;
+    private final PostfixProgram source;
+    private volatile double[] doubleConstants;
+    private volatile long[] longConstants;
+    private volatile BigDecimal[] decimalConstants;
+
+    /**
+     * Constructs a new {@code PostfixProgram}.
+     *
+     * @param code the encoded instructions in postfix order
+     * @param constants the constant pool referenced by {@link #PUSH_CONSTANT}
+     * @param literals the source text of the constants, indexed like {@code constants}
+     * @param variables the variable names referenced by load and unary instructions
+     * @param maxStackDepth the maximum operand stack depth reached while running the program
+     */
+    public PostfixProgram(int[] code, float[] constants, String[] literals, String[] variables, int maxStackDepth) {
+        this(code, constants, literals, variables, maxStackDepth, null);
+    }
+
+    /**
+     * Constructs a new {@code PostfixProgram} optimized from another program.
+     *
+     * @param code the encoded instructions in postfix order
+     * @param constants the constant pool referenced by {@link #PUSH_CONSTANT}
+     * @param literals the source text of the constants, indexed like {@code constants}
+     * @param variables the variable names referenced by load and unary instructions
+     * @param maxStackDepth the maximum operand stack depth reached while running the program
+     * @param source the program this one was optimized from, {@code null} if it was compiled from source
+     */
+    public PostfixProgram(int[] code, float[] constants, String[] literals, String[] variables, int maxStackDepth,
+                          PostfixProgram source) {
+        this.code = code;
+        this.constants = constants;
+        this.literals = literals;
+        this.variables = variables;
+        this.slots = new int[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            slots[i] = SymbolTable.intern(variables[i]);
+        }
+        this.maxStackDepth = maxStackDepth;
+        this.source = source != null ? source.source() : this;
+    }
+
+    /**
+     * Encodes an instruction.
+     *
+     * @param opcode the opcode
+     * @param operand the constant or variable index, {@code 0} for operators
+     * @return the encoded instruction
+     */
+    public static int instruction(int opcode, int operand) {
+        return operand << OPCODE_BITS | opcode;
+    }
+
+    public static int opcode(int instruction) {
+        return instruction & OPCODE_MASK;
+    }
+
+    public static int operand(int instruction) {
+        return instruction >>> OPCODE_BITS;
+    }
+
+    /**
+     * Determines whether an opcode increments or decrements a variable.
+     *
+     * @param opcode the opcode
+     * @return {@code true} for the pre and post increment and decrement opcodes
+     */
+    public static boolean isUnary(int opcode) {
+        return opcode >= PRE_INCREMENT && opcode <= POST_DECREMENT;
+    }
+
+    /**
+     * Returns the number of values an instruction takes from the operand stack.
+     *
+     * @param instruction the encoded instruction
+     * @return the number of operands; the instruction pushes one value in their place
+     */
+    public static int arity(int instruction) {
+        int opcode = opcode(instruction);
+        if (opcode == APPLY_OPERATOR) {
+            return OperatorFactory.getPluginOperator(operand(instruction)).definition().arity();
+        } else if (opcode == CALL_FUNCTION) {
+            return MathFunction.of(operand(instruction)).getArity();
+        }
+        return opcode == PUSH_CONSTANT || opcode == LOAD_VARIABLE || isUnary(opcode) ? 0 : 2;
+    }
+
+    public int[] code() {
+        return code;
+    }
+
+    public float[] constants() {
+        return constants;
+    }
+
+    /**
+     * Returns the source text of the constants, indexed like {@link #constants()}.
+     *
+     * @return the literals
+     */
+    public String[] literals() {
+        return literals;
+    }
+
+    /**
+     * Returns the constant pool of the double backend, parsed from the literals on first use.
+     *
+     * @return the constants as doubles
+     */
+    public double[] doubleConstants() {
+        double[] pool = doubleConstants;
+        if (pool == null) {
+            pool = new double[literals.length];
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = Double.parseDouble(literals[i]);
+            }
+            doubleConstants = pool;
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the constant pool of the long backend, parsed from the literals on first use.
+     *
+     * @return the constants as longs
+     * @throws ArithmeticException if a literal is not an integer or does not fit into a {@code long}
+     */
+    public long[] longConstants() {
+        long[] pool = longConstants;
+        if (pool == null) {
+            pool = new long[literals.length];
+            for (int i = 0; i < pool.length; i++) {
+                try {
+                    pool[i] = new BigDecimal(literals[i]).longValueExact();
+                } catch (ArithmeticException e) {
+                    throw new ArithmeticException("Not a long integer: " + literals[i]);
+                }
+            }
+            longConstants = pool;
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the constant pool of the decimal backend, parsed from the literals on first use.
+     *
+     * @return the constants as decimals
+     */
+    public BigDecimal[] decimalConstants() {
+        BigDecimal[] pool = decimalConstants;
+        if (pool == null) {
+            pool = new BigDecimal[literals.length];
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = new BigDecimal(literals[i]);
+            }
+            decimalConstants = pool;
+        }
+        return pool;
+    }
+
+    public String[] variables() {
+        return variables;
+    }
+
+    /**
+     * Returns the symbol table slots of the referenced variables, indexed like {@link #variables()}.
+     *
+     * @return the variable slots
+     */
+    public int[] slots() {
+        return slots;
+    }
+
+    public int maxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * Returns the program as compiled from source, before any optimization. Optimizations follow float
+     * arithmetic, so backends with other arithmetic run the source program.
+     *
+     * @return the unoptimized program, {@code this} if the program was not optimized
+     */
+    public PostfixProgram source() {
+        return source;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PostfixProgram program)) {
+            return false;
+        }
+        return Arrays.equals(code, program.code) && Arrays.equals(constants, program.constants)
+                && Arrays.equals(variables, program.variables);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(code) + Arrays.hashCode(constants)) + Arrays.hashCode(variables);
+    }
+
+    /**
+     * Returns the program in readable postfix notation, e.g. {@code [5, 3, x, *, +]}.
+     *
+     * @return a string representation of the program
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int instruction : code) {
+            int operand = operand(instruction);
+            joiner.add(switch (opcode(instruction)) {
+                case PUSH_CONSTANT -> literals[operand];
+                case LOAD_VARIABLE -> variables[operand];
+                case ADD -> "+";
+                case SUBTRACT -> "-";
+                case MULTIPLY -> "*";
+                case DIVIDE -> "/";
+                case MODULUS -> "%";
+                case POWER -> "^";
+                case PRE_INCREMENT -> "++" + variables[operand];
+                case POST_INCREMENT -> variables[operand] + "++";
+                case PRE_DECREMENT -> "--" + variables[operand];
+                case POST_DECREMENT -> variables[operand] + "--";
+                case APPLY_OPERATOR -> OperatorFactory.getPluginOperator(operand).toString();
+                case CALL_FUNCTION -> MathFunction.of(operand).toString();
+                default -> "?" + instruction;
+            });
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package com.calculator.models;
+
+import com.calculator.models.operators.IOperator;
+import com.calculator.models.operators.IUnaryOperator;
+
+/**
+ * A classified token of the right-hand side of an expression.
+ * Tokens are resolved once by the parser, so evaluation never inspects token text again.
+ */
+public sealed interface Token {
+
+    /**
+     * A number literal, already parsed, along with its source text, from which the exact numeric backends
+     * parse their own constants.
+     */
+    record Literal(float value, String text) implements Token {
+
+        public Literal(float value) {
+            this(value, String.valueOf(value));
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+
+    /**
+     * A reference to a variable.
+     */
+    record Variable(String name) implements Token {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * A binary operator or parenthesis.
+     */
+    record Operator(IOperator operator) implements Token {
+        @Override
+        public String toString() {
+            return operator.getSymbol();
+        }
+    }
+
+    /**
+     * A pre/post increment or decrement of a variable.
+     */
+    record Unary(IUnaryOperator operator) implements Token {
+    }
+
+    /**
+     * A token that is neither a number, a variable nor an operator. Rejected when the expression is compiled.
+     */
+    record Invalid(String text) implements Token {
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.calculator.models;
+
+/**
+ * The kinds of tokens produced by the expression lexer.
+ */
+public enum TokenType {
+    IDENTIFIER,         // Variable names such as x or total_1
+    NUMBER,             // Literals such as 5, -0.5 or 1e3
+    OPERATOR,           // Binary operators: + - * / % ^ and those of operator providers
+    PREFIX_OPERATOR,    // Prefix operators of operator providers, such as ~x
+    FUNCTION,           // A function name directly followed by its argument list, such as max in max(a, b)
+    COMMA,              // Separates function arguments
+    OPEN_PARENTHESIS,
+    CLOSE_PARENTHESIS,
+    INCREMENT,          // ++ before or after a variable
+    DECREMENT,          // -- before or after a variable
+    ASSIGNMENT,         // = += -= *= /= %=
+    END
+}
@@ -1,6 +1,7 @@
 package com.calculator.models.operators;
 
 import com.calculator.models.PrecedenceLevel;
+import java.math.BigDecimal;
 
 public class AddOperator implements IOperator {
     @Override
@@ -8,6 +9,15 @@ public class AddOperator implements IOperator {
         return firstValue + secondValue;
     }
 
+    /**
+     * Adds two decimals exactly, within {@link DecimalLimits}.
+     *
+     * @throws ArithmeticException if the result is too large
+     */
+    public static BigDecimal add(BigDecimal firstValue, BigDecimal secondValue) {
+        return DecimalLimits.bound(firstValue.add(secondValue), "+");
+    }
+
     @Override
     public String getSymbol() {
         return "+";
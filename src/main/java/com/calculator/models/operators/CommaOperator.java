@@ -0,0 +1,20 @@
+package com.calculator.models.operators;
+
+import com.calculator.models.PrecedenceLevel;
+
+public class CommaOperator implements IOperator {
+    @Override
+    public float apply(float firstValue, float secondValue) {
+        throw new UnsupportedOperationException("Commas separate function arguments and are not applied to values");
+    }
+
+    @Override
+    public String getSymbol() {
+        return ",";
+    }
+
+    @Override
+    public int getPrecedence() {
+        return PrecedenceLevel.LOW.getLevel();
+    }
+}
@@ -0,0 +1,38 @@
+package com.calculator.models.operators;
+
+import java.math.BigDecimal;
+
+
+/**
+ * Bounds the results of decimal arithmetic, which is otherwise exact: without a bound, repeating
+ * {@code x *= x} doubles the digits of {@code x} with every statement until the calculator stalls or
+ * runs out of memory. Every decimal operation passes its result through {@link #bound(BigDecimal, String)}.
+ */
+public final class DecimalLimits {
+
+    /**
+     * The maximum number of digits of a decimal result, both of its integer part and of the exact result.
+     */
+    public static final int MAX_DIGITS = 10_000;
+
+    private DecimalLimits() {
+    }
+
+    /**
+     * Checks the magnitude of a decimal result and limits its precision. A result with more than
+     * {@value #MAX_DIGITS} digits is rounded to {@link DivideOperator#DECIMAL_CONTEXT}.
+     *
+     * @param result the result of the operation
+     * @param operation the operation, for the message of the exception
+     * @return the result, rounded if it has more than {@value #MAX_DIGITS} digits
+     * @throws ArithmeticException if the integer part of the result has more than {@value #MAX_DIGITS} digits
+     */
+    public static BigDecimal bound(BigDecimal result, String operation) {
+        int precision = result.precision();
+        if (result.signum() != 0 && (long) precision - result.scale() > MAX_DIGITS) {
+            throw new ArithmeticException(String.format("Result is too large: %s has more than %d integer digits",
+                    operation, MAX_DIGITS));
+        }
+        return precision > MAX_DIGITS ? result.round(DivideOperator.DECIMAL_CONTEXT) : result;
+    }
+}
@@ -1,16 +1,59 @@
 package com.calculator.models.operators;
 
 import com.calculator.models.PrecedenceLevel;
+import java.math.BigDecimal;
+import java.math.MathContext;
 
 public class DivideOperator implements IOperator {
+
+    /**
+     * The precision of decimal quotients, which would not terminate for divisions such as {@code 1 / 3}.
+     */
+    public static final MathContext DECIMAL_CONTEXT = MathContext.DECIMAL128;
+
     @Override
     public float apply(float firstValue, float secondValue) {
+        return divide(firstValue, secondValue);
+    }
+
+    public static float divide(float firstValue, float secondValue) {
+        if (secondValue == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return firstValue / secondValue;
+    }
+
+    public static double divide(double firstValue, double secondValue) {
         if (secondValue == 0) {
             throw new ArithmeticException("Division by zero");
         }
         return firstValue / secondValue;
     }
 
+    /**
+     * Divides two longs, truncating towards zero.
+     *
+     * @throws ArithmeticException if the divisor is zero or the quotient overflows
+     */
+    public static long divide(long firstValue, long secondValue) {
+        if (secondValue == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return Math.divideExact(firstValue, secondValue);
+    }
+
+    /**
+     * Divides two decimals, rounding the quotient to {@link #DECIMAL_CONTEXT}.
+     *
+     * @throws ArithmeticException if the divisor is zero or the quotient is too large for {@link DecimalLimits}
+     */
+    public static BigDecimal divide(BigDecimal firstValue, BigDecimal secondValue) {
+        if (secondValue.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return DecimalLimits.bound(firstValue.divide(secondValue, DECIMAL_CONTEXT), "/");
+    }
+
     @Override
     public String getSymbol() {
         return "/";
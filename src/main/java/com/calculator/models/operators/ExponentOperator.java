@@ -1,13 +1,67 @@
 package com.calculator.models.operators;
 
 import com.calculator.models.PrecedenceLevel;
+import java.math.BigDecimal;
 
 public class ExponentOperator implements IOperator {
     @Override
     public float apply(float firstValue, float secondValue) {
+        return power(firstValue, secondValue);
+    }
+
+    public static float power(float firstValue, float secondValue) {
         return (float) Math.pow(firstValue, secondValue); // Use Math.pow for exponentiation
     }
 
+    public static double power(double firstValue, double secondValue) {
+        return Math.pow(firstValue, secondValue);
+    }
+
+    /**
+     * Raises a long to a non-negative power by repeated squaring.
+     *
+     * @throws ArithmeticException if the exponent is negative or the result overflows
+     */
+    public static long power(long firstValue, long secondValue) {
+        if (secondValue < 0) {
+            throw new ArithmeticException("Negative exponent: " + secondValue);
+        }
+        long result = 1;
+        long base = firstValue;
+        for (long exponent = secondValue; exponent > 0; ) {
+            if ((exponent & 1) != 0) {
+                result = Math.multiplyExact(result, base);
+            }
+            exponent >>= 1;
+            if (exponent > 0) {
+                base = Math.multiplyExact(base, base);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Raises a decimal to a power. Integer exponents are exact as long as the result has at most
+     * {@value DecimalLimits#MAX_DIGITS} digits, and rounded to {@link DivideOperator#DECIMAL_CONTEXT} for
+     * negative exponents and longer results, so a statement such as {@code 3 ^ 30000000} cannot stall the
+     * calculator; other exponents are computed in double precision.
+     *
+     * @throws ArithmeticException if the result is not a finite number or too large for {@link DecimalLimits}
+     */
+    public static BigDecimal power(BigDecimal firstValue, BigDecimal secondValue) {
+        if (secondValue.signum() == 0 || secondValue.stripTrailingZeros().scale() <= 0) {
+            int exponent = secondValue.intValueExact();
+            // The digits of a power are at most the digits of its base times the exponent
+            boolean exact = exponent >= 0 && (long) firstValue.precision() * exponent <= DecimalLimits.MAX_DIGITS;
+            return DecimalLimits.bound(exact ? firstValue.pow(exponent) : firstValue.pow(exponent, DivideOperator.DECIMAL_CONTEXT), "^");
+        }
+        double result = Math.pow(firstValue.doubleValue(), secondValue.doubleValue());
+        if (!Double.isFinite(result)) {
+            throw new ArithmeticException("Result is not a finite number: " + firstValue + " ^ " + secondValue);
+        }
+        return BigDecimal.valueOf(result);
+    }
+
     @Override
     public String getSymbol() {
         return "^";
@@ -17,4 +71,9 @@ public class ExponentOperator implements IOperator {
     public int getPrecedence() {
         return PrecedenceLevel.HIGH.getLevel();
     }
+
+    @Override
+    public boolean isRightAssociative() {
+        return true;
+    }
 }
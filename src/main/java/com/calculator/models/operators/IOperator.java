@@ -6,4 +6,26 @@ public interface IOperator {
     String getSymbol();
 
     int getPrecedence();
+
+    default boolean isRightAssociative() {
+        return false;
+    }
+
+    /**
+     * Determines whether the operator is a function, written before its parenthesized arguments.
+     *
+     * @return {@code true} for functions
+     */
+    default boolean isFunction() {
+        return false;
+    }
+
+    /**
+     * Returns the number of operands the operator takes.
+     *
+     * @return the number of operands
+     */
+    default int getArity() {
+        return 2;
+    }
 }
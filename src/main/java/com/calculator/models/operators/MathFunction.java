@@ -0,0 +1,220 @@
+package com.calculator.models.operators;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+
+/**
+ * The built-in functions of the calculator, such as {@code sqrt(x)} or {@code fma(a, b, c)}.
+ * <p>
+ * Functions compile to a single {@link com.calculator.models.PostfixProgram#CALL_FUNCTION} instruction whose
+ * operand is the {@link #ordinal() ordinal}, and every evaluator calls them directly rather than through an
+ * interface, so the JIT compiles each function to its intrinsic: {@code sqrt}, {@code abs}, {@code min},
+ * {@code max} and {@code floor} become single instructions, {@code fma} a fused multiply-add where the
+ * processor has one, and {@code log} and {@code exp} the intrinsic stubs of {@link Math}. The float functions
+ * are static so the interpreter and the compiled tier share them and produce identical results.
+ * <p>
+ * All functions are pure, so calls with constant arguments are folded and repeated calls may share one
+ * result. Like the other float operators they follow IEEE 754, e.g. {@code sqrt(-1)} is {@code NaN} and
+ * {@code log(0)} is negative infinity.
+ */
+public enum MathFunction implements IOperator {
+    SQRT("sqrt", 1),
+    ABS("abs", 1),
+    MIN("min", 2),
+    MAX("max", 2),
+    FLOOR("floor", 1),
+    LOG("log", 1),
+    EXP("exp", 1),
+    FMA("fma", 3);
+
+    private static final MathFunction[] FUNCTIONS = values();
+    private static final long MAX_LONG_ROOT = 3037000499L; // The largest root whose square fits into a long
+
+    private final String name;
+    private final int arity;
+
+    MathFunction(String name, int arity) {
+        this.name = name;
+        this.arity = arity;
+    }
+
+    /**
+     * Returns the function an instruction refers to.
+     *
+     * @param id the ordinal of the function
+     * @return the function
+     */
+    public static MathFunction of(int id) {
+        return FUNCTIONS[id];
+    }
+
+    public static float sqrt(float value) {
+        return (float) Math.sqrt(value); // Correctly rounded, compiled to a single-precision square root
+    }
+
+    public static float abs(float value) {
+        return Math.abs(value);
+    }
+
+    public static float min(float firstValue, float secondValue) {
+        return Math.min(firstValue, secondValue);
+    }
+
+    public static float max(float firstValue, float secondValue) {
+        return Math.max(firstValue, secondValue);
+    }
+
+    public static float floor(float value) {
+        return (float) Math.floor(value);
+    }
+
+    public static float log(float value) {
+        return (float) Math.log(value);
+    }
+
+    public static float exp(float value) {
+        return (float) Math.exp(value);
+    }
+
+    public static float fma(float firstValue, float secondValue, float addend) {
+        return Math.fma(firstValue, secondValue, addend);
+    }
+
+    /**
+     * Computes the function in float arithmetic.
+     *
+     * @param operands the array holding the arguments
+     * @param from the index of the first argument, followed by the others in source order
+     * @return the result
+     */
+    public float apply(float[] operands, int from) {
+        return switch (this) {
+            case SQRT -> sqrt(operands[from]);
+            case ABS -> abs(operands[from]);
+            case MIN -> min(operands[from], operands[from + 1]);
+            case MAX -> max(operands[from], operands[from + 1]);
+            case FLOOR -> floor(operands[from]);
+            case LOG -> log(operands[from]);
+            case EXP -> exp(operands[from]);
+            case FMA -> fma(operands[from], operands[from + 1], operands[from + 2]);
+        };
+    }
+
+    /**
+     * Computes the function in double arithmetic.
+     *
+     * @param operands the array holding the arguments
+     * @param from the index of the first argument, followed by the others in source order
+     * @return the result
+     */
+    public double apply(double[] operands, int from) {
+        return switch (this) {
+            case SQRT -> Math.sqrt(operands[from]);
+            case ABS -> Math.abs(operands[from]);
+            case MIN -> Math.min(operands[from], operands[from + 1]);
+            case MAX -> Math.max(operands[from], operands[from + 1]);
+            case FLOOR -> Math.floor(operands[from]);
+            case LOG -> Math.log(operands[from]);
+            case EXP -> Math.exp(operands[from]);
+            case FMA -> Math.fma(operands[from], operands[from + 1], operands[from + 2]);
+        };
+    }
+
+    /**
+     * Computes the function in long arithmetic, where {@code floor} is the identity and results that are
+     * not integers are rejected.
+     *
+     * @param operands the array holding the arguments
+     * @param from the index of the first argument, followed by the others in source order
+     * @return the result
+     * @throws ArithmeticException if the result overflows or is not an integer
+     */
+    public long apply(long[] operands, int from) {
+        return switch (this) {
+            case SQRT -> sqrtExact(operands[from]);
+            case ABS -> Math.absExact(operands[from]);
+            case MIN -> Math.min(operands[from], operands[from + 1]);
+            case MAX -> Math.max(operands[from], operands[from + 1]);
+            case FLOOR -> operands[from];
+            case LOG, EXP -> throw new ArithmeticException(name + " is not defined on long integers");
+            case FMA -> Math.addExact(Math.multiplyExact(operands[from], operands[from + 1]), operands[from + 2]);
+        };
+    }
+
+    /**
+     * Computes the function in decimal arithmetic. {@code sqrt} is rounded to
+     * {@link DivideOperator#DECIMAL_CONTEXT}, {@code log} and {@code exp} are computed in double precision,
+     * and the other functions are exact, {@code fma} within {@link DecimalLimits}.
+     *
+     * @param operands the array holding the arguments
+     * @param from the index of the first argument, followed by the others in source order
+     * @return the result
+     * @throws ArithmeticException if the result is not a finite number or too large
+     */
+    public BigDecimal apply(BigDecimal[] operands, int from) {
+        return switch (this) {
+            case SQRT -> operands[from].sqrt(DivideOperator.DECIMAL_CONTEXT);
+            case ABS -> operands[from].abs();
+            case MIN -> operands[from].min(operands[from + 1]);
+            case MAX -> operands[from].max(operands[from + 1]);
+            case FLOOR -> operands[from].setScale(0, RoundingMode.FLOOR);
+            case LOG, EXP -> {
+                double value = operands[from].doubleValue();
+                double result = this == LOG ? Math.log(value) : Math.exp(value);
+                if (!Double.isFinite(result)) {
+                    throw new ArithmeticException("Result is not a finite number: " + name + "(" + operands[from] + ")");
+                }
+                yield BigDecimal.valueOf(result);
+            }
+            case FMA -> DecimalLimits.bound(operands[from].multiply(operands[from + 1]).add(operands[from + 2]), name);
+        };
+    }
+
+    /**
+     * Takes the square root of a perfect square. The double square root is within one of the exact root,
+     * as the long is rounded to 53 bits before it is taken.
+     */
+    private static long sqrtExact(long value) {
+        long estimate = value < 0 ? 0 : Math.round(Math.sqrt(value));
+        for (long root = Math.max(0, estimate - 1); root <= estimate + 1 && root <= MAX_LONG_ROOT; root++) {
+            if (value >= 0 && root * root == value) {
+                return root;
+            }
+        }
+        throw new ArithmeticException("Not a long integer: sqrt(" + value + ")");
+    }
+
+    @Override
+    public float apply(float firstValue, float secondValue) {
+        if (arity != 2) {
+            throw new UnsupportedOperationException(this + " does not take two operands");
+        }
+        return this == MIN ? min(firstValue, secondValue) : max(firstValue, secondValue);
+    }
+
+    @Override
+    public String getSymbol() {
+        return name;
+    }
+
+    @Override
+    public int getPrecedence() {
+        return 0;
+    }
+
+    @Override
+    public boolean isFunction() {
+        return true;
+    }
+
+    @Override
+    public int getArity() {
+        return arity;
+    }
+
+    @Override
+    public String toString() {
+        return name + "/" + arity;
+    }
+}
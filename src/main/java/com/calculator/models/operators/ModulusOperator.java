@@ -1,6 +1,7 @@
 package com.calculator.models.operators;
 
 import com.calculator.models.PrecedenceLevel;
+import java.math.BigDecimal;
 
 public class ModulusOperator implements IOperator {
     @Override
@@ -8,6 +9,31 @@ public class ModulusOperator implements IOperator {
         return firstValue % secondValue;
     }
 
+    /**
+     * Returns the remainder of two longs. Unlike the floating-point remainder, which is {@code NaN},
+     * a remainder by zero fails.
+     *
+     * @throws ArithmeticException if the divisor is zero
+     */
+    public static long modulus(long firstValue, long secondValue) {
+        if (secondValue == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return firstValue % secondValue;
+    }
+
+    /**
+     * Returns the remainder of two decimals.
+     *
+     * @throws ArithmeticException if the divisor is zero
+     */
+    public static BigDecimal modulus(BigDecimal firstValue, BigDecimal secondValue) {
+        if (secondValue.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return firstValue.remainder(secondValue);
+    }
+
     @Override
     public String getSymbol() {
         return "%";
@@ -1,6 +1,7 @@
 package com.calculator.models.operators;
 
 import com.calculator.models.PrecedenceLevel;
+import java.math.BigDecimal;
 
 public class MultiplyOperator implements IOperator {
     @Override
@@ -8,6 +9,15 @@ public class MultiplyOperator implements IOperator {
         return firstValue * secondValue;
     }
 
+    /**
+     * Multiplies two decimals exactly, within {@link DecimalLimits}.
+     *
+     * @throws ArithmeticException if the result is too large
+     */
+    public static BigDecimal multiply(BigDecimal firstValue, BigDecimal secondValue) {
+        return DecimalLimits.bound(firstValue.multiply(secondValue), "*");
+    }
+
     @Override
     public String getSymbol() {
         return "*";
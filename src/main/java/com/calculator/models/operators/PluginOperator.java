@@ -0,0 +1,55 @@
+package com.calculator.models.operators;
+
+import com.calculator.spi.OperatorDefinition;
+
+/**
+ * An operator declared through the {@link com.calculator.spi.OperatorProvider} SPI, along with the id
+ * under which its instructions refer to it.
+ *
+ * @param id the index of the operator in the operator factory
+ * @param definition the declaration of the operator
+ */
+public record PluginOperator(int id, OperatorDefinition definition) implements IOperator {
+
+    @Override
+    public float apply(float firstValue, float secondValue) {
+        if (definition.arity() != 2) {
+            throw new UnsupportedOperationException(definition + " does not take two operands");
+        }
+        return definition.implementation().apply(new float[]{firstValue, secondValue}, 0);
+    }
+
+    @Override
+    public String getSymbol() {
+        return definition.symbol();
+    }
+
+    @Override
+    public int getPrecedence() {
+        return definition.precedence() != null ? definition.precedence().getLevel() : 0;
+    }
+
+    @Override
+    public boolean isRightAssociative() {
+        return definition.rightAssociative();
+    }
+
+    public boolean isPrefix() {
+        return definition.kind() == OperatorDefinition.Kind.PREFIX;
+    }
+
+    @Override
+    public boolean isFunction() {
+        return definition.kind() == OperatorDefinition.Kind.FUNCTION;
+    }
+
+    @Override
+    public int getArity() {
+        return definition.arity();
+    }
+
+    @Override
+    public String toString() {
+        return definition.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package com.calculator.models.operators;
 
 import com.calculator.models.PrecedenceLevel;
+import java.math.BigDecimal;
 
 public class SubtractOperator implements IOperator {
     @Override
@@ -8,6 +9,15 @@ public class SubtractOperator implements IOperator {
         return firstValue - secondValue;
     }
 
+    /**
+     * Subtracts two decimals exactly, within {@link DecimalLimits}.
+     *
+     * @throws ArithmeticException if the result is too large
+     */
+    public static BigDecimal subtract(BigDecimal firstValue, BigDecimal secondValue) {
+        return DecimalLimits.bound(firstValue.subtract(secondValue), "-");
+    }
+
     @Override
     public String getSymbol() {
         return "-";
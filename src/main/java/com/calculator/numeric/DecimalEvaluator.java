@@ -0,0 +1,157 @@
+package com.calculator.numeric;
+
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.AssignmentOperator;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.operators.AddOperator;
+import com.calculator.models.operators.DivideOperator;
+import com.calculator.models.operators.ExponentOperator;
+import com.calculator.models.operators.MathFunction;
+import com.calculator.models.operators.ModulusOperator;
+import com.calculator.models.operators.MultiplyOperator;
+import com.calculator.models.operators.SubtractOperator;
+import com.calculator.utils.ExpressionParser;
+import com.calculator.utils.SymbolTable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+
+/**
+ * Evaluates statements in arbitrary-precision decimals on a {@link BigDecimal} operand stack, with the
+ * variables in a {@link BigDecimal} array indexed by slot. Sums, differences and products are exact;
+ * quotients are rounded to {@link DivideOperator#DECIMAL_CONTEXT}. Every result is bounded by
+ * {@link com.calculator.models.operators.DecimalLimits}.
+ * Unlike the primitive backends, every intermediate value is an object.
+ */
+public class DecimalEvaluator extends NumericEvaluator {
+
+    private BigDecimal[] values = new BigDecimal[64];
+    private BigDecimal[] stack = new BigDecimal[16];
+
+    @Override
+    public NumericBackend getBackend() {
+        return NumericBackend.DECIMAL;
+    }
+
+    /**
+     * Retrieves the value of a variable.
+     *
+     * @param variable the name of the variable
+     * @return the value of the variable
+     * @throws InvalidInputException if the variable is not found
+     */
+    public BigDecimal getVariable(String variable) throws InvalidInputException {
+        return load(SymbolTable.slotOf(variable));
+    }
+
+    /**
+     * Stores a variable with the given name and value.
+     *
+     * @param variable the name of the variable
+     * @param value the value to be assigned to the variable
+     */
+    public void putVariable(String variable, BigDecimal value) {
+        store(SymbolTable.intern(variable), value);
+    }
+
+    @Override
+    protected void execute(PostfixProgram program, int slot, AssignmentOperator assignmentOperator) throws InvalidInputException {
+        BigDecimal value = run(program);
+        if (assignmentOperator != AssignmentOperator.ASSIGN) {
+            if (!isAssigned(slot)) {
+                throw notInitialized();
+            }
+            value = assignmentOperator.apply(values[slot], value);
+        }
+        store(slot, value);
+    }
+
+    private BigDecimal run(PostfixProgram program) throws InvalidInputException {
+        int[] code = program.code();
+        BigDecimal[] constants = program.decimalConstants();
+        int[] slots = program.slots();
+        if (stack.length < program.maxStackDepth()) {
+            stack = new BigDecimal[program.maxStackDepth()];
+        }
+        BigDecimal[] stack = this.stack;
+        int top = 0;
+        for (int instruction : code) {
+            int operand = PostfixProgram.operand(instruction);
+            switch (PostfixProgram.opcode(instruction)) {
+                case PostfixProgram.PUSH_CONSTANT -> stack[top++] = constants[operand];
+                case PostfixProgram.LOAD_VARIABLE -> stack[top++] = load(slots[operand]);
+                case PostfixProgram.ADD -> {
+                    top--;
+                    stack[top - 1] = AddOperator.add(stack[top - 1], stack[top]);
+                }
+                case PostfixProgram.SUBTRACT -> {
+                    top--;
+                    stack[top - 1] = SubtractOperator.subtract(stack[top - 1], stack[top]);
+                }
+                case PostfixProgram.MULTIPLY -> {
+                    top--;
+                    stack[top - 1] = MultiplyOperator.multiply(stack[top - 1], stack[top]);
+                }
+                case PostfixProgram.DIVIDE -> {
+                    top--;
+                    stack[top - 1] = DivideOperator.divide(stack[top - 1], stack[top]);
+                }
+                case PostfixProgram.MODULUS -> {
+                    top--;
+                    stack[top - 1] = ModulusOperator.modulus(stack[top - 1], stack[top]);
+                }
+                case PostfixProgram.POWER -> {
+                    top--;
+                    stack[top - 1] = ExponentOperator.power(stack[top - 1], stack[top]);
+                }
+                case PostfixProgram.PRE_INCREMENT -> stack[top++] = add(slots[operand], BigDecimal.ONE, false);
+                case PostfixProgram.POST_INCREMENT -> stack[top++] = add(slots[operand], BigDecimal.ONE, true);
+                case PostfixProgram.PRE_DECREMENT -> stack[top++] = add(slots[operand], BigDecimal.ONE.negate(), false);
+                case PostfixProgram.POST_DECREMENT -> stack[top++] = add(slots[operand], BigDecimal.ONE.negate(), true);
+                case PostfixProgram.APPLY_OPERATOR -> throw new InvalidInputException(
+                        "Operators of providers are only evaluated with floats: " + OperatorFactory.getPluginOperator(operand));
+                case PostfixProgram.CALL_FUNCTION -> {
+                    MathFunction function = MathFunction.of(operand);
+                    top -= function.getArity();
+                    stack[top] = function.apply(stack, top);
+                    top++;
+                }
+                default -> throw new InvalidInputException("Invalid instruction: " + instruction);
+            }
+        }
+        BigDecimal result = stack[0];
+        // Drops the references to intermediate values, so they do not outlive the statement
+        Arrays.fill(stack, 0, program.maxStackDepth(), null);
+        return result;
+    }
+
+    private BigDecimal load(int slot) throws InvalidInputException {
+        if (!isAssigned(slot)) {
+            throw notFound(slot);
+        }
+        return values[slot];
+    }
+
+    private BigDecimal add(int slot, BigDecimal delta, boolean isPostOperation) throws InvalidInputException {
+        if (!isAssigned(slot)) {
+            throw usedBeforeAssigned(slot);
+        }
+        BigDecimal currentValue = values[slot];
+        values[slot] = AddOperator.add(currentValue, delta);
+        return isPostOperation ? currentValue : values[slot];
+    }
+
+    private void store(int slot, BigDecimal value) {
+        if (slot >= values.length) {
+            values = Arrays.copyOf(values, capacityFor(slot));
+        }
+        values[slot] = value;
+        markAssigned(slot);
+    }
+
+    @Override
+    protected String format(int slot) {
+        return ExpressionParser.formatNumber(values[slot]);
+    }
+}
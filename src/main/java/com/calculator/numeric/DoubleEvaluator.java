@@ -0,0 +1,146 @@
+package com.calculator.numeric;
+
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.AssignmentOperator;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.operators.DivideOperator;
+import com.calculator.models.operators.ExponentOperator;
+import com.calculator.models.operators.MathFunction;
+import com.calculator.utils.ExpressionParser;
+import com.calculator.utils.SymbolTable;
+import java.util.Arrays;
+
+
+/**
+ * Evaluates statements in 64-bit floating point on a {@code double} operand stack, with the variables
+ * in a {@code double} array indexed by slot.
+ */
+public class DoubleEvaluator extends NumericEvaluator {
+
+    private double[] values = new double[64];
+    private double[] stack = new double[16];
+
+    @Override
+    public NumericBackend getBackend() {
+        return NumericBackend.DOUBLE;
+    }
+
+    /**
+     * Retrieves the value of a variable.
+     *
+     * @param variable the name of the variable
+     * @return the value of the variable
+     * @throws InvalidInputException if the variable is not found
+     */
+    public double getVariable(String variable) throws InvalidInputException {
+        return load(SymbolTable.slotOf(variable));
+    }
+
+    /**
+     * Stores a variable with the given name and value.
+     *
+     * @param variable the name of the variable
+     * @param value the value to be assigned to the variable
+     */
+    public void putVariable(String variable, double value) {
+        store(SymbolTable.intern(variable), value);
+    }
+
+    @Override
+    protected void execute(PostfixProgram program, int slot, AssignmentOperator assignmentOperator) throws InvalidInputException {
+        double value = run(program);
+        if (assignmentOperator != AssignmentOperator.ASSIGN) {
+            if (!isAssigned(slot)) {
+                throw notInitialized();
+            }
+            value = assignmentOperator.apply(values[slot], value);
+        }
+        store(slot, value);
+    }
+
+    private double run(PostfixProgram program) throws InvalidInputException {
+        int[] code = program.code();
+        double[] constants = program.doubleConstants();
+        int[] slots = program.slots();
+        if (stack.length < program.maxStackDepth()) {
+            stack = new double[program.maxStackDepth()];
+        }
+        double[] stack = this.stack;
+        int top = 0;
+        for (int instruction : code) {
+            int operand = PostfixProgram.operand(instruction);
+            switch (PostfixProgram.opcode(instruction)) {
+                case PostfixProgram.PUSH_CONSTANT -> stack[top++] = constants[operand];
+                case PostfixProgram.LOAD_VARIABLE -> stack[top++] = load(slots[operand]);
+                case PostfixProgram.ADD -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] + stack[top];
+                }
+                case PostfixProgram.SUBTRACT -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] - stack[top];
+                }
+                case PostfixProgram.MULTIPLY -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] * stack[top];
+                }
+                case PostfixProgram.DIVIDE -> {
+                    top--;
+                    stack[top - 1] = DivideOperator.divide(stack[top - 1], stack[top]);
+                }
+                case PostfixProgram.MODULUS -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] % stack[top];
+                }
+                case PostfixProgram.POWER -> {
+                    top--;
+                    stack[top - 1] = ExponentOperator.power(stack[top - 1], stack[top]);
+                }
+                case PostfixProgram.PRE_INCREMENT -> stack[top++] = add(slots[operand], 1, false);
+                case PostfixProgram.POST_INCREMENT -> stack[top++] = add(slots[operand], 1, true);
+                case PostfixProgram.PRE_DECREMENT -> stack[top++] = add(slots[operand], -1, false);
+                case PostfixProgram.POST_DECREMENT -> stack[top++] = add(slots[operand], -1, true);
+                case PostfixProgram.APPLY_OPERATOR -> throw new InvalidInputException(
+                        "Operators of providers are only evaluated with floats: " + OperatorFactory.getPluginOperator(operand));
+                case PostfixProgram.CALL_FUNCTION -> {
+                    MathFunction function = MathFunction.of(operand);
+                    top -= function.getArity();
+                    stack[top] = function.apply(stack, top);
+                    top++;
+                }
+                default -> throw new InvalidInputException("Invalid instruction: " + instruction);
+            }
+        }
+        return stack[0];
+    }
+
+    private double load(int slot) throws InvalidInputException {
+        if (!isAssigned(slot)) {
+            throw notFound(slot);
+        }
+        return values[slot];
+    }
+
+    private double add(int slot, double delta, boolean isPostOperation) throws InvalidInputException {
+        if (!isAssigned(slot)) {
+            throw usedBeforeAssigned(slot);
+        }
+        double currentValue = values[slot];
+        values[slot] = currentValue + delta;
+        return isPostOperation ? currentValue : values[slot];
+    }
+
+    private void store(int slot, double value) {
+        if (slot >= values.length) {
+            values = Arrays.copyOf(values, capacityFor(slot));
+        }
+        values[slot] = value;
+        markAssigned(slot);
+    }
+
+    @Override
+    protected String format(int slot) {
+        return ExpressionParser.formatNumber(values[slot]);
+    }
+}
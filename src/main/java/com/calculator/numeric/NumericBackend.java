@@ -0,0 +1,81 @@
+package com.calculator.numeric;
+
+import java.util.Locale;
+
+
+/**
+ * The arithmetic statements are evaluated in. The backend of a calculator is chosen by the
+ * {@value #PROPERTY} system property, {@code float} by default:
+ * <ul>
+ *     <li>{@link #FLOAT} evaluates in 32-bit floating point, interpreted and then compiled to bytecode,
+ *     into a thread-safe {@link com.calculator.services.VariablesManagerService};</li>
+ *     <li>{@link #DOUBLE} evaluates in 64-bit floating point, exact for integers up to {@code 2^53};</li>
+ *     <li>{@link #LONG} evaluates in 64-bit integers and fails statements that overflow or use a
+ *     fractional literal, rather than losing precision;</li>
+ *     <li>{@link #DECIMAL} evaluates in {@link java.math.BigDecimal}, exact except for quotients, which
+ *     are rounded to 34 digits.</li>
+ * </ul>
+ * Each backend runs statements on operand stacks and variable cells of its own primitive type, so the
+ * float, double and long backends never box a value.
+ */
+public enum NumericBackend {
+    FLOAT,
+    DOUBLE {
+        @Override
+        public NumericEvaluator createEvaluator() {
+            return new DoubleEvaluator();
+        }
+    },
+    LONG {
+        @Override
+        public NumericEvaluator createEvaluator() {
+            return new LongEvaluator();
+        }
+    },
+    DECIMAL {
+        @Override
+        public NumericEvaluator createEvaluator() {
+            return new DecimalEvaluator();
+        }
+    };
+
+    /**
+     * The system property selecting the backend of new calculators.
+     */
+    public static final String PROPERTY = "calculator.numeric";
+
+    /**
+     * Creates the evaluator running statements in this backend.
+     *
+     * @return a new evaluator with no variables, or {@code null} for {@link #FLOAT}, which the calculator
+     *         evaluates itself
+     */
+    public NumericEvaluator createEvaluator() {
+        return null;
+    }
+
+    /**
+     * Returns the backend selected by the {@value #PROPERTY} system property, {@link #FLOAT} if it is not set.
+     *
+     * @return the configured backend
+     * @throws IllegalArgumentException if the property names no backend
+     */
+    public static NumericBackend fromSystemProperties() {
+        return parse(System.getProperty(PROPERTY, "float"));
+    }
+
+    /**
+     * Parses a backend name such as {@code double} or {@code DECIMAL}.
+     *
+     * @param name the name of the backend, case-insensitive
+     * @return the backend
+     * @throws IllegalArgumentException if there is no such backend
+     */
+    public static NumericBackend parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid numeric backend: " + name);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.calculator.numeric;
+
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.AssignmentOperator;
+import com.calculator.models.Expression;
+import com.calculator.models.PostfixProgram;
+import com.calculator.utils.SymbolTable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * The {@code NumericEvaluator} class runs statements in a {@link NumericBackend} other than {@code float}.
+ * <p>
+ * Subclasses run the {@link PostfixProgram} of a statement on an operand stack of their own type and keep
+ * the variables in cells of that type, indexed by {@link SymbolTable} slot; this class tracks which slots
+ * are assigned and in which order. A statement that fails leaves its assigned variable unchanged.
+ * <p>
+ * An evaluator is not thread-safe: it belongs to the calculator evaluating the statements, and is read by
+ * other threads only once that calculator has stopped.
+ */
+public abstract class NumericEvaluator {
+
+    private boolean[] assigned = new boolean[64];
+    private int[] assignmentOrder = new int[16];
+    private int assignedCount;
+
+    public abstract NumericBackend getBackend();
+
+    /**
+     * Evaluates a statement and updates its assigned variable.
+     *
+     * @param expression the statement to evaluate
+     * @throws InvalidInputException if the statement is invalid or reads a variable that is not assigned
+     * @throws ArithmeticException if the arithmetic of the backend fails, e.g. on a division by zero
+     */
+    public void evaluate(Expression expression) throws InvalidInputException {
+        // Optimized programs are folded in float arithmetic, so the backend runs the program as written
+        PostfixProgram program = expression.program() != null ? expression.program().source() : ProgramCompiler.compileTokens(expression.tokens());
+        execute(program, expression.assignedSlot(), expression.assignmentOperator());
+    }
+
+    /**
+     * Runs the program of a statement and applies its assignment.
+     *
+     * @param program the right-hand side
+     * @param slot the slot of the assigned variable
+     * @param assignmentOperator the assignment operator
+     * @throws InvalidInputException if a variable read by the statement is not assigned
+     */
+    protected abstract void execute(PostfixProgram program, int slot, AssignmentOperator assignmentOperator) throws InvalidInputException;
+
+    /**
+     * Formats the value of an assigned variable for output.
+     *
+     * @param slot the slot of the variable
+     * @return the formatted value
+     */
+    protected abstract String format(int slot);
+
+    /**
+     * Checks whether a variable has been assigned.
+     *
+     * @param variable the name of the variable
+     * @return {@code true} if the variable exists
+     */
+    public boolean hasVariable(String variable) {
+        return isAssigned(SymbolTable.slotOf(variable));
+    }
+
+    /**
+     * Returns the formatted values of all variables in the order they were first assigned.
+     *
+     * @return a read-only map from variable name to formatted value
+     */
+    public Map<String, String> getVariables() {
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (int i = 0; i < assignedCount; i++) {
+            int slot = assignmentOrder[i];
+            variables.put(SymbolTable.nameOf(slot), format(slot));
+        }
+        return Collections.unmodifiableMap(variables);
+    }
+
+    /**
+     * Visits the formatted values of all variables in the order they were first assigned, without
+     * collecting them, e.g. to stream millions of variables.
+     *
+     * @param visitor the visitor called with the name and formatted value of every variable
+     * @param <E> the exception thrown by the visitor
+     * @throws E if the visitor fails, ending the visit
+     */
+    public <E extends Exception> void forEachVariable(VariableVisitor<E> visitor) throws E {
+        for (int i = 0; i < assignedCount; i++) {
+            int slot = assignmentOrder[i];
+            visitor.visit(SymbolTable.nameOf(slot), format(slot));
+        }
+    }
+
+    protected boolean isAssigned(int slot) {
+        return slot >= 0 && slot < assigned.length && assigned[slot];
+    }
+
+    /**
+     * Marks a slot as assigned; called by subclasses after storing its first value.
+     */
+    protected void markAssigned(int slot) {
+        if (slot >= assigned.length) {
+            assigned = Arrays.copyOf(assigned, capacityFor(slot));
+        }
+        if (!assigned[slot]) {
+            assigned[slot] = true;
+            if (assignedCount == assignmentOrder.length) {
+                assignmentOrder = Arrays.copyOf(assignmentOrder, assignedCount * 2);
+            }
+            assignmentOrder[assignedCount++] = slot;
+        }
+    }
+
+    /**
+     * Returns the length of a cell array that holds the given slot.
+     */
+    protected static int capacityFor(int slot) {
+        return Math.max(64, Integer.highestOneBit(slot) << 1);
+    }
+
+    protected static InvalidInputException notFound(int slot) {
+        return new InvalidInputException(String.format("Variable %s is not found", SymbolTable.nameOf(slot)));
+    }
+
+    protected static InvalidInputException usedBeforeAssigned(int slot) {
+        return new InvalidInputException(String.format("Variable %s is used before being assigned", SymbolTable.nameOf(slot)));
+    }
+
+    protected static InvalidInputException notInitialized() {
+        return new InvalidInputException("Assignment variable is not initialized");
+    }
+
+    /**
+     * Visits the variables, see {@link #forEachVariable(VariableVisitor)}.
+     *
+     * @param <E> the exception thrown by the visitor
+     */
+    @FunctionalInterface
+    public interface VariableVisitor<E extends Exception> {
+
+        /**
+         * Visits a variable.
+         *
+         * @param name the name of the variable
+         * @param value the formatted value of the variable
+         * @throws E if the visit fails
+         */
+        void visit(String name, String value) throws E;
+    }
+}
@@ -0,0 +1,262 @@
+package com.calculator.persistence;
+
+import com.calculator.numeric.NumericBackend;
+import com.calculator.services.VariablesManagerService;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code DurableStore} class keeps the variables of a {@link VariablesManagerService} in a directory,
+ * so they survive a crash.
+ * <p>
+ * Every write is appended to a {@link WriteAheadLog}, and the variables are periodically written to a
+ * {@link SnapshotFile}. Taking a snapshot first continues the log in a new segment, then writes every
+ * variable, and finally deletes the older segments and snapshots: the snapshot holds every write of the
+ * older segments, and replaying the new segment on top of it yields the latest values, as the log holds
+ * values rather than statements. Segments and snapshots are numbered, snapshot {@code n} being replayed
+ * with the segments from {@code n} on.
+ * <p>
+ * The directory is forced to disk after every segment or snapshot is created and before anything is
+ * deleted, so a crash cannot lose a new snapshot while the files it supersedes are already gone.
+ * <p>
+ * Opening a store recovers the variables: it loads the latest snapshot, replays the log tail written
+ * after it, and only then starts logging, to a new segment.
+ */
+public class DurableStore implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(DurableStore.class);
+
+    /**
+     * The system property setting the directory of the store; the variables are not persisted when unset.
+     */
+    public static final String DIRECTORY_PROPERTY = "calculator.data.dir";
+
+    /**
+     * The system property setting the time between group commits of the log in milliseconds.
+     */
+    public static final String FSYNC_INTERVAL_PROPERTY = "calculator.wal.fsync.interval";
+
+    /**
+     * The system property setting the time between snapshots in seconds, {@code 0} for none.
+     */
+    public static final String SNAPSHOT_INTERVAL_PROPERTY = "calculator.snapshot.interval";
+
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 10;
+    public static final long DEFAULT_SNAPSHOT_INTERVAL_SECONDS = 300;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final VariablesManagerService variables;
+    private final WriteAheadLog log;
+    private final ScheduledExecutorService scheduler;
+    private final long recoveryNanos;
+    private int recoveredVariables;
+    private long replayedWrites;
+
+    /**
+     * Opens a store, recovering its variables into the given, empty, variables and logging their writes
+     * from then on.
+     *
+     * @param directory the directory of the store, created if missing
+     * @param variables the variables to recover and persist
+     * @param fsyncIntervalMillis the time between group commits of the log, {@code 0} to force every write
+     * @param snapshotIntervalSeconds the time between snapshots, {@code 0} to only take them on request
+     * @throws IOException if the store cannot be read or the log cannot be created
+     */
+    public DurableStore(Path directory, VariablesManagerService variables, long fsyncIntervalMillis,
+                        long snapshotIntervalSeconds) throws IOException {
+        if (snapshotIntervalSeconds < 0) {
+            throw new IllegalArgumentException("Snapshot interval must not be negative: " + snapshotIntervalSeconds);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.variables = variables;
+        long start = System.nanoTime();
+        long nextSegment = recover();
+        this.recoveryNanos = System.nanoTime() - start;
+        this.log = new WriteAheadLog(directory, nextSegment, fsyncIntervalMillis);
+        variables.setWriteListener(log);
+        if (snapshotIntervalSeconds > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "snapshot-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::snapshotLogged, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            this.scheduler = null;
+        }
+        logger.info("Recovered {} variables and replayed {} writes from {} in {} ms",
+                recoveredVariables, replayedWrites, directory, TimeUnit.NANOSECONDS.toMillis(recoveryNanos));
+    }
+
+    /**
+     * Opens a store if {@value #DIRECTORY_PROPERTY} is set, with the intervals of
+     * {@value #FSYNC_INTERVAL_PROPERTY} and {@value #SNAPSHOT_INTERVAL_PROPERTY}.
+     *
+     * Only the float variables are persisted, so the store cannot be used with another backend.
+     *
+     * @param variables the variables to recover and persist
+     * @param backend the backend the calculator evaluates with
+     * @return the store, or {@code null} if the variables are not persisted
+     * @throws IOException if the store cannot be opened
+     * @throws IllegalStateException if the store is enabled with a backend other than float
+     */
+    public static DurableStore fromSystemProperties(VariablesManagerService variables, NumericBackend backend)
+            throws IOException {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null) {
+            return null;
+        }
+        if (backend != NumericBackend.FLOAT) {
+            throw new IllegalStateException(String.format("The %s backend keeps its own variables, "
+                    + "which are not persisted to %s", backend, directory));
+        }
+        return new DurableStore(Path.of(directory), variables,
+                Long.getLong(FSYNC_INTERVAL_PROPERTY, DEFAULT_FSYNC_INTERVAL_MILLIS),
+                Long.getLong(SNAPSHOT_INTERVAL_PROPERTY, DEFAULT_SNAPSHOT_INTERVAL_SECONDS));
+    }
+
+    /**
+     * Writes a snapshot of the variables and deletes the log segments and snapshots it supersedes.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void snapshot() throws IOException {
+        long sequence = log.getSegment() + 1;
+        log.rotate(sequence);
+        SnapshotFile.write(snapshotPath(sequence), variables.getVariables());
+        for (long segment : sequences(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (segment < sequence) {
+                Files.deleteIfExists(WriteAheadLog.segmentPath(directory, segment));
+            }
+        }
+        for (long snapshot : sequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (snapshot < sequence) {
+                Files.deleteIfExists(snapshotPath(snapshot));
+            }
+        }
+    }
+
+    /**
+     * Forces every write made so far to disk.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public void sync() throws IOException {
+        log.flush();
+    }
+
+    /**
+     * Forces the entries of a directory, such as a created or renamed file, to disk.
+     *
+     * @param directory the directory
+     * @throws IOException if the directory cannot be forced
+     */
+    static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    public WriteAheadLog getLog() {
+        return log;
+    }
+
+    public int getRecoveredVariables() {
+        return recoveredVariables;
+    }
+
+    public long getReplayedWrites() {
+        return replayedWrites;
+    }
+
+    public long getRecoveryNanos() {
+        return recoveryNanos;
+    }
+
+    /**
+     * Stops taking snapshots and logging, forcing the remaining writes to disk.
+     *
+     * @throws IOException if the remaining writes cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        variables.setWriteListener(null);
+        log.close();
+    }
+
+    /**
+     * Loads the latest snapshot and replays the segments written after it.
+     *
+     * @return the sequence number of the next segment
+     */
+    private long recover() throws IOException {
+        try (DirectoryStream<Path> temporaries = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*.tmp")) {
+            for (Path temporary : temporaries) {
+                Files.delete(temporary);
+            }
+        }
+        List<Long> snapshots = sequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        long snapshot = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        if (!snapshots.isEmpty()) {
+            recoveredVariables = SnapshotFile.load(snapshotPath(snapshot), variables);
+        }
+        long lastSegment = snapshot;
+        for (long segment : sequences(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (segment >= snapshot) {
+                replayedWrites += WriteAheadLog.replay(WriteAheadLog.segmentPath(directory, segment), variables);
+                lastSegment = segment;
+            }
+        }
+        return lastSegment + 1;
+    }
+
+    private List<Long> sequences(String prefix, String suffix) throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                sequences.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+            }
+        }
+        Collections.sort(sequences);
+        return sequences;
+    }
+
+    private Path snapshotPath(long sequence) {
+        return directory.resolve(String.format("%s%016d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+    }
+
+    private void snapshotLogged() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            logger.error("Failed to write a snapshot: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.calculator.persistence;
+
+import com.calculator.services.VariablesManagerService;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+
+/**
+ * The {@code SnapshotFile} class writes and loads compact binary snapshots of the variables.
+ * <p>
+ * A snapshot is a header of a magic number, a format version and the number of variables, followed by
+ * each variable as the length of its UTF-8 name, the name and the float bits of its value, and a trailing
+ * CRC32C of everything before it. It is written to a temporary file, forced to disk and then renamed over
+ * the target, so a snapshot file is always complete; it is loaded from a memory-mapped buffer.
+ */
+public final class SnapshotFile {
+
+    private static final int MAGIC = 0x43534E50;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes a snapshot, replacing the file if it exists.
+     *
+     * @param file the snapshot file
+     * @param variables the variables in the order to load them
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Path file, Map<String, Float> variables) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel output = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(variables.size());
+            for (Map.Entry<String, Float> variable : variables.entrySet()) {
+                byte[] name = variable.getKey().getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < name.length + 6) {
+                    drain(output, buffer, crc);
+                    if (buffer.remaining() < name.length + 6) {
+                        buffer = ByteBuffer.allocate(name.length + 6);
+                    }
+                }
+                buffer.putShort((short) name.length).put(name).putInt(Float.floatToRawIntBits(variable.getValue()));
+            }
+            drain(output, buffer, crc);
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                output.write(buffer);
+            }
+            output.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        DurableStore.forceDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Loads a snapshot into the variables.
+     *
+     * @param file the snapshot file
+     * @param variables the variables to assign
+     * @return the number of loaded variables
+     * @throws IOException if the snapshot cannot be read or is corrupt
+     */
+    public static int load(Path file, VariablesManagerService variables) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = input.map(FileChannel.MapMode.READ_ONLY, 0, input.size());
+        }
+        if (buffer.remaining() < HEADER_SIZE + 4 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported snapshot version %d: %s", version, file));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, buffer.limit() - 4));
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            throw new IOException("Corrupt snapshot: " + file);
+        }
+        int count = buffer.getInt();
+        byte[] name = new byte[64];
+        for (int i = 0; i < count; i++) {
+            int length = Short.toUnsignedInt(buffer.getShort());
+            if (length > name.length) {
+                name = new byte[length];
+            }
+            buffer.get(name, 0, length);
+            variables.putVariable(new String(name, 0, length, StandardCharsets.UTF_8), Float.intBitsToFloat(buffer.getInt()));
+        }
+        return count;
+    }
+
+    private static void drain(FileChannel output, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,399 @@
+package com.calculator.persistence;
+
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.SymbolTable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code WriteAheadLog} class appends every write to the variables to a log segment file, so that the
+ * variables can be recovered after a crash by replaying it.
+ * <p>
+ * The log records the value each write produced, not the statement, so replaying a segment sets every
+ * variable to the value it last had when the segment was written, whatever mix of assignments,
+ * compound assignments and {@code ++}/{@code --} produced it. A segment starts the records of a variable
+ * with one record defining its name, and then holds its values by slot.
+ * <p>
+ * Writers only append to an in-memory buffer. The buffer is written through a {@link FileChannel} and
+ * forced to disk as one frame, a group commit, every fsync interval by a daemon thread, or by the writer
+ * whose record fills it. So a crash loses at most the writes of the last interval; with an interval of
+ * {@code 0}, every write is forced before it returns. Every frame carries its length and a CRC32C of its
+ * records, so a frame torn by a crash is detected on replay and discarded along with everything after it,
+ * as is a frame whose records are invalid despite its checksum. Creating a segment forces the directory,
+ * so the segment survives a crash along with the records forced to it.
+ * <p>
+ * A failure to write is logged and reported by the next {@link #flush()} or {@link #close()}.
+ */
+public class WriteAheadLog implements VariablesManagerService.WriteListener, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(WriteAheadLog.class);
+
+    private static final byte DEFINE = 1;
+    private static final byte SET = 2;
+    private static final int FRAME_HEADER_SIZE = 8;
+    private static final int SET_SIZE = 9;
+
+    /**
+     * The number of buffered bytes at which the writer filling the buffer flushes it.
+     */
+    private static final int FLUSH_THRESHOLD = 1 << 20;
+
+    private final Path directory;
+    private final long fsyncIntervalMillis;
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Held while a frame is written, serializing flushes and rotations.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private FileChannel channel;
+
+    // Guarded by this
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer spare = ByteBuffer.allocate(1 << 16);
+    private boolean[] defined = new boolean[64];
+    private long segment;
+    private long appendedRecords;
+
+    private volatile IOException failure;
+    private volatile long writtenFrames;
+    private volatile long writtenBytes;
+
+    /**
+     * Constructs a new {@code WriteAheadLog} appending to a new segment.
+     *
+     * @param directory the directory holding the segments
+     * @param segment the sequence number of the first segment
+     * @param fsyncIntervalMillis the time between group commits, {@code 0} to force every write
+     * @throws IOException if the segment cannot be created
+     */
+    public WriteAheadLog(Path directory, long segment, long fsyncIntervalMillis) throws IOException {
+        if (fsyncIntervalMillis < 0) {
+            throw new IllegalArgumentException("Fsync interval must not be negative: " + fsyncIntervalMillis);
+        }
+        this.directory = directory;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.segment = segment;
+        this.channel = open(directory, segment);
+        if (fsyncIntervalMillis > 0) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "write-ahead-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushLogged, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Returns the file of a segment.
+     *
+     * @param directory the directory holding the segments
+     * @param segment the sequence number of the segment
+     * @return the path of the segment
+     */
+    public static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(String.format("wal-%016d.log", segment));
+    }
+
+    /**
+     * Appends a write to the buffer, and flushes the buffer if the fsync interval is {@code 0} or it is full.
+     *
+     * @param slot the symbol table slot of the variable
+     * @param value the new value of the variable
+     */
+    @Override
+    public void written(int slot, float value) {
+        boolean full;
+        synchronized (this) {
+            if (slot >= defined.length) {
+                defined = Arrays.copyOf(defined, Math.max(slot + 1, defined.length * 2));
+            }
+            if (!defined[slot]) {
+                byte[] name = SymbolTable.nameOf(slot).getBytes(StandardCharsets.UTF_8);
+                ensureCapacity(7 + name.length);
+                pending.put(DEFINE).putInt(slot).putShort((short) name.length).put(name);
+                defined[slot] = true;
+            }
+            ensureCapacity(SET_SIZE);
+            pending.put(SET).putInt(slot).putInt(Float.floatToRawIntBits(value));
+            appendedRecords++;
+            full = pending.position() >= FLUSH_THRESHOLD;
+        }
+        if (fsyncIntervalMillis == 0 || full) {
+            flushLogged();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the current segment as one frame and forces it to disk.
+     *
+     * @throws IOException if this or an earlier write failed
+     */
+    public void flush() throws IOException {
+        flushLock.lock();
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            ByteBuffer records = takePending();
+            if (records.position() > 0) {
+                writeFrame(channel, records);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Continues the log in a new segment. Every write appended before the call is in the previous segment,
+     * forced to disk; every write appended after it is in the new one.
+     *
+     * @param newSegment the sequence number of the new segment
+     * @throws IOException if the previous segment cannot be completed or the new one created
+     */
+    public void rotate(long newSegment) throws IOException {
+        flushLock.lock();
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            FileChannel next = open(directory, newSegment);
+            FileChannel previous = channel;
+            ByteBuffer records;
+            synchronized (this) {
+                records = takePending();
+                Arrays.fill(defined, false);
+                segment = newSegment;
+                channel = next;
+            }
+            if (records.position() > 0) {
+                writeFrame(previous, records);
+            }
+            previous.force(false);
+            previous.close();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public synchronized long getSegment() {
+        return segment;
+    }
+
+    public synchronized long getAppendedRecords() {
+        return appendedRecords;
+    }
+
+    /**
+     * Returns the number of frames written, i.e. of group commits.
+     *
+     * @return the number of frames
+     */
+    public long getWrittenFrames() {
+        return writtenFrames;
+    }
+
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * Stops the periodic group commits and flushes the remaining records.
+     *
+     * @throws IOException if the remaining records cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushLock.lock();
+        try {
+            flush();
+        } finally {
+            channel.close();
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Replays a segment into the variables, up to its first incomplete or corrupt frame.
+     *
+     * @param file the segment
+     * @param variables the variables to update
+     * @return the number of replayed writes
+     * @throws IOException if the segment cannot be read
+     */
+    public static long replay(Path file, VariablesManagerService variables) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = input.map(FileChannel.MapMode.READ_ONLY, 0, input.size());
+        }
+        Map<Integer, Integer> slots = new HashMap<>();
+        CRC32C crc = new CRC32C();
+        long replayed = 0;
+        while (buffer.remaining() >= FRAME_HEADER_SIZE) {
+            int frameStart = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(frameStart);
+                break;
+            }
+            ByteBuffer records = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(records.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(frameStart);
+                break;
+            }
+            if (!isValidFrame(records.duplicate(), slots)) {
+                logger.warn("Found an invalid record in a frame of {} despite its checksum", file);
+                buffer.position(frameStart);
+                break;
+            }
+            replayed += replayFrame(records, slots, variables);
+            buffer.position(buffer.position() + length);
+        }
+        if (buffer.hasRemaining()) {
+            logger.warn("Discarded {} bytes of torn or corrupt records at the end of {}", buffer.remaining(), file);
+        }
+        return replayed;
+    }
+
+    /**
+     * Checks that every record of a frame is complete, of a known type, and sets a variable defined before it,
+     * so a frame that is corrupt despite its checksum is discarded as a whole like a torn one.
+     */
+    private static boolean isValidFrame(ByteBuffer records, Map<Integer, Integer> slots) {
+        Set<Integer> defined = new HashSet<>();
+        while (records.hasRemaining()) {
+            if (records.remaining() < 5) {
+                return false;
+            }
+            byte type = records.get();
+            int id = records.getInt();
+            if (type == DEFINE) {
+                if (records.remaining() < 2 || records.remaining() - 2 < Short.toUnsignedInt(records.getShort(records.position()))) {
+                    return false;
+                }
+                records.position(records.position() + 2 + Short.toUnsignedInt(records.getShort()));
+                defined.add(id);
+            } else if (type == SET && (defined.contains(id) || slots.containsKey(id)) && records.remaining() >= 4) {
+                records.position(records.position() + 4);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long replayFrame(ByteBuffer records, Map<Integer, Integer> slots, VariablesManagerService variables) {
+        long replayed = 0;
+        while (records.hasRemaining()) {
+            byte type = records.get();
+            int id = records.getInt();
+            if (type == DEFINE) {
+                byte[] name = new byte[Short.toUnsignedInt(records.getShort())];
+                records.get(name);
+                slots.put(id, SymbolTable.intern(new String(name, StandardCharsets.UTF_8)));
+            } else {
+                variables.putVariable(slots.get(id), Float.intBitsToFloat(records.getInt()));
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    private static FileChannel open(Path directory, long segment) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(directory, segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            DurableStore.forceDirectory(directory);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * Swaps the buffers, returning the records appended so far; the returned buffer is owned by the
+     * caller until the next call, which must hold the flush lock.
+     */
+    private synchronized ByteBuffer takePending() {
+        ByteBuffer records = pending;
+        pending = spare;
+        pending.clear();
+        spare = records;
+        return records;
+    }
+
+    private void writeFrame(FileChannel output, ByteBuffer records) throws IOException {
+        records.flip();
+        CRC32C crc = new CRC32C();
+        crc.update(records.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE).putInt(records.remaining()).putInt((int) crc.getValue()).flip();
+        long bytes = header.remaining() + records.remaining();
+        ByteBuffer[] frame = {header, records};
+        while (records.hasRemaining()) {
+            output.write(frame);
+        }
+        records.clear();
+        writtenFrames++;
+        writtenBytes += bytes;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() < bytes) {
+            pending = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes)).put(pending.flip());
+        }
+    }
+
+    /**
+     * Flushes the buffer, logging the first failure only, as it is reported again on every later flush.
+     */
+    private void flushLogged() {
+        IOException previousFailure = failure;
+        try {
+            flush();
+        } catch (IOException e) {
+            if (e != previousFailure) {
+                logger.error("Failed to write the write-ahead log: {}", e.getMessage());
+            }
+        }
+    }
+}
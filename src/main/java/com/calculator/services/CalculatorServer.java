@@ -0,0 +1,312 @@
+package com.calculator.services;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.metrics.StageMetrics;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code CalculatorServer} class serves calculator sessions over a line-based TCP protocol.
+ * <p>
+ * Every connection is a {@link CalculatorSession} with its own variable namespace, served on its own
+ * virtual thread: a session waiting for its client's next line holds no platform thread, so thousands
+ * of mostly idle connections cost little more than their sockets and variables. Compiled statements
+ * are shared between sessions through one {@link TieredExecutionEngine}, and their statements are
+ * recorded in one {@link StageMetrics}, published through JMX while the server runs.
+ * <p>
+ * Responses are flushed once the client has no further requests buffered, so a client sending
+ * requests back to back receives its responses in few writes. A request longer than
+ * {@value #MAX_REQUEST_LENGTH} bytes is answered with {@value CalculatorSession#ERROR} and ends the session.
+ * <p>
+ * <strong>Usage:</strong>
+ * <pre>{@code
+ * java -jar CalculatorApp.jar --serve 7070
+ * printf 'x = 5 + 3\ny = x * 2\nexit\n' | nc localhost 7070
+ * }</pre>
+ */
+public class CalculatorServer implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(CalculatorServer.class);
+
+    /**
+     * The initial size of the per-session read buffer and the size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 512;
+
+    /**
+     * The maximum length of a request line in bytes, up to which the read buffer grows.
+     */
+    public static final int MAX_REQUEST_LENGTH = 64 * 1024;
+
+    private final ServerSocket serverSocket;
+    private final TieredExecutionEngine executionEngine;
+    private final ExecutorService sessionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final LongAdder totalSessions = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final StageMetrics metrics = new StageMetrics("server", () -> 0);
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private volatile boolean isRunning = true;
+
+    /**
+     * Constructs a new {@code CalculatorServer} listening on the loopback interface.
+     *
+     * @param port the port, or {@code 0} for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public CalculatorServer(int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), TieredExecutionEngine.fromSystemProperties());
+    }
+
+    /**
+     * Constructs a new {@code CalculatorServer}.
+     *
+     * @param address the address to listen on
+     * @param executionEngine the engine compiling hot statements for all sessions
+     * @throws IOException if the address cannot be bound
+     */
+    public CalculatorServer(InetSocketAddress address, TieredExecutionEngine executionEngine) throws IOException {
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(address, 1024);
+        this.executionEngine = executionEngine;
+    }
+
+    /**
+     * Starts accepting connections on a virtual thread.
+     */
+    public void start() {
+        logger.debug("Starting CalculatorServer on port {}...", getPort());
+        metrics.register();
+        Thread.ofVirtual().name("calculator-server-accept").start(this::acceptConnections);
+    }
+
+    /**
+     * Stops accepting connections, closes all open sessions and waits for their threads to finish.
+     */
+    @Override
+    public void close() {
+        logger.debug("Stopping CalculatorServer...");
+        isRunning = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.error("Failed to close server socket: {}", e.getMessage());
+        }
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+        sessionExecutor.shutdown();
+        try {
+            if (!sessionExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.error("Sessions did not finish within 10 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            metrics.unregister();
+            closed.countDown();
+        }
+    }
+
+    /**
+     * Waits until the server is closed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getOpenSessionCount() {
+        return openSessions.get();
+    }
+
+    public long getTotalSessionCount() {
+        return totalSessions.sum();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public StageMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void acceptConnections() {
+        while (isRunning) {
+            Socket connection;
+            try {
+                connection = serverSocket.accept();
+                connection.setTcpNoDelay(true);
+            } catch (IOException e) {
+                if (isRunning) {
+                    logger.error("Failed to accept connection: {}", e.getMessage());
+                }
+                continue;
+            }
+            connections.add(connection);
+            try {
+                sessionExecutor.execute(() -> serve(connection));
+            } catch (RejectedExecutionException e) {
+                // The server is closing
+                connections.remove(connection);
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        openSessions.incrementAndGet();
+        totalSessions.increment();
+        CalculatorSession session = new CalculatorSession(executionEngine, metrics);
+        try (InputStream input = connection.getInputStream();
+             OutputStream output = new BufferedOutputStream(connection.getOutputStream(), BUFFER_SIZE)) {
+            LineReader in = new LineReader(input);
+            String line;
+            try {
+                while (!session.isClosed() && (line = in.readLine()) != null) {
+                    output.write(session.handle(line).getBytes(StandardCharsets.UTF_8));
+                    output.write('\n');
+                    requests.increment();
+                    if (!in.ready()) {
+                        output.flush();
+                    }
+                }
+            } catch (RequestTooLongException e) {
+                logger.debug("Session ended: {}", e.getMessage());
+                output.write((CalculatorSession.ERROR + " " + e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+                output.flush();
+                connection.shutdownOutput();
+                return;
+            }
+            output.flush();
+        } catch (IOException e) {
+            if (isRunning) {
+                logger.debug("Session ended: {}", e.getMessage());
+            }
+        } finally {
+            connections.remove(connection);
+            closeQuietly(connection);
+            openSessions.decrementAndGet();
+        }
+    }
+
+    private static void closeQuietly(Socket connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads UTF-8 lines through a small buffer that grows only for long lines. Readers and writers from
+     * {@code java.io} buffer 8 KB per direction and again for decoding, which dominates the memory of an
+     * idle session.
+     */
+    private static class LineReader {
+        private final InputStream input;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        LineReader(InputStream input) {
+            this.input = input;
+        }
+
+        /**
+         * Reads the next line without its line break.
+         *
+         * @return the line, or {@code null} at the end of the stream
+         */
+        String readLine() throws IOException {
+            int scanned = position;
+            while (true) {
+                for (int i = scanned; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        int end = i > position && buffer[i - 1] == '\r' ? i - 1 : i;
+                        String line = new String(buffer, position, end - position, StandardCharsets.UTF_8);
+                        position = i + 1;
+                        return line;
+                    }
+                }
+                scanned = limit - position;
+                if (!fill()) {
+                    if (limit == position) {
+                        return null;
+                    }
+                    String line = new String(buffer, position, limit - position, StandardCharsets.UTF_8);
+                    position = limit;
+                    return line;
+                }
+            }
+        }
+
+        /**
+         * Checks whether a further request is already available without blocking.
+         */
+        boolean ready() throws IOException {
+            return position < limit || input.available() > 0;
+        }
+
+        /**
+         * Moves the unread bytes to the front of the buffer, growing it if they fill it, and reads more.
+         *
+         * @return {@code false} at the end of the stream
+         * @throws RequestTooLongException if the unread bytes already fill {@value #MAX_REQUEST_LENGTH} bytes
+         */
+        private boolean fill() throws IOException {
+            int unread = limit - position;
+            if (unread == MAX_REQUEST_LENGTH) {
+                throw new RequestTooLongException();
+            }
+            if (unread == buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, MAX_REQUEST_LENGTH));
+            } else {
+                System.arraycopy(buffer, position, buffer, 0, unread);
+            }
+            position = 0;
+            limit = unread;
+            int read = input.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+            return true;
+        }
+    }
+
+    /**
+     * Signals a request line longer than {@value #MAX_REQUEST_LENGTH} bytes.
+     */
+    private static class RequestTooLongException extends IOException {
+        RequestTooLongException() {
+            super("Request exceeds " + MAX_REQUEST_LENGTH + " bytes");
+        }
+    }
+}
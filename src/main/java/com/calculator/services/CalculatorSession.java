@@ -0,0 +1,119 @@
+package com.calculator.services;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.metrics.StageMetrics;
+import com.calculator.utils.ExpressionParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code CalculatorSession} class is the state of one client of the {@link CalculatorServer}:
+ * its own variable namespace and the calculator evaluating its statements.
+ * <p>
+ * Statements are parsed and evaluated synchronously on the thread serving the session, in the order
+ * they arrive, so a session needs no worker threads or queues of its own. Every request line gets
+ * exactly one response line:
+ * <ul>
+ *     <li>a statement, e.g. {@code x = 5 + 3}, is answered with {@value #OK} or
+ *         {@value #ERROR} followed by the reason on the same line;</li>
+ *     <li>{@value #PRINT} is answered with the variables, formatted as on the console, e.g. {@code (x=8)};</li>
+ *     <li>{@value #EXIT} is answered with the variables as well and ends the session.</li>
+ * </ul>
+ * A session is used by one thread at a time. It records its statements, their latencies and failures
+ * in {@link StageMetrics}, which the sessions of a server share.
+ */
+public class CalculatorSession {
+    private static final Logger logger = LogManager.getLogger(CalculatorSession.class);
+
+    public static final String OK = "OK";
+    public static final String ERROR = "ERROR";
+    public static final String PRINT = "print";
+    public static final String EXIT = "exit";
+
+    private final ExpressionCalculatorService calculator;
+    private final StageMetrics metrics;
+    private boolean closed;
+
+    /**
+     * Constructs a new {@code CalculatorSession} with an empty variable namespace and metrics of its own.
+     *
+     * @param executionEngine the engine compiling hot statements, which may be shared between sessions
+     */
+    public CalculatorSession(TieredExecutionEngine executionEngine) {
+        this(executionEngine, new StageMetrics("session", () -> 0));
+    }
+
+    /**
+     * Constructs a new {@code CalculatorSession} with an empty variable namespace.
+     *
+     * @param executionEngine the engine compiling hot statements, which may be shared between sessions
+     * @param metrics the metrics recording the statements, which may be shared between sessions
+     */
+    public CalculatorSession(TieredExecutionEngine executionEngine, StageMetrics metrics) {
+        this.metrics = metrics;
+        this.calculator = new ExpressionCalculatorService(executionEngine, new VariablesManagerService(), metrics);
+    }
+
+    /**
+     * Handles one request line.
+     *
+     * @param line the request
+     * @return the response, without a line break
+     */
+    public String handle(String line) {
+        String request = line.trim();
+        if (request.isEmpty()) {
+            return OK;
+        }
+        try {
+            if (request.equalsIgnoreCase(EXIT)) {
+                closed = true;
+                return calculator.prettyPrintResult();
+            }
+            if (request.equalsIgnoreCase(PRINT)) {
+                return calculator.prettyPrintResult();
+            }
+        } catch (InvalidInputException | RuntimeException e) {
+            return error(e);
+        }
+        long start = System.nanoTime();
+        try {
+            calculator.evaluate(ExpressionParser.parse(request));
+            return OK;
+        } catch (InvalidInputException | RuntimeException e) {
+            metrics.recordFailure(e);
+            logger.debug("Failed to evaluate: {} {}", request, e.getMessage());
+            return error(e);
+        } finally {
+            metrics.recordProcessed(1);
+            metrics.recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Formats a failure as one response line. Messages may echo the request, so line breaks are replaced
+     * by spaces to keep one response per request.
+     */
+    private static String error(Exception e) {
+        String message = e.getMessage();
+        if (message == null) {
+            return ERROR + " " + e.getClass().getSimpleName();
+        }
+        return ERROR + " " + message.replace('\r', ' ').replace('\n', ' ');
+    }
+
+    /**
+     * Returns whether the client ended the session with {@value #EXIT}.
+     *
+     * @return whether the session is closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public VariablesManagerService getVariablesManagerService() {
+        return calculator.getVariablesManagerService();
+    }
+}
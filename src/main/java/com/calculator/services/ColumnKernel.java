@@ -0,0 +1,112 @@
+package com.calculator.services;
+
+import com.calculator.models.operators.DivideOperator;
+import com.calculator.models.operators.ExponentOperator;
+import com.calculator.models.operators.MathFunction;
+
+
+/**
+ * The element-wise loops of the {@link ColumnarEvaluator}. Every operation combines {@code length}
+ * elements of two arrays, starting at the given offsets, into a third array, which may be one of the inputs.
+ * <p>
+ * This class is the scalar implementation, which the JIT compiler may still unroll and vectorize.
+ * {@code VectorColumnKernel} overrides the operations that map onto single vector instructions when the
+ * {@code jdk.incubator.vector} module is available. {@code %} and {@code ^} always run here, through the
+ * same helpers as the interpreter, so that both kernels produce identical results.
+ * <p>
+ * Built-in {@link MathFunction}s take one to three arrays; the arrays of the arguments a function does not
+ * take are {@code null}.
+ */
+class ColumnKernel {
+
+    static final ColumnKernel SCALAR = new ColumnKernel();
+
+    String name() {
+        return "scalar";
+    }
+
+    void add(float[] first, int firstFrom, float[] second, int secondFrom, float[] result, int resultFrom, int length) {
+        for (int i = 0; i < length; i++) {
+            result[resultFrom + i] = first[firstFrom + i] + second[secondFrom + i];
+        }
+    }
+
+    void subtract(float[] first, int firstFrom, float[] second, int secondFrom, float[] result, int resultFrom, int length) {
+        for (int i = 0; i < length; i++) {
+            result[resultFrom + i] = first[firstFrom + i] - second[secondFrom + i];
+        }
+    }
+
+    void multiply(float[] first, int firstFrom, float[] second, int secondFrom, float[] result, int resultFrom, int length) {
+        for (int i = 0; i < length; i++) {
+            result[resultFrom + i] = first[firstFrom + i] * second[secondFrom + i];
+        }
+    }
+
+    /**
+     * @throws ArithmeticException if any divisor is zero
+     */
+    void divide(float[] first, int firstFrom, float[] second, int secondFrom, float[] result, int resultFrom, int length) {
+        for (int i = 0; i < length; i++) {
+            result[resultFrom + i] = DivideOperator.divide(first[firstFrom + i], second[secondFrom + i]);
+        }
+    }
+
+    final void modulus(float[] first, int firstFrom, float[] second, int secondFrom, float[] result, int resultFrom, int length) {
+        for (int i = 0; i < length; i++) {
+            result[resultFrom + i] = first[firstFrom + i] % second[secondFrom + i];
+        }
+    }
+
+    final void power(float[] first, int firstFrom, float[] second, int secondFrom, float[] result, int resultFrom, int length) {
+        for (int i = 0; i < length; i++) {
+            result[resultFrom + i] = ExponentOperator.power(first[firstFrom + i], second[secondFrom + i]);
+        }
+    }
+
+    void call(MathFunction function, float[] first, int firstFrom, float[] second, int secondFrom,
+              float[] third, int thirdFrom, float[] result, int resultFrom, int length) {
+        switch (function) {
+            case SQRT -> {
+                for (int i = 0; i < length; i++) {
+                    result[resultFrom + i] = MathFunction.sqrt(first[firstFrom + i]);
+                }
+            }
+            case ABS -> {
+                for (int i = 0; i < length; i++) {
+                    result[resultFrom + i] = MathFunction.abs(first[firstFrom + i]);
+                }
+            }
+            case MIN -> {
+                for (int i = 0; i < length; i++) {
+                    result[resultFrom + i] = MathFunction.min(first[firstFrom + i], second[secondFrom + i]);
+                }
+            }
+            case MAX -> {
+                for (int i = 0; i < length; i++) {
+                    result[resultFrom + i] = MathFunction.max(first[firstFrom + i], second[secondFrom + i]);
+                }
+            }
+            case FLOOR -> {
+                for (int i = 0; i < length; i++) {
+                    result[resultFrom + i] = MathFunction.floor(first[firstFrom + i]);
+                }
+            }
+            case LOG -> {
+                for (int i = 0; i < length; i++) {
+                    result[resultFrom + i] = MathFunction.log(first[firstFrom + i]);
+                }
+            }
+            case EXP -> {
+                for (int i = 0; i < length; i++) {
+                    result[resultFrom + i] = MathFunction.exp(first[firstFrom + i]);
+                }
+            }
+            case FMA -> {
+                for (int i = 0; i < length; i++) {
+                    result[resultFrom + i] = MathFunction.fma(first[firstFrom + i], second[secondFrom + i], third[thirdFrom + i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.calculator.services;
+
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.AssignmentOperator;
+import com.calculator.models.Expression;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.operators.MathFunction;
+import com.calculator.spi.OperatorDefinition;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code ColumnarEvaluator} class evaluates one statement over many rows at once: every variable
+ * read by the right-hand side is a {@code float[]} column, and the assigned variable is an output column.
+ * {@code y = a * b + c % d} over a million rows is one call instead of a million queued statements.
+ * <p>
+ * The {@link PostfixProgram} of the statement runs a block of {@value #BLOCK_SIZE} rows at a time: each
+ * instruction processes the whole block, so the dispatch on the opcode is paid once per block rather than
+ * once per row, and the operand stack holds blocks, referring to the input columns directly and to scratch
+ * blocks for intermediate results. The element-wise loops run on the {@code jdk.incubator.vector} API when
+ * the JVM was started with {@code --add-modules jdk.incubator.vector}, and as scalar loops otherwise; the
+ * {@value #VECTOR_PROPERTY} system property set to {@code false} forces the scalar loops. Both compute the
+ * same floats as the interpreter of {@link ExpressionCalculatorService}.
+ * <p>
+ * Columns longer than {@value #SEQUENTIAL_ROWS} rows are split across a {@link ForkJoinPool}; each task
+ * works on its own rows with its own scratch blocks. The input columns are only read, and may be shared
+ * by concurrent calls.
+ * <p>
+ * Built-in functions run block-wise like the operators, on vectors where the kernel has an exact vector
+ * form. Operators of {@link com.calculator.spi.OperatorProvider}s have no vector form; they are called row
+ * by row within the block-wise evaluation.
+ */
+public class ColumnarEvaluator implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(ColumnarEvaluator.class);
+
+    /**
+     * The system property that disables the vector kernel when set to {@code false}.
+     */
+    public static final String VECTOR_PROPERTY = "calculator.columnar.vector";
+
+    /**
+     * The number of rows every instruction processes at once; a block of each operand fits the L1 cache.
+     */
+    static final int BLOCK_SIZE = 1024;
+
+    /**
+     * Columns with at most this many rows are evaluated on the calling thread, and forked tasks stop
+     * splitting at this size.
+     */
+    static final int SEQUENTIAL_ROWS = 1 << 15;
+
+    private static final String VECTOR_KERNEL_CLASS = "com.calculator.services.VectorColumnKernel";
+
+    private final ColumnKernel kernel;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new {@code ColumnarEvaluator} using every available processor.
+     */
+    public ColumnarEvaluator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new {@code ColumnarEvaluator} with the kernel selected by {@value #VECTOR_PROPERTY}.
+     *
+     * @param parallelism the number of threads evaluating large columns
+     */
+    public ColumnarEvaluator(int parallelism) {
+        this(parallelism, Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true")));
+    }
+
+    /**
+     * Constructs a new {@code ColumnarEvaluator}.
+     *
+     * @param parallelism the number of threads evaluating large columns
+     * @param vectorized whether the vector kernel is used if the {@code jdk.incubator.vector} module is available
+     */
+    public ColumnarEvaluator(int parallelism, boolean vectorized) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.kernel = vectorized ? loadVectorKernel() : ColumnKernel.SCALAR;
+        this.pool = new ForkJoinPool(parallelism);
+        logger.debug("Evaluating columns with the {} kernel on {} threads", kernel.name(), parallelism);
+    }
+
+    /**
+     * Loads the vector kernel if the module is available. The kernel is loaded by name, so that this class
+     * links without the module.
+     */
+    private static ColumnKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return ColumnKernel.SCALAR;
+        }
+        try {
+            return (ColumnKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("Vector kernel is not available, using scalar loops: {}", e.toString());
+            return ColumnKernel.SCALAR;
+        }
+    }
+
+    /**
+     * Returns the name of the kernel running the element-wise loops.
+     *
+     * @return {@code scalar}, or {@code vector-} followed by the vector size in bits
+     */
+    public String getKernelName() {
+        return kernel.name();
+    }
+
+    public boolean isVectorized() {
+        return kernel != ColumnKernel.SCALAR;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Evaluates a statement for every row of the output column. A compound assignment such as {@code y += x}
+     * reads the current values of the assigned variable from the output column.
+     *
+     * @param expression the statement to evaluate
+     * @param columns the columns of the variables read by the right-hand side, by variable name
+     * @param output the column of the assigned variable; its length is the number of rows
+     * @throws InvalidInputException if the statement is invalid, uses {@code ++} or {@code --},
+     *                               or reads a variable without a column
+     * @throws IllegalArgumentException if a column has fewer rows than the output
+     * @throws ArithmeticException if a row divides by zero; the output column is then partly written
+     */
+    public void evaluate(Expression expression, Map<String, float[]> columns, float[] output) throws InvalidInputException {
+        PostfixProgram program = expression.program() != null ? expression.program() : ProgramCompiler.compileTokens(expression.tokens());
+        for (int instruction : program.code()) {
+            if (PostfixProgram.isUnary(PostfixProgram.opcode(instruction))) {
+                throw new InvalidInputException("Unary operators modify variables and are not evaluated over columns: " + program);
+            }
+        }
+        String[] variables = program.variables();
+        float[][] inputs = new float[variables.length][];
+        for (int i = 0; i < variables.length; i++) {
+            inputs[i] = columns.get(variables[i]);
+            if (inputs[i] == null) {
+                throw new InvalidInputException(String.format("Variable %s has no column", variables[i]));
+            }
+            if (inputs[i].length < output.length) {
+                throw new IllegalArgumentException(String.format("Column %s has %d rows, expected %d",
+                        variables[i], inputs[i].length, output.length));
+            }
+        }
+        Evaluation evaluation = new Evaluation(program, inputs, output, expression.assignmentOperator());
+        if (output.length <= SEQUENTIAL_ROWS) {
+            evaluation.evaluateRows(0, output.length);
+        } else {
+            pool.invoke(new RowsTask(evaluation, 0, output.length));
+        }
+    }
+
+    /**
+     * Shuts down the worker threads, waiting for running evaluations to finish.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One statement evaluated over a set of columns.
+     */
+    private class Evaluation {
+        private final PostfixProgram program;
+        private final float[][] inputs;
+        private final float[] output;
+        private final AssignmentOperator assignmentOperator;
+
+        Evaluation(PostfixProgram program, float[][] inputs, float[] output, AssignmentOperator assignmentOperator) {
+            this.program = program;
+            this.inputs = inputs;
+            this.output = output;
+            this.assignmentOperator = assignmentOperator;
+        }
+
+        /**
+         * Evaluates a range of rows on the calling thread, block by block.
+         */
+        void evaluateRows(int from, int to) {
+            int[] code = program.code();
+            float[] constants = program.constants();
+            int depth = program.maxStackDepth();
+            float[][] constantBlocks = new float[constants.length][];
+            for (int i = 0; i < constants.length; i++) {
+                constantBlocks[i] = new float[BLOCK_SIZE];
+                Arrays.fill(constantBlocks[i], constants[i]);
+            }
+            float[][] scratch = new float[depth][BLOCK_SIZE];
+            float[] row = new float[depth];
+            // The operand stack: each entry is a block of an input column, a constant or a scratch block
+            float[][] blocks = new float[depth][];
+            int[] offsets = new int[depth];
+            for (int start = from; start < to; start += BLOCK_SIZE) {
+                int length = Math.min(BLOCK_SIZE, to - start);
+                int top = 0;
+                for (int instruction : code) {
+                    int operand = PostfixProgram.operand(instruction);
+                    switch (PostfixProgram.opcode(instruction)) {
+                        case PostfixProgram.PUSH_CONSTANT -> {
+                            blocks[top] = constantBlocks[operand];
+                            offsets[top++] = 0;
+                        }
+                        case PostfixProgram.LOAD_VARIABLE -> {
+                            blocks[top] = inputs[operand];
+                            offsets[top++] = start;
+                        }
+                        case PostfixProgram.APPLY_OPERATOR -> {
+                            top -= PostfixProgram.arity(instruction);
+                            float[] result = scratch[top];
+                            applyOperator(operand, blocks, offsets, top, row, result, length);
+                            blocks[top] = result;
+                            offsets[top++] = 0;
+                        }
+                        case PostfixProgram.CALL_FUNCTION -> {
+                            MathFunction function = MathFunction.of(operand);
+                            top -= function.getArity();
+                            float[] result = scratch[top];
+                            int arity = function.getArity();
+                            kernel.call(function, blocks[top], offsets[top],
+                                    arity > 1 ? blocks[top + 1] : null, arity > 1 ? offsets[top + 1] : 0,
+                                    arity > 2 ? blocks[top + 2] : null, arity > 2 ? offsets[top + 2] : 0,
+                                    result, 0, length);
+                            blocks[top] = result;
+                            offsets[top++] = 0;
+                        }
+                        default -> {
+                            top--;
+                            float[] result = scratch[top - 1];
+                            apply(PostfixProgram.opcode(instruction), blocks[top - 1], offsets[top - 1], blocks[top], offsets[top],
+                                    result, 0, length);
+                            blocks[top - 1] = result;
+                            offsets[top - 1] = 0;
+                        }
+                    }
+                }
+                assign(blocks[0], offsets[0], start, length);
+            }
+        }
+
+        private void assign(float[] values, int valuesFrom, int start, int length) {
+            switch (assignmentOperator) {
+                case ASSIGN -> System.arraycopy(values, valuesFrom, output, start, length);
+                case ADD_ASSIGN -> kernel.add(output, start, values, valuesFrom, output, start, length);
+                case SUBTRACT_ASSIGN -> kernel.subtract(output, start, values, valuesFrom, output, start, length);
+                case MULTIPLY_ASSIGN -> kernel.multiply(output, start, values, valuesFrom, output, start, length);
+                case DIVIDE_ASSIGN -> kernel.divide(output, start, values, valuesFrom, output, start, length);
+            }
+        }
+
+        /**
+         * Applies an operator of a provider row by row, gathering the operands of each row, which start at
+         * the given stack entry, into a scratch row. A row is gathered before its result is written, so the
+         * result may overwrite the block of the first operand.
+         */
+        private void applyOperator(int id, float[][] blocks, int[] offsets, int from, float[] row, float[] result, int length) {
+            OperatorDefinition definition = OperatorFactory.getPluginOperator(id).definition();
+            OperatorDefinition.Implementation implementation = definition.implementation();
+            int arity = definition.arity();
+            for (int i = 0; i < length; i++) {
+                for (int a = 0; a < arity; a++) {
+                    row[a] = blocks[from + a][offsets[from + a] + i];
+                }
+                result[i] = implementation.apply(row, 0);
+            }
+        }
+
+        private void apply(int opcode, float[] first, int firstFrom, float[] second, int secondFrom,
+                           float[] result, int resultFrom, int length) {
+            switch (opcode) {
+                case PostfixProgram.ADD -> kernel.add(first, firstFrom, second, secondFrom, result, resultFrom, length);
+                case PostfixProgram.SUBTRACT -> kernel.subtract(first, firstFrom, second, secondFrom, result, resultFrom, length);
+                case PostfixProgram.MULTIPLY -> kernel.multiply(first, firstFrom, second, secondFrom, result, resultFrom, length);
+                case PostfixProgram.DIVIDE -> kernel.divide(first, firstFrom, second, secondFrom, result, resultFrom, length);
+                case PostfixProgram.MODULUS -> kernel.modulus(first, firstFrom, second, secondFrom, result, resultFrom, length);
+                case PostfixProgram.POWER -> kernel.power(first, firstFrom, second, secondFrom, result, resultFrom, length);
+                default -> throw new IllegalStateException("Invalid instruction: " + opcode);
+            }
+        }
+    }
+
+    /**
+     * Evaluates a range of rows, splitting it across the pool.
+     */
+    private static class RowsTask extends RecursiveAction {
+        private final Evaluation evaluation;
+        private final int from;
+        private final int to;
+
+        RowsTask(Evaluation evaluation, int from, int to) {
+            this.evaluation = evaluation;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_ROWS) {
+                evaluation.evaluateRows(from, to);
+                return;
+            }
+            // Splits on a block boundary, so that no block straddles two tasks
+            int middle = from + ((to - from) / 2 / BLOCK_SIZE) * BLOCK_SIZE;
+            invokeAll(new RowsTask(evaluation, from, middle), new RowsTask(evaluation, middle, to));
+        }
+    }
+}
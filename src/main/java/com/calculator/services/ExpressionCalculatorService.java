@@ -1,32 +1,104 @@
 package com.calculator.services;
+import com.calculator.compiler.CompiledStatement;
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.events.StageHandoffEvent;
+import com.calculator.events.StatementEvaluatedEvent;
+import com.calculator.events.StatementFailedEvent;
 import com.calculator.exceptions.InvalidInputException;
 import com.calculator.factories.OperatorFactory;
-import com.calculator.models.AssignmentOperator;
+import com.calculator.metrics.StageMetrics;
 import com.calculator.models.Expression;
-import com.calculator.models.operators.*;
-import com.calculator.utils.ExpressionParser;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.operators.DivideOperator;
+import com.calculator.models.operators.ExponentOperator;
+import com.calculator.models.operators.MathFunction;
+import com.calculator.numeric.NumericBackend;
+import com.calculator.numeric.NumericEvaluator;
+import com.calculator.spi.OperatorDefinition;
+import com.calculator.utils.AllocationCounter;
+import com.calculator.utils.BatchDrainer;
+import com.calculator.utils.NumberFormatter;
+import com.calculator.utils.ResultWriter;
+import com.calculator.utils.SymbolTable;
+import jdk.jfr.FlightRecorder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.TimeUnit;
-import static com.calculator.utils.ExpressionParser.formatNumber;
 
 
 /**
  * Service for evaluating mathematical expressions.
  * This service runs a background thread that processes mathematical expressions from an input queue.
  * It supports standard operators, assignment, and unary operations.
+ * Statements run their precompiled {@link PostfixProgram} on a primitive operand stack until they
+ * become hot, after which the {@link TieredExecutionEngine} runs them as compiled bytecode.
+ * This is the {@link NumericBackend#FLOAT float} backend; with any other {@link NumericBackend} the statements
+ * run in a {@link NumericEvaluator} of that backend, which keeps the variables in its own arithmetic.
+ * <p>
+ * The evaluation path reuses its primitive stacks and updates variables in place, so a statement
+ * allocates nothing in steady state. Allocation tracking measures the bytes allocated per statement
+ * through {@link AllocationCounter} to verify this under real workloads.
+ * <p>
+ * With a parallelism above one, the worker hands windows of queued statements to a
+ * {@link ParallelStatementExecutor}, which evaluates independent statements concurrently.
+ * <p>
+ * The worker records the statements it evaluates, their sampled latencies, its failures and its
+ * waiting and working time in {@link StageMetrics}, which are published through JMX while the service runs.
  */
 public class ExpressionCalculatorService implements IProcessor {
     private static final Logger logger = LogManager.getLogger(ExpressionCalculatorService.class);
+
+    /**
+     * The name of the stage in metrics and Flight Recorder events.
+     */
+    private static final String STAGE = "calculator";
+
+    /**
+     * The system property enabling allocation tracking for new services.
+     */
+    public static final String ALLOCATION_TRACKING_PROPERTY = "calculator.allocation.tracking";
+
+    /**
+     * The system property setting how many threads evaluate independent statements in parallel.
+     */
+    public static final String PARALLELISM_PROPERTY = "calculator.parallelism";
+
+    /**
+     * The maximum number of queued statements taken from the queue at once, and so scheduled together
+     * when evaluating in parallel.
+     */
+    public static final int PARALLEL_WINDOW_SIZE = 4096;
+
+    /**
+     * The system property enabling spreadsheet mode for new services.
+     */
+    public static final String SPREADSHEET_PROPERTY = "calculator.spreadsheet";
+
+    /**
+     * The system property enabling sharing of common subexpressions across each batch for new services.
+     */
+    public static final String SUBEXPRESSION_SHARING_PROPERTY = "calculator.cse";
+
     private final VariablesManagerService variablesManagerService;
-    private final Stack<Float> values;
-    private final Stack<IOperator> operators;
     private final BlockingQueue<Expression> inputQueue;
+    private final TieredExecutionEngine executionEngine;
+    private final ParallelStatementExecutor parallelExecutor;
+    private final BatchDrainer<Expression> drainer;
+    private final StageMetrics metrics;
     private final Thread workerThread;
+    private volatile SpreadsheetEngine spreadsheetEngine;
+    private NumericEvaluator numericEvaluator;
+    private SubexpressionDag subexpressionDag;
+    private float[] stack = new float[16];
+    private float[] compiledArguments = new float[8];
     private volatile boolean isRunning = true;
+    private volatile boolean allocationTracking;
+    private volatile long lastAllocatedBytes;
+    private volatile long totalAllocatedBytes;
+    private volatile long trackedExpressionCount;
 
     /**
      * Constructs a new ExpressionCalculatorService.
@@ -34,31 +106,271 @@ public class ExpressionCalculatorService implements IProcessor {
      * @param inputQueue The queue containing expressions to process.
      */
     public ExpressionCalculatorService(BlockingQueue<Expression> inputQueue) {
-        variablesManagerService = new VariablesManagerService();
-        values = new Stack<>();
-        operators = new Stack<>();
+        this(inputQueue, TieredExecutionEngine.fromSystemProperties());
+    }
+
+    /**
+     * Constructs a new ExpressionCalculatorService with the given execution engine.
+     *
+     * @param inputQueue The queue containing expressions to process.
+     * @param executionEngine The engine deciding when statements are compiled.
+     */
+    public ExpressionCalculatorService(BlockingQueue<Expression> inputQueue, TieredExecutionEngine executionEngine) {
+        this(inputQueue, executionEngine, new VariablesManagerService());
+    }
+
+    /**
+     * Constructs a new ExpressionCalculatorService that evaluates against the given variables.
+     * Several services may share one {@link VariablesManagerService} to work on the same namespace.
+     *
+     * @param inputQueue The queue containing expressions to process.
+     * @param executionEngine The engine deciding when statements are compiled.
+     * @param variablesManagerService The variable storage to read and update.
+     */
+    public ExpressionCalculatorService(BlockingQueue<Expression> inputQueue, TieredExecutionEngine executionEngine,
+                                       VariablesManagerService variablesManagerService) {
+        this(inputQueue, executionEngine, variablesManagerService, Integer.getInteger(PARALLELISM_PROPERTY, 1));
+    }
+
+    /**
+     * Constructs a new ExpressionCalculatorService that evaluates independent queued statements in parallel.
+     * With a parallelism of {@code 1} every statement is evaluated on the worker thread.
+     *
+     * @param inputQueue The queue containing expressions to process.
+     * @param executionEngine The engine deciding when statements are compiled.
+     * @param variablesManagerService The variable storage to read and update.
+     * @param parallelism The number of threads evaluating statements.
+     * @see ParallelStatementExecutor
+     */
+    public ExpressionCalculatorService(BlockingQueue<Expression> inputQueue, TieredExecutionEngine executionEngine,
+                                       VariablesManagerService variablesManagerService, int parallelism) {
+        this(inputQueue, executionEngine, variablesManagerService, parallelism, new StageMetrics(STAGE, inputQueue::size));
+    }
+
+    /**
+     * Constructs a new ExpressionCalculatorService that records into the given metrics.
+     * Several services may share one {@link StageMetrics} to be reported as one stage.
+     *
+     * @param inputQueue The queue containing expressions to process.
+     * @param executionEngine The engine deciding when statements are compiled.
+     * @param variablesManagerService The variable storage to read and update.
+     * @param parallelism The number of threads evaluating statements.
+     * @param metrics The metrics recording the statements evaluated by the worker.
+     */
+    public ExpressionCalculatorService(BlockingQueue<Expression> inputQueue, TieredExecutionEngine executionEngine,
+                                       VariablesManagerService variablesManagerService, int parallelism, StageMetrics metrics) {
+        this.variablesManagerService = variablesManagerService;
         this.inputQueue = inputQueue;
+        this.executionEngine = executionEngine;
+        this.metrics = metrics;
+        this.parallelExecutor = parallelism > 1
+                ? new ParallelStatementExecutor(variablesManagerService, executionEngine, parallelism, metrics) : null;
+        this.drainer = new BatchDrainer<>(inputQueue, PARALLEL_WINDOW_SIZE);
         this.workerThread = new Thread(this::processQueue);
+        this.allocationTracking = Boolean.getBoolean(ALLOCATION_TRACKING_PROPERTY);
+        setNumericBackend(NumericBackend.fromSystemProperties());
+        setSpreadsheetMode(Boolean.getBoolean(SPREADSHEET_PROPERTY));
+        setSubexpressionSharing(Boolean.getBoolean(SUBEXPRESSION_SHARING_PROPERTY));
+    }
+
+    /**
+     * Constructs a new ExpressionCalculatorService that only evaluates statements on the calling thread
+     * through {@link #evaluate(Expression)}, e.g. for one session of a {@link CalculatorServer}. It has no
+     * input queue and no worker thread, so it cannot be started, and it reads no system properties: it
+     * evaluates one statement at a time with the float backend and without allocation tracking.
+     *
+     * @param executionEngine The engine deciding when statements are compiled.
+     * @param variablesManagerService The variable storage to read and update.
+     * @param metrics The metrics the caller records the statements in.
+     */
+    public ExpressionCalculatorService(TieredExecutionEngine executionEngine, VariablesManagerService variablesManagerService,
+                                       StageMetrics metrics) {
+        this.variablesManagerService = variablesManagerService;
+        this.inputQueue = null;
+        this.executionEngine = executionEngine;
+        this.metrics = metrics;
+        this.parallelExecutor = null;
+        this.drainer = null;
+        this.workerThread = null;
     }
 
     public VariablesManagerService getVariablesManagerService() {
         return variablesManagerService;
     }
 
+    public TieredExecutionEngine getExecutionEngine() {
+        return executionEngine;
+    }
+
+    /**
+     * Returns the executor evaluating statements in parallel.
+     *
+     * @return the parallel executor, or {@code null} if statements are evaluated one at a time
+     */
+    public ParallelStatementExecutor getParallelExecutor() {
+        return parallelExecutor;
+    }
+
+    /**
+     * Returns the drainer moving statements from the input queue to the worker, e.g. to observe
+     * its batch size.
+     *
+     * @return the drainer of the input queue, or {@code null} for a service without one
+     */
+    public BatchDrainer<Expression> getDrainer() {
+        return drainer;
+    }
+
+    public StageMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Enables or disables spreadsheet mode, in which assignments reading other variables are kept up to
+     * date as live formulas. Must be set before the service is started.
+     *
+     * @param spreadsheetMode whether queued statements go through a {@link SpreadsheetEngine}
+     */
+    public void setSpreadsheetMode(boolean spreadsheetMode) {
+        if (spreadsheetMode && numericEvaluator != null) {
+            throw new IllegalStateException("Spreadsheet mode requires the float backend, not " + getNumericBackend());
+        }
+        if (spreadsheetMode && subexpressionDag != null) {
+            throw new IllegalStateException("Spreadsheet mode does not share subexpressions across a batch");
+        }
+        this.spreadsheetEngine = spreadsheetMode ? new SpreadsheetEngine(this) : null;
+    }
+
+    /**
+     * Selects the arithmetic statements are evaluated in, discarding the variables of the previous
+     * backend other than {@link NumericBackend#FLOAT float}. Must be set before the service is started.
+     * The float variables stay in the {@link VariablesManagerService}; the variables of any other backend
+     * are kept by its {@link NumericEvaluator}.
+     *
+     * @param backend the numeric backend
+     * @throws IllegalStateException if a backend other than float is selected for a service evaluating
+     *                               in parallel or in spreadsheet mode, which work on float variables
+     */
+    public void setNumericBackend(NumericBackend backend) {
+        if (backend != NumericBackend.FLOAT && (parallelExecutor != null || spreadsheetEngine != null)) {
+            throw new IllegalStateException(String.format("The %s backend evaluates one statement at a time, "
+                    + "without parallelism or spreadsheet mode", backend));
+        }
+        if (backend != NumericBackend.FLOAT && subexpressionDag != null) {
+            throw new IllegalStateException("Subexpressions are only shared by the float backend, not " + backend);
+        }
+        this.numericEvaluator = backend.createEvaluator();
+    }
+
+    public NumericBackend getNumericBackend() {
+        return numericEvaluator != null ? numericEvaluator.getBackend() : NumericBackend.FLOAT;
+    }
+
+    /**
+     * Returns the evaluator holding the variables of a backend other than float.
+     *
+     * @return the numeric evaluator, or {@code null} for the float backend
+     */
+    public NumericEvaluator getNumericEvaluator() {
+        return numericEvaluator;
+    }
+
+    /**
+     * Enables or disables sharing common subexpressions across the statements of each batch taken from the
+     * queue, see {@link SubexpressionDag}. Statements then skip the tiered execution engine. Must be set
+     * before the service is started. Cached values are dropped at the start of every batch; statements
+     * evaluated directly through {@link #evaluate(Expression)} belong to the current batch, so variables
+     * written by others in between are only seen after {@link SubexpressionDag#beginBatch()}.
+     *
+     * @param subexpressionSharing whether statements are evaluated through a {@link SubexpressionDag}
+     * @throws IllegalStateException if enabled for a service evaluating in parallel, in spreadsheet mode or
+     *                               with a backend other than float
+     */
+    public void setSubexpressionSharing(boolean subexpressionSharing) {
+        if (subexpressionSharing && (parallelExecutor != null || spreadsheetEngine != null || numericEvaluator != null)) {
+            throw new IllegalStateException("Subexpressions are only shared by the float backend evaluating "
+                    + "one statement at a time, without parallelism or spreadsheet mode");
+        }
+        this.subexpressionDag = subexpressionSharing ? new SubexpressionDag(variablesManagerService) : null;
+    }
+
+    /**
+     * Returns the DAG sharing common subexpressions across each batch.
+     *
+     * @return the subexpression DAG, or {@code null} if subexpressions are not shared
+     */
+    public SubexpressionDag getSubexpressionDag() {
+        return subexpressionDag;
+    }
+
+    /**
+     * Returns the engine maintaining live formulas.
+     *
+     * @return the spreadsheet engine, or {@code null} if spreadsheet mode is disabled
+     */
+    public SpreadsheetEngine getSpreadsheetEngine() {
+        return spreadsheetEngine;
+    }
+
     /**
-     * Starts the background thread to process expressions.
+     * Enables or disables measuring the bytes allocated while evaluating each expression.
+     *
+     * @param allocationTracking whether allocations are measured
+     */
+    public void setAllocationTracking(boolean allocationTracking) {
+        this.allocationTracking = allocationTracking && AllocationCounter.isSupported();
+    }
+
+    public boolean isAllocationTracking() {
+        return allocationTracking;
+    }
+
+    /**
+     * Returns the bytes allocated while evaluating the most recent tracked expression.
+     *
+     * @return the allocated bytes
+     */
+    public long getLastAllocatedBytes() {
+        return lastAllocatedBytes;
+    }
+
+    /**
+     * Returns the bytes allocated across all tracked expressions.
+     *
+     * @return the allocated bytes
+     */
+    public long getTotalAllocatedBytes() {
+        return totalAllocatedBytes;
+    }
+
+    public long getTrackedExpressionCount() {
+        return trackedExpressionCount;
+    }
+
+    /**
+     * Starts the background thread to process expressions and registers its metrics.
+     *
+     * @throws IllegalStateException if the service has no input queue
      */
     @Override
     public void start() {
+        if (workerThread == null) {
+            throw new IllegalStateException("The service has no input queue to process");
+        }
         logger.debug("Starting ExpressionCalculatorService...");
+        metrics.register();
         workerThread.start();
     }
 
     /**
-     * Stops the background thread gracefully.
+     * Stops the background thread gracefully: wakes it up and waits until it has evaluated
+     * everything queued before the call. Does nothing for a service without an input queue.
      */
     @Override
     public void stop() {
+        if (workerThread == null) {
+            return;
+        }
         logger.debug("Stopping ExpressionCalculatorService...");
         isRunning = false;
         workerThread.interrupt();
@@ -69,175 +381,289 @@ public class ExpressionCalculatorService implements IProcessor {
             logger.error("Interrupted while stopping worker thread.", e);
             Thread.currentThread().interrupt();
         }
+        if (parallelExecutor != null) {
+            parallelExecutor.close();
+        }
+        metrics.unregister();
     }
 
     /**
      * Processes the queue of expressions, evaluating each one.
+     * The worker waits for the next statement and drains the statements queued behind it as one batch,
+     * so it wakes up as soon as a statement arrives and pays the queue's locking once per batch.
+     * With a parallel executor, each batch is scheduled together.
+     * In spreadsheet mode, each batch is submitted to the {@link SpreadsheetEngine},
+     * and the affected formulas are recomputed once per batch.
+     * With subexpression sharing, each batch evaluates its distinct subexpressions once per version of
+     * the variables they read.
+     * A statement that fails is logged and skipped. After {@link #stop()} the worker evaluates whatever
+     * is still queued and returns.
+     * <p>
+     * The time spent in {@link BatchDrainer#take()} counts as waiting and the time spent on the batch
+     * as working. Each wait is also emitted as a {@link StageHandoffEvent} to Flight Recorder.
      */
     @Override
     public void processQueue() {
         logger.debug("Worker thread started. Waiting for expressions...");
-        while (isRunning || !inputQueue.isEmpty()) {
+        long idleSince = System.nanoTime();
+        while (isRunning) {
             try {
-                Expression expression = inputQueue.poll(1, TimeUnit.SECONDS);
-                if (expression != null) {
-                    evaluateExpression(expression);
-                    logger.debug("Evaluate: {}", expression);
-                }
+                StageHandoffEvent handoff = new StageHandoffEvent();
+                handoff.begin();
+                List<Expression> batch = drainer.take();
+                handoff.commit(STAGE, batch.size());
+                long received = System.nanoTime();
+                metrics.recordWaiting(received - idleSince);
+                idleSince = evaluateBatch(batch, received);
             } catch (InterruptedException e) {
                 logger.debug("Worker thread interrupted. Stopping...");
-                Thread.currentThread().interrupt();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
             }
         }
+        Thread.interrupted();
+        for (List<Expression> batch = drainer.poll(); !batch.isEmpty(); batch = drainer.poll()) {
+            evaluateBatch(batch, System.nanoTime());
+        }
     }
 
     /**
-     * Evaluates a mathematical expression and updates the variable storage.
+     * Evaluates a batch taken from the queue.
      *
-     * @param expression The mathematical expression to evaluate.
-     * @throws InvalidInputException If the expression contains invalid input.
-     * @throws InvocationTargetException If there is an error invoking a method.
-     * @throws NoSuchMethodException If a method is not found during reflection.
-     * @throws InstantiationException If an object instantiation fails.
-     * @throws IllegalAccessException If access to a class is denied.
-     */
-    private void evaluateExpression(Expression expression) throws InvalidInputException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
-        for (String part : expression.expressionParts()) {
-            handleExpressionPart(part);
+     * @return the time the batch was done
+     */
+    private long evaluateBatch(List<Expression> batch, long start) {
+        SpreadsheetEngine spreadsheet = spreadsheetEngine;
+        if (spreadsheet != null) {
+            submitToSpreadsheet(spreadsheet, batch);
+        } else if (parallelExecutor != null) {
+            parallelExecutor.execute(batch);
+        } else {
+            if (subexpressionDag != null) {
+                subexpressionDag.beginBatch();
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                boolean sampled = StageMetrics.isSampled(i);
+                long evaluateStart = sampled ? System.nanoTime() : 0;
+                evaluateLogged(batch.get(i));
+                if (sampled) {
+                    metrics.recordLatency(System.nanoTime() - evaluateStart);
+                }
+            }
         }
-        float result = calculateStackResult();
-        evaluateAssignmentVariable(expression, result);
+        metrics.recordProcessed(batch.size());
+        long end = System.nanoTime();
+        metrics.recordWorking(end - start);
+        return end;
     }
 
-    /**
-     * Handles an individual part of an expression.
-     *
-     * @param expressionPart The part of the expression to process.
-     * @throws InvalidInputException If the part is not a valid number, variable, or operator.
-     * @throws InvocationTargetException If an error occurs during method invocation.
-     * @throws NoSuchMethodException If a required method is not found.
-     * @throws InstantiationException If an object cannot be instantiated.
-     * @throws IllegalAccessException If access to a class is denied.
-     */
-    private void handleExpressionPart(String expressionPart) throws InvalidInputException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
-        if (OperatorFactory.isOperator(expressionPart)) {
-            handleOperator(expressionPart);
-        } else if (ExpressionParser.isNumeric(expressionPart)) {
-            values.push(Float.parseFloat(expressionPart));
-        } else if (variablesManagerService.getVariables().containsKey(expressionPart)) {
-            values.push(variablesManagerService.getVariable(expressionPart));
-        } else if (expressionPart.contains(IncrementOperator.getSymbol()) || expressionPart.contains(DecrementOperator.getSymbol())) {
-            Optional<IUnaryOperator> operator = OperatorFactory.getUnaryOperator(expressionPart);
-            if (operator.isPresent()) {
-                handleUnaryOperator(operator.get());
-            } else {
-                throw new InvalidInputException(expressionPart);
+    private void evaluateLogged(Expression expression) {
+        try {
+            evaluate(expression);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Evaluate: {} ({} bytes allocated)", expression, lastAllocatedBytes);
             }
+        } catch (Exception e) {
+            metrics.recordFailure(e);
+            logger.error("Failed to evaluate: {} {}", expression, e.getMessage());
         }
-        else {
-            throw new InvalidInputException(expressionPart);
+    }
+
+    private void submitToSpreadsheet(SpreadsheetEngine spreadsheet, List<Expression> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            Expression expression = batch.get(i);
+            boolean sampled = StageMetrics.isSampled(i);
+            long submitStart = sampled ? System.nanoTime() : 0;
+            try {
+                spreadsheet.submit(expression);
+            } catch (Exception e) {
+                metrics.recordFailure(e);
+                logger.error("Failed to evaluate: {} {}", expression, e.getMessage());
+            }
+            if (sampled) {
+                metrics.recordLatency(System.nanoTime() - submitStart);
+            }
         }
+        spreadsheet.recompute();
     }
 
     /**
-     * Evaluates and assigns a value to a variable based on the assignment operator.
+     * Evaluates a mathematical expression on the calling thread and updates the variable storage.
+     * Must not be called concurrently with the worker thread: each service evaluates on one thread at a time.
+     * Once Flight Recorder is started, evaluation emits a {@link StatementEvaluatedEvent}, or a
+     * {@link StatementFailedEvent}, to it.
      *
-     * @param expression The assignment expression.
-     * @param calculatedValue The result of the expression.
-     * @throws InvalidInputException If variable is not initialized and has assignment operator that is not '='
+     * @param expression The mathematical expression to evaluate.
+     * @throws InvalidInputException If the expression contains invalid input.
      */
-    private void evaluateAssignmentVariable(Expression expression, float calculatedValue) throws InvalidInputException {
-        AssignmentOperator assignmentOperator = expression.assignmentOperator();
-        if (!variablesManagerService.getVariables().containsKey(expression.assignedVariable()) && expression.assignmentOperator() != AssignmentOperator.ASSIGN) {
-            throw new InvalidInputException("Assignment variable is not initialized");
+    public void evaluate(Expression expression) throws InvalidInputException {
+        if (FlightRecorder.isInitialized()) {
+            evaluateRecorded(expression);
+        } else {
+            evaluateTracked(expression);
         }
-        float oldValue = variablesManagerService.getVariables().get(expression.assignedVariable());
-        float newValue = assignmentOperator.apply(oldValue, calculatedValue);
-        variablesManagerService.putVariable(expression.assignedVariable(), newValue);
     }
 
     /**
-     * Computes the final result of the expression by processing the operator and value stacks.
+     * Evaluates a mathematical expression, emitting its Flight Recorder events. The evaluated event is
+     * only created while a recording has it enabled, so evaluation stays free of allocations otherwise.
      *
-     * @return The final computed result.
-     */
-    private float calculateStackResult() {
-        while (!operators.isEmpty() && !values.isEmpty()) {
-            float b = values.pop();
-            float a = values.pop();
-            IOperator operator = operators.pop();
-            float result = operator.apply(a, b);
-            values.push(result);
+     * @param expression The mathematical expression to evaluate.
+     * @throws InvalidInputException If the expression contains invalid input.
+     */
+    private void evaluateRecorded(Expression expression) throws InvalidInputException {
+        StatementEvaluatedEvent event = null;
+        if (StatementEvaluatedEvent.isRecorded()) {
+            event = new StatementEvaluatedEvent();
+            event.begin();
+        }
+        boolean compiled;
+        try {
+            compiled = evaluateTracked(expression);
+        } catch (InvalidInputException | RuntimeException e) {
+            new StatementFailedEvent().commit(expression, e);
+            throw e;
+        }
+        if (event != null) {
+            event.commit(expression, compiled);
         }
-        return values.pop();
     }
 
     /**
-     * Processes and applies an operator to the values stack.
+     * Evaluates a mathematical expression, measuring its allocations if allocation tracking is enabled.
      *
-     * @throws InvalidInputException If there are not enough values in the stack.
+     * @param expression The mathematical expression to evaluate.
+     * @return Whether the expression ran as compiled bytecode.
+     * @throws InvalidInputException If the expression contains invalid input.
      */
-    private void processOperator() throws InvalidInputException {
-        if (values.size() < 2) {
-            throw new InvalidInputException("Invalid expression: Not enough values");
+    private boolean evaluateTracked(Expression expression) throws InvalidInputException {
+        if (!allocationTracking) {
+            return evaluateExpression(expression);
         }
-        float rightValue = values.pop();
-        float leftValue = values.pop();
-        IOperator operator = operators.pop();
-        values.push(operator.apply(leftValue, rightValue));
+        long allocatedBefore = AllocationCounter.currentThreadAllocatedBytes();
+        boolean compiled = evaluateExpression(expression);
+        long allocatedBytes = AllocationCounter.currentThreadAllocatedBytes() - allocatedBefore;
+        lastAllocatedBytes = allocatedBytes;
+        totalAllocatedBytes += allocatedBytes;
+        trackedExpressionCount++;
+        return compiled;
     }
 
     /**
-     * Handles standard mathematical operators and parentheses.
+     * Evaluates a mathematical expression and updates the variable storage.
      *
-     * @param operator The operator to process.
-     * @throws InvalidInputException If there is a mismatch in parentheses or operator precedence issues.
+     * @param expression The mathematical expression to evaluate.
+     * @return Whether the expression ran as compiled bytecode.
+     * @throws InvalidInputException If the expression contains invalid input.
      */
-    private void handleOperator(String operator) throws InvalidInputException {
-        IOperator currentOperator = OperatorFactory.getOperator(operator);
-        if (currentOperator instanceof OpenParenthesisOperator) {
-            operators.push(currentOperator);
+    private boolean evaluateExpression(Expression expression) throws InvalidInputException {
+        if (numericEvaluator != null) {
+            numericEvaluator.evaluate(expression);
+            return false;
         }
-        else if (currentOperator instanceof CloseParenthesisOperator) {
-            // Process everything inside the parentheses
-            while (!operators.isEmpty() && !(operators.peek() instanceof OpenParenthesisOperator)) {
-                processOperator();
-            }
-            if (!operators.isEmpty() && operators.peek() instanceof OpenParenthesisOperator) {
-                operators.pop(); // Remove '(' from the stack
-            } else {
-                throw new InvalidInputException("Mismatched parentheses");
-            }
+        if (subexpressionDag != null) {
+            subexpressionDag.evaluate(expression);
+            return false;
+        }
+        PostfixProgram program = expression.program() != null ? expression.program() : ProgramCompiler.compileTokens(expression.tokens());
+        CompiledStatement compiledStatement = executionEngine.select(program);
+        float result = compiledStatement != null ? evaluateCompiled(compiledStatement) : executeProgram(program);
+        evaluateAssignmentVariable(expression, result);
+        return compiledStatement != null;
+    }
+
+    /**
+     * Runs a postfix program on the primitive operand stack.
+     *
+     * @param program The program to run.
+     * @return The result of the right-hand side.
+     * @throws InvalidInputException If a referenced variable is not assigned.
+     */
+    private float executeProgram(PostfixProgram program) throws InvalidInputException {
+        int[] code = program.code();
+        float[] constants = program.constants();
+        int[] slots = program.slots();
+        if (stack.length < program.maxStackDepth()) {
+            stack = new float[program.maxStackDepth()];
         }
-        else {
-            // Handle standard operators
-            while (!operators.isEmpty() && OperatorFactory.hasHigherPrecedence(operators.peek(), currentOperator)) {
-                processOperator();
+        float[] stack = this.stack;
+        int top = 0;
+        for (int instruction : code) {
+            int operand = PostfixProgram.operand(instruction);
+            switch (PostfixProgram.opcode(instruction)) {
+                case PostfixProgram.PUSH_CONSTANT -> stack[top++] = constants[operand];
+                case PostfixProgram.LOAD_VARIABLE -> stack[top++] = variablesManagerService.getVariable(slots[operand]);
+                case PostfixProgram.ADD -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] + stack[top];
+                }
+                case PostfixProgram.SUBTRACT -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] - stack[top];
+                }
+                case PostfixProgram.MULTIPLY -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] * stack[top];
+                }
+                case PostfixProgram.DIVIDE -> {
+                    top--;
+                    stack[top - 1] = DivideOperator.divide(stack[top - 1], stack[top]);
+                }
+                case PostfixProgram.MODULUS -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] % stack[top];
+                }
+                case PostfixProgram.POWER -> {
+                    top--;
+                    stack[top - 1] = ExponentOperator.power(stack[top - 1], stack[top]);
+                }
+                case PostfixProgram.PRE_INCREMENT -> stack[top++] = variablesManagerService.addToVariable(slots[operand], 1, false);
+                case PostfixProgram.POST_INCREMENT -> stack[top++] = variablesManagerService.addToVariable(slots[operand], 1, true);
+                case PostfixProgram.PRE_DECREMENT -> stack[top++] = variablesManagerService.addToVariable(slots[operand], -1, false);
+                case PostfixProgram.POST_DECREMENT -> stack[top++] = variablesManagerService.addToVariable(slots[operand], -1, true);
+                case PostfixProgram.APPLY_OPERATOR -> {
+                    OperatorDefinition definition = OperatorFactory.getPluginOperator(operand).definition();
+                    top -= definition.arity();
+                    stack[top] = definition.implementation().apply(stack, top);
+                    top++;
+                }
+                case PostfixProgram.CALL_FUNCTION -> {
+                    MathFunction function = MathFunction.of(operand);
+                    top -= function.getArity();
+                    stack[top] = function.apply(stack, top);
+                    top++;
+                }
+                default -> throw new InvalidInputException("Invalid instruction: " + instruction);
             }
-            operators.push(currentOperator);
         }
+        return stack[0];
     }
 
     /**
-     * Handles unary operators such as post/pre increment and decrement.
+     * Runs the compiled form of an expression against the current variable values.
      *
-     * @param unaryOperator The operator to process.
-     * @throws InvalidInputException If there is a mismatch in unary operator declaration.
+     * @param compiledStatement The compiled expression and the variables it reads.
+     * @return The result of the right-hand side.
+     * @throws InvalidInputException If a referenced variable is not assigned.
      */
-    private void handleUnaryOperator(IUnaryOperator unaryOperator) throws InvalidInputException {
-        if (!variablesManagerService.getVariables().containsKey(unaryOperator.getVariable())) {
-            throw new InvalidInputException(String.format("Variable %s is used before being assigned", unaryOperator.getVariable()));
+    private float evaluateCompiled(CompiledStatement compiledStatement) throws InvalidInputException {
+        int[] slots = compiledStatement.slots();
+        if (compiledArguments.length < slots.length) {
+            compiledArguments = new float[slots.length];
         }
-        float currentValue = variablesManagerService.getVariable(unaryOperator.getVariable());
-        float newValue = unaryOperator.apply(currentValue);
-        variablesManagerService.putVariable(unaryOperator.getVariable(), newValue);
-        if (unaryOperator.isPostOperation()) {
-            values.push(currentValue);
-        } else {
-            values.push(newValue);
+        for (int i = 0; i < slots.length; i++) {
+            compiledArguments[i] = variablesManagerService.getVariable(slots[i]);
         }
+        return compiledStatement.expression().evaluate(compiledArguments);
+    }
+
+    /**
+     * Evaluates and assigns a value to a variable based on the assignment operator.
+     *
+     * @param expression The assignment expression.
+     * @param calculatedValue The result of the expression.
+     * @throws InvalidInputException If variable is not initialized and has assignment operator that is not '='
+     */
+    private void evaluateAssignmentVariable(Expression expression, float calculatedValue) throws InvalidInputException {
+        variablesManagerService.applyAssignment(expression.assignedSlot(), expression.assignmentOperator(), calculatedValue);
     }
 
     /**
@@ -249,9 +675,15 @@ public class ExpressionCalculatorService implements IProcessor {
     public String prettyPrintResult() throws InvalidInputException {
         StringBuilder sb =new StringBuilder();
         sb.append("(");
-        List<String> keys = new ArrayList<>(variablesManagerService.getVariables().keySet());
+        if (numericEvaluator != null) {
+            StringJoiner joiner = new StringJoiner(",");
+            numericEvaluator.getVariables().forEach((name, value) -> joiner.add(name + "=" + value));
+            return sb.append(joiner).append(")").toString();
+        }
+        Map<String, Float> variables = variablesManagerService.getVariables();
+        List<String> keys = new ArrayList<>(variables.keySet());
         for (int i = 0; i < keys.size(); i++) {
-            sb.append(keys.get(i)).append("=").append(formatNumber(variablesManagerService.getVariable(keys.get(i))));
+            NumberFormatter.append(sb.append(keys.get(i)).append("="), variables.get(keys.get(i)));
             if (i < keys.size() - 1) {
                 sb.append(",");
             }
@@ -260,4 +692,22 @@ public class ExpressionCalculatorService implements IProcessor {
         return sb.toString();
     }
 
+    /**
+     * Streams all variables to a writer and finishes it, without building the result in memory as
+     * {@link #prettyPrintResult()} does. The float variables are visited in place, so the result is not a
+     * snapshot if statements are evaluated meanwhile.
+     *
+     * @param writer the writer receiving the variables
+     * @throws IOException if the writer fails
+     * @throws IllegalStateException if the result is binary and the numeric backend is not float
+     */
+    public void writeResult(ResultWriter writer) throws IOException {
+        if (numericEvaluator != null) {
+            numericEvaluator.forEachVariable(writer::write);
+        } else {
+            variablesManagerService.forEachVariable((slot, value) -> writer.write(SymbolTable.nameOf(slot), value));
+        }
+        writer.finish();
+    }
+
 }
@@ -1,19 +1,28 @@
 package com.calculator.services;
 
+import com.calculator.events.StageHandoffEvent;
+import com.calculator.factories.TransportFactory;
+import com.calculator.metrics.StageMetrics;
 import com.calculator.models.Expression;
+import com.calculator.utils.BatchDrainer;
 import com.calculator.utils.ExpressionParser;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 
 /**
  * The {@code ExpressionParserProcessor} class is responsible for processing
- * mathematical expressions in a background thread. It reads expressions
+ * mathematical expressions in a background thread. It reads batches of expressions
  * from an input queue, parses them into {@link Expression} objects,
  * and places them in an output queue.
+ * Handing statements over in batches pays the queue's locking and signalling once per batch
+ * rather than once per statement; interactive input simply uses batches of one.
+ * Each processor owns its output queue, by default a preallocated ring buffer chosen by the
+ * {@link TransportFactory}, with the worker thread as its only producer.
+ * The worker records the statements it parses and hands over, their sampled latencies, its failures and
+ * its waiting and working time in {@link StageMetrics}, which are published through JMX while it runs.
  * This class implements {@link IProcessor} and provides a mechanism to start
  * and stop processing asynchronously using a worker thread.
  */
@@ -22,24 +31,57 @@ public class ExpressionParserProcessor implements IProcessor {
     private static final Logger logger = LogManager.getLogger(ExpressionParserProcessor.class);
 
     /**
-     * The output queue that stores parsed {@link Expression} objects.
+     * The name of the stage in metrics and Flight Recorder events.
      */
-    private static final BlockingQueue<Expression> outputQueue = new LinkedBlockingQueue<>();
+    private static final String STAGE = "parser";
 
     /**
-     * The input queue containing raw string expressions to be processed.
+     * The maximum number of input batches taken from the queue at once.
      */
-    private final BlockingQueue<String> inputQueue;
+    private static final int MAX_DRAINED_BATCHES = 64;
+
+    /**
+     * The input queue containing batches of raw string expressions to be processed.
+     */
+    private final BlockingQueue<List<String>> inputQueue;
+
+    /**
+     * The output queue that stores parsed {@link Expression} objects, owned by this processor.
+     */
+    private final BlockingQueue<Expression> outputQueue;
+    private final BatchDrainer<List<String>> drainer;
+    private final StageMetrics metrics;
     private final Thread workerThread;
     private volatile boolean isRunning = true;
 
     /**
-     * Constructs a new {@code ExpressionParserProcessor} with the specified input queue.
+     * Constructs a new {@code ExpressionParserProcessor} with the specified input queue and an output
+     * queue created by {@link TransportFactory#createFromSystemProperties()}.
      *
-     * @param inputQueue the queue containing raw string expressions to be parsed
+     * @param inputQueue the queue containing batches of raw string expressions to be parsed
      */
-    public ExpressionParserProcessor(BlockingQueue<String> inputQueue) {
+    public ExpressionParserProcessor(BlockingQueue<List<String>> inputQueue) {
+        this(inputQueue, TransportFactory.createFromSystemProperties());
+    }
+
+    /**
+     * Constructs a new {@code ExpressionParserProcessor} with the specified input and output queues.
+     * The worker thread is the only producer of the output queue.
+     *
+     * @param inputQueue the queue containing batches of raw string expressions to be parsed
+     * @param outputQueue the queue receiving the parsed expressions
+     */
+    public ExpressionParserProcessor(BlockingQueue<List<String>> inputQueue, BlockingQueue<Expression> outputQueue) {
         this.inputQueue = inputQueue;
+        this.outputQueue = outputQueue;
+        this.drainer = new BatchDrainer<>(inputQueue, MAX_DRAINED_BATCHES);
+        this.metrics = new StageMetrics(STAGE, () -> {
+            int statements = 0;
+            for (List<String> batch : inputQueue) {
+                statements += batch.size();
+            }
+            return statements;
+        });
         this.workerThread = new Thread(this::processQueue);
     }
 
@@ -47,19 +89,24 @@ public class ExpressionParserProcessor implements IProcessor {
         return outputQueue;
     }
 
+    public StageMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Starts the processor by launching a worker thread that continuously
-     * processes expressions from the input queue.
+     * processes expressions from the input queue, and registers its metrics.
      */
     @Override
     public void start() {
         logger.debug("Starting ExpressionParserProcessor...");
+        metrics.register();
         workerThread.start();
     }
 
     /**
-     * Stops the processor by interrupting the worker thread and waiting for
-     * it to terminate gracefully.
+     * Stops the processor by waking up the worker thread and waiting until it has parsed
+     * everything queued before the call.
      */
     @Override
     public void stop() {
@@ -73,35 +120,94 @@ public class ExpressionParserProcessor implements IProcessor {
             logger.error("Interrupted while stopping worker thread.", e);
             Thread.currentThread().interrupt();
         }
+        metrics.unregister();
     }
 
     /**
-     * Processes the input queue, parsing each expression and adding
-     * the resulting {@link Expression} object to the output queue.
-     * This method runs in a loop until the processor is stopped.
-     * If no input is available within 1 second, the loop continues.
+     * Processes the input queue, parsing each expression of each batch and adding
+     * the resulting {@link Expression} objects to the output queue.
+     * The worker waits for the next batch and takes every batch queued behind it along, so it wakes
+     * up as soon as input arrives and pays the queue's locking once per drain. After {@link #stop()}
+     * it parses whatever is still queued and returns.
+     * <p>
+     * The time spent in {@link BatchDrainer#take()} counts as waiting and the time spent on the batches
+     * as working. Each wait is also emitted as a {@link StageHandoffEvent} to Flight Recorder.
      */
     @Override
     public void processQueue() {
         logger.debug("Worker thread started. Waiting for expressions...");
-        while (isRunning || !inputQueue.isEmpty()) {
+        long idleSince = System.nanoTime();
+        while (isRunning) {
             try {
-                String expression = inputQueue.poll(1, TimeUnit.SECONDS);
-                if (expression != null) {
-                    try {
-                        logger.debug("Received expression: {}", expression);
-                        Expression parsedExpression = ExpressionParser.parse(expression);
-                        outputQueue.offer(parsedExpression);
-                        logger.debug("Processed expression: {}", parsedExpression);
-                    } catch (Exception e) {
-                        logger.error("Failed to process: {} {}", expression, e.getMessage());
-                    }
-                }
+                StageHandoffEvent handoff = new StageHandoffEvent();
+                handoff.begin();
+                List<List<String>> batches = drainer.take();
+                handoff.commit(STAGE, batches.size());
+                long received = System.nanoTime();
+                metrics.recordWaiting(received - idleSince);
+                idleSince = parseBatches(batches, received);
             } catch (InterruptedException e) {
                 logger.debug("Worker thread interrupted. Stopping...");
-                Thread.currentThread().interrupt();
             }
         }
+        Thread.interrupted();
+        for (List<List<String>> batches = drainer.poll(); !batches.isEmpty(); batches = drainer.poll()) {
+            parseBatches(batches, System.nanoTime());
+        }
+    }
+
+    /**
+     * Parses the batches taken from the queue.
+     *
+     * @return the time the batches were done
+     */
+    private long parseBatches(List<List<String>> batches, long start) {
+        for (List<String> batch : batches) {
+            for (int i = 0; i < batch.size(); i++) {
+                boolean sampled = StageMetrics.isSampled(i);
+                long parseStart = sampled ? System.nanoTime() : 0;
+                parse(batch.get(i));
+                if (sampled) {
+                    metrics.recordLatency(System.nanoTime() - parseStart);
+                }
+            }
+            metrics.recordProcessed(batch.size());
+        }
+        long end = System.nanoTime();
+        metrics.recordWorking(end - start);
+        return end;
+    }
+
+    private void parse(String expression) {
+        try {
+            logger.debug("Received expression: {}", expression);
+            Expression parsedExpression = ExpressionParser.parse(expression);
+            publish(parsedExpression);
+            logger.debug("Processed expression: {}", parsedExpression);
+        } catch (Exception e) {
+            metrics.recordFailure(e);
+            logger.error("Failed to process: {} {}", expression, e.getMessage());
+        }
+    }
+
+    /**
+     * Puts an expression into the output queue, waiting while it is full. The interrupt sent by
+     * {@link #stop()} only ends the wait for input, so it is kept for the next wait instead of
+     * dropping the expression.
+     */
+    private void publish(Expression expression) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                outputQueue.put(expression);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
 }
@@ -0,0 +1,337 @@
+package com.calculator.services;
+
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.metrics.StageMetrics;
+import com.calculator.models.Expression;
+import com.calculator.models.PostfixProgram;
+import com.calculator.numeric.NumericBackend;
+import com.calculator.utils.SymbolTable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code ParallelStatementExecutor} class evaluates a window of queued statements in parallel while
+ * producing exactly the variable state of evaluating them one at a time.
+ * <p>
+ * A statement reads the variables loaded by its right-hand side and writes its assigned variable;
+ * {@code ++}/{@code --} targets are both read and written. Two statements conflict when one of them
+ * writes a variable the other reads or writes, and conflicting statements keep their queue order.
+ * Every statement is placed one level above the highest level of the earlier statements it conflicts
+ * with, which layers the dependency DAG of the window: statements within a level are independent and
+ * run in parallel on a {@link ForkJoinPool}, while the levels run one after another. Levels too small
+ * to pay for a fork run inline on the calling thread.
+ * <p>
+ * Each thread evaluates with its own {@link ExpressionCalculatorService}, all sharing one thread-safe
+ * {@link VariablesManagerService} and {@link TieredExecutionEngine}. A statement that fails is logged
+ * and skipped; as in sequential execution, the statements after it still run. Every thread records the
+ * sampled latencies and the failures of its statements into one shared {@link StageMetrics}; the caller
+ * records the statement counts.
+ */
+public class ParallelStatementExecutor implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ParallelStatementExecutor.class);
+
+    /**
+     * Levels with fewer statements run on the calling thread, and forked tasks stop splitting at this size.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    private final VariablesManagerService variablesManagerService;
+    private final TieredExecutionEngine executionEngine;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<ExpressionCalculatorService> evaluators;
+    private final StageMetrics metrics;
+    private final LongAdder parallelLevels = new LongAdder();
+    private final LongAdder inlineLevels = new LongAdder();
+    private final LongAdder failedStatements = new LongAdder();
+
+    // Scheduling state reused across windows. Only the thread calling execute touches it; per-slot
+    // entries are valid only when their generation matches the current window.
+    private int[] lastWriteLevel = new int[0];
+    private int[] lastReadLevel = new int[0];
+    private int[] slotGeneration = new int[0];
+    private int generation;
+    private int[] levels = new int[0];
+    private int[] levelStarts = new int[0];
+    private Expression[] ordered = new Expression[0];
+
+    /**
+     * Constructs a new {@code ParallelStatementExecutor} with its own pool of worker threads.
+     *
+     * @param variablesManagerService the variable storage shared by all evaluating threads
+     * @param executionEngine the engine deciding when statements are compiled, shared by all threads
+     * @param parallelism the number of worker threads
+     */
+    public ParallelStatementExecutor(VariablesManagerService variablesManagerService, TieredExecutionEngine executionEngine,
+                                     int parallelism) {
+        this(variablesManagerService, executionEngine, parallelism, new StageMetrics("executor", () -> 0));
+    }
+
+    /**
+     * Constructs a new {@code ParallelStatementExecutor} recording into the given metrics.
+     *
+     * @param variablesManagerService the variable storage shared by all evaluating threads
+     * @param executionEngine the engine deciding when statements are compiled, shared by all threads
+     * @param parallelism the number of worker threads
+     * @param metrics the metrics recording the statements of all threads
+     */
+    public ParallelStatementExecutor(VariablesManagerService variablesManagerService, TieredExecutionEngine executionEngine,
+                                     int parallelism, StageMetrics metrics) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.variablesManagerService = variablesManagerService;
+        this.executionEngine = executionEngine;
+        this.metrics = metrics;
+        this.pool = new ForkJoinPool(parallelism);
+        this.evaluators = ThreadLocal.withInitial(() -> {
+            ExpressionCalculatorService evaluator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                    this.executionEngine, this.variablesManagerService, 1, this.metrics);
+            // The shared variables are floats, whatever backend new calculators default to
+            evaluator.setNumericBackend(NumericBackend.FLOAT);
+            return evaluator;
+        });
+    }
+
+    /**
+     * Evaluates a window of statements. Returns once every statement of the window has been evaluated.
+     *
+     * @param window the statements in queue order
+     */
+    public void execute(List<Expression> window) {
+        int size = window.size();
+        int maxLevel = assignLevels(window);
+        sortByLevel(window, maxLevel);
+        for (int level = 1; level <= maxLevel; level++) {
+            int from = levelStarts[level - 1];
+            int to = levelStarts[level];
+            if (to - from < SEQUENTIAL_THRESHOLD) {
+                inlineLevels.increment();
+                evaluate(from, to);
+            } else {
+                parallelLevels.increment();
+                pool.invoke(new LevelTask(from, to));
+            }
+        }
+        Arrays.fill(ordered, 0, size, null);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Returns the number of levels that were split across the pool.
+     *
+     * @return the number of parallel levels
+     */
+    public long getParallelLevelCount() {
+        return parallelLevels.sum();
+    }
+
+    /**
+     * Returns the number of levels that were small enough to run on the calling thread.
+     *
+     * @return the number of inline levels
+     */
+    public long getInlineLevelCount() {
+        return inlineLevels.sum();
+    }
+
+    public StageMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getFailedStatementCount() {
+        return failedStatements.sum();
+    }
+
+    /**
+     * Shuts the worker pool down and waits for running tasks to finish.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Computes the level of every statement of the window.
+     *
+     * @param window the statements in queue order
+     * @return the highest level
+     */
+    private int assignLevels(List<Expression> window) {
+        int size = window.size();
+        if (levels.length < size) {
+            levels = new int[size];
+            ordered = new Expression[size];
+        }
+        int slots = SymbolTable.size();
+        if (slotGeneration.length < slots) {
+            int capacity = Math.max(slots, slotGeneration.length * 2);
+            lastWriteLevel = Arrays.copyOf(lastWriteLevel, capacity);
+            lastReadLevel = Arrays.copyOf(lastReadLevel, capacity);
+            slotGeneration = Arrays.copyOf(slotGeneration, capacity);
+        }
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(slotGeneration, 0);
+            generation = 1;
+        }
+
+        int maxLevel = 0;
+        for (int i = 0; i < size; i++) {
+            Expression expression = window.get(i);
+            PostfixProgram program = program(expression);
+            int level = 1;
+            if (program != null) {
+                int[] slotsOfProgram = program.slots();
+                for (int instruction : program.code()) {
+                    int opcode = PostfixProgram.opcode(instruction);
+                    if (opcode == PostfixProgram.LOAD_VARIABLE) {
+                        level = Math.max(level, writeLevel(slotsOfProgram[PostfixProgram.operand(instruction)]) + 1);
+                    } else if (isUnary(opcode)) {
+                        level = Math.max(level, accessLevel(slotsOfProgram[PostfixProgram.operand(instruction)]) + 1);
+                    }
+                }
+                level = Math.max(level, accessLevel(expression.assignedSlot()) + 1);
+                for (int instruction : program.code()) {
+                    int opcode = PostfixProgram.opcode(instruction);
+                    if (opcode == PostfixProgram.LOAD_VARIABLE) {
+                        recordRead(slotsOfProgram[PostfixProgram.operand(instruction)], level);
+                    } else if (isUnary(opcode)) {
+                        recordWrite(slotsOfProgram[PostfixProgram.operand(instruction)], level);
+                    }
+                }
+                recordWrite(expression.assignedSlot(), level);
+            }
+            levels[i] = level;
+            maxLevel = Math.max(maxLevel, level);
+        }
+        return maxLevel;
+    }
+
+    /**
+     * Orders the window by level, keeping queue order within a level.
+     */
+    private void sortByLevel(List<Expression> window, int maxLevel) {
+        int size = window.size();
+        if (levelStarts.length < maxLevel + 1) {
+            levelStarts = new int[Math.max(maxLevel + 1, levelStarts.length * 2)];
+        }
+        Arrays.fill(levelStarts, 0, maxLevel + 1, 0);
+        for (int i = 0; i < size; i++) {
+            levelStarts[levels[i]]++;
+        }
+        for (int level = 1; level <= maxLevel; level++) {
+            levelStarts[level] += levelStarts[level - 1];
+        }
+        // levelStarts[level] now holds the end of the level; fill each level from its end backwards,
+        // which leaves levelStarts[level] at the start of the level
+        for (int i = size - 1; i >= 0; i--) {
+            ordered[--levelStarts[levels[i]]] = window.get(i);
+        }
+        // Shift by one so that level l spans levelStarts[l - 1] to levelStarts[l]
+        System.arraycopy(levelStarts, 1, levelStarts, 0, maxLevel);
+        levelStarts[maxLevel] = size;
+    }
+
+    private PostfixProgram program(Expression expression) {
+        if (expression.program() != null) {
+            return expression.program();
+        }
+        try {
+            return ProgramCompiler.compileTokens(expression.tokens());
+        } catch (InvalidInputException e) {
+            return null; // Fails on evaluation before touching any variable
+        }
+    }
+
+    private static boolean isUnary(int opcode) {
+        return PostfixProgram.isUnary(opcode);
+    }
+
+    private int writeLevel(int slot) {
+        return slotGeneration[slot] == generation ? lastWriteLevel[slot] : 0;
+    }
+
+    private int accessLevel(int slot) {
+        return slotGeneration[slot] == generation ? Math.max(lastWriteLevel[slot], lastReadLevel[slot]) : 0;
+    }
+
+    private void recordRead(int slot, int level) {
+        touch(slot);
+        lastReadLevel[slot] = Math.max(lastReadLevel[slot], level);
+    }
+
+    private void recordWrite(int slot, int level) {
+        touch(slot);
+        lastWriteLevel[slot] = level;
+    }
+
+    private void touch(int slot) {
+        if (slotGeneration[slot] != generation) {
+            slotGeneration[slot] = generation;
+            lastWriteLevel[slot] = 0;
+            lastReadLevel[slot] = 0;
+        }
+    }
+
+    /**
+     * Evaluates a range of ordered statements on the calling thread.
+     */
+    private void evaluate(int from, int to) {
+        ExpressionCalculatorService evaluator = evaluators.get();
+        for (int i = from; i < to; i++) {
+            Expression expression = ordered[i];
+            boolean sampled = StageMetrics.isSampled(i);
+            long start = sampled ? System.nanoTime() : 0;
+            try {
+                evaluator.evaluate(expression);
+            } catch (Exception e) {
+                failedStatements.increment();
+                metrics.recordFailure(e);
+                logger.error("Failed to evaluate: {} {}", expression, e.getMessage());
+            }
+            if (sampled) {
+                metrics.recordLatency(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Evaluates a range of independent statements, splitting it across the pool.
+     */
+    private class LevelTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        LevelTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                evaluate(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new LevelTask(from, middle), new LevelTask(middle, to));
+        }
+    }
+}
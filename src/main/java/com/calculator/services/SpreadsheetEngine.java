@@ -0,0 +1,309 @@
+package com.calculator.services;
+
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.AssignmentOperator;
+import com.calculator.models.Expression;
+import com.calculator.models.PostfixProgram;
+import com.calculator.utils.SymbolTable;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code SpreadsheetEngine} class keeps variables defined by formulas up to date, like the cells
+ * of a spreadsheet.
+ * <p>
+ * A plain assignment whose right-hand side reads other variables, e.g. {@code total = a + b}, registers
+ * a live formula for its variable. Any other statement, e.g. {@code a = 5} or {@code a += 1}, changes an
+ * input: it is evaluated immediately and replaces a formula previously registered for its variable.
+ * The engine keeps a dependency graph from every variable to the formulas reading it. Changes are only
+ * collected until {@link #recompute()}, so repeated changes to the same inputs are coalesced; recomputing
+ * then evaluates every formula affected by the changes exactly once, in topological order. An input
+ * change reading a formula that is out of date, e.g. {@code y += total} after {@code a = 5}, first brings
+ * up to date the pending formulas it reads, so it sees the same values as if every statement had been
+ * recomputed on its own.
+ * <p>
+ * Formulas must not use {@code ++} or {@code --} and must not depend on themselves, directly or through
+ * other formulas. A statement calling an impure operator of an {@link com.calculator.spi.OperatorProvider}
+ * is an input change rather than a formula, as its value may change while its inputs do not. The engine
+ * is not thread-safe and is used by one evaluating thread.
+ */
+public class SpreadsheetEngine {
+    private static final Logger logger = LogManager.getLogger(SpreadsheetEngine.class);
+
+    private final ExpressionCalculatorService calculator;
+
+    /**
+     * The formulas by the slot of the variable they define.
+     */
+    private final Map<Integer, Formula> formulas = new HashMap<>();
+
+    /**
+     * For every variable slot, the slots of the formulas reading it.
+     */
+    private final Map<Integer, Set<Integer>> dependents = new HashMap<>();
+
+    /**
+     * The slots changed since the last recomputation, including newly defined formulas.
+     */
+    private final Set<Integer> changed = new LinkedHashSet<>();
+
+    private final LongAdder recomputedFormulas = new LongAdder();
+    private final LongAdder failedFormulas = new LongAdder();
+
+    /**
+     * Constructs a new {@code SpreadsheetEngine}.
+     *
+     * @param calculator the calculator evaluating inputs and formulas against its variables
+     */
+    public SpreadsheetEngine(ExpressionCalculatorService calculator) {
+        this.calculator = calculator;
+    }
+
+    /**
+     * Registers a formula or applies an input change. Formulas are first evaluated by the next
+     * {@link #recompute()}, or before an input change reading them.
+     *
+     * @param expression the statement
+     * @throws InvalidInputException if the statement cannot be compiled, an input change fails,
+     *                               or a formula would depend on itself
+     */
+    public void submit(Expression expression) throws InvalidInputException {
+        PostfixProgram program = expression.program() != null ? expression.program() : ProgramCompiler.compileTokens(expression.tokens());
+        int target = expression.assignedSlot();
+        if (isFormula(expression, program)) {
+            define(target, new Formula(expression, program.slots()));
+            return;
+        }
+        recomputeReads(program, expression.assignmentOperator() != AssignmentOperator.ASSIGN ? target : -1);
+        calculator.evaluate(expression);
+        removeFormula(target);
+        changed.add(target);
+        int[] slots = program.slots();
+        for (int instruction : program.code()) {
+            int opcode = PostfixProgram.opcode(instruction);
+            if (PostfixProgram.isUnary(opcode)) {
+                changed.add(slots[PostfixProgram.operand(instruction)]);
+            }
+        }
+    }
+
+    /**
+     * Evaluates every formula affected by the changes since the previous call, each once and after the
+     * formulas it reads. A formula that fails is logged and keeps its previous value.
+     *
+     * @return the number of formulas evaluated
+     */
+    public int recompute() {
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        List<Integer> order = topologicalOrder(changed);
+        changed.clear();
+        int evaluated = 0;
+        for (int slot : order) {
+            Formula formula = formulas.get(slot);
+            if (formula != null && evaluate(formula)) {
+                evaluated++;
+            }
+        }
+        recomputedFormulas.add(evaluated);
+        return evaluated;
+    }
+
+    /**
+     * Evaluates the pending formulas an input change reads, directly or through other formulas, in
+     * topological order. The other pending formulas stay pending.
+     *
+     * @param program the program of the input change
+     * @param target the slot whose current value the change reads, {@code -1} for a plain assignment
+     */
+    private void recomputeReads(PostfixProgram program, int target) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Set<Integer> reads = new HashSet<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int slot : program.slots()) {
+            pending.push(slot);
+        }
+        if (target >= 0) {
+            pending.push(target);
+        }
+        while (!pending.isEmpty()) {
+            Formula formula = formulas.get(pending.pop());
+            if (formula != null && reads.add(formula.expression().assignedSlot())) {
+                for (int read : formula.reads()) {
+                    pending.push(read);
+                }
+            }
+        }
+        if (reads.isEmpty()) {
+            return;
+        }
+        List<Integer> order = topologicalOrder(changed);
+        changed.clear();
+        int evaluated = 0;
+        for (int slot : order) {
+            Formula formula = formulas.get(slot);
+            if (formula == null) {
+                continue;
+            }
+            if (!reads.contains(slot)) {
+                changed.add(slot); // Still pending, and its dependents follow it in the order
+            } else if (evaluate(formula)) {
+                evaluated++;
+            }
+        }
+        recomputedFormulas.add(evaluated);
+    }
+
+    /**
+     * Evaluates a formula, logging a failure.
+     *
+     * @return {@code true} if the formula was evaluated
+     */
+    private boolean evaluate(Formula formula) {
+        try {
+            calculator.evaluate(formula.expression());
+            return true;
+        } catch (Exception e) {
+            failedFormulas.increment();
+            logger.error("Failed to recompute: {} {}", formula.expression(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the formula defining a variable.
+     *
+     * @param variable the variable name
+     * @return the formula, or {@code null} if the variable is not defined by a formula
+     */
+    public Expression getFormula(String variable) {
+        Formula formula = formulas.get(SymbolTable.slotOf(variable));
+        return formula != null ? formula.expression() : null;
+    }
+
+    public int getFormulaCount() {
+        return formulas.size();
+    }
+
+    public boolean hasPendingChanges() {
+        return !changed.isEmpty();
+    }
+
+    public long getRecomputedFormulaCount() {
+        return recomputedFormulas.sum();
+    }
+
+    public long getFailedFormulaCount() {
+        return failedFormulas.sum();
+    }
+
+    private static boolean isFormula(Expression expression, PostfixProgram program) {
+        if (expression.assignmentOperator() != AssignmentOperator.ASSIGN || program.variables().length == 0) {
+            return false;
+        }
+        for (int instruction : program.code()) {
+            int opcode = PostfixProgram.opcode(instruction);
+            if (PostfixProgram.isUnary(opcode) || (opcode == PostfixProgram.APPLY_OPERATOR
+                    && !OperatorFactory.getPluginOperator(PostfixProgram.operand(instruction)).definition().pure())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void define(int target, Formula formula) throws InvalidInputException {
+        for (int read : formula.reads()) {
+            if (read == target || dependsOn(read, target)) {
+                throw new InvalidInputException(String.format("Circular reference: %s depends on itself", SymbolTable.nameOf(target)));
+            }
+        }
+        removeFormula(target);
+        formulas.put(target, formula);
+        for (int read : formula.reads()) {
+            dependents.computeIfAbsent(read, slot -> new LinkedHashSet<>()).add(target);
+        }
+        changed.add(target);
+    }
+
+    private void removeFormula(int target) {
+        Formula previous = formulas.remove(target);
+        if (previous == null) {
+            return;
+        }
+        for (int read : previous.reads()) {
+            Set<Integer> readers = dependents.get(read);
+            readers.remove(target);
+            if (readers.isEmpty()) {
+                dependents.remove(read);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the variable in {@code slot} is computed, directly or transitively, from {@code source}.
+     */
+    private boolean dependsOn(int slot, int source) {
+        Deque<Integer> pending = new ArrayDeque<>();
+        Set<Integer> visited = new HashSet<>();
+        pending.push(source);
+        while (!pending.isEmpty()) {
+            int current = pending.pop();
+            if (current == slot) {
+                return true;
+            }
+            for (int dependent : dependents.getOrDefault(current, Set.of())) {
+                if (visited.add(dependent)) {
+                    pending.push(dependent);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orders the changed slots and everything depending on them so that every slot comes after the slots
+     * it reads: the reverse post-order of a depth-first search over the dependents.
+     */
+    private List<Integer> topologicalOrder(Collection<Integer> roots) {
+        List<Integer> postOrder = new ArrayList<>();
+        Set<Integer> visited = new HashSet<>();
+        Deque<Iterator<Integer>> path = new ArrayDeque<>();
+        Deque<Integer> pathSlots = new ArrayDeque<>();
+        for (int root : roots) {
+            if (!visited.add(root)) {
+                continue;
+            }
+            path.push(dependents.getOrDefault(root, Set.of()).iterator());
+            pathSlots.push(root);
+            while (!path.isEmpty()) {
+                Iterator<Integer> next = path.peek();
+                if (next.hasNext()) {
+                    int dependent = next.next();
+                    if (visited.add(dependent)) {
+                        path.push(dependents.getOrDefault(dependent, Set.of()).iterator());
+                        pathSlots.push(dependent);
+                    }
+                } else {
+                    path.pop();
+                    postOrder.add(pathSlots.pop());
+                }
+            }
+        }
+        Collections.reverse(postOrder);
+        return postOrder;
+    }
+
+    /**
+     * A live formula and the slots of the variables it reads.
+     */
+    private record Formula(Expression expression, int[] reads) {
+    }
+}
@@ -0,0 +1,367 @@
+package com.calculator.services;
+
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.Expression;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.operators.DivideOperator;
+import com.calculator.models.operators.ExponentOperator;
+import com.calculator.models.operators.MathFunction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The {@code SubexpressionDag} class evaluates a batch of statements while computing every distinct
+ * subexpression only once per version of the variables it reads.
+ * <p>
+ * The programs of the statements are hash-consed into one DAG: a node is identified by its operator and
+ * its children, so {@code (a + b) * c} in dozens of statements is a single node, as is its child
+ * {@code a + b}. Every node remembers the variables its subtree reads and, once evaluated, its value and the
+ * time it was computed on a logical clock. Each write to a variable, an assignment or a {@code ++}/{@code --},
+ * advances the clock and stamps the variable, so a cached value is reused only while none of the
+ * variables it reads was written after it was computed; {@code (i + 1) + i++ + (i + 1)} still sees the
+ * incremented {@code i} in its second {@code (i + 1)}. Subtrees containing {@code ++} or {@code --} are
+ * never cached, as they write variables when evaluated, and neither are subtrees calling an impure
+ * operator of an {@link com.calculator.spi.OperatorProvider}, whose result may differ on every call.
+ * <p>
+ * Cached values only live for one batch: {@link #beginBatch()} invalidates all of them, so writes made
+ * between batches by anyone else are seen. Within a batch, the variables are assumed to be written only
+ * through this DAG. The DAG itself is kept across batches, so statements repeated in later batches are not
+ * hash-consed again, and is rebuilt once it exceeds {@value #MAX_NODES} nodes. The roots of the programs
+ * are looked up by identity, so statements parsed again map to new entries; once there are more than
+ * {@value #MAX_NODES} of them they are forgotten, and the programs are hash-consed onto the existing nodes.
+ * It is not thread-safe and belongs to the calculator evaluating the batches.
+ */
+public class SubexpressionDag {
+
+    /**
+     * The number of nodes above which the DAG is discarded at the start of the next batch.
+     */
+    public static final int MAX_NODES = 1 << 16;
+
+    private static final int[] NO_READS = new int[0];
+    private static final int[] NO_ARGUMENTS = new int[0];
+
+    private final VariablesManagerService variablesManagerService;
+    private final Map<NodeKey, Integer> nodesByKey = new HashMap<>();
+    private final Map<PostfixProgram, Integer> roots = new IdentityHashMap<>();
+
+    // The nodes, indexed by node id
+    private int nodeCount;
+    private int[] opcodes = new int[256];
+    private int[] firstChildren = new int[256];
+    private int[] secondChildren = new int[256];
+    private int[] operands = new int[256];
+    private int[][] arguments = new int[256][];
+    private int[][] reads = new int[256][];
+    private boolean[] cacheable = new boolean[256];
+    private float[] values = new float[256];
+    private long[] computedAt = new long[256];
+
+    // The logical clock, advanced by every write, and the time each slot was last written
+    private long clock;
+    private long batchStart;
+    private long[] lastWrite = new long[64];
+
+    // The operands of the operator calls being evaluated, passed to the operators in place
+    private float[] operandStack = new float[16];
+    private int operandTop;
+
+    private long computedNodes;
+    private long reusedNodes;
+
+    /**
+     * Constructs a new {@code SubexpressionDag}.
+     *
+     * @param variablesManagerService the variables read and written by the statements
+     */
+    public SubexpressionDag(VariablesManagerService variablesManagerService) {
+        this.variablesManagerService = variablesManagerService;
+    }
+
+    /**
+     * Starts a new batch, invalidating every cached value.
+     */
+    public void beginBatch() {
+        if (nodeCount > MAX_NODES) {
+            nodesByKey.clear();
+            roots.clear();
+            nodeCount = 0;
+        } else if (roots.size() > MAX_NODES) {
+            roots.clear();
+        }
+        batchStart = ++clock;
+    }
+
+    /**
+     * Evaluates a statement and updates its assigned variable.
+     *
+     * @param expression the statement to evaluate
+     * @throws InvalidInputException if the statement is invalid or reads a variable that is not assigned
+     */
+    public void evaluate(Expression expression) throws InvalidInputException {
+        PostfixProgram program = expression.program() != null ? expression.program() : ProgramCompiler.compileTokens(expression.tokens());
+        operandTop = 0;
+        Integer root = roots.get(program);
+        if (root == null) {
+            root = build(program);
+            roots.put(program, root);
+        }
+        float value = evaluate(root);
+        variablesManagerService.applyAssignment(expression.assignedSlot(), expression.assignmentOperator(), value);
+        written(expression.assignedSlot());
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of programs whose root node is remembered.
+     *
+     * @return the number of programs
+     */
+    public int getRootCount() {
+        return roots.size();
+    }
+
+    /**
+     * Returns how many times a cacheable node was computed.
+     *
+     * @return the number of computed nodes
+     */
+    public long getComputedNodeCount() {
+        return computedNodes;
+    }
+
+    /**
+     * Returns how many times a cached node value was reused instead of being computed.
+     *
+     * @return the number of reused nodes
+     */
+    public long getReusedNodeCount() {
+        return reusedNodes;
+    }
+
+    private float evaluate(int node) throws InvalidInputException {
+        int opcode = opcodes[node];
+        switch (opcode) {
+            case PostfixProgram.PUSH_CONSTANT:
+                return values[node];
+            case PostfixProgram.LOAD_VARIABLE:
+                return variablesManagerService.getVariable(operands[node]);
+            case PostfixProgram.PRE_INCREMENT:
+            case PostfixProgram.POST_INCREMENT:
+            case PostfixProgram.PRE_DECREMENT:
+            case PostfixProgram.POST_DECREMENT:
+                return update(node, opcode);
+            default:
+                break;
+        }
+        if (cacheable[node] && isValid(node)) {
+            reusedNodes++;
+            return values[node];
+        }
+        if (opcode == PostfixProgram.APPLY_OPERATOR || opcode == PostfixProgram.CALL_FUNCTION) {
+            return cache(node, apply(node, opcode));
+        }
+        float first = evaluate(firstChildren[node]);
+        float second = evaluate(secondChildren[node]);
+        float value = switch (opcode) {
+            case PostfixProgram.ADD -> first + second;
+            case PostfixProgram.SUBTRACT -> first - second;
+            case PostfixProgram.MULTIPLY -> first * second;
+            case PostfixProgram.DIVIDE -> DivideOperator.divide(first, second);
+            case PostfixProgram.MODULUS -> first % second;
+            case PostfixProgram.POWER -> ExponentOperator.power(first, second);
+            default -> throw new InvalidInputException("Invalid instruction: " + opcode);
+        };
+        return cache(node, value);
+    }
+
+    private float cache(int node, float value) {
+        if (cacheable[node]) {
+            // A cacheable subtree does not write, so the clock has not moved while computing it
+            values[node] = value;
+            computedAt[node] = clock;
+            computedNodes++;
+        }
+        return value;
+    }
+
+    /**
+     * Calls a built-in function or an operator of a provider with the values of its argument nodes.
+     */
+    private float apply(int node, int opcode) throws InvalidInputException {
+        int[] children = arguments[node];
+        int from = operandTop;
+        operandTop += children.length;
+        if (operandTop > operandStack.length) {
+            operandStack = Arrays.copyOf(operandStack, Math.max(operandTop, operandStack.length * 2));
+        }
+        for (int i = 0; i < children.length; i++) {
+            // Evaluating an argument may call operators and grow the stack above the reserved operands
+            float value = evaluate(children[i]);
+            operandStack[from + i] = value;
+        }
+        float value = opcode == PostfixProgram.CALL_FUNCTION
+                ? MathFunction.of(operands[node]).apply(operandStack, from)
+                : OperatorFactory.getPluginOperator(operands[node]).definition().implementation().apply(operandStack, from);
+        operandTop = from;
+        return value;
+    }
+
+    private float update(int node, int opcode) throws InvalidInputException {
+        int slot = operands[node];
+        float delta = opcode == PostfixProgram.PRE_INCREMENT || opcode == PostfixProgram.POST_INCREMENT ? 1 : -1;
+        boolean isPostOperation = opcode == PostfixProgram.POST_INCREMENT || opcode == PostfixProgram.POST_DECREMENT;
+        float value = variablesManagerService.addToVariable(slot, delta, isPostOperation);
+        written(slot);
+        return value;
+    }
+
+    private boolean isValid(int node) {
+        long time = computedAt[node];
+        if (time < batchStart) {
+            return false;
+        }
+        for (int slot : reads[node]) {
+            if (slot < lastWrite.length && lastWrite[slot] > time) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void written(int slot) {
+        if (slot >= lastWrite.length) {
+            lastWrite = Arrays.copyOf(lastWrite, Math.max(slot + 1, lastWrite.length * 2));
+        }
+        lastWrite[slot] = ++clock;
+    }
+
+    /**
+     * Hash-conses the instructions of a program into the DAG.
+     *
+     * @return the root node of the program
+     */
+    private int build(PostfixProgram program) {
+        int[] stack = new int[program.maxStackDepth()];
+        int top = 0;
+        for (int instruction : program.code()) {
+            int opcode = PostfixProgram.opcode(instruction);
+            int operand = PostfixProgram.operand(instruction);
+            switch (opcode) {
+                case PostfixProgram.PUSH_CONSTANT ->
+                        stack[top++] = node(opcode, -1, -1, Float.floatToRawIntBits(program.constants()[operand]), NO_ARGUMENTS, NO_READS, false);
+                case PostfixProgram.LOAD_VARIABLE ->
+                        stack[top++] = node(opcode, -1, -1, program.slots()[operand], NO_ARGUMENTS, new int[]{program.slots()[operand]}, false);
+                case PostfixProgram.PRE_INCREMENT, PostfixProgram.POST_INCREMENT,
+                     PostfixProgram.PRE_DECREMENT, PostfixProgram.POST_DECREMENT ->
+                        stack[top++] = node(opcode, -1, -1, program.slots()[operand], NO_ARGUMENTS, null, false);
+                case PostfixProgram.APPLY_OPERATOR, PostfixProgram.CALL_FUNCTION -> {
+                    int[] children = Arrays.copyOfRange(stack, top - PostfixProgram.arity(instruction), top);
+                    top -= children.length;
+                    boolean pure = opcode == PostfixProgram.CALL_FUNCTION || OperatorFactory.getPluginOperator(operand).definition().pure();
+                    int[] nodeReads = pure ? NO_READS : null;
+                    for (int child : children) {
+                        nodeReads = nodeReads != null && reads[child] != null ? union(nodeReads, reads[child]) : null;
+                    }
+                    stack[top++] = node(opcode, -1, -1, operand, children, nodeReads, nodeReads != null);
+                }
+                default -> {
+                    int second = stack[--top];
+                    int first = stack[top - 1];
+                    int[] nodeReads = reads[first] != null && reads[second] != null ? union(reads[first], reads[second]) : null;
+                    stack[top - 1] = node(opcode, first, second, 0, NO_ARGUMENTS, nodeReads, nodeReads != null);
+                }
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Returns the node with the given operator and children, adding it if it is new.
+     *
+     * @param nodeArguments the argument nodes of an operator call
+     * @param nodeReads the slots read by the subtree, {@code null} if it writes variables or calls an impure operator
+     * @param isCacheable whether the value of the node is cached
+     */
+    private int node(int opcode, int firstChild, int secondChild, int operand, int[] nodeArguments, int[] nodeReads,
+                     boolean isCacheable) {
+        NodeKey key = new NodeKey(opcode, firstChild, secondChild, operand, nodeArguments.length == 0 ? List.of() : toList(nodeArguments));
+        Integer existing = nodesByKey.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (nodeCount == opcodes.length) {
+            grow();
+        }
+        int node = nodeCount++;
+        opcodes[node] = opcode;
+        firstChildren[node] = firstChild;
+        secondChildren[node] = secondChild;
+        operands[node] = operand;
+        arguments[node] = nodeArguments;
+        reads[node] = nodeReads;
+        cacheable[node] = isCacheable;
+        values[node] = opcode == PostfixProgram.PUSH_CONSTANT ? Float.intBitsToFloat(operand) : 0;
+        computedAt[node] = -1;
+        nodesByKey.put(key, node);
+        return node;
+    }
+
+    private void grow() {
+        int capacity = opcodes.length * 2;
+        opcodes = Arrays.copyOf(opcodes, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        secondChildren = Arrays.copyOf(secondChildren, capacity);
+        operands = Arrays.copyOf(operands, capacity);
+        arguments = Arrays.copyOf(arguments, capacity);
+        reads = Arrays.copyOf(reads, capacity);
+        cacheable = Arrays.copyOf(cacheable, capacity);
+        values = Arrays.copyOf(values, capacity);
+        computedAt = Arrays.copyOf(computedAt, capacity);
+    }
+
+    /**
+     * Merges two sorted sets of slots.
+     */
+    private static int[] union(int[] first, int[] second) {
+        int[] merged = new int[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < first.length || j < second.length) {
+            int next = j == second.length || (i < first.length && first[i] <= second[j]) ? first[i] : second[j];
+            if (i < first.length && first[i] == next) {
+                i++;
+            }
+            if (j < second.length && second[j] == next) {
+                j++;
+            }
+            merged[size++] = next;
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    private static List<Integer> toList(int[] nodes) {
+        List<Integer> list = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            list.add(node);
+        }
+        return list;
+    }
+
+    /**
+     * Identifies a node by its operator, its children and its constant bits, variable slot or operator id.
+     */
+    private record NodeKey(int opcode, int firstChild, int secondChild, int operand, List<Integer> arguments) {
+    }
+}
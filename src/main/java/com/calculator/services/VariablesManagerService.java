@@ -1,31 +1,161 @@
 package com.calculator.services;
 
 import com.calculator.exceptions.InvalidInputException;
-import java.util.HashMap;
+import com.calculator.models.AssignmentOperator;
+import com.calculator.utils.SymbolTable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
 
 
 /**
  * The {@code VariablesManagerService} class is responsible for managing named variables
  * and their corresponding floating-point values.
  * It provides methods to store, retrieve, and list variables used in calculations.
+ * <p>
+ * Variables are addressed by their {@link SymbolTable} slot. Each slot is a single {@code long} cell
+ * holding the float bits of the value and a presence flag, so a variable is read lock-free with one
+ * volatile load. Cells live in fixed-size pages that never move, which lets the storage grow while
+ * other threads read and write it.
+ * <p>
+ * The service is thread-safe and may be shared by several calculators. Writes, including compound
+ * assignments and increments, are atomic per variable: they hold the write lock of the slot's stripe,
+ * one of {@value #STRIPES} {@link StampedLock}s, so writers of different variables rarely contend.
+ * {@link #getVariables()} returns a consistent snapshot: it copies optimistically and validates every
+ * stripe afterwards, and only blocks writers if concurrent updates keep invalidating the copy.
+ * <p>
+ * A {@link WriteListener}, such as a write-ahead log, may observe every write with its resulting value.
  */
 
 public class VariablesManagerService {
+    private static final int STRIPES = 64;
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int OPTIMISTIC_SNAPSHOT_ATTEMPTS = 3;
+
+    /**
+     * Set in the cell of every assigned variable; the low 32 bits hold the float bits of its value.
+     */
+    private static final long PRESENT = 1L << 32;
+
+    private final StampedLock[] stripes = new StampedLock[STRIPES];
+
+    /**
+     * Pages of cells indexed by slot, {@code null} until first written. The directory is replaced when
+     * it changes; pages are never moved.
+     */
+    private volatile AtomicLongArray[] pages = new AtomicLongArray[0];
+
+    /**
+     * The assigned slots in the order they were first assigned, used to list the variables.
+     * Appended under the write lock of the new slot's stripe; the count is published last.
+     */
+    private volatile int[] assignmentOrder = new int[64];
+    private volatile int assignedCount;
+    private volatile WriteListener writeListener;
+
+    public VariablesManagerService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new StampedLock();
+        }
+    }
+
     /**
-     * A map storing variable names as keys and their corresponding floating-point values.
+     * Sets the listener receiving every subsequent write, replacing the previous one.
+     *
+     * @param writeListener the listener, or {@code null} to stop notifying
      */
-    private static final Map<String, Float> variables = new HashMap<>();
+    public void setWriteListener(WriteListener writeListener) {
+        this.writeListener = writeListener;
+    }
 
     /**
      * Stores a variable with the given name and value.
-     * If the variable already exists, its value will be updated.
+     * If the variable already exists, its value will be updated in place.
      *
      * @param variable the name of the variable
      * @param value the floating-point value to be assigned to the variable
      */
     public void putVariable(String variable, float value) {
-        variables.put(variable, value);
+        putVariable(SymbolTable.intern(variable), value);
+    }
+
+    /**
+     * Stores a variable by slot.
+     *
+     * @param slot the symbol table slot of the variable
+     * @param value the floating-point value to be assigned to the variable
+     */
+    public void putVariable(int slot, float value) {
+        AtomicLongArray page = page(slot);
+        StampedLock stripe = stripe(slot);
+        long stamp = stripe.writeLock();
+        try {
+            write(page, slot, value);
+        } finally {
+            stripe.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically applies an assignment operator to a variable, e.g. {@code x += value}.
+     * Plain assignment defines the variable; compound assignments require it to exist.
+     *
+     * @param slot the symbol table slot of the variable
+     * @param assignmentOperator the assignment operator
+     * @param value the value of the right-hand side
+     * @return the new value of the variable
+     * @throws InvalidInputException if a compound assignment targets a variable that is not assigned
+     */
+    public float applyAssignment(int slot, AssignmentOperator assignmentOperator, float value) throws InvalidInputException {
+        if (assignmentOperator == AssignmentOperator.ASSIGN) {
+            putVariable(slot, value);
+            return value;
+        }
+        AtomicLongArray page = page(slot);
+        StampedLock stripe = stripe(slot);
+        long stamp = stripe.writeLock();
+        try {
+            long cell = page.get(slot & (PAGE_SIZE - 1));
+            if ((cell & PRESENT) == 0) {
+                throw new InvalidInputException("Assignment variable is not initialized");
+            }
+            float newValue = assignmentOperator.apply(Float.intBitsToFloat((int) cell), value);
+            write(page, slot, newValue);
+            return newValue;
+        } finally {
+            stripe.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically adds a delta to a variable, implementing {@code ++} and {@code --}.
+     *
+     * @param slot the symbol table slot of the variable
+     * @param delta the amount to add
+     * @param isPostOperation whether the value before the update is returned
+     * @return the value before the update for post operations, the value after it otherwise
+     * @throws InvalidInputException if the variable is not assigned
+     */
+    public float addToVariable(int slot, float delta, boolean isPostOperation) throws InvalidInputException {
+        AtomicLongArray page = page(slot);
+        StampedLock stripe = stripe(slot);
+        long stamp = stripe.writeLock();
+        try {
+            long cell = page.get(slot & (PAGE_SIZE - 1));
+            if ((cell & PRESENT) == 0) {
+                throw new InvalidInputException(String.format("Variable %s is used before being assigned", SymbolTable.nameOf(slot)));
+            }
+            float currentValue = Float.intBitsToFloat((int) cell);
+            float newValue = currentValue + delta;
+            write(page, slot, newValue);
+            return isPostOperation ? currentValue : newValue;
+        } finally {
+            stripe.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -37,20 +167,217 @@ public class VariablesManagerService {
      * @throws InvalidInputException if the variable is not found
      */
     public float getVariable(String variable) throws InvalidInputException {
-        if (variables.containsKey(variable)) {
-            return variables.get(variable);
+        long cell = cell(SymbolTable.slotOf(variable));
+        if ((cell & PRESENT) == 0) {
+            throw new InvalidInputException(String.format("Variable %s is not found", variable));
+        }
+        return Float.intBitsToFloat((int) cell);
+    }
+
+    /**
+     * Retrieves the value of a variable by slot.
+     *
+     * @param slot the symbol table slot of the variable
+     * @return the floating-point value of the variable
+     * @throws InvalidInputException if the variable is not found
+     */
+    public float getVariable(int slot) throws InvalidInputException {
+        long cell = cell(slot);
+        if ((cell & PRESENT) == 0) {
+            throw new InvalidInputException(String.format("Variable %s is not found", SymbolTable.nameOf(slot)));
         }
-        throw new InvalidInputException(String.format("Variable %s is not found", variable));
+        return Float.intBitsToFloat((int) cell);
+    }
+
+    /**
+     * Checks whether a variable has been assigned.
+     *
+     * @param variable the name of the variable
+     * @return {@code true} if the variable exists
+     */
+    public boolean hasVariable(String variable) {
+        return hasVariable(SymbolTable.slotOf(variable));
+    }
+
+    /**
+     * Checks whether a variable has been assigned by slot.
+     *
+     * @param slot the symbol table slot of the variable
+     * @return {@code true} if the variable exists
+     */
+    public boolean hasVariable(int slot) {
+        return (cell(slot) & PRESENT) != 0;
     }
 
     /**
-     * Returns a map of all stored variables.
-     * The returned map is the actual internal storage, meaning modifications
-     * to it will affect the stored variables.
+     * Returns a consistent snapshot of all stored variables in the order they were first assigned.
+     * The snapshot reflects the state between two writes; it never mixes values from before and
+     * after a concurrent write. The returned map is a read-only copy.
      *
      * @return a map containing all stored variables
      */
     public Map<String, Float> getVariables() {
-        return variables;
+        long[] stamps = new long[STRIPES];
+        for (int attempt = 0; attempt < OPTIMISTIC_SNAPSHOT_ATTEMPTS; attempt++) {
+            if (tryOptimisticRead(stamps)) {
+                Map<String, Float> snapshot = copyVariables();
+                if (validate(stamps)) {
+                    return snapshot;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            stamps[i] = stripes[i].readLock();
+        }
+        try {
+            return copyVariables();
+        } finally {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i].unlockRead(stamps[i]);
+            }
+        }
+    }
+
+    /**
+     * Visits every stored variable in the order they were first assigned, without copying them, e.g. to
+     * stream millions of variables. Unlike {@link #getVariables()}, the visit is not a snapshot: each value
+     * is one the variable had during the visit, but concurrent writes to other variables may be seen or not.
+     *
+     * @param visitor the visitor called with the slot and value of every variable
+     * @param <E> the exception thrown by the visitor
+     * @throws E if the visitor fails, ending the visit
+     */
+    public <E extends Exception> void forEachVariable(VariableVisitor<E> visitor) throws E {
+        int count = assignedCount;
+        int[] order = assignmentOrder;
+        for (int i = 0; i < count; i++) {
+            int slot = order[i];
+            visitor.visit(slot, Float.intBitsToFloat((int) cell(slot)));
+        }
+    }
+
+    private Map<String, Float> copyVariables() {
+        int count = assignedCount;
+        int[] order = assignmentOrder;
+        Map<String, Float> snapshot = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            int slot = order[i];
+            snapshot.put(SymbolTable.nameOf(slot), Float.intBitsToFloat((int) cell(slot)));
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    private boolean tryOptimisticRead(long[] stamps) {
+        for (int i = 0; i < STRIPES; i++) {
+            stamps[i] = stripes[i].tryOptimisticRead();
+            if (stamps[i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean validate(long[] stamps) {
+        for (int i = 0; i < STRIPES; i++) {
+            if (!stripes[i].validate(stamps[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private StampedLock stripe(int slot) {
+        return stripes[slot & (STRIPES - 1)];
+    }
+
+    private long cell(int slot) {
+        AtomicLongArray[] directory = pages;
+        int page = slot >>> PAGE_BITS;
+        AtomicLongArray cells = slot >= 0 && page < directory.length ? directory[page] : null;
+        return cells != null ? cells.get(slot & (PAGE_SIZE - 1)) : 0;
+    }
+
+    /**
+     * Writes a value; must hold the write lock of the slot's stripe.
+     */
+    private void write(AtomicLongArray page, int slot, float value) {
+        int index = slot & (PAGE_SIZE - 1);
+        if ((page.get(index) & PRESENT) == 0) {
+            appendToAssignmentOrder(slot);
+        }
+        page.set(index, PRESENT | (Float.floatToRawIntBits(value) & 0xFFFFFFFFL));
+        WriteListener listener = writeListener;
+        if (listener != null) {
+            listener.written(slot, value);
+        }
+    }
+
+    private synchronized void appendToAssignmentOrder(int slot) {
+        int count = assignedCount;
+        int[] order = assignmentOrder;
+        if (count == order.length) {
+            order = Arrays.copyOf(order, count * 2);
+        }
+        order[count] = slot;
+        assignmentOrder = order;
+        assignedCount = count + 1;
+    }
+
+    private AtomicLongArray page(int slot) {
+        AtomicLongArray[] directory = pages;
+        int page = slot >>> PAGE_BITS;
+        AtomicLongArray cells = page < directory.length ? directory[page] : null;
+        return cells != null ? cells : allocatePage(page);
+    }
+
+    /**
+     * Allocates the page of a slot. Pages are only allocated once a slot on them is written, so a store
+     * using a few variables with high slots, e.g. one of many sessions sharing the symbol table, stays small.
+     * The directory is copied rather than updated in place, so readers always see complete pages.
+     */
+    private synchronized AtomicLongArray allocatePage(int page) {
+        AtomicLongArray[] directory = pages;
+        if (page < directory.length && directory[page] != null) {
+            return directory[page];
+        }
+        directory = Arrays.copyOf(directory, Math.max(page + 1, directory.length));
+        directory[page] = new AtomicLongArray(PAGE_SIZE);
+        pages = directory;
+        return directory[page];
+    }
+
+    /**
+     * Receives the writes to the variables.
+     */
+    @FunctionalInterface
+    public interface WriteListener {
+
+        /**
+         * Called after a variable is written, while the write lock of its stripe is still held, so the writes
+         * to one variable are seen in the order they were applied. Must not access the variables.
+         *
+         * @param slot the symbol table slot of the variable
+         * @param value the new value of the variable
+         */
+        void written(int slot, float value);
+    }
+
+    /**
+     * Visits the variables, see {@link #forEachVariable(VariableVisitor)}.
+     *
+     * @param <E> the exception thrown by the visitor
+     */
+    @FunctionalInterface
+    public interface VariableVisitor<E extends Exception> {
+
+        /**
+         * Visits a variable.
+         *
+         * @param slot the symbol table slot of the variable
+         * @param value the value of the variable
+         * @throws E if the visit fails
+         */
+        void visit(int slot, float value) throws E;
     }
 }
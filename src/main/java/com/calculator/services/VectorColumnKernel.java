@@ -0,0 +1,116 @@
+package com.calculator.services;
+
+import com.calculator.models.operators.MathFunction;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * The {@link ColumnKernel} running {@code +}, {@code -}, {@code *}, {@code /} and the {@code sqrt},
+ * {@code abs}, {@code min}, {@code max} and {@code fma} functions on the widest float vectors of the CPU,
+ * with scalar loops for the elements that do not fill a vector. IEEE 754 defines these operations exactly,
+ * so the lanes compute the same floats as the scalar kernel; {@code floor}, {@code log} and {@code exp}
+ * stay scalar, as the vector forms of the logarithm and exponential may round differently from {@link Math}.
+ * <p>
+ * This is the only class referring to the {@code jdk.incubator.vector} module; it is loaded reflectively
+ * by the {@link ColumnarEvaluator}, and only if the module was added with
+ * {@code --add-modules jdk.incubator.vector}.
+ */
+final class VectorColumnKernel extends ColumnKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    void add(float[] first, int firstFrom, float[] second, int secondFrom, float[] result, int resultFrom, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, first, firstFrom + i)
+                    .add(FloatVector.fromArray(SPECIES, second, secondFrom + i))
+                    .intoArray(result, resultFrom + i);
+        }
+        super.add(first, firstFrom + bound, second, secondFrom + bound, result, resultFrom + bound, length - bound);
+    }
+
+    @Override
+    void subtract(float[] first, int firstFrom, float[] second, int secondFrom, float[] result, int resultFrom, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, first, firstFrom + i)
+                    .sub(FloatVector.fromArray(SPECIES, second, secondFrom + i))
+                    .intoArray(result, resultFrom + i);
+        }
+        super.subtract(first, firstFrom + bound, second, secondFrom + bound, result, resultFrom + bound, length - bound);
+    }
+
+    @Override
+    void multiply(float[] first, int firstFrom, float[] second, int secondFrom, float[] result, int resultFrom, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, first, firstFrom + i)
+                    .mul(FloatVector.fromArray(SPECIES, second, secondFrom + i))
+                    .intoArray(result, resultFrom + i);
+        }
+        super.multiply(first, firstFrom + bound, second, secondFrom + bound, result, resultFrom + bound, length - bound);
+    }
+
+    @Override
+    void divide(float[] first, int firstFrom, float[] second, int secondFrom, float[] result, int resultFrom, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            FloatVector divisor = FloatVector.fromArray(SPECIES, second, secondFrom + i);
+            if (divisor.eq(0f).anyTrue()) {
+                throw new ArithmeticException("Division by zero");
+            }
+            FloatVector.fromArray(SPECIES, first, firstFrom + i).div(divisor).intoArray(result, resultFrom + i);
+        }
+        super.divide(first, firstFrom + bound, second, secondFrom + bound, result, resultFrom + bound, length - bound);
+    }
+
+    @Override
+    void call(MathFunction function, float[] first, int firstFrom, float[] second, int secondFrom,
+              float[] third, int thirdFrom, float[] result, int resultFrom, int length) {
+        int bound = SPECIES.loopBound(length);
+        switch (function) {
+            case SQRT -> {
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    FloatVector.fromArray(SPECIES, first, firstFrom + i).sqrt().intoArray(result, resultFrom + i);
+                }
+            }
+            case ABS -> {
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    FloatVector.fromArray(SPECIES, first, firstFrom + i).abs().intoArray(result, resultFrom + i);
+                }
+            }
+            case MIN -> {
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    FloatVector.fromArray(SPECIES, first, firstFrom + i)
+                            .min(FloatVector.fromArray(SPECIES, second, secondFrom + i))
+                            .intoArray(result, resultFrom + i);
+                }
+            }
+            case MAX -> {
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    FloatVector.fromArray(SPECIES, first, firstFrom + i)
+                            .max(FloatVector.fromArray(SPECIES, second, secondFrom + i))
+                            .intoArray(result, resultFrom + i);
+                }
+            }
+            case FMA -> {
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    FloatVector.fromArray(SPECIES, first, firstFrom + i)
+                            .fma(FloatVector.fromArray(SPECIES, second, secondFrom + i),
+                                    FloatVector.fromArray(SPECIES, third, thirdFrom + i))
+                            .intoArray(result, resultFrom + i);
+                }
+            }
+            default -> bound = 0;
+        }
+        super.call(function, first, firstFrom + bound, second, secondFrom + bound, third, thirdFrom + bound,
+                result, resultFrom + bound, length - bound);
+    }
+}
@@ -0,0 +1,223 @@
+package com.calculator.spi;
+
+import com.calculator.models.PrecedenceLevel;
+import com.calculator.utils.ExpressionParser;
+import java.util.Objects;
+
+
+/**
+ * An operator declared by an {@link OperatorProvider}: its syntax, how it binds, whether it is pure, and
+ * the function computing it.
+ * <p>
+ * There are three kinds of operators:
+ * <ul>
+ *     <li>{@link Kind#BINARY binary} operators are written between their operands, {@code a <> b}, and
+ *     bind like the built-in operators of the same {@link PrecedenceLevel precedence};</li>
+ *     <li>{@link Kind#PREFIX prefix} operators are written before their operand, {@code ~a}, and apply to
+ *     everything up to the next operator of lower, or equal and left-associative, precedence, so
+ *     {@code ~a ^ 2} is {@code ~(a ^ 2)} while {@code ~a * 2} is {@code (~a) * 2} for a prefix operator of
+ *     {@code HIGH} precedence;</li>
+ *     <li>{@link Kind#FUNCTION functions} take a fixed number of arguments, {@code clamp(x, 0, 1)}.</li>
+ * </ul>
+ * Operator symbols consist of the characters {@value #SYMBOL_CHARACTERS}, must not be a built-in operator
+ * and cannot contain {@code =}, which would be read as an assignment. Function names are identifiers; a
+ * name followed by an opening parenthesis always calls the function, so a function does not hide a
+ * variable of the same name.
+ * <p>
+ * A pure operator returns the same result for the same arguments and has no side effects, so calls with
+ * constant arguments are folded when the statement is parsed and repeated calls may share one result.
+ * Impure operators are called every time they are evaluated.
+ *
+ * @param kind the syntax of the operator
+ * @param symbol the operator symbol, or the function name
+ * @param arity the number of operands
+ * @param precedence how tightly a binary or prefix operator binds; {@code null} for functions
+ * @param rightAssociative whether a binary operator groups from the right, like {@code ^}
+ * @param pure whether the result only depends on the arguments
+ * @param implementation the function computing the result
+ */
+public record OperatorDefinition(Kind kind, String symbol, int arity, PrecedenceLevel precedence,
+                                 boolean rightAssociative, boolean pure, Implementation implementation) {
+
+    /**
+     * The characters operator symbols are made of.
+     */
+    public static final String SYMBOL_CHARACTERS = "!#$%&*/:<>?@\\^|~";
+
+    /**
+     * The maximum number of arguments of a function.
+     */
+    public static final int MAX_ARITY = 255;
+
+    /**
+     * The syntax of an operator.
+     */
+    public enum Kind {
+        BINARY,
+        PREFIX,
+        FUNCTION
+    }
+
+    /**
+     * Computes an operator from its operands, which are passed in place on the operand stack of the
+     * evaluator, so a call allocates nothing.
+     */
+    @FunctionalInterface
+    public interface Implementation {
+
+        /**
+         * Computes the result.
+         *
+         * @param operands the array holding the operands; it must not be modified
+         * @param from the index of the first operand, followed by the others in source order
+         * @return the result
+         */
+        float apply(float[] operands, int from);
+    }
+
+    /**
+     * Computes a binary operator.
+     */
+    @FunctionalInterface
+    public interface BinaryImplementation {
+        float apply(float first, float second);
+    }
+
+    /**
+     * Computes a prefix operator or a function of one argument.
+     */
+    @FunctionalInterface
+    public interface UnaryImplementation {
+        float apply(float value);
+    }
+
+    /**
+     * Validates the definition.
+     *
+     * @throws IllegalArgumentException if the symbol, arity or precedence does not suit the kind of operator
+     */
+    public OperatorDefinition {
+        Objects.requireNonNull(kind, "kind");
+        Objects.requireNonNull(symbol, "symbol");
+        Objects.requireNonNull(implementation, "implementation");
+        if (kind == Kind.FUNCTION) {
+            if (!ExpressionParser.isIdentifier(symbol)) {
+                throw new IllegalArgumentException("Invalid function name: " + symbol);
+            }
+            if (arity < 0 || arity > MAX_ARITY) {
+                throw new IllegalArgumentException(String.format("Invalid arity of %s: %d", symbol, arity));
+            }
+        } else {
+            if (!isSymbol(symbol)) {
+                throw new IllegalArgumentException("Invalid operator symbol: " + symbol);
+            }
+            if (arity != (kind == Kind.BINARY ? 2 : 1)) {
+                throw new IllegalArgumentException(String.format("Invalid arity of %s: %d", symbol, arity));
+            }
+            if (precedence == null || precedence == PrecedenceLevel.PARENTHESIS) {
+                throw new IllegalArgumentException(String.format("Invalid precedence of %s: %s", symbol, precedence));
+            }
+        }
+    }
+
+    /**
+     * Defines a binary operator.
+     *
+     * @param symbol the operator symbol
+     * @param precedence how tightly the operator binds
+     * @param rightAssociative whether {@code a op b op c} is {@code a op (b op c)}
+     * @param pure whether the result only depends on the operands
+     * @param implementation the function computing the result
+     * @return the definition
+     */
+    public static OperatorDefinition binary(String symbol, PrecedenceLevel precedence, boolean rightAssociative,
+                                            boolean pure, BinaryImplementation implementation) {
+        Objects.requireNonNull(implementation, "implementation");
+        return new OperatorDefinition(Kind.BINARY, symbol, 2, precedence, rightAssociative, pure,
+                (operands, from) -> implementation.apply(operands[from], operands[from + 1]));
+    }
+
+    /**
+     * Defines a prefix operator.
+     *
+     * @param symbol the operator symbol
+     * @param precedence how tightly the operator binds
+     * @param pure whether the result only depends on the operand
+     * @param implementation the function computing the result
+     * @return the definition
+     */
+    public static OperatorDefinition prefix(String symbol, PrecedenceLevel precedence, boolean pure,
+                                            UnaryImplementation implementation) {
+        Objects.requireNonNull(implementation, "implementation");
+        return new OperatorDefinition(Kind.PREFIX, symbol, 1, precedence, false, pure,
+                (operands, from) -> implementation.apply(operands[from]));
+    }
+
+    /**
+     * Defines a function of one argument.
+     *
+     * @param name the function name
+     * @param pure whether the result only depends on the argument
+     * @param implementation the function computing the result
+     * @return the definition
+     */
+    public static OperatorDefinition function(String name, boolean pure, UnaryImplementation implementation) {
+        Objects.requireNonNull(implementation, "implementation");
+        return new OperatorDefinition(Kind.FUNCTION, name, 1, null, false, pure,
+                (operands, from) -> implementation.apply(operands[from]));
+    }
+
+    /**
+     * Defines a function of two arguments.
+     *
+     * @param name the function name
+     * @param pure whether the result only depends on the arguments
+     * @param implementation the function computing the result
+     * @return the definition
+     */
+    public static OperatorDefinition function(String name, boolean pure, BinaryImplementation implementation) {
+        Objects.requireNonNull(implementation, "implementation");
+        return new OperatorDefinition(Kind.FUNCTION, name, 2, null, false, pure,
+                (operands, from) -> implementation.apply(operands[from], operands[from + 1]));
+    }
+
+    /**
+     * Defines a function of any number of arguments.
+     *
+     * @param name the function name
+     * @param arity the number of arguments
+     * @param pure whether the result only depends on the arguments
+     * @param implementation the function computing the result
+     * @return the definition
+     */
+    public static OperatorDefinition function(String name, int arity, boolean pure, Implementation implementation) {
+        return new OperatorDefinition(Kind.FUNCTION, name, arity, null, false, pure, implementation);
+    }
+
+    /**
+     * Determines whether a string is made of operator symbol characters only.
+     *
+     * @param symbol the string to check
+     * @return {@code true} if the string is a valid operator symbol
+     */
+    public static boolean isSymbol(String symbol) {
+        if (symbol.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < symbol.length(); i++) {
+            if (!isSymbolCharacter(symbol.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isSymbolCharacter(char c) {
+        return SYMBOL_CHARACTERS.indexOf(c) >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.FUNCTION ? symbol + "/" + arity : symbol;
+    }
+}
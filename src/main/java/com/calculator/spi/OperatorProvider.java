@@ -0,0 +1,26 @@
+package com.calculator.spi;
+
+import java.util.List;
+
+
+/**
+ * The {@code OperatorProvider} interface is the service provider interface through which domain
+ * operators are added to the calculator without changing it.
+ * <p>
+ * Providers are found with {@link java.util.ServiceLoader}: a jar on the class path lists the
+ * implementing classes in {@code META-INF/services/com.calculator.spi.OperatorProvider}, and each class
+ * needs a public no-argument constructor. The providers are loaded once, when the operator factory is
+ * first used, and their operators are available to every statement parsed afterwards.
+ * <p>
+ * Operators are called from every thread evaluating statements, so their implementations must be
+ * thread-safe.
+ */
+public interface OperatorProvider {
+
+    /**
+     * Returns the operators declared by this provider.
+     *
+     * @return the operator definitions
+     */
+    List<OperatorDefinition> getOperators();
+}
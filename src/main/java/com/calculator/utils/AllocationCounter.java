@@ -0,0 +1,45 @@
+package com.calculator.utils;
+
+import java.lang.management.ManagementFactory;
+
+
+/**
+ * The {@code AllocationCounter} class reads the number of heap bytes allocated by the current thread
+ * through {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}.
+ * The counter is cumulative, so the bytes allocated by a piece of work are the difference between
+ * two readings taken on the same thread.
+ */
+public class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean threadMXBean = loadThreadMXBean();
+
+    private AllocationCounter() {
+    }
+
+    /**
+     * Determines whether the JVM supports per-thread allocation accounting.
+     *
+     * @return {@code true} if allocated bytes can be measured
+     */
+    public static boolean isSupported() {
+        return threadMXBean != null;
+    }
+
+    /**
+     * Returns the total number of bytes allocated by the current thread so far.
+     *
+     * @return the allocated bytes, or {@code -1} if allocation accounting is not supported
+     */
+    public static long currentThreadAllocatedBytes() {
+        return threadMXBean != null ? threadMXBean.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean loadThreadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+}
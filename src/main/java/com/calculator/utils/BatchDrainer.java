@@ -0,0 +1,116 @@
+package com.calculator.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+
+
+/**
+ * The {@code BatchDrainer} class moves the elements of a {@link BlockingQueue} to its consumer in batches.
+ * <p>
+ * {@link #take()} blocks until an element arrives, so a waiting stage wakes up as soon as work is queued,
+ * and then moves everything else already queued with a single {@link BlockingQueue#drainTo drainTo}. The
+ * queue's locking and signalling is paid once per batch rather than once per element.
+ * <p>
+ * The batch size adapts to the load: it doubles, up to the maximum, while every batch comes back full,
+ * i.e. while a backlog builds up, and halves again when batches stay below a quarter of it. A backlog is
+ * thus moved in few large batches, while the work done per batch, and with it the time until the consumer
+ * looks at its queue again, stays small for sparse input.
+ * <p>
+ * The returned batch is reused by the next call; a drainer belongs to the single thread consuming the queue.
+ *
+ * @param <T> the type of the queued elements
+ */
+public class BatchDrainer<T> {
+
+    private final BlockingQueue<? extends T> queue;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final List<T> batch;
+    private volatile int batchSize;
+    private volatile long batchCount;
+    private volatile long elementCount;
+
+    /**
+     * Constructs a new {@code BatchDrainer} whose batch size adapts between {@code 1} and the maximum.
+     *
+     * @param queue the queue to drain
+     * @param maxBatchSize the maximum number of elements per batch
+     */
+    public BatchDrainer(BlockingQueue<? extends T> queue, int maxBatchSize) {
+        this(queue, 1, maxBatchSize);
+    }
+
+    /**
+     * Constructs a new {@code BatchDrainer}.
+     *
+     * @param queue the queue to drain
+     * @param minBatchSize the minimum and initial number of elements per batch
+     * @param maxBatchSize the maximum number of elements per batch
+     * @throws IllegalArgumentException if the sizes are not positive or the minimum exceeds the maximum
+     */
+    public BatchDrainer(BlockingQueue<? extends T> queue, int minBatchSize, int maxBatchSize) {
+        if (minBatchSize < 1 || maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException(String.format("Invalid batch sizes: %d to %d", minBatchSize, maxBatchSize));
+        }
+        this.queue = queue;
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSize = minBatchSize;
+        this.batch = new ArrayList<>();
+    }
+
+    /**
+     * Waits for the next element and returns it together with the elements queued behind it.
+     *
+     * @return the next batch, never empty
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public List<T> take() throws InterruptedException {
+        batch.clear();
+        batch.add(queue.take());
+        queue.drainTo(batch, batchSize - 1);
+        return adapt();
+    }
+
+    /**
+     * Returns the elements currently queued without waiting.
+     *
+     * @return the next batch, empty if the queue is empty
+     */
+    public List<T> poll() {
+        batch.clear();
+        queue.drainTo(batch, batchSize);
+        return batch.isEmpty() ? Collections.emptyList() : adapt();
+    }
+
+    private List<T> adapt() {
+        int size = batch.size();
+        if (size == batchSize) {
+            batchSize = Math.min(maxBatchSize, batchSize * 2);
+        } else if (size < batchSize / 4) {
+            batchSize = Math.max(minBatchSize, batchSize / 2);
+        }
+        batchCount++;
+        elementCount += size;
+        return batch;
+    }
+
+    /**
+     * Returns the current maximum number of elements the next batch takes from the queue.
+     *
+     * @return the current batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+}
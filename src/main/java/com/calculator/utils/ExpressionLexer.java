@@ -0,0 +1,205 @@
+package com.calculator.utils;
+
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.TokenType;
+import com.calculator.spi.OperatorDefinition;
+
+
+/**
+ * The {@code ExpressionLexer} class splits a statement into typed tokens in a single pass over its
+ * characters, without regular expressions or intermediate substrings.
+ * <p>
+ * The lexer is a cursor: {@link #next()} advances to the following token and the token is described
+ * by its {@link #type()} and its {@link #start()}/{@link #end()} offsets into the original string.
+ * Whitespace between tokens is optional. A {@code +} or {@code -} sign directly followed by a digit is
+ * part of a number literal only where an operand is expected (at the start, after an operator or after
+ * an opening parenthesis), so {@code 3-5} is a subtraction while {@code 3 * -5} multiplies by {@code -5}.
+ * <p>
+ * An identifier followed by an opening parenthesis is a {@link TokenType#FUNCTION function} name. Operator
+ * symbols declared through the {@link com.calculator.spi.OperatorProvider} SPI are matched longest first,
+ * as prefix operators where an operand is expected and as binary operators elsewhere.
+ */
+public class ExpressionLexer {
+
+    private final String input;
+    private int position;
+    private TokenType type;
+    private int start;
+    private int end;
+    private boolean afterOperand;
+
+    /**
+     * Constructs a new {@code ExpressionLexer} positioned before the first token.
+     *
+     * @param input the statement to split into tokens
+     */
+    public ExpressionLexer(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Advances to the next token.
+     *
+     * @return the type of the new current token, {@link TokenType#END} once the input is exhausted
+     * @throws IllegalArgumentException if the input contains a character that starts no token
+     */
+    public TokenType next() {
+        int length = input.length();
+        while (position < length && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+        start = position;
+        if (position == length) {
+            return token(TokenType.END, position);
+        }
+        char current = input.charAt(position);
+        char following = position + 1 < length ? input.charAt(position + 1) : 0;
+        if (isIdentifierStart(current)) {
+            int index = position + 1;
+            while (index < length && isIdentifierPart(input.charAt(index))) {
+                index++;
+            }
+            int next = index;
+            while (next < length && Character.isWhitespace(input.charAt(next))) {
+                next++;
+            }
+            if (next < length && input.charAt(next) == '(') {
+                afterOperand = false;
+                return token(TokenType.FUNCTION, index);
+            }
+            afterOperand = true;
+            return token(TokenType.IDENTIFIER, index);
+        }
+        if (isDigit(current) || (current == '.' && isDigit(following))
+                || (!afterOperand && (current == '-' || current == '+') && (isDigit(following) || following == '.'))) {
+            afterOperand = true;
+            return token(TokenType.NUMBER, scanNumber(position + 1));
+        }
+        if (OperatorDefinition.isSymbolCharacter(current)) {
+            int symbolLength = OperatorFactory.matchSymbol(input, position, !afterOperand);
+            if (symbolLength > 0) {
+                TokenType symbolType = afterOperand ? TokenType.OPERATOR : TokenType.PREFIX_OPERATOR;
+                afterOperand = false;
+                return token(symbolType, position + symbolLength);
+            }
+        }
+        switch (current) {
+            case '(' -> {
+                afterOperand = false;
+                return token(TokenType.OPEN_PARENTHESIS, position + 1);
+            }
+            case ')' -> {
+                afterOperand = true;
+                return token(TokenType.CLOSE_PARENTHESIS, position + 1);
+            }
+            case '=' -> {
+                afterOperand = false;
+                return token(TokenType.ASSIGNMENT, position + 1);
+            }
+            case ',' -> {
+                afterOperand = false;
+                return token(TokenType.COMMA, position + 1);
+            }
+            case '+', '-' -> {
+                if (following == current) {
+                    // A prefix operator leaves the lexer expecting its variable; a postfix one ends an operand
+                    return token(current == '+' ? TokenType.INCREMENT : TokenType.DECREMENT, position + 2);
+                }
+                return operator(following);
+            }
+            case '*', '/', '%', '^' -> {
+                return operator(following);
+            }
+            default -> throw new IllegalArgumentException(String.format(
+                    "Invalid expression, unexpected character '%c' at position %d", current, position));
+        }
+    }
+
+    public TokenType type() {
+        return type;
+    }
+
+    /**
+     * Returns the offset of the first character of the current token.
+     *
+     * @return the start offset, inclusive
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * Returns the offset just past the last character of the current token.
+     *
+     * @return the end offset, exclusive
+     */
+    public int end() {
+        return end;
+    }
+
+    /**
+     * Returns the text of the current token. Unlike the other accessors this creates a substring.
+     *
+     * @return the token text
+     */
+    public String text() {
+        return input.substring(start, end);
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    private TokenType operator(char following) {
+        afterOperand = false;
+        if (following == '=' && input.charAt(position) != '^') {
+            return token(TokenType.ASSIGNMENT, position + 2);
+        }
+        return token(TokenType.OPERATOR, position + 1);
+    }
+
+    private TokenType token(TokenType tokenType, int tokenEnd) {
+        type = tokenType;
+        end = tokenEnd;
+        position = tokenEnd;
+        return tokenType;
+    }
+
+    /**
+     * Scans the remainder of a number literal: digits, an optional fraction and an optional exponent.
+     *
+     * @param index the offset just past the first character of the literal
+     * @return the offset just past the literal
+     */
+    private int scanNumber(int index) {
+        int length = input.length();
+        while (index < length && (isDigit(input.charAt(index)) || input.charAt(index) == '.')) {
+            index++;
+        }
+        if (index < length && (input.charAt(index) == 'e' || input.charAt(index) == 'E')) {
+            int exponent = index + 1;
+            if (exponent < length && (input.charAt(exponent) == '+' || input.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < length && isDigit(input.charAt(exponent))) {
+                index = exponent;
+                while (index < length && isDigit(input.charAt(index))) {
+                    index++;
+                }
+            }
+        }
+        return index;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || isDigit(c);
+    }
+}
@@ -1,43 +1,161 @@
 package com.calculator.utils;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
-import java.text.DecimalFormat;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.math.BigDecimal;
 import java.util.*;
 import java.util.regex.*;
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.compiler.ProgramOptimizer;
+import com.calculator.events.StatementFailedEvent;
+import com.calculator.events.StatementParsedEvent;
+import com.calculator.exceptions.InvalidInputException;
 import com.calculator.models.AssignmentOperator;
 import com.calculator.models.Expression;
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.Token;
+import com.calculator.models.TokenType;
+import com.calculator.models.operators.IOperator;
 import com.calculator.models.operators.IUnaryOperator;
+import jdk.jfr.FlightRecorder;
 
 
 /**
  * The {@code ExpressionParser} class provides utility methods to parse mathematical expressions,
  * tokenize input strings, identify numeric values, and handle unary operators.
  * It supports parsing assignment expressions, tokenizing mathematical expressions,
- * formatting numeric values, and dynamically instantiating unary operators using reflection.
+ * formatting numeric values, and instantiating unary operators through cached method handles.
+ * Statements are split by the single-pass {@link ExpressionLexer}, so tokens need no surrounding whitespace.
+ * Function calls such as {@code sqrt(x)} or {@code fma(a, b, c)} resolve to the built-in
+ * {@link com.calculator.models.operators.MathFunction}s or to functions of operator providers.
+ * The right-hand side is compiled into a {@link PostfixProgram} and simplified by the {@link ProgramOptimizer}
+ * as part of parsing, and parsed expressions are kept in a bounded {@link ParseCache}, so repeated statements
+ * are only parsed, compiled and optimized once.
+ * Once Flight Recorder is started, parsing emits a {@link StatementParsedEvent}, or a
+ * {@link StatementFailedEvent}, to it.
  */
  public class ExpressionParser {
 
+    private static volatile ParseCache parseCache = ParseCache.fromSystemProperties();
+
+    // Regex for pre-increment/decrement (++i, --i)
+    private static final Pattern PRE_UNARY_PATTERN = Pattern.compile("(\\+\\+|--)(\\w+)");
+    // Regex for post-increment/decrement (i++, i--)
+    private static final Pattern POST_UNARY_PATTERN = Pattern.compile("(\\w+)(\\+\\+|--)");
+
+    /**
+     * The {@code (String, boolean)} constructors of unary operator classes, typed as
+     * {@code (String, boolean) -> IUnaryOperator} and looked up on first use.
+     */
+    private static final ClassValue<MethodHandle> UNARY_CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                return MethodHandles.publicLookup()
+                        .findConstructor(type, MethodType.methodType(void.class, String.class, boolean.class))
+                        .asType(MethodType.methodType(IUnaryOperator.class, String.class, boolean.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+    };
+
     /**
      * Parses a given assignment expression and extracts variable assignment,
      * operator, and right-hand expression tokens.
+     * Results are served from the parse cache when the same source text was parsed before.
      *
      * @param input the input string containing an assignment expression (e.g., "x += 5 + 3")
      * @return an {@link Expression} object containing parsed components
      * @throws IllegalArgumentException if the expression does not match an assignment pattern
      */
     public static Expression parse(String input) {
-        final Pattern ASSIGNMENT_PATTERN = Pattern.compile("^\\s*([a-zA-Z_]\\w*)\\s*(=|\\+=|-=|\\*=|/=|%=)\\s*(.*)\\s*$");
-        Matcher matcher = ASSIGNMENT_PATTERN.matcher(input);
+        if (FlightRecorder.isInitialized()) {
+            return parseRecorded(input);
+        }
+        return parseCache.get(input, ExpressionParser::parseExpression);
+    }
 
-        if (!matcher.find()) {
-            throw new IllegalArgumentException("Invalid expression, assignment pattern was not found");
+    /**
+     * Parses an assignment expression through the parse cache, emitting its Flight Recorder events.
+     * The parsed event is only created while a recording has it enabled.
+     *
+     * @param input the input string containing an assignment expression
+     * @return an {@link Expression} object containing parsed components
+     */
+    private static Expression parseRecorded(String input) {
+        StatementParsedEvent event = null;
+        if (StatementParsedEvent.isRecorded()) {
+            event = new StatementParsedEvent();
+            event.begin();
+        }
+        Expression expression;
+        try {
+            expression = parseCache.get(input, ExpressionParser::parseExpression);
+        } catch (RuntimeException e) {
+            new StatementFailedEvent().commit(input, e);
+            throw e;
         }
+        if (event != null) {
+            event.commit(expression);
+        }
+        return expression;
+    }
 
-        String assignedVariable = matcher.group(1);
-        AssignmentOperator assignmentOperator = AssignmentOperator.fromSymbol(matcher.group(2));
-        String rightSide = matcher.group(3);
-        List<String> expressionParts = tokenizeExpression(rightSide);
+    /**
+     * Returns the cache holding previously parsed expressions.
+     *
+     * @return the current parse cache
+     */
+    public static ParseCache getParseCache() {
+        return parseCache;
+    }
 
-        return new Expression(assignedVariable, assignmentOperator, expressionParts);
+    /**
+     * Replaces the parse cache with an empty one of the given capacity.
+     *
+     * @param capacity the maximum number of cached expressions, {@code 0} disables caching
+     */
+    public static void setParseCacheCapacity(int capacity) {
+        parseCache = new ParseCache(capacity);
+    }
+
+    /**
+     * Parses an assignment expression without consulting the parse cache.
+     *
+     * @param input the input string containing an assignment expression
+     * @return an {@link Expression} object containing parsed components
+     * @throws IllegalArgumentException if the expression does not match an assignment pattern
+     *                                  or its right-hand side cannot be compiled
+     */
+    private static Expression parseExpression(String input) {
+        ExpressionLexer lexer = new ExpressionLexer(input);
+        if (lexer.next() != TokenType.IDENTIFIER) {
+            throw new IllegalArgumentException("Invalid expression, assignment pattern was not found");
+        }
+        String assignedVariable = lexer.text();
+        if (lexer.next() != TokenType.ASSIGNMENT) {
+            throw new IllegalArgumentException("Invalid expression, assignment pattern was not found");
+        }
+        AssignmentOperator assignmentOperator = AssignmentOperator.fromSymbol(lexer.text());
+        List<String> expressionParts = new ArrayList<>();
+        List<Token> tokens = new ArrayList<>();
+        tokenize(lexer, expressionParts, tokens);
+        PostfixProgram program;
+        try {
+            program = ProgramOptimizer.optimizeIfEnabled(ProgramCompiler.compileTokens(tokens));
+        } catch (InvalidInputException e) {
+            // Most compiler messages already name the expression as invalid
+            String message = e.getMessage().startsWith("Invalid expression") ? e.getMessage() : "Invalid expression, " + e.getMessage();
+            throw new IllegalArgumentException(message, e);
+        }
+
+        // Parsed expressions are shared through the cache, so the tokens must not be mutable
+        return new Expression(assignedVariable, SymbolTable.intern(assignedVariable), assignmentOperator, List.copyOf(expressionParts), List.copyOf(tokens), program);
     }
 
     /**
@@ -47,24 +165,158 @@ import com.calculator.models.operators.IUnaryOperator;
      * @param expression the mathematical expression to tokenize
      * @return a list of tokens extracted from the expression
      */
-    private static List<String> tokenizeExpression(String expression) {
-        List<String> tokens = new ArrayList<>();
-        Scanner scanner = new Scanner(expression);
-        while (scanner.hasNext()) {
-            String token = scanner.next();
-            if (token.startsWith("(")) {
-                tokens.add("(");
-                tokens.add(token.substring(1));
+    public static List<String> tokenizeExpression(String expression) {
+        List<String> expressionParts = new ArrayList<>();
+        tokenize(new ExpressionLexer(expression), expressionParts, new ArrayList<>());
+        return expressionParts;
+    }
+
+    /**
+     * Collects the remaining tokens of a lexer, both as source text and as resolved {@link Token}s.
+     * Unary operators are merged with their variable into a single token such as {@code ++i} or {@code i--}.
+     *
+     * @param lexer the lexer positioned before the first token to collect
+     * @param expressionParts the list receiving the source text of each token
+     * @param tokens the list receiving the resolved tokens
+     * @throws IllegalArgumentException if the tokens contain an assignment, an invalid number
+     *                                  or a dangling unary operator
+     */
+    private static void tokenize(ExpressionLexer lexer, List<String> expressionParts, List<Token> tokens) {
+        TokenType previous = null;
+        for (TokenType type = lexer.next(); type != TokenType.END; type = lexer.next()) {
+            String text = lexer.text();
+            switch (type) {
+                case NUMBER -> {
+                    expressionParts.add(text);
+                    tokens.add(new Token.Literal(parseNumber(text, lexer.start()), text));
+                }
+                case IDENTIFIER -> {
+                    expressionParts.add(text);
+                    tokens.add(new Token.Variable(text));
+                }
+                case OPERATOR, OPEN_PARENTHESIS, CLOSE_PARENTHESIS, COMMA -> {
+                    expressionParts.add(text);
+                    tokens.add(new Token.Operator(OperatorFactory.getOperator(text)));
+                }
+                case PREFIX_OPERATOR -> {
+                    expressionParts.add(text);
+                    tokens.add(new Token.Operator(OperatorFactory.getPrefixOperator(text)));
+                }
+                case FUNCTION -> {
+                    if (!OperatorFactory.isFunction(text)) {
+                        throw new IllegalArgumentException(String.format(
+                                "Invalid expression, unknown function %s at position %d", text, lexer.start()));
+                    }
+                    expressionParts.add(text);
+                    tokens.add(new Token.Operator(OperatorFactory.getFunction(text)));
+                }
+                case INCREMENT, DECREMENT -> {
+                    int last = expressionParts.size() - 1;
+                    if (previous == TokenType.IDENTIFIER) {
+                        String variable = expressionParts.get(last);
+                        expressionParts.set(last, variable + text);
+                        tokens.set(last, new Token.Unary(OperatorFactory.createUnaryOperator(text, variable, true)));
+                    } else if (lexer.next() == TokenType.IDENTIFIER) {
+                        String variable = lexer.text();
+                        expressionParts.add(text + variable);
+                        tokens.add(new Token.Unary(OperatorFactory.createUnaryOperator(text, variable, false)));
+                    } else {
+                        throw new IllegalArgumentException(String.format(
+                                "Invalid expression, %s must be applied to a variable at position %d", text, lexer.start()));
+                    }
+                    // A unary token is a complete operand and cannot take another unary operator
+                    type = TokenType.NUMBER;
+                }
+                case ASSIGNMENT -> throw new IllegalArgumentException(String.format(
+                        "Invalid expression, unexpected assignment at position %d", lexer.start()));
+                default -> throw new IllegalArgumentException("Invalid expression, unexpected token " + text);
             }
-            else if (token.endsWith(")")) {
-                tokens.add(token.substring(0, token.length() - 1));
-                tokens.add(")");
+            previous = type;
+        }
+    }
+
+    private static float parseNumber(String text, int position) {
+        try {
+            return Float.parseFloat(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid expression, invalid number %s at position %d", text, position));
+        }
+    }
+
+    /**
+     * Resolves source tokens into {@link Token}s. Tokens that cannot be classified become
+     * {@link Token.Invalid} and are rejected when the expression is compiled. A function name is a call
+     * when an opening parenthesis follows it, and the symbol of a prefix operator is one where an operand
+     * is expected.
+     *
+     * @param expressionParts the source tokens of an expression
+     * @return the resolved tokens
+     */
+    public static List<Token> resolveTokens(List<String> expressionParts) {
+        List<Token> tokens = new ArrayList<>(expressionParts.size());
+        boolean expectsOperand = true;
+        for (int i = 0; i < expressionParts.size(); i++) {
+            String part = expressionParts.get(i);
+            Token token;
+            if (OperatorFactory.isFunction(part) && i + 1 < expressionParts.size() && expressionParts.get(i + 1).equals("(")) {
+                token = new Token.Operator(OperatorFactory.getFunction(part));
+            } else if (expectsOperand && OperatorFactory.isPrefixOperator(part)) {
+                token = new Token.Operator(OperatorFactory.getPrefixOperator(part));
             } else {
-                tokens.add(token);
+                token = resolveToken(part);
             }
+            tokens.add(token);
+            expectsOperand = token instanceof Token.Operator(IOperator operator) && !operator.getSymbol().equals(")");
         }
+        return List.copyOf(tokens);
+    }
 
-        return tokens;
+    /**
+     * Resolves a single source token. Variable names are recognized before numbers are parsed,
+     * so classifying a variable never throws and catches a {@link NumberFormatException}.
+     *
+     * @param part the source token
+     * @return the resolved token
+     */
+    public static Token resolveToken(String part) {
+        if (OperatorFactory.isOperator(part)) {
+            return new Token.Operator(OperatorFactory.getOperator(part));
+        }
+        if (isIdentifier(part)) {
+            return new Token.Variable(part);
+        }
+        if (part.length() > 2) {
+            String prefix = part.substring(0, 2);
+            String suffix = part.substring(part.length() - 2);
+            if (OperatorFactory.isUnaryOperator(prefix) && isIdentifier(part.substring(2))) {
+                return new Token.Unary(OperatorFactory.createUnaryOperator(prefix, part.substring(2), false));
+            }
+            if (OperatorFactory.isUnaryOperator(suffix) && isIdentifier(part.substring(0, part.length() - 2))) {
+                return new Token.Unary(OperatorFactory.createUnaryOperator(suffix, part.substring(0, part.length() - 2), true));
+            }
+        }
+        if (isNumeric(part)) {
+            return new Token.Literal(Float.parseFloat(part), part);
+        }
+        return new Token.Invalid(part);
+    }
+
+    /**
+     * Determines whether a token is a valid variable name.
+     *
+     * @param token the token to check
+     * @return {@code true} if the token starts with a letter or underscore followed by word characters
+     */
+    public static boolean isIdentifier(String token) {
+        if (token.isEmpty() || !ExpressionLexer.isIdentifierStart(token.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < token.length(); i++) {
+            if (!ExpressionLexer.isIdentifierPart(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -85,7 +337,8 @@ import com.calculator.models.operators.IUnaryOperator;
     /**
      * Parses a unary operator from an expression string.
      * Supports both pre-increment (`++i`, `--i`) and post-increment (`i++`, `i--`) operators.
-     * Uses reflection to dynamically instantiate the corresponding {@link IUnaryOperator} class.
+     * The corresponding {@link IUnaryOperator} class is instantiated through its {@code (String, boolean)}
+     * constructor, which is looked up once per class and then invoked as a cached {@link MethodHandle}.
      *
      * @param expression the input expression containing a unary operator
      * @param unaryOperators a map of available unary operators and their respective class types
@@ -96,13 +349,8 @@ import com.calculator.models.operators.IUnaryOperator;
      * @throws IllegalAccessException if access to the constructor is denied
      */
     public static Optional<IUnaryOperator> parseUnaryOperator(String expression, Map<String, Class<? extends IUnaryOperator>> unaryOperators) throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
-        // Regex for pre-increment/decrement (++i, --i)
-        Pattern prePattern = Pattern.compile("(\\+\\+|--)(\\w+)");
-        // Regex for post-increment/decrement (i++, i--)
-        Pattern postPattern = Pattern.compile("(\\w+)(\\+\\+|--)");
-
-        Matcher preMatcher = prePattern.matcher(expression);
-        Matcher postMatcher = postPattern.matcher(expression);
+        Matcher preMatcher = PRE_UNARY_PATTERN.matcher(expression);
+        Matcher postMatcher = POST_UNARY_PATTERN.matcher(expression);
         boolean isPostOperator = false;
         String variable = null;
         String operator = null;
@@ -122,19 +370,64 @@ import com.calculator.models.operators.IUnaryOperator;
             return Optional.empty();
         }
 
-        return Optional.of((unaryOperators.get(operator))
-                .getDeclaredConstructor(String.class, boolean.class)
-                .newInstance(variable, isPostOperator));
+        Class<? extends IUnaryOperator> operatorClass = unaryOperators.get(operator);
+        if (Modifier.isAbstract(operatorClass.getModifiers())) {
+            throw new InstantiationException("Cannot instantiate " + operatorClass.getName());
+        }
+        MethodHandle constructor;
+        try {
+            constructor = UNARY_CONSTRUCTORS.get(operatorClass);
+        } catch (UndeclaredThrowableException e) {
+            if (e.getCause() instanceof NoSuchMethodException noSuchMethod) {
+                throw noSuchMethod;
+            }
+            throw (IllegalAccessException) e.getCause();
+        }
+        try {
+            return Optional.of((IUnaryOperator) constructor.invokeExact(variable, isPostOperator));
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
     }
 
     /**
-     * Formats a floating-point number to remove unnecessary trailing decimal zeros.
+     * Formats a floating-point number with at most two fraction digits and without trailing zeros,
+     * as the pattern {@code #.##}, see {@link NumberFormatter}.
      *
      * @param number the floating-point number to format
      * @return a string representation of the formatted number
      */
     public static String formatNumber(float number) {
-        DecimalFormat df = new DecimalFormat("#.##"); // Removes trailing .0
-        return df.format(number);
+        return NumberFormatter.format(number);
+    }
+
+    /**
+     * Formats a double like {@link #formatNumber(float)}.
+     *
+     * @param number the double to format
+     * @return a string representation of the formatted number
+     */
+    public static String formatNumber(double number) {
+        return NumberFormatter.format(number);
+    }
+
+    /**
+     * Formats a long with all of its digits.
+     *
+     * @param number the long to format
+     * @return a string representation of the number
+     */
+    public static String formatNumber(long number) {
+        return NumberFormatter.format(number);
+    }
+
+    /**
+     * Formats a decimal like {@link #formatNumber(float)}, keeping every digit of its integer part.
+     *
+     * @param number the decimal to format
+     * @return a string representation of the formatted number
+     */
+    public static String formatNumber(BigDecimal number) {
+        return NumberFormatter.format(number);
     }
 }
@@ -0,0 +1,191 @@
+package com.calculator.utils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+
+/**
+ * The {@code NumberFormatter} class formats numbers exactly as {@code new DecimalFormat("#.##")} does, at
+ * most two fraction digits rounded half-even from the exact binary value and without trailing zeros,
+ * but without creating a formatter or any other object per number.
+ * <p>
+ * {@code DecimalFormat} rounds the shortest decimal representation of the number, which agrees with
+ * rounding its exact value as long as the spacing of doubles is at most {@code 0.01}, below {@code 2^46},
+ * and for integers below {@code 2^53}; this covers every float with a fraction. Such numbers are scaled
+ * by {@code 100} and rounded in {@code long} arithmetic on their mantissa, which is exact. Other numbers,
+ * NaN and the infinities are formatted by a cached {@code DecimalFormat} instead. The symbols are those
+ * of the default locale when the class is loaded; locales with non-ASCII digits or signs always take the
+ * cached {@code DecimalFormat}.
+ * <p>
+ * Longs have no fraction, so they are written with {@link Long#toString(long)}; decimals are always
+ * formatted by the cached {@code DecimalFormat}.
+ */
+public final class NumberFormatter {
+
+    /**
+     * The pattern the output matches.
+     */
+    public static final String PATTERN = "#.##";
+
+    /**
+     * The maximum number of bytes {@link #format(double, byte, byte[], int)} writes.
+     */
+    public static final int MAX_LENGTH = 512;
+
+    /**
+     * The decimal separator of the default locale.
+     */
+    public static final char DECIMAL_SEPARATOR;
+
+    private static final double EXACT_LIMIT = 0x1p46;
+    private static final double EXACT_INTEGER_LIMIT = 0x1p53;
+    private static final boolean ASCII_SYMBOLS;
+    private static final ThreadLocal<DecimalFormat> FALLBACK = ThreadLocal.withInitial(() -> new DecimalFormat(PATTERN));
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[MAX_LENGTH]);
+
+    static {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+        DECIMAL_SEPARATOR = symbols.getDecimalSeparator();
+        ASCII_SYMBOLS = symbols.getZeroDigit() == '0' && symbols.getMinusSign() == '-' && DECIMAL_SEPARATOR < 0x80;
+    }
+
+    private NumberFormatter() {
+    }
+
+    /**
+     * Formats a number.
+     *
+     * @param number the number to format
+     * @return the formatted number
+     */
+    public static String format(double number) {
+        byte[] scratch = SCRATCH.get();
+        int end = formatExact(number, (byte) DECIMAL_SEPARATOR, scratch, 0);
+        return end >= 0 ? new String(scratch, 0, end, StandardCharsets.ISO_8859_1) : FALLBACK.get().format(number);
+    }
+
+    /**
+     * Formats a long with all of its digits.
+     *
+     * @param number the number to format
+     * @return the formatted number
+     */
+    public static String format(long number) {
+        return ASCII_SYMBOLS ? Long.toString(number) : FALLBACK.get().format(number);
+    }
+
+    /**
+     * Formats a decimal, keeping every digit of its integer part.
+     *
+     * @param number the number to format
+     * @return the formatted number
+     */
+    public static String format(BigDecimal number) {
+        return FALLBACK.get().format(number);
+    }
+
+    /**
+     * Appends a formatted number, with the decimal separator of the default locale.
+     *
+     * @param builder the builder to append to
+     * @param number the number to format
+     * @return the builder
+     */
+    public static StringBuilder append(StringBuilder builder, double number) {
+        byte[] scratch = SCRATCH.get();
+        int end = formatExact(number, (byte) DECIMAL_SEPARATOR, scratch, 0);
+        if (end < 0) {
+            return builder.append(FALLBACK.get().format(number));
+        }
+        for (int i = 0; i < end; i++) {
+            builder.append((char) scratch[i]);
+        }
+        return builder;
+    }
+
+    /**
+     * Writes a formatted number as UTF-8.
+     *
+     * @param number the number to format
+     * @param decimalSeparator the ASCII decimal separator
+     * @param buffer the buffer to write to, with at least {@value #MAX_LENGTH} bytes from the offset
+     * @param offset the position of the first byte
+     * @return the position after the last byte
+     */
+    public static int format(double number, byte decimalSeparator, byte[] buffer, int offset) {
+        int end = formatExact(number, decimalSeparator, buffer, offset);
+        if (end >= 0) {
+            return end;
+        }
+        byte[] formatted = FALLBACK.get().format(number).getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(formatted, 0, buffer, offset, formatted.length);
+        return offset + formatted.length;
+    }
+
+    /**
+     * Writes a number below {@code 2^46}, or an integer below {@code 2^53}, in magnitude.
+     *
+     * @return the position after the last byte, or {@code -1} if the number must be formatted by {@code DecimalFormat}
+     */
+    private static int formatExact(double number, byte decimalSeparator, byte[] buffer, int offset) {
+        double magnitude = Math.abs(number);
+        boolean exact = magnitude < EXACT_LIMIT || (magnitude < EXACT_INTEGER_LIMIT && magnitude == Math.rint(magnitude));
+        if (!exact || !ASCII_SYMBOLS) {
+            return -1;
+        }
+        long bits = Double.doubleToRawLongBits(number);
+        int exponent = (int) (bits >>> 52) & 0x7FF;
+        long mantissa = bits & ((1L << 52) - 1);
+        if (exponent == 0) {
+            exponent = 1;
+        } else {
+            mantissa |= 1L << 52;
+        }
+        // The number is mantissa / 2^shift; hundredths holds it times 100, rounded half-even
+        int shift = 1075 - exponent;
+        long hundredths;
+        if (shift <= 0) {
+            hundredths = (mantissa << -shift) * 100;
+        } else if (shift >= 62) {
+            // mantissa * 100 is below 2^60, less than half of 2^shift
+            hundredths = 0;
+        } else {
+            long scaled = mantissa * 100;
+            hundredths = scaled >>> shift;
+            long remainder = scaled & ((1L << shift) - 1);
+            long half = 1L << (shift - 1);
+            if (remainder > half || (remainder == half && (hundredths & 1) != 0)) {
+                hundredths++;
+            }
+        }
+        int position = offset;
+        if (bits < 0) {
+            buffer[position++] = '-';
+        }
+        position = writeDigits(hundredths / 100, buffer, position);
+        int fraction = (int) (hundredths % 100);
+        if (fraction != 0) {
+            buffer[position++] = decimalSeparator;
+            buffer[position++] = (byte) ('0' + fraction / 10);
+            if (fraction % 10 != 0) {
+                buffer[position++] = (byte) ('0' + fraction % 10);
+            }
+        }
+        return position;
+    }
+
+    private static int writeDigits(long value, byte[] buffer, int position) {
+        int length = 1;
+        for (long remaining = value / 10; remaining != 0; remaining /= 10) {
+            length++;
+        }
+        long remaining = value;
+        for (int i = position + length - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return position + length;
+    }
+}
@@ -0,0 +1,134 @@
+package com.calculator.utils;
+
+import com.calculator.models.Expression;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+
+/**
+ * The {@code ParseCache} class is a bounded, thread-safe cache of parsed {@link Expression} objects
+ * keyed by their source text.
+ * Entries are evicted in least-recently-used order once the configured capacity is reached.
+ * Hit, miss and eviction counters are kept so the cache effectiveness can be monitored.
+ * A capacity of {@code 0} disables caching entirely.
+ */
+public class ParseCache {
+
+    /**
+     * The system property used to override the default cache capacity.
+     */
+    public static final String CAPACITY_PROPERTY = "calculator.parse.cache.capacity";
+
+    /**
+     * The default maximum number of cached expressions.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final int capacity;
+    private final Map<String, Expression> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new {@code ParseCache} with the given capacity.
+     *
+     * @param capacity the maximum number of cached expressions, {@code 0} disables caching
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public ParseCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Cache capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+                if (size() > ParseCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a cache sized by the {@value #CAPACITY_PROPERTY} system property,
+     * falling back to {@value #DEFAULT_CAPACITY} entries.
+     *
+     * @return a new cache with the configured capacity
+     */
+    public static ParseCache fromSystemProperties() {
+        return new ParseCache(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Returns the cached expression for the given source text, parsing and caching it on a miss.
+     * Parse failures are propagated to the caller and are never cached.
+     *
+     * @param input the source text of the expression
+     * @param parser the function used to parse the source text on a cache miss
+     * @return the parsed expression
+     */
+    public Expression get(String input, Function<String, Expression> parser) {
+        if (capacity == 0) {
+            misses.increment();
+            return parser.apply(input);
+        }
+        Expression expression;
+        synchronized (entries) {
+            expression = entries.get(input);
+        }
+        if (expression != null) {
+            hits.increment();
+            return expression;
+        }
+        misses.increment();
+        // Parse outside the lock so a slow parse does not block concurrent lookups
+        expression = parser.apply(input);
+        synchronized (entries) {
+            Expression existing = entries.putIfAbsent(input, expression);
+            return existing != null ? existing : expression;
+        }
+    }
+
+    /**
+     * Removes all cached expressions. Counters are left untouched.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ParseCache(size=%d, capacity=%d, hits=%d, misses=%d, evictions=%d)",
+                size(), capacity, getHitCount(), getMissCount(), getEvictionCount());
+    }
+}
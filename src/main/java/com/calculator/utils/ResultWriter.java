@@ -0,0 +1,256 @@
+package com.calculator.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+
+/**
+ * The {@code ResultWriter} class streams {@code name=value} pairs to a channel in fixed-size buffers,
+ * so that printing millions of variables neither builds one giant string nor allocates per variable.
+ * <p>
+ * The formats are:
+ * <ul>
+ *     <li>{@link Format#TEXT}: {@code (x=8,y=16.5)} and a line break, as printed by the calculator, with the
+ *     decimal separator of the default locale;</li>
+ *     <li>{@link Format#CSV}: a {@code name,value} header and one {@code x,8} line per variable, with a
+ *     {@code .} as decimal separator;</li>
+ *     <li>{@link Format#BINARY}: per variable the length of its UTF-8 name as an unsigned short, the
+ *     name and the float bits of its value, big-endian, up to the end of the stream.</li>
+ * </ul>
+ * Float values are formatted by {@link NumberFormatter}, matching the pattern {@code #.##}.
+ * The writer is not thread-safe and leaves the channel open when closed.
+ */
+public class ResultWriter implements AutoCloseable {
+
+    /**
+     * The system property selecting the result format.
+     */
+    public static final String FORMAT_PROPERTY = "calculator.result.format";
+
+    /**
+     * The system property setting the file the result is written to, {@code -} for standard output.
+     */
+    public static final String OUTPUT_PROPERTY = "calculator.result.output";
+
+    /**
+     * The size of the buffer written to the channel at once.
+     */
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The output formats of a {@code ResultWriter}.
+     */
+    public enum Format {
+        TEXT, CSV, BINARY;
+
+        /**
+         * Reads the format from the {@value ResultWriter#FORMAT_PROPERTY} system property, defaulting to text.
+         *
+         * @return the configured format
+         * @throws IllegalArgumentException if the property names no format
+         */
+        public static Format fromSystemProperties() {
+            return parse(System.getProperty(FORMAT_PROPERTY, TEXT.name()));
+        }
+
+        /**
+         * Returns the format with the given name, ignoring case.
+         *
+         * @param name the name of the format
+         * @return the format
+         * @throws IllegalArgumentException if there is no such format
+         */
+        public static Format parse(String name) {
+            for (Format format : values()) {
+                if (format.name().equals(name.toUpperCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Invalid result format: " + name);
+        }
+    }
+
+    private static final byte[] CSV_HEADER = "name,value\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel channel;
+    private final Format format;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+    private long writtenVariables;
+    private boolean finished;
+
+    /**
+     * Constructs a new {@code ResultWriter}.
+     *
+     * @param channel the channel to write to
+     * @param format the output format
+     */
+    public ResultWriter(WritableByteChannel channel, Format format) {
+        this.channel = channel;
+        this.format = format;
+        if (format == Format.TEXT) {
+            buffer.put((byte) '(');
+        } else if (format == Format.CSV) {
+            buffer.put(CSV_HEADER);
+        }
+    }
+
+    /**
+     * Constructs a new {@code ResultWriter} writing to a stream.
+     *
+     * @param output the stream to write to
+     * @param format the output format
+     */
+    public ResultWriter(OutputStream output, Format format) {
+        this(Channels.newChannel(output), format);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public long getWrittenVariables() {
+        return writtenVariables;
+    }
+
+    /**
+     * Writes a float variable.
+     *
+     * @param name the name of the variable
+     * @param value the value of the variable
+     * @throws IOException if the channel cannot be written
+     */
+    public void write(String name, float value) throws IOException {
+        int position = startVariable(name, NumberFormatter.MAX_LENGTH);
+        switch (format) {
+            case TEXT -> position = NumberFormatter.format(value, (byte) NumberFormatter.DECIMAL_SEPARATOR, bytes, position);
+            case CSV -> {
+                position = NumberFormatter.format(value, (byte) '.', bytes, position);
+                bytes[position++] = '\n';
+            }
+            case BINARY -> {
+                buffer.position(position);
+                position = buffer.putInt(Float.floatToRawIntBits(value)).position();
+            }
+        }
+        buffer.position(position);
+        writtenVariables++;
+    }
+
+    /**
+     * Writes a variable whose value is already formatted, e.g. one of a numeric backend other than float.
+     *
+     * @param name the name of the variable
+     * @param value the formatted value of the variable
+     * @throws IOException if the channel cannot be written
+     * @throws IllegalStateException if the format is binary, which holds float values
+     */
+    public void write(String name, String value) throws IOException {
+        if (format == Format.BINARY) {
+            throw new IllegalStateException("Binary results hold float values, not " + value);
+        }
+        int position = startVariable(name, value.length() * 3 + 1);
+        position = putString(value, position);
+        if (format == Format.CSV) {
+            bytes[position++] = '\n';
+        }
+        buffer.position(position);
+        writtenVariables++;
+    }
+
+    /**
+     * Ends the result and writes everything buffered to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (format == Format.TEXT) {
+            ensureRemaining(2);
+            buffer.put((byte) ')').put((byte) '\n');
+        }
+        drain();
+    }
+
+    /**
+     * Finishes the result; the channel stays open.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+
+    /**
+     * Writes the separator and name of a variable, making room for its value.
+     *
+     * @return the position after the name
+     */
+    private int startVariable(String name, int valueLength) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The result is finished");
+        }
+        int required = name.length() * 3 + valueLength + 4;
+        if (required > BUFFER_SIZE) {
+            throw new IllegalArgumentException("Variable too long to write: " + name);
+        }
+        ensureRemaining(required);
+        int position = buffer.position();
+        if (format == Format.BINARY) {
+            int end = putString(name, position + 2);
+            int length = end - position - 2;
+            if (length > 0xFFFF) {
+                throw new IllegalArgumentException("Variable name too long to write: " + name);
+            }
+            bytes[position] = (byte) (length >>> 8);
+            bytes[position + 1] = (byte) length;
+            return end;
+        }
+        if (format == Format.TEXT && writtenVariables > 0) {
+            bytes[position++] = ',';
+        }
+        position = putString(name, position);
+        bytes[position++] = (byte) (format == Format.TEXT ? '=' : ',');
+        return position;
+    }
+
+    /**
+     * Writes a string as UTF-8, copying ASCII characters directly.
+     */
+    private int putString(String value, int position) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                byte[] encoded = value.substring(i).getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(encoded, 0, bytes, position, encoded.length);
+                return position + encoded.length;
+            }
+            bytes[position++] = (byte) c;
+        }
+        return position;
+    }
+
+    private void ensureRemaining(int required) throws IOException {
+        if (buffer.remaining() < required) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
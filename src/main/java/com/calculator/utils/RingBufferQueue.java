@@ -0,0 +1,399 @@
+package com.calculator.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * The {@code RingBufferQueue} class is a bounded single-producer/single-consumer {@link BlockingQueue}
+ * backed by a preallocated ring buffer, in the style of the LMAX Disruptor.
+ * <p>
+ * The producer and the consumer each own a sequence counter: the producer publishes an element by
+ * writing it into its slot and then advancing its sequence with release semantics, the consumer frees
+ * slots by advancing its own. Neither side takes a lock or allocates a node per element, and each side
+ * keeps a cached copy of the other side's sequence so that it only reads the other side's cache line
+ * when the cached value says the buffer is full or empty. {@link #drainTo(Collection, int)} moves all
+ * published elements with one read and one write of the sequences.
+ * <p>
+ * How a side waits for the other is chosen by a {@link WaitStrategy}. All strategies respond to
+ * interruption, so a stage waiting in {@link #take()} can be stopped by interrupting it.
+ * <p>
+ * At most one thread may insert and one thread may remove elements at a time. Size queries such as
+ * {@link #size()} and {@link #isEmpty()} may be called from any thread.
+ *
+ * @param <E> the type of the queued elements
+ */
+public class RingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * How a producer waits for free slots and a consumer waits for elements.
+     */
+    public enum WaitStrategy {
+        /**
+         * Spins on the other side's sequence. Lowest latency, but occupies a core while waiting.
+         */
+        BUSY_SPIN,
+        /**
+         * Spins briefly, then yields the processor between checks.
+         */
+        YIELD,
+        /**
+         * Spins briefly, then parks until the other side signals progress. Highest wakeup latency,
+         * but idle stages use no processor time.
+         */
+        PARK
+    }
+
+    /**
+     * The number of checks spent spinning before yielding or parking.
+     */
+    private static final int SPIN_TRIES = 100;
+
+    private static final VarHandle PRODUCER_SEQUENCE;
+    private static final VarHandle CONSUMER_SEQUENCE;
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            PRODUCER_SEQUENCE = lookup.findVarHandle(RingBufferQueue.class, "producerSequence", long.class);
+            CONSUMER_SEQUENCE = lookup.findVarHandle(RingBufferQueue.class, "consumerSequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Object[] slots;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+
+    // The counters are padded apart so that the producer and the consumer do not share a cache line.
+    private long p01, p02, p03, p04, p05, p06, p07;
+
+    /**
+     * The number of elements published by the producer.
+     */
+    private volatile long producerSequence;
+    private long cachedConsumerSequence;
+    private volatile Thread waitingProducer;
+    private long p11, p12, p13, p14, p15, p16, p17;
+
+    /**
+     * The number of elements removed by the consumer.
+     */
+    private volatile long consumerSequence;
+    private long cachedProducerSequence;
+    private volatile Thread waitingConsumer;
+    private long p21, p22, p23, p24, p25, p26, p27;
+
+    /**
+     * Constructs a new {@code RingBufferQueue}.
+     *
+     * @param capacity the minimum number of slots, rounded up to a power of two
+     * @param waitStrategy how the producer and the consumer wait for each other
+     * @throws IllegalArgumentException if the capacity is not positive or above {@code 2^30}
+     */
+    public RingBufferQueue(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid ring buffer capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Object[size];
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    @Override
+    public boolean offer(E element) {
+        checkNotNull(element);
+        long sequence = producerSequence;
+        if (sequence - cachedConsumerSequence == slots.length) {
+            cachedConsumerSequence = consumerSequence;
+            if (sequence - cachedConsumerSequence == slots.length) {
+                return false;
+            }
+        }
+        publish(sequence, element);
+        return true;
+    }
+
+    @Override
+    public void put(E element) throws InterruptedException {
+        checkNotNull(element);
+        long sequence = producerSequence;
+        if (sequence - cachedConsumerSequence == slots.length) {
+            awaitFreeSlot(sequence, Long.MAX_VALUE);
+        }
+        publish(sequence, element);
+    }
+
+    @Override
+    public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        checkNotNull(element);
+        long sequence = producerSequence;
+        if (sequence - cachedConsumerSequence == slots.length && !awaitFreeSlot(sequence, deadline(timeout, unit))) {
+            return false;
+        }
+        publish(sequence, element);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long sequence = consumerSequence;
+        if (sequence == cachedProducerSequence) {
+            cachedProducerSequence = producerSequence;
+            if (sequence == cachedProducerSequence) {
+                return null;
+            }
+        }
+        return remove(sequence);
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        long sequence = consumerSequence;
+        if (sequence == cachedProducerSequence) {
+            awaitElement(sequence, Long.MAX_VALUE);
+        }
+        return remove(sequence);
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long sequence = consumerSequence;
+        if (sequence == cachedProducerSequence && !awaitElement(sequence, deadline(timeout, unit))) {
+            return null;
+        }
+        return remove(sequence);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        long sequence = consumerSequence;
+        if (sequence == producerSequence) {
+            return null;
+        }
+        return (E) SLOTS.getAcquire(slots, (int) sequence & mask);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super E> collection, int maxElements) {
+        if (collection == this) {
+            throw new IllegalArgumentException("Cannot drain a queue into itself");
+        }
+        long sequence = consumerSequence;
+        cachedProducerSequence = producerSequence;
+        int count = (int) Math.min(maxElements, cachedProducerSequence - sequence);
+        if (count <= 0) {
+            return 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int index = (int) (sequence + i) & mask;
+            collection.add((E) slots[index]);
+            slots[index] = null;
+        }
+        advanceConsumer(sequence + count);
+        return count;
+    }
+
+    @Override
+    public int size() {
+        // Read the consumer first, so that a concurrent removal cannot make the size negative
+        long consumed = consumerSequence;
+        return (int) Math.max(0, Math.min(slots.length, producerSequence - consumed));
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return slots.length - size();
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the elements queued when it is created. Elements removed
+     * by a concurrent consumer are skipped: each element is read ahead by {@link Iterator#hasNext()} and
+     * only returned if the consumer had not removed it by then. It does not support removal.
+     *
+     * @return an iterator over the queued elements
+     */
+    @Override
+    public Iterator<E> iterator() {
+        long start = consumerSequence;
+        long end = producerSequence;
+        return new Iterator<>() {
+            private long next = start;
+            private E element;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean hasNext() {
+                while (element == null && next < end) {
+                    long sequence = Math.max(next, consumerSequence);
+                    E candidate = (E) SLOTS.getAcquire(slots, (int) sequence & mask);
+                    // Like a seqlock: the slot is only valid if the consumer had not passed it when it was read
+                    VarHandle.loadLoadFence();
+                    if (sequence >= consumerSequence) {
+                        element = candidate;
+                    }
+                    next = sequence + 1;
+                }
+                return element != null;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                E result = element;
+                element = null;
+                return result;
+            }
+        };
+    }
+
+    private void publish(long sequence, E element) {
+        slots[(int) sequence & mask] = element;
+        PRODUCER_SEQUENCE.setRelease(this, sequence + 1);
+        if (waitStrategy == WaitStrategy.PARK) {
+            // Pairs with the consumer announcing itself before re-checking the sequence
+            VarHandle.fullFence();
+            Thread consumer = waitingConsumer;
+            if (consumer != null) {
+                // Wake the consumer once per wait rather than once per element published while it wakes up
+                waitingConsumer = null;
+                LockSupport.unpark(consumer);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E remove(long sequence) {
+        int index = (int) sequence & mask;
+        E element = (E) slots[index];
+        slots[index] = null;
+        advanceConsumer(sequence + 1);
+        return element;
+    }
+
+    private void advanceConsumer(long sequence) {
+        CONSUMER_SEQUENCE.setRelease(this, sequence);
+        if (waitStrategy == WaitStrategy.PARK) {
+            VarHandle.fullFence();
+            Thread producer = waitingProducer;
+            if (producer != null) {
+                waitingProducer = null;
+                LockSupport.unpark(producer);
+            }
+        }
+    }
+
+    /**
+     * Waits until the slot of {@code sequence} is free, updating the cached consumer sequence.
+     *
+     * @return whether the slot became free before the deadline
+     */
+    private boolean awaitFreeSlot(long sequence, long deadline) throws InterruptedException {
+        int tries = 0;
+        while (sequence - (cachedConsumerSequence = consumerSequence) == slots.length) {
+            if (!idle(tries++, deadline, true)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits until the element of {@code sequence} is published, updating the cached producer sequence.
+     *
+     * @return whether the element was published before the deadline
+     */
+    private boolean awaitElement(long sequence, long deadline) throws InterruptedException {
+        int tries = 0;
+        while (sequence == (cachedProducerSequence = producerSequence)) {
+            if (!idle(tries++, deadline, false)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits once according to the wait strategy.
+     *
+     * @return {@code false} if the deadline has passed
+     */
+    private boolean idle(int tries, long deadline, boolean producer) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        long remaining = Long.MAX_VALUE;
+        if (deadline != Long.MAX_VALUE && (remaining = deadline - System.nanoTime()) <= 0) {
+            return false;
+        }
+        if (waitStrategy == WaitStrategy.BUSY_SPIN || tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (waitStrategy == WaitStrategy.YIELD) {
+            Thread.yield();
+        } else {
+            park(remaining, producer);
+        }
+        return true;
+    }
+
+    private void park(long nanos, boolean producer) {
+        Thread current = Thread.currentThread();
+        if (producer) {
+            waitingProducer = current;
+            if (producerSequence - consumerSequence == slots.length) {
+                LockSupport.parkNanos(this, nanos);
+            }
+            waitingProducer = null;
+        } else {
+            waitingConsumer = current;
+            if (consumerSequence == producerSequence) {
+                LockSupport.parkNanos(this, nanos);
+            }
+            waitingConsumer = null;
+        }
+    }
+
+    /**
+     * Converts a timeout into a {@link System#nanoTime()} deadline, {@link Long#MAX_VALUE} meaning none.
+     */
+    private static long deadline(long timeout, TimeUnit unit) {
+        long nanos = unit.toNanos(timeout);
+        return nanos > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : System.nanoTime() + nanos;
+    }
+
+    private static void checkNotNull(Object element) {
+        if (element == null) {
+            throw new NullPointerException("Ring buffer elements must not be null");
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.calculator.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * The {@code ScriptReader} class reads statements in bulk, one statement per line, and hands them on in
+ * batches.
+ * <p>
+ * Files are memory-mapped in windows of the buffer size; other channels such as piped standard input are
+ * read into a reusable buffer. Lines are split directly in the bytes: surrounding whitespace is skipped
+ * before any {@code String} is created, empty lines are dropped and {@code \r\n} line endings are
+ * accepted. Only the statement itself becomes a {@code String}. As in the interactive console, a line
+ * consisting of {@code exit} ends the script.
+ */
+public class ScriptReader {
+
+    /**
+     * The default number of statements per batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * The default size of a mapped window or read buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 24;
+
+    private static final byte[] EXIT = "exit".getBytes(StandardCharsets.US_ASCII);
+
+    private final int batchSize;
+    private final int bufferSize;
+    private final BatchConsumer consumer;
+    private List<String> batch;
+    private byte[] line = new byte[256];
+    private long statementCount;
+    private boolean exited;
+
+    /**
+     * Receives the batches of statements read from a script.
+     */
+    @FunctionalInterface
+    public interface BatchConsumer {
+        /**
+         * Accepts a batch. The batch is not modified or reused by the reader afterwards.
+         *
+         * @param statements the statements in script order
+         * @throws InterruptedException if the consumer is interrupted while waiting to accept the batch
+         */
+        void accept(List<String> statements) throws InterruptedException;
+    }
+
+    /**
+     * Constructs a new {@code ScriptReader} with the default batch and buffer sizes.
+     *
+     * @param consumer the consumer of the batches
+     */
+    public ScriptReader(BatchConsumer consumer) {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_BUFFER_SIZE, consumer);
+    }
+
+    /**
+     * Constructs a new {@code ScriptReader}.
+     *
+     * @param batchSize the maximum number of statements per batch
+     * @param bufferSize the size of a mapped window or read buffer; longer lines are still read from
+     *                   channels, but fail when mapping files
+     * @param consumer the consumer of the batches
+     */
+    public ScriptReader(int batchSize, int bufferSize, BatchConsumer consumer) {
+        if (batchSize < 1 || bufferSize < 1) {
+            throw new IllegalArgumentException("Batch and buffer sizes must be positive");
+        }
+        this.batchSize = batchSize;
+        this.bufferSize = bufferSize;
+        this.consumer = consumer;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Reads a script file through memory-mapped windows.
+     *
+     * @param path the script file
+     * @return the number of statements read
+     * @throws IOException if the file cannot be read or contains a line longer than the buffer size
+     * @throws InterruptedException if the consumer is interrupted
+     */
+    public long read(Path path) throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size && !exited) {
+                long length = Math.min(bufferSize, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == size;
+                int consumed = splitLines(window, last);
+                if (consumed == 0 && !last) {
+                    throw new IOException(String.format("Line at offset %d is longer than %d bytes", position, bufferSize));
+                }
+                position += consumed;
+            }
+        }
+        flush();
+        return statementCount;
+    }
+
+    /**
+     * Reads a script from a channel, e.g. piped standard input, until the end of the stream.
+     *
+     * @param channel the channel to read
+     * @return the number of statements read
+     * @throws IOException if the channel cannot be read
+     * @throws InterruptedException if the consumer is interrupted
+     */
+    public long read(ReadableByteChannel channel) throws IOException, InterruptedException {
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        boolean last = false;
+        while (!last && !exited) {
+            last = channel.read(buffer) < 0;
+            buffer.flip();
+            int consumed = splitLines(buffer, last);
+            buffer.position(consumed);
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                // A single line fills the whole buffer
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+            }
+        }
+        flush();
+        return statementCount;
+    }
+
+    /**
+     * Splits the complete lines of a buffer into statements.
+     *
+     * @param buffer the bytes from index {@code 0} to the limit
+     * @param last whether the buffer ends the input, so that a trailing line without a line break counts
+     * @return the number of bytes consumed, i.e. the start of the first incomplete line
+     */
+    private int splitLines(ByteBuffer buffer, boolean last) throws InterruptedException {
+        int limit = buffer.limit();
+        int lineStart = 0;
+        for (int i = 0; i < limit && !exited; i++) {
+            if (buffer.get(i) == '\n') {
+                statement(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if (last && lineStart < limit && !exited) {
+            statement(buffer, lineStart, limit);
+            lineStart = limit;
+        }
+        return exited ? limit : lineStart;
+    }
+
+    private void statement(ByteBuffer buffer, int start, int end) throws InterruptedException {
+        while (start < end && isWhitespace(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(buffer.get(end - 1))) {
+            end--;
+        }
+        int length = end - start;
+        if (length == 0) {
+            return;
+        }
+        if (isExit(buffer, start, length)) {
+            exited = true;
+            return;
+        }
+        if (line.length < length) {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        buffer.get(start, line, 0, length);
+        batch.add(new String(line, 0, length, StandardCharsets.UTF_8));
+        statementCount++;
+        if (batch.size() == batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() throws InterruptedException {
+        if (!batch.isEmpty()) {
+            List<String> full = batch;
+            batch = new ArrayList<>(batchSize);
+            consumer.accept(full);
+        }
+    }
+
+    private static boolean isExit(ByteBuffer buffer, int start, int length) {
+        if (length != EXIT.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if ((buffer.get(start + i) | 0x20) != EXIT[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+}
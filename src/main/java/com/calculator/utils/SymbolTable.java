@@ -0,0 +1,81 @@
+package com.calculator.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * The {@code SymbolTable} class interns variable names into dense integer slots.
+ * <p>
+ * Names are interned once, when the statement referencing them is parsed; from then on the calculator
+ * addresses variables by slot and only translates slots back to names for output and error messages.
+ * Slots are shared by all calculators and are never reused, so a slot taken from a parsed expression
+ * stays valid for the lifetime of the process. Interning is thread-safe: lookups of known names are
+ * lock-free and only new names take a lock.
+ */
+public class SymbolTable {
+    private static final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static int size;
+
+    private SymbolTable() {
+    }
+
+    /**
+     * Returns the slot of a variable, assigning the next free slot to a name seen for the first time.
+     *
+     * @param name the variable name
+     * @return the slot of the variable
+     */
+    public static int intern(String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : register(name);
+    }
+
+    /**
+     * Returns the slot of a variable without interning it.
+     *
+     * @param name the variable name
+     * @return the slot of the variable, or {@code -1} if the name was never interned
+     */
+    public static int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Returns the name interned into a slot.
+     *
+     * @param slot the slot
+     * @return the variable name
+     * @throws IndexOutOfBoundsException if no name was interned into the slot
+     */
+    public static String nameOf(int slot) {
+        String name = slot >= 0 && slot < names.length ? names[slot] : null;
+        if (name == null) {
+            throw new IndexOutOfBoundsException("No variable is interned into slot " + slot);
+        }
+        return name;
+    }
+
+    public static int size() {
+        return slots.size();
+    }
+
+    private static synchronized int register(String name) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        String[] current = names;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[size] = name;
+        // Publish the name before the slot so that every reader holding the slot can resolve it
+        names = current;
+        slots.put(name, size);
+        return size++;
+    }
+}
@@ -0,0 +1,84 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.utils.AllocationCounter;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class AllocationFreeEvaluationTest {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    // Statements covering constants, variables, every binary operator, parentheses and unary operators
+    private static final List<String> STATEMENTS = List.of(
+            "alloc_a = 1.5",
+            "alloc_b = 2",
+            "alloc_i = 0",
+            "alloc_a += (alloc_b * 3 - 1) / 4",
+            "alloc_b = alloc_a % 7 + alloc_b ^ 2 - alloc_b * alloc_b",
+            "alloc_c = alloc_i++ + ++alloc_i - alloc_i-- - --alloc_i",
+            "alloc_a *= 0.5"
+    );
+
+    // Threshold 0 runs the compiled tier, the large threshold keeps everything interpreted
+    @ParameterizedTest
+    @ValueSource(ints = {0, Integer.MAX_VALUE})
+    public void testSteadyStateEvaluationDoesNotAllocate(int compileThreshold) throws Exception {
+        assumeTrue(AllocationCounter.isSupported());
+        ExpressionCalculatorService service = new ExpressionCalculatorService(new LinkedBlockingQueue<>(), new TieredExecutionEngine(compileThreshold));
+        service.setAllocationTracking(true);
+        Expression[] expressions = STATEMENTS.stream().map(ExpressionParser::parse).toArray(Expression[]::new);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            evaluateAll(service, expressions);
+        }
+        // A round can still see a stray allocation from JIT or GC bookkeeping, so one of several rounds must be clean
+        long allocated = 0;
+        long tracked = 0;
+        long last = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long totalBefore = service.getTotalAllocatedBytes();
+            long allocatedBefore = AllocationCounter.currentThreadAllocatedBytes();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                evaluateAll(service, expressions);
+            }
+            allocated = AllocationCounter.currentThreadAllocatedBytes() - allocatedBefore;
+            tracked = service.getTotalAllocatedBytes() - totalBefore;
+            last = service.getLastAllocatedBytes();
+            if (allocated == 0 && tracked == 0 && last == 0) {
+                break;
+            }
+        }
+
+        assertEquals(0, tracked, "Tracked bytes per statement must stay at zero");
+        assertEquals(0, last);
+        assertEquals(0, allocated, "Steady-state evaluation must not allocate");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, Integer.MAX_VALUE})
+    public void testAllocationTrackingCountsExpressions(int compileThreshold) throws Exception {
+        assumeTrue(AllocationCounter.isSupported());
+        ExpressionCalculatorService service = new ExpressionCalculatorService(new LinkedBlockingQueue<>(), new TieredExecutionEngine(compileThreshold));
+        service.setAllocationTracking(true);
+        service.evaluate(ExpressionParser.parse("alloc_tracked = 1 + 2"));
+
+        assertEquals(1, service.getTrackedExpressionCount());
+        assertEquals(3, service.getVariablesManagerService().getVariable("alloc_tracked"));
+    }
+
+    private static void evaluateAll(ExpressionCalculatorService service, Expression[] expressions) throws Exception {
+        for (Expression expression : expressions) {
+            service.evaluate(expression);
+        }
+    }
+}
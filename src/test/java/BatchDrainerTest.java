@@ -0,0 +1,103 @@
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.utils.BatchDrainer;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class BatchDrainerTest {
+
+    @Test
+    public void testBatchSizeGrowsWithBacklogAndShrinksWhenIdle() throws Exception {
+        BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+        BatchDrainer<Integer> drainer = new BatchDrainer<>(queue, 8);
+        IntStream.range(0, 100).forEach(queue::add);
+
+        assertEquals(List.of(0), drainer.take());
+        assertEquals(List.of(1, 2), drainer.take());
+        assertEquals(List.of(3, 4, 5, 6), drainer.take());
+        assertEquals(8, drainer.take().size());
+        assertEquals(8, drainer.take().size());
+        assertEquals(8, drainer.getBatchSize());
+
+        queue.clear();
+        queue.add(100);
+        assertEquals(List.of(100), drainer.take());
+        assertEquals(4, drainer.getBatchSize());
+        assertEquals(6, drainer.getBatchCount());
+        assertEquals(24, drainer.getElementCount());
+    }
+
+    @Test
+    public void testPollDoesNotWait() {
+        BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+        BatchDrainer<Integer> drainer = new BatchDrainer<>(queue, 2, 4);
+
+        assertTrue(drainer.poll().isEmpty());
+        queue.addAll(List.of(1, 2, 3));
+        assertEquals(List.of(1, 2), drainer.poll());
+        assertEquals(List.of(3), drainer.poll());
+        assertTrue(drainer.poll().isEmpty());
+    }
+
+    @Test
+    public void testInvalidBatchSizes() {
+        BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+
+        assertThrows(IllegalArgumentException.class, () -> new BatchDrainer<>(queue, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BatchDrainer<>(queue, 8, 4));
+    }
+
+    @Test
+    public void testWorkerWakesUpWithoutPolling() throws Exception {
+        BlockingQueue<Expression> queue = new LinkedBlockingQueue<>();
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(queue);
+        calculator.start();
+        try {
+            for (int i = 0; i < 20; i++) {
+                queue.add(ExpressionParser.parse("wake = " + i));
+                long deadline = System.nanoTime() + 500_000_000L;
+                while (!calculator.getVariablesManagerService().hasVariable("wake")
+                        || calculator.getVariablesManagerService().getVariable("wake") != i) {
+                    assertTrue(System.nanoTime() < deadline, "Statement was not evaluated within 500 ms");
+                    Thread.sleep(1);
+                }
+            }
+        } finally {
+            calculator.stop();
+        }
+    }
+
+    @Test
+    public void testStopEvaluatesEverythingQueued() throws Exception {
+        BlockingQueue<Expression> queue = new LinkedBlockingQueue<>();
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(queue);
+        queue.add(ExpressionParser.parse("counter = 0"));
+        for (int i = 0; i < 50_000; i++) {
+            queue.add(ExpressionParser.parse("counter += 1"));
+        }
+        calculator.start();
+        calculator.stop();
+
+        assertTrue(queue.isEmpty());
+        assertEquals(50_000, calculator.getVariablesManagerService().getVariable("counter"));
+        assertEquals(50_001, calculator.getDrainer().getElementCount());
+        assertTrue(calculator.getDrainer().getBatchCount() < 1000);
+    }
+
+    @Test
+    public void testStopWhileIdleReturnsImmediately() throws Exception {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        calculator.start();
+        Thread.sleep(50);
+
+        long start = System.nanoTime();
+        calculator.stop();
+        assertTrue(System.nanoTime() - start < 500_000_000L);
+    }
+}
@@ -0,0 +1,153 @@
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.services.CalculatorServer;
+import com.calculator.services.CalculatorSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class CalculatorServerTest {
+    private CalculatorServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new CalculatorServer(0);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testSessionProtocol() {
+        CalculatorSession session = new CalculatorSession(new TieredExecutionEngine(0));
+
+        assertEquals(CalculatorSession.OK, session.handle("x = 5 + 3"));
+        assertEquals(CalculatorSession.OK, session.handle("  "));
+        assertTrue(session.handle("y = missing + 1").startsWith(CalculatorSession.ERROR + " "));
+        assertTrue(session.handle("not a statement").startsWith(CalculatorSession.ERROR + " "));
+        assertEquals(CalculatorSession.OK, session.handle("y = x * 2"));
+        assertEquals("(x=8,y=16)", session.handle("print"));
+        assertFalse(session.isClosed());
+        assertEquals("(x=8,y=16)", session.handle("EXIT"));
+        assertTrue(session.isClosed());
+    }
+
+    @Test
+    public void testErrorIsOneLine() {
+        CalculatorSession session = new CalculatorSession(new TieredExecutionEngine(0));
+
+        assertEquals(CalculatorSession.OK, session.handle("a = -1"));
+        assertEquals(CalculatorSession.ERROR + " Rejected  value -1.0", session.handle("x = reject(a)"));
+        assertEquals(CalculatorSession.OK, session.handle("a = 1"));
+        assertEquals(CalculatorSession.ERROR + " IllegalArgumentException", session.handle("x = reject(a)"));
+    }
+
+    @Test
+    public void testClientOverLoopback() throws IOException {
+        try (Client client = new Client(server.getPort())) {
+            assertEquals("OK", client.request("x = 5 + 3"));
+            assertEquals("OK", client.request("y = x * 2"));
+            assertEquals("(x=8,y=16)", client.request("exit"));
+            assertNull(client.in.readLine());
+        }
+    }
+
+    @Test
+    public void testConcurrentSessionsHaveSeparateNamespaces() throws Exception {
+        int sessions = 200;
+        int statements = 100;
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int s = 0; s < sessions; s++) {
+                int id = s;
+                results.add(clients.submit(() -> {
+                    try (Client client = new Client(server.getPort())) {
+                        // Every session uses the same variable names with its own values, pipelining its requests
+                        client.out.println("total = " + id);
+                        for (int i = 1; i < statements; i++) {
+                            client.out.println("total += 1");
+                        }
+                        client.out.flush();
+                        for (int i = 0; i < statements; i++) {
+                            assertEquals("OK", client.in.readLine());
+                        }
+                        return client.request("print");
+                    }
+                }));
+            }
+        }
+
+        for (int s = 0; s < sessions; s++) {
+            assertEquals("(total=" + (s + statements - 1) + ")", results.get(s).get());
+        }
+        assertEquals(sessions, server.getTotalSessionCount());
+        assertEquals((long) sessions * (statements + 1), server.getRequestCount());
+    }
+
+    @Test
+    public void testOversizedRequestEndsSession() throws IOException {
+        try (Client client = new Client(server.getPort())) {
+            client.out.println("x = 1");
+            client.out.println("x = " + "1".repeat(CalculatorServer.MAX_REQUEST_LENGTH));
+            client.out.flush();
+            assertEquals("OK", client.in.readLine());
+            String response = client.in.readLine();
+            assertTrue(response.startsWith(CalculatorSession.ERROR + " "), response);
+            assertNull(client.in.readLine());
+        }
+        try (Client client = new Client(server.getPort())) {
+            assertEquals("OK", client.request("x = " + "1".repeat(1000)));
+        }
+    }
+
+    @Test
+    public void testCloseEndsOpenSessions() throws Exception {
+        try (Client client = new Client(server.getPort())) {
+            assertEquals("OK", client.request("idle = 1"));
+            assertEquals(1, server.getOpenSessionCount());
+
+            server.close();
+            assertNull(client.in.readLine());
+            assertEquals(0, server.getOpenSessionCount());
+        }
+    }
+
+    private static class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8);
+        }
+
+        String request(String line) throws IOException {
+            out.println(line);
+            out.flush();
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
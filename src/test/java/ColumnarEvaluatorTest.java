@@ -0,0 +1,125 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.services.ColumnarEvaluator;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class ColumnarEvaluatorTest {
+
+    private static float[] column(Random random, int rows) {
+        float[] column = new float[rows];
+        for (int i = 0; i < rows; i++) {
+            column[i] = 1 + random.nextInt(2000) / 100f;
+        }
+        return column;
+    }
+
+    /**
+     * Evaluates the statement row by row with the interpreter, the reference for the columnar results.
+     */
+    private static float[] interpret(String statement, Map<String, float[]> columns, float[] initial) throws InvalidInputException {
+        float[] expected = new float[initial.length];
+        Expression expression = ExpressionParser.parse(statement);
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        for (int row = 0; row < expected.length; row++) {
+            for (Map.Entry<String, float[]> column : columns.entrySet()) {
+                calculator.getVariablesManagerService().putVariable(column.getKey(), column.getValue()[row]);
+            }
+            calculator.getVariablesManagerService().putVariable(expression.assignedVariable(), initial[row]);
+            calculator.evaluate(expression);
+            expected[row] = calculator.getVariablesManagerService().getVariable(expression.assignedVariable());
+        }
+        return expected;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testMatchesInterpreter(boolean vectorized) throws InvalidInputException {
+        Random random = new Random(42);
+        int rows = 3001;
+        Map<String, float[]> columns = Map.of("a", column(random, rows), "b", column(random, rows),
+                "c", column(random, rows), "d", column(random, rows));
+        try (ColumnarEvaluator evaluator = new ColumnarEvaluator(2, vectorized)) {
+            for (String statement : new String[]{"y = a * b + c % d", "y = (a - 2.5) / b ^ 2 - 7", "y += c", "y /= a * 3", "y = 4"}) {
+                float[] output = column(random, rows);
+                float[] expected = interpret(statement, columns, output);
+                evaluator.evaluate(ExpressionParser.parse(statement), columns, output);
+                assertArrayEquals(expected, output, statement);
+            }
+        }
+    }
+
+    @Test
+    public void testVectorKernelIsUsedWhenModuleIsAvailable() {
+        try (ColumnarEvaluator evaluator = new ColumnarEvaluator(1)) {
+            boolean available = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+            assertEquals(available, evaluator.isVectorized());
+            assertEquals(available, evaluator.getKernelName().startsWith("vector-"));
+        }
+        try (ColumnarEvaluator evaluator = new ColumnarEvaluator(1, false)) {
+            assertEquals("scalar", evaluator.getKernelName());
+        }
+    }
+
+    @Test
+    public void testLargeColumnsAreSplitAcrossThreads() throws InvalidInputException {
+        int rows = 1_000_003;
+        float[] a = new float[rows];
+        float[] b = new float[rows];
+        for (int i = 0; i < rows; i++) {
+            a[i] = i % 1000;
+            b[i] = 2;
+        }
+        float[] output = new float[rows];
+        try (ColumnarEvaluator evaluator = new ColumnarEvaluator(4)) {
+            evaluator.evaluate(ExpressionParser.parse("y = a * b + 1"), Map.of("a", a, "b", b), output);
+        }
+        for (int i = 0; i < rows; i++) {
+            assertEquals(a[i] * 2 + 1, output[i]);
+        }
+    }
+
+    @Test
+    public void testAssignedColumnMayBeRead() throws InvalidInputException {
+        float[] y = {1, 2, 3};
+        try (ColumnarEvaluator evaluator = new ColumnarEvaluator(1)) {
+            evaluator.evaluate(ExpressionParser.parse("y += y * 10"), Map.of("y", y), y);
+        }
+        assertArrayEquals(new float[]{11, 22, 33}, y);
+    }
+
+    @Test
+    public void testInvalidColumns() {
+        try (ColumnarEvaluator evaluator = new ColumnarEvaluator(1)) {
+            float[] output = new float[8];
+            assertThrows(InvalidInputException.class,
+                    () -> evaluator.evaluate(ExpressionParser.parse("y = a + b"), Map.of("a", new float[8]), output));
+            assertThrows(IllegalArgumentException.class,
+                    () -> evaluator.evaluate(ExpressionParser.parse("y = a"), Map.of("a", new float[4]), output));
+            assertThrows(InvalidInputException.class,
+                    () -> evaluator.evaluate(ExpressionParser.parse("y = a++"), Map.of("a", new float[8]), output));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testDivisionByZero(boolean vectorized) {
+        float[] divisor = new float[100];
+        Arrays.fill(divisor, 1);
+        divisor[42] = 0;
+        try (ColumnarEvaluator evaluator = new ColumnarEvaluator(1, vectorized)) {
+            assertThrows(ArithmeticException.class,
+                    () -> evaluator.evaluate(ExpressionParser.parse("y = 1 / a"), Map.of("a", divisor), new float[100]));
+        }
+    }
+}
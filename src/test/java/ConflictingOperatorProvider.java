@@ -0,0 +1,33 @@
+import com.calculator.models.PrecedenceLevel;
+import com.calculator.spi.OperatorDefinition;
+import com.calculator.spi.OperatorProvider;
+import java.util.List;
+
+/**
+ * Operators colliding with built-ins and with {@link SampleOperatorProvider}, which must be skipped while the
+ * rest of the provider is registered, registered after it through
+ * {@code META-INF/services/com.calculator.spi.OperatorProvider}.
+ */
+public class ConflictingOperatorProvider implements OperatorProvider {
+
+    @Override
+    public List<OperatorDefinition> getOperators() {
+        return List.of(
+                OperatorDefinition.function("min", true, (a, b) -> 42),
+                OperatorDefinition.function("sqrt", true, a -> 42),
+                OperatorDefinition.binary("@", PrecedenceLevel.LOW, false, true, (a, b) -> 42),
+                OperatorDefinition.prefix("~", PrecedenceLevel.HIGH, true, a -> 42),
+                OperatorDefinition.function("twice", true, a -> a * 2));
+    }
+
+    /**
+     * A provider whose definitions are invalid, which is skipped as a whole.
+     */
+    public static class Invalid implements OperatorProvider {
+
+        @Override
+        public List<OperatorDefinition> getOperators() {
+            return List.of(OperatorDefinition.function("not a name", true, a -> a));
+        }
+    }
+}
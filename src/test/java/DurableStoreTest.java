@@ -0,0 +1,192 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.numeric.NumericBackend;
+import com.calculator.persistence.DurableStore;
+import com.calculator.persistence.SnapshotFile;
+import com.calculator.persistence.WriteAheadLog;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+public class DurableStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private static void evaluate(VariablesManagerService variables, String... statements) throws InvalidInputException {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                TieredExecutionEngine.fromSystemProperties(), variables);
+        for (String statement : statements) {
+            calculator.evaluate(ExpressionParser.parse(statement));
+        }
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    public void testLogIsReplayed() throws IOException, InvalidInputException {
+        VariablesManagerService variables = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, variables, 0, 0)) {
+            evaluate(variables, "wal_a = 5", "wal_b = wal_a * 2", "wal_a += wal_b", "wal_c = wal_a++ + --wal_b");
+            assertEquals(6, store.getLog().getAppendedRecords());
+        }
+        VariablesManagerService recovered = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, recovered, 10, 0)) {
+            assertEquals(6, store.getReplayedWrites());
+            assertEquals(0, store.getRecoveredVariables());
+        }
+        assertEquals(variables.getVariables(), recovered.getVariables());
+        assertEquals(16, recovered.getVariable("wal_a"));
+        assertEquals(9, recovered.getVariable("wal_b"));
+        assertEquals(24, recovered.getVariable("wal_c"));
+    }
+
+    @Test
+    public void testSnapshotAndLogTailAreRecovered() throws IOException, InvalidInputException {
+        VariablesManagerService variables = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, variables, 10, 0)) {
+            evaluate(variables, "snap_a = 1", "snap_b = 2", "snap_a = 3");
+            store.snapshot();
+            evaluate(variables, "snap_b *= 10", "snap_c = snap_a + snap_b");
+        }
+        assertEquals(List.of("snapshot-0000000000000002.bin", "wal-0000000000000002.log"), files());
+        VariablesManagerService recovered = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, recovered, 10, 0)) {
+            assertEquals(2, store.getRecoveredVariables());
+            assertEquals(2, store.getReplayedWrites());
+            evaluate(recovered, "snap_d = snap_c");
+        }
+        assertEquals(Map.of("snap_a", 3f, "snap_b", 20f, "snap_c", 23f, "snap_d", 23f), recovered.getVariables());
+        VariablesManagerService again = new VariablesManagerService();
+        new DurableStore(directory, again, 10, 0).close();
+        assertEquals(recovered.getVariables(), again.getVariables());
+    }
+
+    @Test
+    public void testTornTailIsDiscarded() throws IOException, InvalidInputException {
+        VariablesManagerService variables = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, variables, 0, 0)) {
+            evaluate(variables, "torn_a = 1", "torn_b = 2");
+        }
+        Path segment = WriteAheadLog.segmentPath(directory, 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        VariablesManagerService recovered = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, recovered, 0, 0)) {
+            assertEquals(1, store.getReplayedWrites());
+        }
+        assertEquals(1, recovered.getVariable("torn_a"));
+        assertFalse(recovered.hasVariable("torn_b"));
+    }
+
+    @Test
+    public void testCorruptFrameStopsReplay() throws IOException, InvalidInputException {
+        VariablesManagerService variables = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, variables, 0, 0)) {
+            evaluate(variables, "corrupt_a = 1", "corrupt_b = 2", "corrupt_c = 3");
+        }
+        Path segment = WriteAheadLog.segmentPath(directory, 1);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 2] ^= 1;
+        Files.write(segment, bytes);
+        VariablesManagerService recovered = new VariablesManagerService();
+        assertEquals(2, WriteAheadLog.replay(segment, recovered));
+        assertFalse(recovered.hasVariable("corrupt_c"));
+    }
+
+    @Test
+    public void testInvalidRecordStopsReplay() throws IOException, InvalidInputException {
+        VariablesManagerService variables = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, variables, 0, 0)) {
+            evaluate(variables, "invalid_a = 1", "invalid_b = 2");
+        }
+        Path segment = WriteAheadLog.segmentPath(directory, 1);
+        ByteBuffer records = ByteBuffer.allocate(9).put((byte) 2).putInt(999).putInt(Float.floatToRawIntBits(3)).flip();
+        CRC32C crc = new CRC32C();
+        crc.update(records.duplicate());
+        ByteBuffer frame = ByteBuffer.allocate(8 + records.remaining())
+                .putInt(records.remaining()).putInt((int) crc.getValue()).put(records).flip();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(frame);
+        }
+        VariablesManagerService recovered = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, recovered, 0, 0)) {
+            assertEquals(2, store.getReplayedWrites());
+        }
+        assertEquals(1, recovered.getVariable("invalid_a"));
+        assertEquals(2, recovered.getVariable("invalid_b"));
+    }
+
+    @Test
+    public void testGroupCommitBatchesWrites() throws IOException {
+        VariablesManagerService variables = new VariablesManagerService();
+        try (DurableStore store = new DurableStore(directory, variables, 60_000, 0)) {
+            for (int i = 0; i < 1000; i++) {
+                variables.putVariable("group_" + (i % 10), i);
+            }
+            assertEquals(0, store.getLog().getWrittenFrames());
+            store.sync();
+            assertEquals(1, store.getLog().getWrittenFrames());
+        }
+        VariablesManagerService recovered = new VariablesManagerService();
+        new DurableStore(directory, recovered, 0, 0).close();
+        assertEquals(variables.getVariables(), recovered.getVariables());
+    }
+
+    @Test
+    public void testOtherBackendsAreNotPersisted() throws IOException {
+        assertNull(DurableStore.fromSystemProperties(new VariablesManagerService(), NumericBackend.LONG));
+        System.setProperty(DurableStore.DIRECTORY_PROPERTY, directory.toString());
+        try {
+            for (NumericBackend backend : new NumericBackend[]{NumericBackend.DOUBLE, NumericBackend.LONG, NumericBackend.DECIMAL}) {
+                assertThrows(IllegalStateException.class,
+                        () -> DurableStore.fromSystemProperties(new VariablesManagerService(), backend));
+            }
+            assertEquals(List.of(), files());
+            DurableStore.fromSystemProperties(new VariablesManagerService(), NumericBackend.FLOAT).close();
+        } finally {
+            System.clearProperty(DurableStore.DIRECTORY_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException, InvalidInputException {
+        Map<String, Float> values = new LinkedHashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            values.put("round_trip_" + i, i * 0.5f);
+        }
+        values.put("round_trip_nan", Float.NaN);
+        Path file = directory.resolve("snapshot.bin");
+        SnapshotFile.write(file, values);
+        VariablesManagerService variables = new VariablesManagerService();
+        assertEquals(values.size(), SnapshotFile.load(file, variables));
+        assertEquals(2499.5f, variables.getVariable("round_trip_4999"));
+        assertTrue(Float.isNaN(variables.getVariable("round_trip_nan")));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> SnapshotFile.load(file, new VariablesManagerService()));
+    }
+}
@@ -1,6 +1,9 @@
+import com.calculator.compiler.TieredExecutionEngine;
 import com.calculator.exceptions.InvalidInputException;
+import com.calculator.metrics.StageMetrics;
 import com.calculator.models.AssignmentOperator;
 import com.calculator.models.Expression;
+import com.calculator.numeric.NumericBackend;
 import com.calculator.services.ExpressionCalculatorService;
 import com.calculator.services.VariablesManagerService;
 import org.junit.jupiter.api.AfterEach;
@@ -136,4 +139,16 @@ class ExpressionCalculatorServiceTest {
         String result = calculatorService.prettyPrintResult();
         assertEquals("(x=10,y=20)", result);
     }
+
+    @Test
+    public void testServiceWithoutQueueEvaluatesOnCallingThread() throws InvalidInputException {
+        ExpressionCalculatorService service = new ExpressionCalculatorService(new TieredExecutionEngine(0),
+                new VariablesManagerService(), new StageMetrics("session", () -> 0));
+        service.evaluate(new Expression("x", AssignmentOperator.ASSIGN, List.of("2", "*", "3")));
+        assertEquals(6, service.getVariablesManagerService().getVariable("x"));
+        assertEquals(NumericBackend.FLOAT, service.getNumericBackend());
+        assertNull(service.getDrainer());
+        assertThrows(IllegalStateException.class, service::start);
+        service.stop();
+    }
 }
@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.models.TokenType;
+import com.calculator.utils.ExpressionLexer;
+import org.junit.jupiter.api.Test;
+
+public class ExpressionLexerTest {
+
+    @Test
+    public void testTokensCarryTypesAndOffsets() {
+        ExpressionLexer lexer = new ExpressionLexer("total += (a1*-2.5e1)");
+
+        assertToken(lexer, TokenType.IDENTIFIER, 0, 5);
+        assertToken(lexer, TokenType.ASSIGNMENT, 6, 8);
+        assertToken(lexer, TokenType.OPEN_PARENTHESIS, 9, 10);
+        assertToken(lexer, TokenType.IDENTIFIER, 10, 12);
+        assertToken(lexer, TokenType.OPERATOR, 12, 13);
+        assertToken(lexer, TokenType.NUMBER, 13, 19);
+        assertToken(lexer, TokenType.CLOSE_PARENTHESIS, 19, 20);
+        assertToken(lexer, TokenType.END, 20, 20);
+    }
+
+    @Test
+    public void testSignIsOnlyPartOfNumberWhereOperandIsExpected() {
+        ExpressionLexer lexer = new ExpressionLexer("3-5");
+
+        assertToken(lexer, TokenType.NUMBER, 0, 1);
+        assertToken(lexer, TokenType.OPERATOR, 1, 2);
+        assertToken(lexer, TokenType.NUMBER, 2, 3);
+    }
+
+    @Test
+    public void testUnaryOperators() {
+        ExpressionLexer lexer = new ExpressionLexer("i++ - --j");
+
+        assertToken(lexer, TokenType.IDENTIFIER, 0, 1);
+        assertToken(lexer, TokenType.INCREMENT, 1, 3);
+        assertToken(lexer, TokenType.OPERATOR, 4, 5);
+        assertToken(lexer, TokenType.DECREMENT, 6, 8);
+        assertToken(lexer, TokenType.IDENTIFIER, 8, 9);
+    }
+
+    @Test
+    public void testUnexpectedCharacter() {
+        ExpressionLexer lexer = new ExpressionLexer("x & y");
+        lexer.next();
+
+        Exception exception = assertThrows(IllegalArgumentException.class, lexer::next);
+        assertTrue(exception.getMessage().contains("Invalid expression"));
+    }
+
+    private static void assertToken(ExpressionLexer lexer, TokenType type, int start, int end) {
+        assertEquals(type, lexer.next());
+        assertEquals(start, lexer.start());
+        assertEquals(end, lexer.end());
+    }
+}
@@ -5,6 +5,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import com.calculator.models.AssignmentOperator;
 import com.calculator.models.Expression;
+import com.calculator.models.Token;
+import com.calculator.models.operators.MultiplyOperator;
+import com.calculator.models.operators.SubtractOperator;
 import com.calculator.models.operators.IUnaryOperator;
 import com.calculator.utils.ExpressionParser;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -96,6 +99,54 @@ public class ExpressionParserTest {
         assertEquals(List.of("(", "5", "+", "2", ")", "*", "(", "10", "-", "3", ")"), tokens);
     }
 
+    @Test
+    public void testParseWithoutWhitespace() {
+        Expression expression = ExpressionParser.parse("x*=3*(y)-2^-1");
+
+        assertEquals("x", expression.assignedVariable());
+        assertEquals(AssignmentOperator.MULTIPLY_ASSIGN, expression.assignmentOperator());
+        assertEquals(List.of("3", "*", "(", "y", ")", "-", "2", "^", "-1"), expression.expressionParts());
+    }
+
+    @Test
+    public void testParseNestedParentheses() {
+        Expression expression = ExpressionParser.parse("x = ((a + b)) * ( ( 2 ) )");
+
+        assertEquals(List.of("(", "(", "a", "+", "b", ")", ")", "*", "(", "(", "2", ")", ")"), expression.expressionParts());
+    }
+
+    @Test
+    public void testParseUnaryOperators() {
+        Expression expression = ExpressionParser.parse("x = i+++ ++j - k-- -(--l)");
+
+        assertEquals(List.of("i++", "+", "++j", "-", "k--", "-", "(", "--l", ")"), expression.expressionParts());
+    }
+
+    @Test
+    public void testParseResolvesTokens() {
+        List<Token> tokens = ExpressionParser.parse("x = 2.5 * y - i++").tokens();
+
+        assertEquals(5, tokens.size());
+        assertEquals(new Token.Literal(2.5f), tokens.get(0));
+        assertTrue(((Token.Operator) tokens.get(1)).operator() instanceof MultiplyOperator);
+        assertEquals(new Token.Variable("y"), tokens.get(2));
+        assertTrue(((Token.Operator) tokens.get(3)).operator() instanceof SubtractOperator);
+        IUnaryOperator unary = ((Token.Unary) tokens.get(4)).operator();
+        assertTrue(unary instanceof IncrementOperator);
+        assertEquals("i", unary.getVariable());
+        assertTrue(unary.isPostOperation());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"x = 5 + ++", "x = 1 = 2", "x = ( 1", "x = 1 2", "x = 1 +"})
+    public void testParseInvalidRightHandSide(String input) {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> ExpressionParser.parse(input));
+
+        assertTrue(exception.getMessage().startsWith("Invalid expression"));
+        assertEquals(exception.getMessage().indexOf("Invalid expression"), exception.getMessage().lastIndexOf("Invalid expression"),
+                exception.getMessage());
+    }
+
     @Test
     public void testIsNumericWithNumbers() {
         assertTrue(ExpressionParser.isNumeric("123"));
@@ -0,0 +1,152 @@
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.events.StageHandoffEvent;
+import com.calculator.events.StatementEvaluatedEvent;
+import com.calculator.events.StatementFailedEvent;
+import com.calculator.events.StatementParsedEvent;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.ExpressionParserProcessor;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class FlightRecorderEventsTest {
+
+    @Test
+    public void testParsedAndEvaluatedStatementsAreRecorded() throws Exception {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                new TieredExecutionEngine(Integer.MAX_VALUE), new VariablesManagerService(), 1);
+
+        List<RecordedEvent> events = record(() -> {
+            calculator.evaluate(ExpressionParser.parse("jfr_x = 1"));
+            calculator.evaluate(ExpressionParser.parse("jfr_y = (jfr_x + (2 * 3)) - 1"));
+        }, StatementParsedEvent.NAME, StatementEvaluatedEvent.NAME);
+
+        List<RecordedEvent> parsed = ofType(events, StatementParsedEvent.NAME);
+        assertEquals(2, parsed.size());
+        RecordedEvent nested = parsed.get(1);
+        assertEquals("jfr_y", nested.getString("variable"));
+        assertEquals("jfr_y = ( jfr_x + ( 2 * 3 ) ) - 1", nested.getString("statement"));
+        assertEquals(11, nested.getInt("tokenCount"));
+        assertEquals(2, nested.getInt("nestingDepth"));
+
+        List<RecordedEvent> evaluated = ofType(events, StatementEvaluatedEvent.NAME);
+        assertEquals(2, evaluated.size());
+        assertEquals("jfr_x", evaluated.get(0).getString("variable"));
+        assertEquals(0, evaluated.get(0).getInt("nestingDepth"));
+        assertFalse(evaluated.get(0).getBoolean("compiled"));
+        assertFalse(evaluated.get(1).getDuration().isNegative());
+    }
+
+    @Test
+    public void testFailuresAreRecordedWithTheirStage() throws Exception {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+
+        List<RecordedEvent> events = record(() -> {
+            assertThrows(IllegalArgumentException.class, () -> ExpressionParser.parse("jfr_broken = 1 +"));
+            assertThrows(ArithmeticException.class, () -> calculator.evaluate(ExpressionParser.parse("jfr_z = 1 / 0")));
+        }, StatementFailedEvent.NAME);
+
+        assertEquals(2, events.size());
+        RecordedEvent parseFailure = events.get(0);
+        assertEquals(StatementFailedEvent.PARSE, parseFailure.getString("stage"));
+        assertEquals("jfr_broken = 1 +", parseFailure.getString("statement"));
+        assertEquals(IllegalArgumentException.class.getName(), parseFailure.getClass("cause").getName());
+
+        RecordedEvent evaluateFailure = events.get(1);
+        assertEquals(StatementFailedEvent.EVALUATE, evaluateFailure.getString("stage"));
+        assertEquals("jfr_z", evaluateFailure.getString("variable"));
+        assertEquals("Division by zero", evaluateFailure.getString("message"));
+    }
+
+    @Test
+    public void testStageHandoffsAreRecorded() throws Exception {
+        BlockingQueue<List<String>> input = new LinkedBlockingQueue<>();
+        ExpressionParserProcessor parser = new ExpressionParserProcessor(input, new LinkedBlockingQueue<>());
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(parser.getOutputQueue());
+
+        List<RecordedEvent> events = record(() -> {
+            parser.start();
+            calculator.start();
+            input.put(List.of("jfr_handoff = 1", "jfr_handoff += 1"));
+            while (calculator.getMetrics().getProcessedCount() < 2) {
+                Thread.sleep(1);
+            }
+            parser.stop();
+            calculator.stop();
+        }, StageHandoffEvent.NAME);
+
+        assertTrue(events.stream().anyMatch(event -> event.getString("stage").equals("parser") && event.getInt("batchSize") == 1));
+        assertTrue(events.stream().anyMatch(event -> event.getString("stage").equals("calculator")));
+    }
+
+    @Test
+    public void testDisabledEventsAreNotRecorded() throws Exception {
+        List<RecordedEvent> events = record(() -> ExpressionParser.parse("jfr_quiet = 1"), StatementFailedEvent.NAME);
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testSettingsFileConfiguresEveryEvent() throws Exception {
+        Configuration configuration;
+        try (Reader reader = new InputStreamReader(getClass().getResourceAsStream("/calculator.jfc"), StandardCharsets.UTF_8)) {
+            configuration = Configuration.create(reader);
+        }
+
+        Map<String, String> settings = configuration.getSettings();
+        for (String eventName : List.of(StatementParsedEvent.NAME, StatementEvaluatedEvent.NAME,
+                StatementFailedEvent.NAME, StageHandoffEvent.NAME)) {
+            assertEquals("true", settings.get(eventName + "#enabled"), eventName);
+        }
+        assertEquals("20 us", settings.get(StatementEvaluatedEvent.NAME + "#threshold"));
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Runs the action in a recording of only the given events, without thresholds.
+     */
+    private static List<RecordedEvent> record(Action action, String... eventNames) throws Exception {
+        Path file = Files.createTempFile("calculator", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String eventName : List.of(StatementParsedEvent.NAME, StatementEvaluatedEvent.NAME,
+                    StatementFailedEvent.NAME, StageHandoffEvent.NAME)) {
+                recording.disable(eventName);
+            }
+            for (String eventName : eventNames) {
+                recording.enable(eventName).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("com.calculator."))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String eventName) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(eventName)).toList();
+    }
+}
@@ -0,0 +1,179 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.operators.MathFunction;
+import com.calculator.numeric.DecimalEvaluator;
+import com.calculator.numeric.LongEvaluator;
+import com.calculator.numeric.NumericBackend;
+import com.calculator.services.ColumnarEvaluator;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.SubexpressionDag;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class MathFunctionTest {
+
+    private static final String[] STATEMENTS = {
+            "y = sqrt(a * a + b * b)",
+            "y = abs(a - b) + floor(b / 3)",
+            "y = min(a, b) * max(a, 0 - b)",
+            "y = log(abs(a) + 1) - exp(b / 10)",
+            "y = fma(a, b, 0.1) + fma(a, 0.3, b)",
+    };
+
+    private ExpressionCalculatorService calculator;
+    private VariablesManagerService variables;
+
+    @BeforeEach
+    public void setUp() {
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        variables = calculator.getVariablesManagerService();
+        variables.putVariable("a", 3);
+        variables.putVariable("b", -4);
+    }
+
+    private float evaluate(String statement) throws InvalidInputException {
+        calculator.evaluate(ExpressionParser.parse(statement));
+        return variables.getVariable(ExpressionParser.parse(statement).assignedVariable());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "x = sqrt(a * a - b * 4) | 5",
+            "x = abs(b) + abs(a)     | 7",
+            "x = min(a, b) ^ 2       | 16",
+            "x = floor(0 - a / 2)    | -2",
+            "x = floor (a / 2)       | 1",
+            "x = exp(log(a)) * 2     | 6",
+            "x = 2 * sqrt(16) ^ 2    | 32",
+            "x = max(min(a, 1), b)   | 1",
+            "x = sqrt(-1)            | NaN",
+    })
+    public void testFunctionsAreEvaluated(String statement, float expected) throws InvalidInputException {
+        assertEquals(expected, evaluate(statement));
+    }
+
+    @Test
+    public void testFmaRoundsOnce() throws InvalidInputException {
+        float a = 1 + 0x1p-12f;
+        variables.putVariable("a", a);
+        variables.putVariable("c", -(1 + 0x1p-11f));
+        assertEquals(0x1p-24f, evaluate("x = fma(a, a, c)"));
+        assertEquals(0, evaluate("x = a * a + c"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"x = sqrt(1, 2)", "x = fma(1, 2)", "x = min(1)", "x = abs()"})
+    public void testArityIsChecked(String statement) {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> ExpressionParser.parse(statement));
+        assertTrue(exception.getMessage().contains("arguments"), exception.getMessage());
+    }
+
+    @Test
+    public void testFunctionsCompileToSingleInstructions() throws InvalidInputException {
+        PostfixProgram program = ExpressionParser.parse("x = fma(a, b, sqrt(a))").program();
+        assertEquals("[a, b, a, sqrt/1, fma/3]", program.toString());
+        assertEquals(PostfixProgram.CALL_FUNCTION, PostfixProgram.opcode(program.code()[4]));
+        assertEquals(3, PostfixProgram.arity(program.code()[4]));
+        assertSame(MathFunction.MIN, OperatorFactory.getFunction("min"));
+        assertTrue(OperatorFactory.isFunction("exp"));
+    }
+
+    @Test
+    public void testConstantCallsAreFolded() {
+        assertEquals("[1.4142135, a, *]", ExpressionParser.parse("x = sqrt(2) * a").program().toString());
+        assertEquals("[a, 4.0, max/2]", ExpressionParser.parse("x = max(a, abs(-4))").program().toString());
+        assertEquals("[-Infinity]", ExpressionParser.parse("x = log(0)").program().toString());
+    }
+
+    @Test
+    public void testFunctionDoesNotHideVariable() throws InvalidInputException {
+        variables.putVariable("min", 10);
+        assertEquals(13, evaluate("x = min + min(a, min)"));
+    }
+
+    @Test
+    public void testCompiledTierMatchesInterpreter() throws InvalidInputException {
+        ExpressionCalculatorService tiered = new ExpressionCalculatorService(new LinkedBlockingQueue<>(), new TieredExecutionEngine(1));
+        VariablesManagerService tieredVariables = tiered.getVariablesManagerService();
+        for (float a = -2.5f; a < 3; a += 0.75f) {
+            for (String statement : STATEMENTS) {
+                variables.putVariable("a", a);
+                tieredVariables.putVariable("a", a);
+                tieredVariables.putVariable("b", -4);
+                float expected = evaluate(statement);
+                tiered.evaluate(ExpressionParser.parse(statement));
+                assertEquals(expected, tieredVariables.getVariable("y"), statement);
+            }
+        }
+        assertEquals(STATEMENTS.length, tiered.getExecutionEngine().getCompiledStatementCount());
+    }
+
+    @Test
+    public void testColumnsMatchInterpreter() throws InvalidInputException {
+        int rows = 3000;
+        float[] a = new float[rows];
+        float[] b = new float[rows];
+        for (int i = 0; i < rows; i++) {
+            a[i] = (i - 1500) / 7f;
+            b[i] = (i % 13) - 6.5f;
+        }
+        for (boolean vectorized : new boolean[]{false, true}) {
+            try (ColumnarEvaluator evaluator = new ColumnarEvaluator(1, vectorized)) {
+                for (String statement : STATEMENTS) {
+                    float[] output = new float[rows];
+                    evaluator.evaluate(ExpressionParser.parse(statement), Map.of("a", a, "b", b), output);
+                    for (int i = 0; i < rows; i += 7) {
+                        variables.putVariable("a", a[i]);
+                        variables.putVariable("b", b[i]);
+                        assertEquals(evaluate(statement), output[i], statement + " row " + i);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCallsAreSharedBySubexpressionDag() throws InvalidInputException {
+        SubexpressionDag dag = new SubexpressionDag(variables);
+        dag.beginBatch();
+        dag.evaluate(ExpressionParser.parse("x = sqrt(a * a + 16) + 1"));
+        long reused = dag.getReusedNodeCount();
+        dag.evaluate(ExpressionParser.parse("y = sqrt(a * a + 16) * 2"));
+        assertEquals(reused + 1, dag.getReusedNodeCount());
+        assertEquals(10, variables.getVariable("y"));
+    }
+
+    @Test
+    public void testOtherBackends() throws InvalidInputException {
+        ExpressionCalculatorService longCalculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                new TieredExecutionEngine(0), new VariablesManagerService(), 1);
+        longCalculator.setNumericBackend(NumericBackend.LONG);
+        longCalculator.evaluate(ExpressionParser.parse("x = fma(3037000499, 3037000499, -1) + sqrt(9000000000000000000)"));
+        longCalculator.evaluate(ExpressionParser.parse("y = floor(abs(-7)) + min(2, -3) * max(1, 2)"));
+        LongEvaluator longs = (LongEvaluator) longCalculator.getNumericEvaluator();
+        assertEquals(9223372030926249000L + 3000000000L, longs.getVariable("x"));
+        assertEquals(1, longs.getVariable("y"));
+        assertThrows(ArithmeticException.class, () -> longCalculator.evaluate(ExpressionParser.parse("z = sqrt(8)")));
+        assertThrows(ArithmeticException.class, () -> longCalculator.evaluate(ExpressionParser.parse("z = log(8)")));
+
+        ExpressionCalculatorService decimalCalculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                new TieredExecutionEngine(0), new VariablesManagerService(), 1);
+        decimalCalculator.setNumericBackend(NumericBackend.DECIMAL);
+        decimalCalculator.evaluate(ExpressionParser.parse("x = fma(0.1, 0.2, 0.3) + floor(-1.5) + sqrt(2.25)"));
+        DecimalEvaluator decimals = (DecimalEvaluator) decimalCalculator.getNumericEvaluator();
+        assertEquals(0, new BigDecimal("-0.18").compareTo(decimals.getVariable("x")));
+    }
+}
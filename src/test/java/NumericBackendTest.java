@@ -0,0 +1,156 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.operators.DecimalLimits;
+import com.calculator.numeric.DecimalEvaluator;
+import com.calculator.numeric.DoubleEvaluator;
+import com.calculator.numeric.LongEvaluator;
+import com.calculator.numeric.NumericBackend;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class NumericBackendTest {
+
+    private static ExpressionCalculatorService calculator(NumericBackend backend) {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                new TieredExecutionEngine(0), new VariablesManagerService(), 1);
+        calculator.setNumericBackend(backend);
+        return calculator;
+    }
+
+    private static void evaluate(ExpressionCalculatorService calculator, String... statements) throws InvalidInputException {
+        for (String statement : statements) {
+            calculator.evaluate(ExpressionParser.parse(statement));
+        }
+    }
+
+    @Test
+    public void testParseBackend() {
+        assertEquals(NumericBackend.DECIMAL, NumericBackend.parse(" Decimal "));
+        assertEquals(NumericBackend.FLOAT, NumericBackend.fromSystemProperties());
+        assertThrows(IllegalArgumentException.class, () -> NumericBackend.parse("int"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(NumericBackend.class)
+    public void testBackendsAgreeOnIntegers(NumericBackend backend) throws InvalidInputException {
+        ExpressionCalculatorService calculator = calculator(backend);
+        evaluate(calculator, "i = 0", "j = i++ + 5", "k = ++i * (j - 2) ^ 2", "k -= 8 % 3", "m = k / 3", "m *= --j");
+
+        String m = backend == NumericBackend.LONG ? "20" : "21.33";
+        assertEquals(backend, calculator.getNumericBackend());
+        assertEquals("(i=2,j=4,k=16,m=" + m + ")", calculator.prettyPrintResult());
+    }
+
+    @Test
+    public void testDoubleKeepsPrecisionBeyondFloat() throws InvalidInputException {
+        ExpressionCalculatorService calculator = calculator(NumericBackend.DOUBLE);
+        evaluate(calculator, "x = 16777216", "x += 1", "y = 0.1 + 0.2");
+
+        DoubleEvaluator evaluator = (DoubleEvaluator) calculator.getNumericEvaluator();
+        assertEquals(16777217d, evaluator.getVariable("x"));
+        assertEquals(0.1 + 0.2, evaluator.getVariable("y"));
+    }
+
+    @Test
+    public void testLongIsExactAndChecksOverflow() throws InvalidInputException {
+        ExpressionCalculatorService calculator = calculator(NumericBackend.LONG);
+        evaluate(calculator, "x = 9007199254740993", "y = 2 ^ 62", "z = -7 / 2");
+        LongEvaluator evaluator = (LongEvaluator) calculator.getNumericEvaluator();
+        assertEquals(9007199254740993L, evaluator.getVariable("x"));
+        assertEquals(1L << 62, evaluator.getVariable("y"));
+        assertEquals(-3L, evaluator.getVariable("z"));
+
+        assertThrows(ArithmeticException.class, () -> evaluate(calculator, "y = y * 2"));
+        assertThrows(ArithmeticException.class, () -> evaluate(calculator, "y += y"));
+        assertThrows(ArithmeticException.class, () -> evaluate(calculator, "y = 2 ^ 63"));
+        assertThrows(ArithmeticException.class, () -> evaluate(calculator, "y = x % 0"));
+        assertThrows(ArithmeticException.class, () -> evaluate(calculator, "y = 1.5"));
+        assertEquals(1L << 62, evaluator.getVariable("y"));
+    }
+
+    @Test
+    public void testDecimalIsExact() throws InvalidInputException {
+        ExpressionCalculatorService calculator = calculator(NumericBackend.DECIMAL);
+        evaluate(calculator, "x = 0.1 + 0.2", "y = 1 / 3", "z = 2 ^ -2", "w = 9 ^ 0.5");
+
+        DecimalEvaluator evaluator = (DecimalEvaluator) calculator.getNumericEvaluator();
+        assertEquals(new BigDecimal("0.3"), evaluator.getVariable("x"));
+        assertEquals(34, evaluator.getVariable("y").precision());
+        assertEquals(0, new BigDecimal("0.25").compareTo(evaluator.getVariable("z")));
+        assertEquals(0, new BigDecimal("3").compareTo(evaluator.getVariable("w")));
+        assertThrows(ArithmeticException.class, () -> evaluate(calculator, "x = 1 / 0"));
+        assertEquals("(x=0.3,y=0.33,z=0.25,w=3)", calculator.prettyPrintResult());
+    }
+
+    @Test
+    public void testDecimalPowersAreBounded() throws InvalidInputException {
+        ExpressionCalculatorService calculator = calculator(NumericBackend.DECIMAL);
+        evaluate(calculator, "x = 3 ^ 100", "y = 3 ^ 20000", "z = 0.5 ^ 30000000");
+
+        DecimalEvaluator evaluator = (DecimalEvaluator) calculator.getNumericEvaluator();
+        assertEquals(new BigDecimal(3).pow(100), evaluator.getVariable("x"));
+        assertEquals(34, evaluator.getVariable("y").precision());
+        assertEquals(0, evaluator.getVariable("y").compareTo(new BigDecimal(3).pow(20000, MathContext.DECIMAL128)));
+        assertEquals(1, evaluator.getVariable("z").signum());
+        long start = System.nanoTime();
+        ArithmeticException exception = assertThrows(ArithmeticException.class, () -> evaluate(calculator, "w = 3 ^ 30000000"));
+        assertTrue(exception.getMessage().contains("too large"), exception.getMessage());
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        assertFalse(evaluator.hasVariable("w"));
+    }
+
+    @Test
+    public void testDecimalResultsAreBounded() throws InvalidInputException {
+        ExpressionCalculatorService calculator = calculator(NumericBackend.DECIMAL);
+        DecimalEvaluator evaluator = (DecimalEvaluator) calculator.getNumericEvaluator();
+        evaluate(calculator, "x = 3 ^ 6000", "x *= x");
+        BigDecimal square = evaluator.getVariable("x");
+        assertEquals(new BigDecimal(3).pow(12000), square);
+        for (String statement : new String[]{"x *= x", "y = x * x", "y = fma(x, x, 1)", "y = x + x * x", "y = x / 0.1 ^ 5000"}) {
+            ArithmeticException exception = assertThrows(ArithmeticException.class, () -> evaluate(calculator, statement));
+            assertTrue(exception.getMessage().contains("too large"), exception.getMessage());
+        }
+        assertSame(square, evaluator.getVariable("x"));
+
+        // Fractions stay exact up to the limit and are then rounded instead of growing further
+        evaluate(calculator, "f = 0.3", "f *= f", "f *= f");
+        assertEquals(new BigDecimal("0.0081"), evaluator.getVariable("f"));
+        for (int i = 0; i < 20; i++) {
+            evaluate(calculator, "f *= f");
+        }
+        assertTrue(evaluator.getVariable("f").precision() <= DecimalLimits.MAX_DIGITS);
+        assertEquals(1, evaluator.getVariable("f").signum());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = NumericBackend.class, names = {"DOUBLE", "LONG", "DECIMAL"})
+    public void testUnassignedVariables(NumericBackend backend) {
+        ExpressionCalculatorService calculator = calculator(backend);
+
+        assertThrows(InvalidInputException.class, () -> evaluate(calculator, "x = unassigned_a + 1"));
+        assertThrows(InvalidInputException.class, () -> evaluate(calculator, "x += 1"));
+        assertThrows(InvalidInputException.class, () -> evaluate(calculator, "x = unassigned_b++"));
+        assertFalse(calculator.getNumericEvaluator().hasVariable("x"));
+    }
+
+    @Test
+    public void testBackendsRejectParallelAndSpreadsheetMode() {
+        ExpressionCalculatorService parallel = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                new TieredExecutionEngine(0), new VariablesManagerService(), 2);
+        assertThrows(IllegalStateException.class, () -> parallel.setNumericBackend(NumericBackend.DOUBLE));
+        parallel.stop();
+
+        ExpressionCalculatorService calculator = calculator(NumericBackend.LONG);
+        assertThrows(IllegalStateException.class, () -> calculator.setSpreadsheetMode(true));
+    }
+}
@@ -0,0 +1,215 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.factories.OperatorFactory;
+import com.calculator.models.PostfixProgram;
+import com.calculator.models.PrecedenceLevel;
+import com.calculator.models.operators.IUnaryOperator;
+import com.calculator.models.operators.MathFunction;
+import com.calculator.models.operators.PluginOperator;
+import com.calculator.services.ColumnarEvaluator;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.SubexpressionDag;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.spi.OperatorDefinition;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class OperatorProviderTest {
+
+    private ExpressionCalculatorService calculator;
+    private VariablesManagerService variables;
+
+    @BeforeEach
+    public void setUp() {
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        variables = calculator.getVariablesManagerService();
+        variables.putVariable("a", 3);
+        variables.putVariable("b", 0.25f);
+    }
+
+    private float evaluate(String statement) throws InvalidInputException {
+        calculator.evaluate(ExpressionParser.parse(statement));
+        return variables.getVariable(ExpressionParser.parse(statement).assignedVariable());
+    }
+
+    @Test
+    public void testProvidersAreLoadedInOrder() {
+        List<String> symbols = OperatorFactory.getPluginOperators().stream().map(PluginOperator::getSymbol).toList();
+        assertEquals(List.of("@", "<?", "~", "half", "hypot", "clamp", "ticks", "reject", "twice"), symbols);
+        for (PluginOperator operator : OperatorFactory.getPluginOperators()) {
+            assertSame(operator, OperatorFactory.getPluginOperator(operator.id()));
+        }
+        assertTrue(OperatorFactory.isOperator("@"));
+        assertTrue(OperatorFactory.isPrefixOperator("~"));
+        assertTrue(OperatorFactory.isFunction("clamp"));
+        assertFalse(OperatorFactory.isOperator("clamp"));
+    }
+
+    @Test
+    public void testConflictingOperatorsAreSkipped() throws InvalidInputException {
+        assertSame(MathFunction.MIN, OperatorFactory.getFunction("min"));
+        assertSame(MathFunction.SQRT, OperatorFactory.getFunction("sqrt"));
+        assertEquals(7, evaluate("x = min(a, 7) + sqrt(16) + 4 @ 0 - 2"));
+        assertEquals(-3, evaluate("x = ~a"));
+        assertEquals(6, evaluate("x = twice(a)"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "x = 2 + 4 @ 8 | 8",
+            "x = 4 @ 8 * 2 | 12",
+            "x = 1 <? 2 + 3 | 4",
+            "x = 5 <? a | 3",
+            "x = ~a ^ 2 | -9",
+            "x = ~a * 2 | -6",
+            "x = 2 * ~3 | -6",
+            "x = ~~a | 3",
+            "x = 5 - ~2 | 7",
+            "x = ~(a + 1) | -4",
+            "x = half(a * 2) | 3",
+            "x = hypot(a, half(8)) | 5",
+            "x = hypot (3,4) * 2 | 10",
+            "x = clamp(a * 10, 0, 5) | 5",
+            "x = clamp(~a, b, 1) | 0.25",
+            "x = 1 + clamp(hypot(a, 4), 0, 2 ^ 3) @ 1 | 4",
+    })
+    public void testOperatorsBindAsDeclared(String statement, float expected) throws InvalidInputException {
+        assertEquals(expected, evaluate(statement));
+    }
+
+    @Test
+    public void testFunctionDoesNotHideVariable() throws InvalidInputException {
+        variables.putVariable("half", 10);
+        assertEquals(15, evaluate("x = half + half(half)"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "x = hypot(1)          | hypot takes 2 arguments, got 1",
+            "x = hypot(1, 2, 3)    | hypot takes 2 arguments, got 3",
+            "x = half()            | half takes 1 arguments, got 0",
+            "x = hypot(1, )        | Not enough values",
+            "x = hypot(, 1)        | Not enough values",
+            "x = 1, 2              | ',' outside of a function call",
+            "x = (1, 2)            | ',' outside of a function call",
+            "x = foo(1)            | unknown function foo",
+            "x = hypot(1, 2        | Mismatched parentheses",
+            "x = 2 @               | Not enough values",
+            "x = ~                 | Not enough values",
+    })
+    public void testInvalidCallsAreRejected(String statement, String message) {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> ExpressionParser.parse(statement));
+        assertTrue(exception.getMessage().contains(message), exception.getMessage());
+    }
+
+    @Test
+    public void testStringTokensResolveCallsAndPrefixOperators() throws InvalidInputException {
+        PostfixProgram program = ProgramCompiler.compile(List.of("~", "hypot", "(", "3", ",", "~", "4", ")", "@", "1"));
+        assertEquals("[3, 4, ~, hypot/2, ~, 1, @]", program.toString());
+    }
+
+    @Test
+    public void testPureOperatorsAreFoldedAndImpureOnesKept() {
+        assertEquals("[2.5, a, *]", ExpressionParser.parse("x = hypot(3, 4) @ 0 * a").program().toString());
+        assertEquals("[ticks/0, 1, +]", ExpressionParser.parse("x = ticks() + 1").program().toString());
+        // A constant argument is folded even if the call is not
+        assertEquals("[a, 2.0, 5, clamp/3]", ExpressionParser.parse("x = clamp(a, 1 + 1, 5)").program().toString());
+    }
+
+    @Test
+    public void testImpureOperatorIsCalledEveryTime() throws InvalidInputException {
+        int before = SampleOperatorProvider.TICKS.get();
+        assertEquals(2 * before + 3, evaluate("x = ticks() + ticks()"));
+
+        SubexpressionDag dag = new SubexpressionDag(variables);
+        dag.beginBatch();
+        before = SampleOperatorProvider.TICKS.get();
+        dag.evaluate(ExpressionParser.parse("y = (ticks() + a) * 2 + (ticks() + a)"));
+        assertEquals((before + 1 + 3) * 2 + (before + 2 + 3), variables.getVariable("y"));
+    }
+
+    @Test
+    public void testPureCallIsSharedBySubexpressionDag() throws InvalidInputException {
+        SubexpressionDag dag = new SubexpressionDag(variables);
+        dag.beginBatch();
+        dag.evaluate(ExpressionParser.parse("x = hypot(a, 4) + 1"));
+        long reused = dag.getReusedNodeCount();
+        dag.evaluate(ExpressionParser.parse("y = hypot(a, 4) * 2"));
+        assertEquals(reused + 1, dag.getReusedNodeCount());
+        assertEquals(10, variables.getVariable("y"));
+        dag.evaluate(ExpressionParser.parse("a = 6"));
+        dag.evaluate(ExpressionParser.parse("z = hypot(a, 8)"));
+        assertEquals(10, variables.getVariable("z"));
+    }
+
+    @Test
+    public void testCompiledTierLeavesOperatorsInterpreted() throws InvalidInputException {
+        ExpressionCalculatorService tiered = new ExpressionCalculatorService(new LinkedBlockingQueue<>(), new TieredExecutionEngine(2));
+        tiered.getVariablesManagerService().putVariable("a", 3);
+        for (int i = 0; i < 5; i++) {
+            tiered.evaluate(ExpressionParser.parse("x = clamp(a, 0, 2) @ 4"));
+            assertEquals(3, tiered.getVariablesManagerService().getVariable("x"));
+        }
+        assertEquals(0, tiered.getExecutionEngine().getCompiledStatementCount());
+    }
+
+    @Test
+    public void testOperatorsAreEvaluatedOverColumns() throws InvalidInputException {
+        int rows = 3000;
+        float[] a = new float[rows];
+        float[] b = new float[rows];
+        for (int i = 0; i < rows; i++) {
+            a[i] = i - 1500;
+            b[i] = i % 7;
+        }
+        float[] output = new float[rows];
+        try (ColumnarEvaluator evaluator = new ColumnarEvaluator(1)) {
+            evaluator.evaluate(ExpressionParser.parse("y = clamp(a, ~b, b) * 2 + hypot(b, 1) @ a"), Map.of("a", a, "b", b), output);
+        }
+        for (int i = 0; i < rows; i++) {
+            variables.putVariable("a", a[i]);
+            variables.putVariable("b", b[i]);
+            assertEquals(evaluate("y = clamp(a, ~b, b) * 2 + hypot(b, 1) @ a"), output[i], "row " + i);
+        }
+    }
+
+    @Test
+    public void testUnaryOperatorsAreCreatedWithoutReflection() {
+        Optional<IUnaryOperator> pre = OperatorFactory.getUnaryOperator("++x");
+        assertTrue(pre.isPresent());
+        assertEquals("x", pre.get().getVariable());
+        assertFalse(pre.get().isPostOperation());
+        Optional<IUnaryOperator> post = OperatorFactory.getUnaryOperator("total_1--");
+        assertTrue(post.isPresent());
+        assertEquals("total_1", post.get().getVariable());
+        assertTrue(post.get().isPostOperation());
+        assertFalse(OperatorFactory.getUnaryOperator("x+").isPresent());
+        assertFalse(OperatorFactory.getUnaryOperator("++").isPresent());
+    }
+
+    @Test
+    public void testInvalidDefinitionsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> OperatorDefinition.binary("a+", PrecedenceLevel.LOW, false, true, (x, y) -> x));
+        assertThrows(IllegalArgumentException.class,
+                () -> OperatorDefinition.binary("<=", PrecedenceLevel.LOW, false, true, (x, y) -> x));
+        assertThrows(IllegalArgumentException.class,
+                () -> OperatorDefinition.prefix("!", PrecedenceLevel.PARENTHESIS, true, x -> x));
+        assertThrows(IllegalArgumentException.class,
+                () -> OperatorDefinition.function("1st", true, x -> x));
+        assertThrows(IllegalArgumentException.class,
+                () -> OperatorDefinition.function("f", -1, true, (operands, from) -> 0));
+        assertEquals(3, OperatorDefinition.function("f", 3, true, (operands, from) -> 0).arity());
+    }
+}
@@ -0,0 +1,138 @@
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.ParallelStatementExecutor;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ParallelStatementExecutorTest {
+
+    private static final String[] ASSIGNMENTS = {"=", "=", "+=", "-=", "*=", "/="};
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "%", "^"};
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 16, 1000})
+    public void testSameFinalStateAsSequentialExecution(int variableCount) {
+        List<Expression> script = randomScript(new Random(variableCount), variableCount, 20_000);
+
+        Map<String, Float> expected = runSequentially(script);
+        VariablesManagerService variables = new VariablesManagerService();
+        try (ParallelStatementExecutor executor = new ParallelStatementExecutor(variables, new TieredExecutionEngine(50), 4)) {
+            for (int from = 0; from < script.size(); from += 2500) {
+                executor.execute(script.subList(from, Math.min(script.size(), from + 2500)));
+            }
+        }
+
+        assertEquals(expected, variables.getVariables());
+    }
+
+    @Test
+    public void testIndependentStatementsRunInParallel() throws Exception {
+        List<Expression> script = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            script.add(ExpressionParser.parse("par_" + i + " = " + i + " * 2"));
+        }
+        for (int i = 0; i < 1000; i++) {
+            script.add(ExpressionParser.parse("par_sum_" + i + " = par_" + i + " + par_" + ((i + 1) % 1000)));
+        }
+        VariablesManagerService variables = new VariablesManagerService();
+        try (ParallelStatementExecutor executor = new ParallelStatementExecutor(variables, new TieredExecutionEngine(0), 4)) {
+            executor.execute(script);
+
+            // The sums read the assigned variables, so they form a second level after the assignments
+            assertTrue(executor.getParallelLevelCount() >= 2);
+            assertEquals(0, executor.getFailedStatementCount());
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i * 2 + ((i + 1) % 1000) * 2, variables.getVariable("par_sum_" + i));
+        }
+    }
+
+    @Test
+    public void testFailedStatementsAreSkipped() throws Exception {
+        VariablesManagerService variables = new VariablesManagerService();
+        try (ParallelStatementExecutor executor = new ParallelStatementExecutor(variables, new TieredExecutionEngine(0), 2)) {
+            executor.execute(List.of(
+                    ExpressionParser.parse("fail_a = 1"),
+                    ExpressionParser.parse("fail_b = fail_missing + 1"),
+                    ExpressionParser.parse("fail_a += 1 / 0"),
+                    ExpressionParser.parse("fail_c = fail_a + 1")));
+
+            assertEquals(2, executor.getFailedStatementCount());
+        }
+        assertEquals(1, variables.getVariable("fail_a"));
+        assertEquals(2, variables.getVariable("fail_c"));
+        assertFalse(variables.hasVariable("fail_b"));
+    }
+
+    @Test
+    public void testCalculatorServiceEvaluatesQueueInParallel() throws Exception {
+        BlockingQueue<Expression> queue = new LinkedBlockingQueue<>();
+        List<Expression> script = randomScript(new Random(7), 32, 5000);
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(queue, new TieredExecutionEngine(100),
+                new VariablesManagerService(), 4);
+        queue.addAll(script);
+        calculator.start();
+        while (!queue.isEmpty()) {
+            Thread.sleep(10);
+        }
+        calculator.stop();
+
+        assertNotNull(calculator.getParallelExecutor());
+        assertEquals(runSequentially(script), calculator.getVariablesManagerService().getVariables());
+    }
+
+    private static Map<String, Float> runSequentially(List<Expression> script) {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                new TieredExecutionEngine(Integer.MAX_VALUE), new VariablesManagerService(), 1);
+        for (Expression expression : script) {
+            try {
+                calculator.evaluate(expression);
+            } catch (Exception e) {
+                // Failed statements are skipped, as in the parallel executor
+            }
+        }
+        return calculator.getVariablesManagerService().getVariables();
+    }
+
+    /**
+     * Generates statements over a fixed set of variables, mixing reads, compound assignments and
+     * increments so that the script has both dependent and independent statements.
+     */
+    private static List<Expression> randomScript(Random random, int variableCount, int length) {
+        List<Expression> script = new ArrayList<>();
+        for (int i = 0; i < variableCount; i++) {
+            script.add(ExpressionParser.parse("dag_" + i + " = " + (i % 7 + 1)));
+        }
+        while (script.size() < length) {
+            StringBuilder statement = new StringBuilder("dag_").append(random.nextInt(variableCount))
+                    .append(' ').append(ASSIGNMENTS[random.nextInt(ASSIGNMENTS.length)]).append(' ');
+            int operands = 1 + random.nextInt(3);
+            for (int i = 0; i < operands; i++) {
+                if (i > 0) {
+                    statement.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ');
+                }
+                String variable = "dag_" + random.nextInt(variableCount);
+                switch (random.nextInt(6)) {
+                    case 0 -> statement.append(random.nextInt(5) + 1);
+                    case 1 -> statement.append(variable).append("++");
+                    case 2 -> statement.append("--").append(variable);
+                    default -> statement.append(variable);
+                }
+            }
+            script.add(ExpressionParser.parse(statement.toString()));
+        }
+        return script;
+    }
+}
@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.models.Expression;
+import com.calculator.utils.ExpressionParser;
+import com.calculator.utils.ParseCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ParseCacheTest {
+
+    // Copies the parsed expression so every miss yields a distinct instance
+    private static Expression parse(String input) {
+        Expression expression = ExpressionParser.parse(input);
+        return new Expression(expression.assignedVariable(), expression.assignmentOperator(), expression.expressionParts());
+    }
+
+    @Test
+    public void testRepeatedInputIsServedFromCache() {
+        ParseCache cache = new ParseCache(10);
+        Expression first = cache.get("x = 1 + 2", ParseCacheTest::parse);
+        Expression second = cache.get("x = 1 + 2", ParseCacheTest::parse);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        ParseCache cache = new ParseCache(2);
+        cache.get("a = 1", ParseCacheTest::parse);
+        cache.get("b = 2", ParseCacheTest::parse);
+        cache.get("a = 1", ParseCacheTest::parse); // 'a' becomes the most recently used
+        cache.get("c = 3", ParseCacheTest::parse);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        cache.get("a = 1", ParseCacheTest::parse);
+        assertEquals(2, cache.getHitCount());
+        cache.get("b = 2", ParseCacheTest::parse);
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testZeroCapacityDisablesCaching() {
+        ParseCache cache = new ParseCache(0);
+        Expression first = cache.get("x = 1", ParseCacheTest::parse);
+        Expression second = cache.get("x = 1", ParseCacheTest::parse);
+
+        assertNotSame(first, second);
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidExpressionIsNotCached() {
+        ParseCache cache = new ParseCache(10);
+        assertThrows(IllegalArgumentException.class, () -> cache.get("123", ParseCacheTest::parse));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCachedExpressionPartsAreImmutable() {
+        Expression expression = ExpressionParser.parse("x = 5 + 3");
+        assertEquals(List.of("5", "+", "3"), expression.expressionParts());
+        assertThrows(UnsupportedOperationException.class, () -> expression.expressionParts().add("1"));
+    }
+}
@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.compiler.ProgramOptimizer;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.models.PostfixProgram;
+import com.calculator.numeric.DecimalEvaluator;
+import com.calculator.numeric.NumericBackend;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class ProgramOptimizerTest {
+
+    private static PostfixProgram optimize(String expression) throws InvalidInputException {
+        return ProgramOptimizer.optimize(ProgramCompiler.compile(ExpressionParser.tokenizeExpression(expression)));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "y * (60 * 60 * 24); [y, 86400.0, *]",
+            "y * 60 * 60; [y, 60, *, 60, *]",
+            "(y * 1) / 1 ^ 1 - 0; [y]",
+            "1 * y + z * 1; [y, z, +]",
+            "y + 0; [y, 0, +]",
+            "y + -0 - z; [y, z, -]",
+            "y ^ 2 + (2 + 1) ^ 2; [y, y, *, 9.0, +]",
+            "(y + 1) ^ 2; [y, 1, +, 2, ^]",
+            "y ^ 3; [y, 3, ^]",
+            "y / (2 - 2); [y, 0.0, /]",
+            "i++ * 1; [i++]"
+    })
+    public void testSimplifications(String expression, String expected) throws InvalidInputException {
+        assertEquals(expected, optimize(expression).toString());
+    }
+
+    @Test
+    public void testUnchangedProgramIsReturned() throws InvalidInputException {
+        PostfixProgram program = ProgramCompiler.compile(ExpressionParser.tokenizeExpression("y * 60 + z"));
+        assertSame(program, ProgramOptimizer.optimize(program));
+        assertSame(program, program.source());
+    }
+
+    @Test
+    public void testOptimizedProgramIsCachedWithExpression() {
+        Expression expression = ExpressionParser.parse("optimized = y * (60 * 60 * 24)");
+        assertEquals("[y, 86400.0, *]", expression.program().toString());
+        assertEquals("[y, 60, 60, *, 24, *, *]", expression.program().source().toString());
+        assertSame(expression, ExpressionParser.parse("optimized = y * (60 * 60 * 24)"));
+    }
+
+    @Test
+    public void testDivisionByConstantZeroStillFails() {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        assertThrows(ArithmeticException.class, () -> calculator.evaluate(ExpressionParser.parse("x = 5 / (1 - 1)")));
+    }
+
+    @Test
+    public void testResultsAreBitIdentical() throws InvalidInputException {
+        String[] expressions = {"a + b * (2 ^ 3)", "a * 1 - 0", "(a - 0) / 1 + b ^ 2", "a ^ 2 - b ^ 1", "1 * a * 1 + (7 % 3) * b",
+                "a / (0.1 + 0.2) ^ 2", "(a ^ 2) ^ 2 - (3 - 5) * a"};
+        float[] values = {0f, -0f, 1f, -1f, 3.7f, -2.5e-3f, 1e30f, -1e-40f, Float.NaN, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.MAX_VALUE, Float.MIN_VALUE};
+        Random random = new Random(42);
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        for (String source : expressions) {
+            Expression optimized = ExpressionParser.parse("r = " + source);
+            assertNotSame(optimized.program(), optimized.program().source(), source);
+            Expression unoptimized = new Expression(optimized.assignedVariable(), optimized.assignedSlot(), optimized.assignmentOperator(),
+                    optimized.expressionParts(), optimized.tokens(), optimized.program().source());
+            for (int i = 0; i < 200; i++) {
+                calculator.getVariablesManagerService().putVariable("a", values[random.nextInt(values.length)]);
+                calculator.getVariablesManagerService().putVariable("b", values[random.nextInt(values.length)]);
+                calculator.evaluate(unoptimized);
+                float expected = calculator.getVariablesManagerService().getVariable("r");
+                calculator.evaluate(optimized);
+                float actual = calculator.getVariablesManagerService().getVariable("r");
+                assertEquals(Float.floatToRawIntBits(expected), Float.floatToRawIntBits(actual), source);
+            }
+        }
+    }
+
+    @Test
+    public void testOtherBackendsRunTheSourceProgram() throws InvalidInputException {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        calculator.setNumericBackend(NumericBackend.DECIMAL);
+        calculator.evaluate(ExpressionParser.parse("x = 0.1 * 3"));
+        assertEquals(new BigDecimal("0.3"), ((DecimalEvaluator) calculator.getNumericEvaluator()).getVariable("x"));
+    }
+}
@@ -0,0 +1,152 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.numeric.NumericBackend;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.utils.ExpressionParser;
+import com.calculator.utils.NumberFormatter;
+import com.calculator.utils.ResultWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class ResultWriterTest {
+
+    private static final DecimalFormat REFERENCE = new DecimalFormat("#.##");
+
+    @ParameterizedTest
+    @ValueSource(floats = {0f, -0f, 0.5f, -0.5f, 0.125f, 0.375f, 0.005f, -0.001f, 1.005f, 2.675f, 0.015f, 0.995f, 99.995f,
+            123456.79f, 16777217f, 1e-45f, 1e16f, 9.1e15f, 1e30f, 3.4e38f, Float.NaN, Float.POSITIVE_INFINITY,
+            Float.NEGATIVE_INFINITY, Float.MAX_VALUE, Float.MIN_NORMAL})
+    public void testFormatMatchesDecimalFormat(float value) {
+        assertEquals(REFERENCE.format(value), NumberFormatter.format(value));
+    }
+
+    @Test
+    public void testRandomFloatsMatchDecimalFormat() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            float value = switch (i % 3) {
+                case 0 -> Float.intBitsToFloat(random.nextInt());
+                case 1 -> (random.nextInt(2_000_001) - 1_000_000) / 1000f;
+                default -> (float) (random.nextGaussian() * Math.pow(10, random.nextInt(20) - 4));
+            };
+            assertEquals(REFERENCE.format(value), NumberFormatter.format(value), Float.toString(value));
+        }
+    }
+
+    @Test
+    public void testRandomDoublesMatchDecimalFormat() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            double value = switch (i % 3) {
+                case 0 -> Double.longBitsToDouble(random.nextLong());
+                case 1 -> (random.nextLong() % 1_000_000_000_000L) / 1000.0 + 0.005;
+                default -> Math.scalb(random.nextDouble() + 1, 30 + random.nextInt(25));
+            };
+            assertEquals(REFERENCE.format(value), NumberFormatter.format(value), Double.toString(value));
+        }
+    }
+
+    private static ExpressionCalculatorService calculator(String... statements) throws InvalidInputException {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        for (String statement : statements) {
+            calculator.evaluate(ExpressionParser.parse(statement));
+        }
+        return calculator;
+    }
+
+    private static byte[] write(ExpressionCalculatorService calculator, ResultWriter.Format format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        calculator.writeResult(new ResultWriter(output, format));
+        return output.toByteArray();
+    }
+
+    @Test
+    public void testTextMatchesPrettyPrint() throws IOException, InvalidInputException {
+        ExpressionCalculatorService calculator = calculator("result_x = 5 + 3", "result_y = result_x / 3", "result_z = 0 - result_y");
+        assertEquals(calculator.prettyPrintResult() + "\n",
+                new String(write(calculator, ResultWriter.Format.TEXT), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCsv() throws IOException, InvalidInputException {
+        ExpressionCalculatorService calculator = calculator("csv_x = 8", "csv_y = 1 / 4");
+        assertEquals("name,value\ncsv_x,8\ncsv_y,0.25\n", new String(write(calculator, ResultWriter.Format.CSV), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testBinary() throws IOException, InvalidInputException {
+        ExpressionCalculatorService calculator = calculator("binary_x = 8", "binary_y = 0.1");
+        ByteBuffer buffer = ByteBuffer.wrap(write(calculator, ResultWriter.Format.BINARY));
+        for (String expected : new String[]{"binary_x", "binary_y"}) {
+            byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(name);
+            assertEquals(expected, new String(name, StandardCharsets.UTF_8));
+            assertEquals(expected.equals("binary_x") ? 8f : 0.1f, buffer.getFloat());
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testLargeResultSpansBuffers() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder("name,value\n");
+        try (ResultWriter writer = new ResultWriter(output, ResultWriter.Format.CSV)) {
+            for (int i = 0; i < 100_000; i++) {
+                writer.write("variable_" + i, i / 8f);
+                NumberFormatter.append(expected.append("variable_").append(i).append(','), i / 8f).append('\n');
+            }
+            assertEquals(100_000, writer.getWrittenVariables());
+        }
+        assertEquals(expected.toString(), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEmptyAndNonAsciiText() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ResultWriter(output, ResultWriter.Format.TEXT).close();
+        assertEquals("()\n", output.toString(StandardCharsets.UTF_8));
+        output.reset();
+        try (ResultWriter writer = new ResultWriter(output, ResultWriter.Format.TEXT)) {
+            writer.write("größe", 1.5f);
+            writer.write("d", "123456789012345678901234567890");
+        }
+        assertEquals("(größe=1" + NumberFormatter.DECIMAL_SEPARATOR + "5,d=123456789012345678901234567890)\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOtherBackendsWriteFormattedValues() throws IOException, InvalidInputException {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        calculator.setNumericBackend(NumericBackend.LONG);
+        calculator.evaluate(ExpressionParser.parse("long_x = 9223372036854775807"));
+        assertEquals("name,value\nlong_x,9223372036854775807\n",
+                new String(write(calculator, ResultWriter.Format.CSV), StandardCharsets.UTF_8));
+        assertThrows(IllegalStateException.class, () -> write(calculator, ResultWriter.Format.BINARY));
+
+        calculator.evaluate(ExpressionParser.parse("long_y = -9223372036854775807 - 1"));
+        assertEquals(new DecimalFormat("#.##").format(Long.MIN_VALUE), ExpressionParser.formatNumber(Long.MIN_VALUE));
+
+        ExpressionCalculatorService decimal = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        decimal.setNumericBackend(NumericBackend.DECIMAL);
+        decimal.evaluate(ExpressionParser.parse("decimal_x = 12345678901234567890.125"));
+        decimal.evaluate(ExpressionParser.parse("decimal_y = 0 - 2 / 3"));
+        assertEquals("name,value\ndecimal_x,12345678901234567890.12\ndecimal_y,-0.67\n",
+                new String(write(decimal, ResultWriter.Format.CSV), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFormatNames() {
+        assertEquals(ResultWriter.Format.CSV, ResultWriter.Format.parse("csv"));
+        assertThrows(IllegalArgumentException.class, () -> ResultWriter.Format.parse("xml"));
+    }
+}
@@ -0,0 +1,198 @@
+import com.calculator.factories.TransportFactory;
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.ExpressionParserProcessor;
+import com.calculator.utils.RingBufferQueue;
+import com.calculator.utils.RingBufferQueue.WaitStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class RingBufferQueueTest {
+
+    @Test
+    public void testFifoOrderAcrossWrapAround() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(3, WaitStrategy.PARK);
+        assertEquals(4, queue.capacity());
+
+        for (int round = 0; round < 10; round++) {
+            assertTrue(queue.offer(round));
+            assertTrue(queue.offer(round + 100));
+            assertEquals(2, queue.size());
+            assertEquals(round, queue.peek());
+            assertEquals(round, queue.poll());
+            assertEquals(round + 100, queue.poll());
+            assertNull(queue.poll());
+        }
+    }
+
+    @Test
+    public void testOfferFailsWhenFull() throws Exception {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(2, WaitStrategy.YIELD);
+
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertFalse(queue.offer(3));
+        assertFalse(queue.offer(3, 10, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals(List.of(1, 2), new ArrayList<>(queue));
+        assertThrows(NullPointerException.class, () -> queue.offer(null));
+    }
+
+    @Test
+    public void testDrainTo() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(8, WaitStrategy.PARK);
+        for (int i = 0; i < 6; i++) {
+            queue.add(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        assertEquals(4, queue.drainTo(drained, 4));
+        assertEquals(2, queue.drainTo(drained));
+        assertEquals(0, queue.drainTo(drained));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testIteratorSkipsConsumedElements() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(4, WaitStrategy.PARK);
+        for (int i = 0; i < 4; i++) {
+            queue.offer(i);
+        }
+        Iterator<Integer> iterator = queue.iterator();
+        assertTrue(iterator.hasNext());
+        assertEquals(0, queue.poll());
+        assertEquals(1, queue.poll());
+        queue.offer(4);
+        // The element read by hasNext is still returned, then the iterator skips past the consumer
+        assertEquals(0, iterator.next());
+        assertEquals(2, iterator.next());
+        assertEquals(3, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void testTimedPollReturnsNullWhenEmpty() throws Exception {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(4, WaitStrategy.PARK);
+
+        long start = System.nanoTime();
+        assertNull(queue.poll(20, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    public void testTakeIsInterruptible(WaitStrategy waitStrategy) throws Exception {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(4, waitStrategy);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                queue.take();
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        consumer.start();
+        Thread.sleep(20);
+        consumer.interrupt();
+        consumer.join(5000);
+
+        assertFalse(consumer.isAlive());
+        assertTrue(thrown.get() instanceof InterruptedException);
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    public void testProducerAndConsumerThreads(WaitStrategy waitStrategy) throws Exception {
+        int count = 200_000;
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(4096, waitStrategy);
+        long[] received = new long[2];
+        Thread consumer = new Thread(() -> {
+            List<Integer> batch = new ArrayList<>();
+            try {
+                while (received[0] < count) {
+                    batch.clear();
+                    batch.add(queue.take());
+                    queue.drainTo(batch, 16);
+                    for (int value : batch) {
+                        // Every element arrives exactly once and in order
+                        assertEquals(received[0]++, value);
+                        received[1] += value;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        for (int i = 0; i < count; i++) {
+            queue.put(i);
+        }
+        consumer.join(30_000);
+
+        assertFalse(consumer.isAlive());
+        assertEquals(count, received[0]);
+        assertEquals((long) count * (count - 1) / 2, received[1]);
+    }
+
+    @Test
+    public void testTransportFactory() {
+        assertTrue(TransportFactory.create("ring", 100, WaitStrategy.YIELD) instanceof RingBufferQueue);
+        assertTrue(TransportFactory.create("BLOCKING", 100, WaitStrategy.YIELD) instanceof LinkedBlockingQueue);
+        assertEquals(WaitStrategy.BUSY_SPIN, TransportFactory.parseWaitStrategy("busy-spin"));
+        assertThrows(IllegalArgumentException.class, () -> TransportFactory.create("pipe", 100, WaitStrategy.PARK));
+        assertThrows(IllegalArgumentException.class, () -> TransportFactory.parseWaitStrategy("sleep"));
+        assertThrows(IllegalArgumentException.class, () -> new RingBufferQueue<>(0, WaitStrategy.PARK));
+    }
+
+    @Test
+    public void testProcessorsHaveSeparateOutputQueues() {
+        ExpressionParserProcessor first = new ExpressionParserProcessor(new LinkedBlockingQueue<>());
+        ExpressionParserProcessor second = new ExpressionParserProcessor(new LinkedBlockingQueue<>());
+
+        assertNotSame(first.getOutputQueue(), second.getOutputQueue());
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    public void testPipelineOverRingBuffer(WaitStrategy waitStrategy) throws Exception {
+        runPipeline(new RingBufferQueue<>(1024, waitStrategy));
+    }
+
+    @Test
+    public void testPipelineOverBlockingQueue() throws Exception {
+        runPipeline(TransportFactory.create(TransportFactory.BLOCKING_QUEUE, 16, WaitStrategy.PARK));
+    }
+
+    private static void runPipeline(BlockingQueue<Expression> transport) throws Exception {
+        BlockingQueue<List<String>> input = new LinkedBlockingQueue<>();
+        ExpressionParserProcessor parser = new ExpressionParserProcessor(input, transport);
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(transport);
+        input.add(List.of("total = 0"));
+        for (int i = 0; i < 100; i++) {
+            List<String> batch = new ArrayList<>();
+            for (int j = 0; j < 50; j++) {
+                batch.add("total += " + (i * 50 + j));
+            }
+            input.add(batch);
+        }
+        parser.start();
+        calculator.start();
+        parser.stop();
+        calculator.stop();
+
+        assertEquals(4999 * 5000 / 2, calculator.getVariablesManagerService().getVariable("total"));
+    }
+}
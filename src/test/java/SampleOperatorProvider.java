@@ -0,0 +1,31 @@
+import com.calculator.models.PrecedenceLevel;
+import com.calculator.spi.OperatorDefinition;
+import com.calculator.spi.OperatorProvider;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The operators of {@link OperatorProviderTest}, registered for every test through
+ * {@code META-INF/services/com.calculator.spi.OperatorProvider}.
+ */
+public class SampleOperatorProvider implements OperatorProvider {
+
+    static final AtomicInteger TICKS = new AtomicInteger();
+
+    @Override
+    public List<OperatorDefinition> getOperators() {
+        return List.of(
+                OperatorDefinition.binary("@", PrecedenceLevel.MEDIUM, false, true, (a, b) -> (a + b) / 2),
+                OperatorDefinition.binary("<?", PrecedenceLevel.LOW, false, true, (a, b) -> a < b ? a : b),
+                OperatorDefinition.prefix("~", PrecedenceLevel.HIGH, true, a -> -a),
+                OperatorDefinition.function("half", true, a -> a / 2),
+                OperatorDefinition.function("hypot", true, (a, b) -> (float) Math.hypot(a, b)),
+                OperatorDefinition.function("clamp", 3, true,
+                        (operands, from) -> Math.max(operands[from + 1], Math.min(operands[from + 2], operands[from]))),
+                OperatorDefinition.function("ticks", 0, false, (operands, from) -> TICKS.incrementAndGet()),
+                // Fails with a message spanning lines for negative values and without a message otherwise
+                OperatorDefinition.function("reject", true, a -> {
+                    throw new IllegalArgumentException(a < 0 ? "Rejected\r\nvalue " + a : null);
+                }));
+    }
+}
@@ -0,0 +1,88 @@
+import com.calculator.utils.ScriptReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ScriptReaderTest {
+
+    private static final String SCRIPT = "x = 1\r\n\n   y = x + 2  \n\t\nz = y * 3";
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @ValueSource(ints = {16, 32, 1024})
+    public void testReadFileSplitsAndTrimsLines(int bufferSize) throws Exception {
+        Path script = write(SCRIPT);
+        List<List<String>> batches = new ArrayList<>();
+
+        long count = new ScriptReader(2, bufferSize, batches::add).read(script);
+
+        assertEquals(3, count);
+        assertEquals(List.of(List.of("x = 1", "y = x + 2"), List.of("z = y * 3")), batches);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 1024})
+    public void testReadChannelSplitsAndTrimsLines(int bufferSize) throws Exception {
+        List<String> statements = new ArrayList<>();
+
+        long count = new ScriptReader(10, bufferSize, statements::addAll).read(channel(SCRIPT));
+
+        assertEquals(3, count);
+        assertEquals(List.of("x = 1", "y = x + 2", "z = y * 3"), statements);
+    }
+
+    @Test
+    public void testExitEndsScript() throws Exception {
+        List<String> statements = new ArrayList<>();
+        String script = "a = 1\nEXIT\nb = 2\n";
+
+        new ScriptReader(10, 16, statements::addAll).read(channel(script));
+        new ScriptReader(10, 16, statements::addAll).read(write(script));
+
+        assertEquals(List.of("a = 1", "a = 1"), statements);
+    }
+
+    @Test
+    public void testLargeScriptAcrossWindows() throws Exception {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            script.append("v").append(i).append(" = ").append(i).append(" + 1\n");
+        }
+        List<String> statements = new ArrayList<>();
+
+        long count = new ScriptReader(1000, 4096, statements::addAll).read(write(script.toString()));
+
+        assertEquals(100_000, count);
+        assertEquals("v0 = 0 + 1", statements.get(0));
+        assertEquals("v99999 = 99999 + 1", statements.get(99_999));
+    }
+
+    @Test
+    public void testLineLongerThanMappedWindow() throws Exception {
+        Path script = write("x = 1 + 2 + 3 + 4\n");
+
+        assertThrows(IOException.class, () -> new ScriptReader(10, 8, batch -> { }).read(script));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(Files.createTempFile(directory, "script", ".txt"), content);
+    }
+
+    private static ReadableByteChannel channel(String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
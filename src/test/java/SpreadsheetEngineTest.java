@@ -0,0 +1,175 @@
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.SpreadsheetEngine;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class SpreadsheetEngineTest {
+    private ExpressionCalculatorService calculator;
+    private SpreadsheetEngine spreadsheet;
+    private VariablesManagerService variables;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        spreadsheet = new SpreadsheetEngine(calculator);
+        variables = calculator.getVariablesManagerService();
+    }
+
+    @Test
+    public void testFormulaTracksInputs() throws InvalidInputException {
+        submit("a = 1", "b = 2", "total = a + b");
+        assertEquals(1, spreadsheet.recompute());
+        assertEquals(3, variables.getVariable("total"));
+
+        submit("a = 10");
+        assertEquals(1, spreadsheet.recompute());
+        assertEquals(12, variables.getVariable("total"));
+        assertNotNull(spreadsheet.getFormula("total"));
+    }
+
+    @Test
+    public void testChainedFormulasRecomputeInTopologicalOrder() throws InvalidInputException {
+        // Defined in reverse order, so only a topological order gives the right result in one pass
+        submit("d = c * 2", "c = b + 1", "b = a + 1", "a = 1");
+        spreadsheet.recompute();
+        assertEquals(6, variables.getVariable("d"));
+
+        submit("a = 5");
+        assertEquals(3, spreadsheet.recompute());
+        assertEquals(7, variables.getVariable("c"));
+        assertEquals(14, variables.getVariable("d"));
+    }
+
+    @Test
+    public void testOnlyAffectedFormulasAreRecomputed() throws InvalidInputException {
+        submit("x = 1", "y = 1", "fx = x * 2", "fy = y * 3", "fxy = fx + fy");
+        assertEquals(3, spreadsheet.recompute());
+
+        submit("y = 2");
+        assertEquals(2, spreadsheet.recompute());
+        assertEquals(2, variables.getVariable("fx"));
+        assertEquals(8, variables.getVariable("fxy"));
+        assertEquals(0, spreadsheet.recompute());
+    }
+
+    @Test
+    public void testRepeatedChangesAreCoalesced() throws InvalidInputException {
+        submit("a = 1", "b = 1", "sum = a + b", "twice = sum * 2");
+        spreadsheet.recompute();
+        long before = spreadsheet.getRecomputedFormulaCount();
+
+        submit("a = 2", "a = 3", "b += 1", "unrelated = a++");
+        assertTrue(spreadsheet.hasPendingChanges());
+        spreadsheet.recompute();
+
+        assertEquals(2, spreadsheet.getRecomputedFormulaCount() - before);
+        assertEquals(6, variables.getVariable("sum"));
+        assertEquals(12, variables.getVariable("twice"));
+    }
+
+    @Test
+    public void testIncrementOfAnotherVariableIsAnInputChange() throws InvalidInputException {
+        submit("i = 1", "j = 0", "next = i + 1");
+        spreadsheet.recompute();
+
+        submit("j = i++");
+        spreadsheet.recompute();
+        assertEquals(3, variables.getVariable("next"));
+        assertNull(spreadsheet.getFormula("j"));
+    }
+
+    @Test
+    public void testAssignmentReplacesFormula() throws InvalidInputException {
+        submit("a = 1", "b = a + 1", "c = b * 10");
+        spreadsheet.recompute();
+
+        submit("b = 7", "a = 100");
+        spreadsheet.recompute();
+        assertNull(spreadsheet.getFormula("b"));
+        assertEquals(7, variables.getVariable("b"));
+        assertEquals(70, variables.getVariable("c"));
+        assertEquals(1, spreadsheet.getFormulaCount());
+    }
+
+    @Test
+    public void testCircularReferencesAreRejected() throws InvalidInputException {
+        submit("a = 1", "b = a + 1", "c = b + 1");
+
+        assertThrows(InvalidInputException.class, () -> spreadsheet.submit(ExpressionParser.parse("a = c + 1")));
+        assertThrows(InvalidInputException.class, () -> spreadsheet.submit(ExpressionParser.parse("d = d + 1")));
+        spreadsheet.recompute();
+        assertEquals(3, variables.getVariable("c"));
+        assertNull(spreadsheet.getFormula("a"));
+    }
+
+    @Test
+    public void testFormulaWithMissingInputIsRetriedWhenInputAppears() throws InvalidInputException {
+        submit("late = missing_input * 2");
+        spreadsheet.recompute();
+        assertEquals(1, spreadsheet.getFailedFormulaCount());
+        assertFalse(variables.hasVariable("late"));
+
+        submit("missing_input = 4");
+        spreadsheet.recompute();
+        assertEquals(8, variables.getVariable("late"));
+    }
+
+    @Test
+    public void testInputChangeReadsPendingFormulas() throws InvalidInputException {
+        // All submitted before a single recomputation, as in one batch
+        submit("a = 1", "total = a * 2", "other = a + 1", "a = 5", "y = 0", "y += total", "z = 1", "z += total");
+        assertEquals(1, spreadsheet.getRecomputedFormulaCount());
+        assertEquals(10, variables.getVariable("y"));
+        assertEquals(11, variables.getVariable("z"));
+
+        assertEquals(1, spreadsheet.recompute());
+        assertEquals(6, variables.getVariable("other"));
+        assertEquals(10, variables.getVariable("total"));
+
+        submit("a = 1", "total += 1", "w = 0", "w += other");
+        assertEquals(2, variables.getVariable("w"));
+        assertEquals(3, variables.getVariable("total"));
+        assertNull(spreadsheet.getFormula("total"));
+    }
+
+    @Test
+    public void testInputChangeSeesSameValuesAcrossBatches() throws InvalidInputException {
+        submit("a = 1", "total = a * 2", "y = 0");
+        spreadsheet.recompute();
+        submit("a = 5", "y += total");
+        spreadsheet.recompute();
+        assertEquals(10, variables.getVariable("y"));
+    }
+
+    @Test
+    public void testSpreadsheetModeInCalculatorService() throws Exception {
+        BlockingQueue<Expression> queue = new LinkedBlockingQueue<>();
+        ExpressionCalculatorService service = new ExpressionCalculatorService(queue);
+        service.setSpreadsheetMode(true);
+        service.start();
+        for (String statement : new String[]{"price = 2", "quantity = 3", "cost = price * quantity", "quantity = 5"}) {
+            queue.add(ExpressionParser.parse(statement));
+        }
+        while (!queue.isEmpty()) {
+            Thread.sleep(10);
+        }
+        service.stop();
+
+        assertEquals(10, service.getVariablesManagerService().getVariable("cost"));
+        assertEquals(1, service.getSpreadsheetEngine().getFormulaCount());
+    }
+
+    private void submit(String... statements) throws InvalidInputException {
+        for (String statement : statements) {
+            spreadsheet.submit(ExpressionParser.parse(statement));
+        }
+    }
+}
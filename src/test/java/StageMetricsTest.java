@@ -0,0 +1,159 @@
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.metrics.LatencyHistogram;
+import com.calculator.metrics.StageMetrics;
+import com.calculator.models.Expression;
+import com.calculator.services.CalculatorSession;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.ExpressionParserProcessor;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class StageMetricsTest {
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 10L);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(500_000, histogram.percentile(0.5), 500_000 * 0.04);
+        assertEquals(990_000, histogram.percentile(0.99), 990_000 * 0.04);
+        assertEquals(999_000, histogram.percentile(0.999), 999_000 * 0.04);
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_005, histogram.getMean(), 0.001);
+    }
+
+    @Test
+    public void testSmallAndHugeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(0.99));
+
+        histogram.record(-5);
+        histogram.record(7);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.percentile(0.3));
+        assertEquals(7, histogram.percentile(0.5));
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+        assertTrue(histogram.percentile(1) > 1L << 40);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void testLatenciesAreSampledPerBatchPosition() {
+        assertTrue(StageMetrics.isSampled(0));
+        assertFalse(StageMetrics.isSampled(1));
+        assertFalse(StageMetrics.isSampled(StageMetrics.DEFAULT_LATENCY_SAMPLING - 1));
+        assertTrue(StageMetrics.isSampled(StageMetrics.DEFAULT_LATENCY_SAMPLING));
+    }
+
+    @Test
+    public void testFailuresAreCountedByCause() {
+        StageMetrics metrics = new StageMetrics("test", () -> 0);
+        metrics.recordFailure(new ArithmeticException());
+        metrics.recordFailure(new IllegalStateException());
+        metrics.recordFailure(new ArithmeticException());
+
+        assertEquals(3, metrics.getFailureCount());
+        assertEquals(Map.of("ArithmeticException", 2L, "IllegalStateException", 1L), metrics.getFailureCounts());
+        assertTrue(metrics.summary().contains("3 failures {ArithmeticException=2, IllegalStateException=1}"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getFailureCount());
+    }
+
+    @Test
+    public void testPipelineRecordsEveryStatement() throws Exception {
+        BlockingQueue<List<String>> input = new LinkedBlockingQueue<>();
+        ExpressionParserProcessor parser = new ExpressionParserProcessor(input, new LinkedBlockingQueue<>());
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(parser.getOutputQueue(),
+                new TieredExecutionEngine(Integer.MAX_VALUE), new VariablesManagerService(), 1);
+        parser.start();
+        calculator.start();
+        input.put(List.of("x = 1", "y = x / 0", "z = 2 +", "w = undefined + 1"));
+        input.put(List.of("x += 1"));
+        parser.stop();
+        calculator.stop();
+
+        StageMetrics parsing = parser.getMetrics();
+        assertEquals(5, parsing.getProcessedCount());
+        assertEquals(1, parsing.getFailureCount());
+        assertEquals(0, parsing.getQueueDepth());
+        assertTrue(parsing.getWorkingNanos() > 0);
+
+        StageMetrics evaluation = calculator.getMetrics();
+        assertEquals(4, evaluation.getProcessedCount());
+        assertEquals(Map.of("ArithmeticException", 1L, "InvalidInputException", 1L), evaluation.getFailureCounts());
+        assertTrue(evaluation.getLatencyP50Nanos() > 0);
+        assertTrue(evaluation.getLatencyP999Nanos() <= evaluation.getLatencyMaxNanos());
+        assertTrue(evaluation.getWorkingRatio() > 0 && evaluation.getWorkingRatio() <= 1);
+        assertEquals(2f, calculator.getVariablesManagerService().getVariable("x"));
+    }
+
+    @Test
+    public void testParallelEvaluatorsShareMetrics() throws Exception {
+        BlockingQueue<Expression> queue = new LinkedBlockingQueue<>();
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(queue,
+                new TieredExecutionEngine(Integer.MAX_VALUE), new VariablesManagerService(), 4);
+        for (int i = 0; i < 1000; i++) {
+            queue.add(ExpressionParser.parse("metrics_" + i + " = " + i + " * 2"));
+        }
+        queue.add(ExpressionParser.parse("metrics_0 = metrics_unassigned"));
+        calculator.start();
+        calculator.stop();
+
+        assertSame(calculator.getMetrics(), calculator.getParallelExecutor().getMetrics());
+        assertEquals(1001, calculator.getMetrics().getProcessedCount());
+        assertEquals(1, calculator.getMetrics().getFailureCount());
+    }
+
+    @Test
+    public void testMetricsArePublishedWhileRunning() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        BlockingQueue<Expression> queue = new LinkedBlockingQueue<>();
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(queue);
+        ObjectName name = calculator.getMetrics().getObjectName();
+        assertFalse(server.isRegistered(name));
+
+        calculator.start();
+        queue.add(ExpressionParser.parse("published = 1"));
+        while (calculator.getMetrics().getProcessedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        assertTrue(server.isRegistered(name));
+        assertEquals("calculator", server.getAttribute(name, "Stage"));
+        assertEquals(1L, server.getAttribute(name, "ProcessedCount"));
+        assertEquals(0, server.getAttribute(name, "QueueDepth"));
+        assertNotNull(server.getAttribute(name, "LatencyP99Nanos"));
+
+        calculator.stop();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testSessionsRecordStatements() {
+        StageMetrics metrics = new StageMetrics("session", () -> 0);
+        CalculatorSession session = new CalculatorSession(TieredExecutionEngine.fromSystemProperties(), metrics);
+        session.handle("x = 1");
+        session.handle("x = 1 / 0");
+        session.handle("print");
+
+        assertEquals(2, metrics.getProcessedCount());
+        assertEquals(1, metrics.getFailureCount());
+    }
+}
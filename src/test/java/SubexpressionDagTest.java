@@ -0,0 +1,179 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.Expression;
+import com.calculator.numeric.NumericBackend;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.SubexpressionDag;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class SubexpressionDagTest {
+
+    private VariablesManagerService variables;
+    private SubexpressionDag dag;
+
+    @BeforeEach
+    public void setUp() {
+        variables = new VariablesManagerService();
+        dag = new SubexpressionDag(variables);
+        dag.beginBatch();
+    }
+
+    private void run(String... statements) throws InvalidInputException {
+        for (String statement : statements) {
+            dag.evaluate(ExpressionParser.parse(statement));
+        }
+    }
+
+    @Test
+    public void testRepeatedSubexpressionIsComputedOnce() throws InvalidInputException {
+        run("a = 1", "b = 2", "c = 3");
+        long computedBefore = dag.getComputedNodeCount();
+        run("x = (a + b) * c", "y = (a + b) * c + 1", "z = 2 * ((a + b) * c)");
+        assertEquals(9, variables.getVariable("x"));
+        assertEquals(10, variables.getVariable("y"));
+        assertEquals(18, variables.getVariable("z"));
+        // (a + b), (a + b) * c, ... + 1 and 2 * ...
+        assertEquals(4, dag.getComputedNodeCount() - computedBefore);
+        assertEquals(2, dag.getReusedNodeCount());
+    }
+
+    @Test
+    public void testReparsedStatementsAreBounded() throws InvalidInputException {
+        run("a = 1");
+        Expression parsed = ExpressionParser.parse("x = (a + 1) * 2");
+        for (int i = 0; i <= SubexpressionDag.MAX_NODES; i++) {
+            // A new program for the same statement, as if it was parsed again after leaving the parse cache
+            dag.evaluate(new Expression(parsed.assignedVariable(), parsed.assignedSlot(), parsed.assignmentOperator(),
+                    parsed.expressionParts(), parsed.tokens(), ProgramCompiler.compileTokens(parsed.tokens())));
+        }
+        int nodes = dag.getNodeCount();
+        assertEquals(SubexpressionDag.MAX_NODES + 2, dag.getRootCount());
+        assertTrue(nodes < 10, "nodes: " + nodes);
+        dag.beginBatch();
+        assertEquals(0, dag.getRootCount());
+        run("x = (a + 1) * 2");
+        assertEquals(1, dag.getRootCount());
+        assertEquals(nodes, dag.getNodeCount());
+        assertEquals(4, variables.getVariable("x"));
+    }
+
+    @Test
+    public void testAssignmentInvalidatesReaders() throws InvalidInputException {
+        run("a = 1", "b = 2", "c = 3", "x = (a + b) * c", "a = 5", "y = (a + b) * c", "c += 1", "z = (a + b) * c");
+        assertEquals(9, variables.getVariable("x"));
+        assertEquals(21, variables.getVariable("y"));
+        assertEquals(28, variables.getVariable("z"));
+    }
+
+    @Test
+    public void testAssignmentToOtherVariableKeepsValue() throws InvalidInputException {
+        run("a = 1", "b = 2", "x = (a + b) * 2", "c = 7");
+        long reusedBefore = dag.getReusedNodeCount();
+        run("y = (a + b) * 2");
+        assertEquals(6, variables.getVariable("y"));
+        assertEquals(1, dag.getReusedNodeCount() - reusedBefore);
+    }
+
+    @Test
+    public void testIncrementWithinStatementInvalidates() throws InvalidInputException {
+        run("i = 1", "x = (i + 1) + i++ + (i + 1)", "y = (i * 2) - --i * (i * 2)");
+        assertEquals(6, variables.getVariable("x"));
+        assertEquals(6 - 1 * 4, variables.getVariable("y"));
+        assertEquals(1, variables.getVariable("i"));
+    }
+
+    @Test
+    public void testIncrementIsEvaluatedEveryTime() throws InvalidInputException {
+        run("i = 0", "x = i++ + 1", "y = i++ + 1", "z = i++ + 1");
+        assertEquals(3, variables.getVariable("i"));
+        assertEquals(3, variables.getVariable("z"));
+    }
+
+    @Test
+    public void testNewBatchSeesOutsideWrites() throws InvalidInputException {
+        run("a = 1", "x = a * 10");
+        variables.putVariable("a", 2);
+        dag.beginBatch();
+        run("y = a * 10");
+        assertEquals(20, variables.getVariable("y"));
+    }
+
+    @Test
+    public void testFailedStatementDoesNotPoisonCache() throws InvalidInputException {
+        run("a = 4");
+        assertThrows(InvalidInputException.class, () -> run("x = (a + 1) * missing"));
+        assertThrows(ArithmeticException.class, () -> run("x = (a + 1) / (a - 4)"));
+        run("missing = 2", "x = (a + 1) * missing");
+        assertEquals(10, variables.getVariable("x"));
+    }
+
+    @Test
+    public void testResultsMatchInterpreter() throws InvalidInputException {
+        String[] names = {"a", "b", "c", "i"};
+        String[] templates = {"(%1$s + %2$s) * %3$s", "(%1$s + %2$s) * %3$s - %1$s / 3", "%1$s++ + (%1$s + %2$s)",
+                "(%2$s * %3$s) %% 7 + --%1$s", "(%1$s + %2$s) ^ 2", "(%2$s * %3$s) - (%1$s + %2$s)", "%1$s--"};
+        String[] operators = {"=", "+=", "-=", "*="};
+        Random random = new Random(42);
+        List<String> script = new ArrayList<>();
+        for (String name : names) {
+            script.add(name + " = " + (random.nextInt(5) + 1));
+        }
+        for (int i = 0; i < 400; i++) {
+            String template = templates[random.nextInt(templates.length)];
+            script.add(names[random.nextInt(names.length)] + " " + operators[random.nextInt(operators.length)] + " "
+                    + String.format(template, names[random.nextInt(names.length)], names[random.nextInt(names.length)],
+                    names[random.nextInt(names.length)]));
+        }
+        ExpressionCalculatorService interpreter = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        for (String statement : script) {
+            Expression expression = ExpressionParser.parse(statement);
+            interpreter.evaluate(expression);
+            dag.evaluate(expression);
+            for (String name : names) {
+                if (!interpreter.getVariablesManagerService().hasVariable(name)) {
+                    continue;
+                }
+                assertEquals(Float.floatToRawIntBits(interpreter.getVariablesManagerService().getVariable(name)),
+                        Float.floatToRawIntBits(variables.getVariable(name)), statement);
+            }
+        }
+        assertTrue(dag.getReusedNodeCount() > 0);
+    }
+
+    @Test
+    public void testServiceSharesSubexpressionsPerBatch() throws InvalidInputException {
+        LinkedBlockingQueue<Expression> queue = new LinkedBlockingQueue<>();
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(queue);
+        calculator.setSubexpressionSharing(true);
+        for (String statement : List.of("a = 2", "b = 3", "x = (a + b) * a", "a += 1", "y = (a + b) * a")) {
+            queue.add(ExpressionParser.parse(statement));
+        }
+        calculator.start();
+        calculator.stop();
+        assertEquals(10, calculator.getVariablesManagerService().getVariable("x"));
+        assertEquals(18, calculator.getVariablesManagerService().getVariable("y"));
+        assertNotNull(calculator.getSubexpressionDag());
+    }
+
+    @Test
+    public void testSharingRequiresSequentialFloatEvaluation() {
+        ExpressionCalculatorService calculator = new ExpressionCalculatorService(new LinkedBlockingQueue<>());
+        calculator.setSubexpressionSharing(true);
+        assertThrows(IllegalStateException.class, () -> calculator.setSpreadsheetMode(true));
+        assertThrows(IllegalStateException.class, () -> calculator.setNumericBackend(NumericBackend.DOUBLE));
+        ExpressionCalculatorService parallel = new ExpressionCalculatorService(new LinkedBlockingQueue<>(),
+                TieredExecutionEngine.fromSystemProperties(), new VariablesManagerService(), 2);
+        assertThrows(IllegalStateException.class, () -> parallel.setSubexpressionSharing(true));
+    }
+}
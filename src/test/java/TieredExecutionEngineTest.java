@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.calculator.compiler.CompiledStatement;
+import com.calculator.compiler.ExpressionCompiler;
+import com.calculator.compiler.ProgramCompiler;
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.PostfixProgram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TieredExecutionEngineTest {
+
+    private static Stream<Object[]> provideExpressions() {
+        return Stream.of(
+                new Object[]{List.of("5", "+", "3", "*", "10"), 35f},
+                new Object[]{List.of("(", "5", "+", "3", ")", "*", "10"), 80f},
+                new Object[]{List.of("5", "%", "3", "^", "10"), 5f},
+                new Object[]{List.of("10", "-", "4", "-", "3"), 3f},
+                new Object[]{List.of("2", "^", "3", "^", "2"), 512f},
+                new Object[]{List.of("16", "/", "4", "/", "2"), 2f},
+                new Object[]{List.of("-0.5", "*", "300"), -150f}
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideExpressions")
+    public void testCompiledExpressionResult(List<String> expressionParts, float expectedResult) throws Exception {
+        CompiledStatement compiled = new ExpressionCompiler().compile(ProgramCompiler.compile(expressionParts));
+        assertEquals(0, compiled.variableNames().length);
+        assertEquals(expectedResult, compiled.expression().evaluate(new float[0]));
+    }
+
+    @Test
+    public void testCompiledExpressionReadsVariables() throws Exception {
+        CompiledStatement compiled = new ExpressionCompiler().compile(ProgramCompiler.compile(List.of("a", "*", "(", "b", "+", "a", ")")));
+        assertArrayEquals(new String[]{"a", "b"}, compiled.variableNames());
+        assertEquals(15f, compiled.expression().evaluate(new float[]{3, 2}));
+    }
+
+    @Test
+    public void testCompiledDivisionByZero() throws Exception {
+        CompiledStatement compiled = new ExpressionCompiler().compile(ProgramCompiler.compile(List.of("1", "/", "0")));
+        assertThrows(ArithmeticException.class, () -> compiled.expression().evaluate(new float[0]));
+    }
+
+    @Test
+    public void testUnaryOperatorsAreNotCompiled() throws Exception {
+        PostfixProgram program = ProgramCompiler.compile(List.of("i++", "+", "1"));
+        assertThrows(InvalidInputException.class, () -> new ExpressionCompiler().compile(program));
+    }
+
+    @Test
+    public void testStatementIsCompiledAfterThreshold() throws InvalidInputException {
+        TieredExecutionEngine engine = new TieredExecutionEngine(2);
+        PostfixProgram program = ProgramCompiler.compile(List.of("1", "+", "2"));
+
+        assertNull(engine.select(program));
+        assertNull(engine.select(program));
+        assertNotNull(engine.select(program));
+        assertEquals(1, engine.getCompiledStatementCount());
+        assertEquals(2, engine.getInterpretedExecutionCount());
+        assertEquals(1, engine.getCompiledExecutionCount());
+    }
+
+    @Test
+    public void testFailedCompilationFallsBackToInterpreter() throws InvalidInputException {
+        TieredExecutionEngine engine = new TieredExecutionEngine(0);
+        PostfixProgram program = ProgramCompiler.compile(List.of("++i"));
+
+        assertNull(engine.select(program));
+        assertNull(engine.select(program));
+        assertEquals(1, engine.getFailedCompilationCount());
+        assertEquals(0, engine.getCompiledStatementCount());
+        assertEquals(2, engine.getInterpretedExecutionCount());
+    }
+
+    @Test
+    public void testColdProfilesAreEvicted() throws InvalidInputException {
+        TieredExecutionEngine engine = new TieredExecutionEngine(2);
+        PostfixProgram hot = ProgramCompiler.compile(List.of("a", "+", "1"));
+        for (int i = 0; i < 3; i++) {
+            engine.select(hot);
+        }
+        for (int i = 0; i < 2 * TieredExecutionEngine.MAX_PROFILED_STATEMENTS; i++) {
+            assertNull(engine.select(ProgramCompiler.compile(List.of("a", "*", String.valueOf(i)))));
+            if (i % 64 == 0) {
+                assertNotNull(engine.select(hot));
+            }
+        }
+        assertTrue(engine.getEvictionCount() > 0);
+        assertTrue(engine.getProfiledStatementCount() <= TieredExecutionEngine.MAX_PROFILED_STATEMENTS);
+
+        PostfixProgram late = ProgramCompiler.compile(List.of("a", "-", "1"));
+        assertNull(engine.select(late));
+        assertNull(engine.select(late));
+        assertNotNull(engine.select(late));
+        assertEquals(2, engine.getCompiledStatementCount());
+    }
+}
@@ -0,0 +1,201 @@
+import com.calculator.compiler.TieredExecutionEngine;
+import com.calculator.exceptions.InvalidInputException;
+import com.calculator.models.AssignmentOperator;
+import com.calculator.models.Expression;
+import com.calculator.services.ExpressionCalculatorService;
+import com.calculator.services.VariablesManagerService;
+import com.calculator.utils.ExpressionParser;
+import com.calculator.utils.SymbolTable;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class VariablesManagerServiceTest {
+
+    @Test
+    public void testNamesAndSlotsAddressTheSameValue() throws InvalidInputException {
+        VariablesManagerService variables = new VariablesManagerService();
+        int slot = SymbolTable.intern("slot_a");
+
+        variables.putVariable("slot_a", 1.5f);
+        assertEquals(1.5f, variables.getVariable(slot));
+        variables.putVariable(slot, 2.5f);
+        assertEquals(2.5f, variables.getVariable("slot_a"));
+        assertTrue(variables.hasVariable(slot));
+        assertEquals("slot_a", SymbolTable.nameOf(slot));
+        assertEquals(slot, SymbolTable.intern("slot_a"));
+    }
+
+    @Test
+    public void testMissingVariable() {
+        VariablesManagerService variables = new VariablesManagerService();
+        int slot = SymbolTable.intern("slot_missing");
+
+        assertFalse(variables.hasVariable(slot));
+        assertFalse(variables.hasVariable("slot_never_interned"));
+        Exception exception = assertThrows(InvalidInputException.class, () -> variables.getVariable(slot));
+        assertEquals("Variable slot_missing is not found", exception.getMessage());
+        assertThrows(InvalidInputException.class, () -> variables.getVariable("slot_never_interned"));
+        assertEquals(-1, SymbolTable.slotOf("slot_never_interned"));
+    }
+
+    @Test
+    public void testStorageGrowsAndKeepsAssignmentOrder() throws InvalidInputException {
+        VariablesManagerService variables = new VariablesManagerService();
+        int count = 10_000;
+        for (int i = count - 1; i >= 0; i--) {
+            variables.putVariable("slot_grow_" + i, i);
+        }
+
+        Map<String, Float> snapshot = variables.getVariables();
+        assertEquals(count, snapshot.size());
+        assertEquals(List.of("slot_grow_" + (count - 1), "slot_grow_" + (count - 2)),
+                snapshot.keySet().stream().limit(2).toList());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, variables.getVariable("slot_grow_" + i));
+        }
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put("slot_grow_0", 1f));
+    }
+
+    @Test
+    public void testServicesDoNotShareValues() throws InvalidInputException {
+        VariablesManagerService first = new VariablesManagerService();
+        VariablesManagerService second = new VariablesManagerService();
+
+        first.putVariable("slot_shared", 1);
+
+        assertEquals(1, first.getVariable("slot_shared"));
+        assertFalse(second.hasVariable("slot_shared"));
+        assertTrue(second.getVariables().isEmpty());
+    }
+
+    @Test
+    public void testCompoundUpdatesAreAtomic() throws Exception {
+        VariablesManagerService variables = new VariablesManagerService();
+        int counter = SymbolTable.intern("slot_counter");
+        int product = SymbolTable.intern("slot_product");
+        variables.putVariable(counter, 0);
+        variables.putVariable(product, 1);
+        int threads = 8;
+        int iterations = 20_000;
+
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < iterations; i++) {
+                variables.addToVariable(counter, 1, true);
+                variables.applyAssignment(counter, AssignmentOperator.ADD_ASSIGN, 2);
+                variables.applyAssignment(product, AssignmentOperator.MULTIPLY_ASSIGN, -1);
+            }
+            return null;
+        });
+
+        assertEquals(threads * iterations * 3f, variables.getVariable(counter));
+        assertEquals(1f, variables.getVariable(product));
+    }
+
+    @Test
+    public void testCompoundAssignmentRequiresVariable() {
+        VariablesManagerService variables = new VariablesManagerService();
+        int slot = SymbolTable.intern("slot_uninitialized");
+
+        assertThrows(InvalidInputException.class, () -> variables.applyAssignment(slot, AssignmentOperator.ADD_ASSIGN, 1));
+        assertThrows(InvalidInputException.class, () -> variables.addToVariable(slot, 1, false));
+        assertFalse(variables.hasVariable(slot));
+    }
+
+    @Test
+    public void testSnapshotIsConsistent() throws Exception {
+        VariablesManagerService variables = new VariablesManagerService();
+        int first = SymbolTable.intern("slot_first");
+        int second = SymbolTable.intern("slot_second");
+        variables.putVariable(first, 0);
+        variables.putVariable(second, 0);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        // The writer keeps slot_first equal to slot_second or one ahead of it
+        Thread writer = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    variables.addToVariable(first, 1, false);
+                    variables.addToVariable(second, 1, false);
+                }
+            } catch (InvalidInputException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 10_000; i++) {
+                Map<String, Float> snapshot = variables.getVariables();
+                float difference = snapshot.get("slot_first") - snapshot.get("slot_second");
+                assertTrue(difference == 0 || difference == 1, "Inconsistent snapshot " + snapshot);
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    @Test
+    public void testConcurrentGrowth() throws Exception {
+        VariablesManagerService variables = new VariablesManagerService();
+        int threads = 4;
+        int perThread = 5_000;
+
+        runConcurrently(threads, () -> {
+            String prefix = "slot_concurrent_" + Thread.currentThread().getId() + "_";
+            for (int i = 0; i < perThread; i++) {
+                variables.putVariable(prefix + i, i);
+            }
+            for (int i = 0; i < perThread; i++) {
+                assertEquals(i, variables.getVariable(prefix + i));
+            }
+            return null;
+        });
+
+        assertEquals(threads * perThread, variables.getVariables().size());
+    }
+
+    @Test
+    public void testCalculatorsShareVariables() throws Exception {
+        VariablesManagerService variables = new VariablesManagerService();
+        variables.putVariable("slot_total", 0);
+        variables.putVariable("slot_steps", 0);
+        Expression add = ExpressionParser.parse("slot_total += 2");
+        Expression step = ExpressionParser.parse("slot_last = slot_steps++");
+        int workers = 4;
+        int iterations = 10_000;
+
+        runConcurrently(workers, () -> {
+            ExpressionCalculatorService calculator = new ExpressionCalculatorService(
+                    new LinkedBlockingQueue<>(), new TieredExecutionEngine(100), variables);
+            for (int i = 0; i < iterations; i++) {
+                calculator.evaluate(add);
+                calculator.evaluate(step);
+            }
+            return null;
+        });
+
+        assertEquals(2f * workers * iterations, variables.getVariable("slot_total"));
+        assertEquals((float) workers * iterations, variables.getVariable("slot_steps"));
+    }
+
+    private static void runConcurrently(int threads, Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}